@@ -0,0 +1,530 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.annotation.concurrent.RunBackground;
+import patterntesting.annotation.concurrent.RunBackground.Mode;
+import patterntesting.runtime.jmx.MBeanHelper;
+import patterntesting.runtime.util.Environment;
+
+/**
+ * The BackgroundExecutor executes the methods which are annotated with
+ * {@link RunBackground}. There is one executor for each {@link Mode}:
+ * <ul>
+ * <li>THREAD: each job gets its own new thread,</li>
+ * <li>POOL: the jobs are executed by a bounded thread pool with a bounded
+ * queue,</li>
+ * <li>VIRTUAL: each job gets its own virtual thread (Java 21 or later).</li>
+ * </ul>
+ * The pool can be configured with the system properties
+ * "patterntesting.runBackground.poolSize" (default is 2 * number of
+ * processors), "patterntesting.runBackground.queueSize" (default 1000) and
+ * "patterntesting.runBackground.rejection" which decides what happens if the
+ * queue is full: CALLER_RUNS (default) runs the job in the calling thread,
+ * ABORT throws a {@link java.util.concurrent.RejectedExecutionException},
+ * DISCARD drops the job.
+ * <p>
+ * Each executor is registered as MBean with the counters for submitted,
+ * active, completed, failed and rejected jobs.
+ * </p>
+ * <p>
+ * Jobs with a result can be started with {@link #submit(Callable)}. The
+ * returned {@link CompletableFuture} is completed by the background job.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class BackgroundExecutor implements BackgroundExecutorMBean {
+
+	/** The rejection policies if the queue of the pool is full. */
+	public enum Rejection {
+
+		/** The job is executed by the calling thread. */
+		CALLER_RUNS,
+
+		/** A RejectedExecutionException is thrown. */
+		ABORT,
+
+		/** The job is dropped. */
+		DISCARD
+
+	}
+
+	private static final Logger LOG = LoggerFactory.getLogger(BackgroundExecutor.class);
+	private static final Map<Mode, BackgroundExecutor> EXECUTORS = new ConcurrentHashMap<>();
+	private static final boolean VIRTUAL_THREADS_AVAILABLE = isVirtualThreadAvailable();
+	private final Mode mode;
+	private final ExecutorService executor;
+	private final AtomicInteger threadNumber = new AtomicInteger();
+	private final Set<Thread> activeJobs = ConcurrentHashMap.newKeySet();
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Instantiates a new executor which starts a new thread for each job.
+	 */
+	BackgroundExecutor() {
+		this.mode = Mode.THREAD;
+		this.executor = null;
+	}
+
+	/**
+	 * Instantiates a new executor with a bounded thread pool.
+	 *
+	 * @param poolSize
+	 *            the number of threads
+	 * @param queueSize
+	 *            the size of the queue
+	 * @param rejection
+	 *            what happens if the queue is full
+	 */
+	BackgroundExecutor(final int poolSize, final int queueSize, final Rejection rejection) {
+		this.mode = Mode.POOL;
+		ThreadPoolExecutor pool = new ThreadPoolExecutor(Math.max(poolSize, 1), Math.max(poolSize, 1), 60L,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(queueSize, 1)), this::newDaemonThread,
+				this.createRejectionHandler(rejection));
+		pool.allowCoreThreadTimeOut(true);
+		this.executor = pool;
+	}
+
+	/**
+	 * Instantiates a new executor with the given executor service.
+	 *
+	 * @param mode
+	 *            the mode
+	 * @param executor
+	 *            the executor service
+	 */
+	private BackgroundExecutor(final Mode mode, final ExecutorService executor) {
+		this.mode = mode;
+		this.executor = executor;
+	}
+
+	/**
+	 * Gets the executor for the given mode. For {@link Mode#DEFAULT} the mode
+	 * from the system property "patterntesting.runBackground.mode" is used.
+	 * If virtual threads are not available the executor for
+	 * {@link Mode#POOL} is returned instead of {@link Mode#VIRTUAL}.
+	 *
+	 * @param mode
+	 *            the mode
+	 * @return the background executor
+	 */
+	public static BackgroundExecutor of(final Mode mode) {
+		Mode m = (mode == Mode.DEFAULT) ? getDefaultMode() : mode;
+		if ((m == Mode.VIRTUAL) && !VIRTUAL_THREADS_AVAILABLE) {
+			m = Mode.POOL;
+		}
+		return EXECUTORS.computeIfAbsent(m, BackgroundExecutor::create);
+	}
+
+	/**
+	 * Gets the default mode which is set by the system property
+	 * "patterntesting.runBackground.mode".
+	 *
+	 * @return the default mode (THREAD if the property is not set)
+	 */
+	public static Mode getDefaultMode() {
+		String value = System.getProperty(Environment.RUN_BACKGROUND_MODE, Mode.THREAD.name());
+		try {
+			Mode m = Mode.valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+			return (m == Mode.DEFAULT) ? Mode.THREAD : m;
+		} catch (IllegalArgumentException ex) {
+			LOG.warn("Unknown mode '{}' in property '{}' is ignored ({}).", value, Environment.RUN_BACKGROUND_MODE,
+					ex.getMessage());
+			return Mode.THREAD;
+		}
+	}
+
+	private static BackgroundExecutor create(final Mode mode) {
+		BackgroundExecutor bgExecutor;
+		switch (mode) {
+		case POOL:
+			bgExecutor = new BackgroundExecutor(
+					Integer.getInteger(Environment.RUN_BACKGROUND_POOL_SIZE,
+							2 * Runtime.getRuntime().availableProcessors()),
+					Integer.getInteger(Environment.RUN_BACKGROUND_QUEUE_SIZE, 1000),
+					Rejection.valueOf(System.getProperty(Environment.RUN_BACKGROUND_REJECTION,
+							Rejection.CALLER_RUNS.name()).toUpperCase(Locale.ENGLISH)));
+			Runtime.getRuntime().addShutdownHook(new Thread(bgExecutor::shutdown, "bg-pool-shutdown"));
+			break;
+		case VIRTUAL:
+			bgExecutor = new BackgroundExecutor(Mode.VIRTUAL, createVirtualThreadExecutor());
+			break;
+		default:
+			bgExecutor = new BackgroundExecutor();
+			break;
+		}
+		MBeanHelper.registerMBean(MBeanHelper.getMBeanName(bgExecutor) + ",mode=" + bgExecutor.getMode(),
+				bgExecutor);
+		LOG.debug("{} created.", bgExecutor);
+		return bgExecutor;
+	}
+
+	/**
+	 * Virtual threads are available since Java 21. Because PatternTesting is
+	 * compiled for an older version reflection is used here.
+	 */
+	private static boolean isVirtualThreadAvailable() {
+		try {
+			java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException ex) {
+			LOG.info("Virtual threads are not available ({}) - POOL is used instead.", ex.toString());
+			return false;
+		}
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) java.util.concurrent.Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("cannot create executor for virtual threads", ex);
+		}
+	}
+
+	private Thread newDaemonThread(final Runnable r) {
+		Thread t = new Thread(r, "bg-pool-" + this.threadNumber.incrementAndGet());
+		t.setDaemon(true);
+		return t;
+	}
+
+	private RejectedExecutionHandler createRejectionHandler(final Rejection rejection) {
+		RejectedExecutionHandler handler;
+		switch (rejection) {
+		case ABORT:
+			handler = new ThreadPoolExecutor.AbortPolicy();
+			break;
+		case DISCARD:
+			handler = new ThreadPoolExecutor.DiscardPolicy();
+			break;
+		default:
+			handler = new ThreadPoolExecutor.CallerRunsPolicy();
+			break;
+		}
+		return (r, pool) -> {
+			this.rejected.increment();
+			LOG.debug("Job {} is rejected by {} ({}).", r, this, rejection);
+			handler.rejectedExecution(r, pool);
+			if ((rejection == Rejection.DISCARD) && (r instanceof Job)) {
+				((Job) r).discard();
+			}
+		};
+	}
+
+	/**
+	 * Executes the given job in the background.
+	 *
+	 * @param job
+	 *            the job
+	 */
+	public void execute(final Runnable job) {
+		this.submitted.increment();
+		Runnable work = new Job(job);
+		if (this.executor == null) {
+			Thread t = new Thread(work, "bg-" + this.threadNumber.getAndIncrement());
+			this.activeJobs.add(t);
+			t.start();
+		} else {
+			this.executor.execute(work);
+		}
+	}
+
+	/**
+	 * Executes the given job in the background. The returned future is
+	 * completed with the result of the job. If the job returns itself a
+	 * {@link Future} or {@link CompletionStage} the returned future is
+	 * completed with its result. An exception of the job completes the
+	 * future exceptionally.
+	 *
+	 * @param job
+	 *            the job
+	 * @return the future which is completed by the job
+	 * @since 2.6.1
+	 */
+	public CompletableFuture<Object> submit(final Callable<?> job) {
+		FutureJob futureJob = new FutureJob(job);
+		this.execute(futureJob);
+		return futureJob.future;
+	}
+
+	private void run(final Runnable job) {
+		Thread current = Thread.currentThread();
+		this.activeJobs.add(current);
+		try {
+			job.run();
+		} catch (RuntimeException ex) {
+			this.failed.increment();
+			LOG.warn("Background job {} failed:", job, ex);
+		} catch (Error error) {
+			this.failed.increment();
+			throw error;
+		} finally {
+			this.activeJobs.remove(current);
+			this.completed.increment();
+		}
+	}
+
+	/**
+	 * Wrapper for a submitted job.
+	 */
+	private final class Job implements Runnable {
+
+		private final Runnable job;
+
+		Job(final Runnable job) {
+			this.job = job;
+		}
+
+		@Override
+		public void run() {
+			BackgroundExecutor.this.run(this.job);
+		}
+
+		void discard() {
+			if (this.job instanceof FutureJob) {
+				((FutureJob) this.job).future.cancel(false);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.job.toString();
+		}
+
+	}
+
+	/**
+	 * Job which completes a future with its result.
+	 */
+	private final class FutureJob implements Runnable {
+
+		private final Callable<?> job;
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		FutureJob(final Callable<?> job) {
+			this.job = job;
+		}
+
+		@Override
+		public void run() {
+			try {
+				complete(this.job.call());
+			} catch (Exception ex) {
+				BackgroundExecutor.this.failed.increment();
+				LOG.debug("Background job {} failed:", this.job, ex);
+				this.future.completeExceptionally(ex);
+				if (ex instanceof InterruptedException) {
+					Thread.currentThread().interrupt();
+				}
+			} catch (Throwable t) {
+				BackgroundExecutor.this.failed.increment();
+				LOG.warn("Background job {} failed:", this.job, t);
+				this.future.completeExceptionally(t);
+			}
+		}
+
+		private void complete(final Object result) throws InterruptedException {
+			if (result instanceof CompletionStage) {
+				((CompletionStage<?>) result).whenComplete((value, t) -> {
+					if (t == null) {
+						this.future.complete(value);
+					} else {
+						this.future.completeExceptionally(t);
+					}
+				});
+			} else if (result instanceof Future) {
+				try {
+					this.future.complete(((Future<?>) result).get());
+				} catch (ExecutionException ex) {
+					this.future.completeExceptionally(ex.getCause());
+				}
+			} else {
+				this.future.complete(result);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.job.toString();
+		}
+
+	}
+
+	/**
+	 * Gets the threads which actually execute a background job.
+	 *
+	 * @return the active jobs
+	 */
+	public Collection<Thread> getActiveJobs() {
+		return new ArrayList<>(this.activeJobs);
+	}
+
+	/**
+	 * Gets the threads of all executors which actually execute a background
+	 * job.
+	 *
+	 * @return the active jobs
+	 */
+	public static Collection<Thread> getAllActiveJobs() {
+		Collection<Thread> jobs = new ArrayList<>();
+		for (BackgroundExecutor bgExecutor : EXECUTORS.values()) {
+			jobs.addAll(bgExecutor.activeJobs);
+		}
+		return jobs;
+	}
+
+	/**
+	 * Stops the executor. Jobs which are already submitted are finished
+	 * (the executor waits max. 10 seconds for them).
+	 */
+	void shutdown() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			try {
+				if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+					LOG.warn("{} was not terminated within 10 seconds.", this);
+				}
+			} catch (InterruptedException ex) {
+				LOG.warn("Shutdown of {} was interrupted.", this);
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Gets the execution mode.
+	 *
+	 * @return "THREAD", "POOL" or "VIRTUAL"
+	 * @see BackgroundExecutorMBean#getMode()
+	 */
+	@Override
+	public String getMode() {
+		return this.mode.name();
+	}
+
+	/**
+	 * Gets the number of jobs which are waiting in the queue. Only the POOL
+	 * mode has a queue.
+	 *
+	 * @return the queue depth
+	 * @see BackgroundExecutorMBean#getQueueDepth()
+	 */
+	@Override
+	public int getQueueDepth() {
+		if (this.executor instanceof ThreadPoolExecutor) {
+			return ((ThreadPoolExecutor) this.executor).getQueue().size();
+		}
+		return 0;
+	}
+
+	/**
+	 * Gets the number of jobs which are actually running.
+	 *
+	 * @return the number of active jobs
+	 * @see BackgroundExecutorMBean#getActiveCount()
+	 */
+	@Override
+	public int getActiveCount() {
+		return this.activeJobs.size();
+	}
+
+	/**
+	 * Gets the number of submitted jobs.
+	 *
+	 * @return the number of submitted jobs
+	 * @see BackgroundExecutorMBean#getSubmittedCount()
+	 */
+	@Override
+	public long getSubmittedCount() {
+		return this.submitted.sum();
+	}
+
+	/**
+	 * Gets the number of completed jobs.
+	 *
+	 * @return the number of completed jobs
+	 * @see BackgroundExecutorMBean#getCompletedCount()
+	 */
+	@Override
+	public long getCompletedCount() {
+		return this.completed.sum();
+	}
+
+	/**
+	 * Gets the number of jobs which ended with an exception.
+	 *
+	 * @return the number of failed jobs
+	 * @see BackgroundExecutorMBean#getFailedCount()
+	 */
+	@Override
+	public long getFailedCount() {
+		return this.failed.sum();
+	}
+
+	/**
+	 * Gets the number of rejected jobs.
+	 *
+	 * @return the number of rejected jobs
+	 * @see BackgroundExecutorMBean#getRejectedCount()
+	 */
+	@Override
+	public long getRejectedCount() {
+		return this.rejected.sum();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.mode + ", " + this.getActiveCount() + " active, "
+				+ this.getQueueDepth() + " queued)";
+	}
+
+}
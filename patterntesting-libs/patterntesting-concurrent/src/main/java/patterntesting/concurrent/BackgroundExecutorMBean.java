@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import patterntesting.runtime.jmx.Description;
+
+/**
+ * The Interface BackgroundExecutorMBean.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+@Description("Executor for methods annotated with @RunBackground")
+public interface BackgroundExecutorMBean {
+
+	/**
+	 * Gets the execution mode.
+	 *
+	 * @return "THREAD", "POOL" or "VIRTUAL"
+	 */
+	@Description("how the background jobs are executed (THREAD, POOL or VIRTUAL)")
+	String getMode();
+
+	/**
+	 * Gets the number of jobs which are waiting in the queue.
+	 *
+	 * @return the queue depth
+	 */
+	@Description("number of jobs waiting in the queue")
+	int getQueueDepth();
+
+	/**
+	 * Gets the number of jobs which are actually running.
+	 *
+	 * @return the number of active jobs
+	 */
+	@Description("number of jobs which are actually running")
+	int getActiveCount();
+
+	/**
+	 * Gets the number of submitted jobs.
+	 *
+	 * @return the number of submitted jobs
+	 */
+	@Description("number of submitted jobs")
+	long getSubmittedCount();
+
+	/**
+	 * Gets the number of completed jobs.
+	 *
+	 * @return the number of completed jobs
+	 */
+	@Description("number of completed jobs (successful or not)")
+	long getCompletedCount();
+
+	/**
+	 * Gets the number of jobs which ended with an exception.
+	 *
+	 * @return the number of failed jobs
+	 */
+	@Description("number of jobs which ended with an exception")
+	long getFailedCount();
+
+	/**
+	 * Gets the number of rejected jobs.
+	 *
+	 * @return the number of rejected jobs
+	 */
+	@Description("number of jobs which were rejected because the queue was full")
+	long getRejectedCount();
+
+}
@@ -20,6 +20,8 @@
 
 package patterntesting.concurrent;
 
+import java.lang.management.ThreadInfo;
+
 /**
  * If you want to be notified if a dead lock happens you must implement
  * this interface.
@@ -36,4 +38,18 @@ public interface DeadLockListener {
 	 */
 	void deadLockDetected(Thread[] threads);
 
+	/**
+	 * This method will be called if a dead lock will be detected. The
+	 * {@link ThreadInfo}s contain the lock each thread is waiting for and
+	 * the owner of this lock. The default implementation calls
+	 * {@link #deadLockDetected(Thread[])}.
+	 *
+	 * @param threads the detected deadlocks
+	 * @param infos the infos of the deadlocked threads
+	 * @since 2.6.1
+	 */
+	default void deadLockDetected(Thread[] threads, ThreadInfo[] infos) {
+		deadLockDetected(threads);
+	}
+
 }
@@ -20,6 +20,8 @@
 
 package patterntesting.concurrent;
 
+import java.lang.management.ThreadInfo;
+
 import org.slf4j.*;
 
 import patterntesting.runtime.util.Converter;
@@ -51,6 +53,27 @@ public final class DeadLockLogger implements DeadLockListener {
         }
 	}
 
+	/**
+	 * Logs the lock cycle and the position where each thread is blocked.
+	 * Only the first stack frame of each thread is used, no stack is dumped.
+	 *
+	 * @param threads the threads
+	 * @param infos the infos of the deadlocked threads
+	 * @see DeadLockListener#deadLockDetected(Thread[], ThreadInfo[])
+	 * @since 2.6.1
+	 */
+	@Override
+	public void deadLockDetected(final Thread[] threads, final ThreadInfo[] infos) {
+		LOG.warn("deadlock in {} threads detected: {}", infos.length, ThreadDeadLockMonitor.describeCycle(infos));
+		if (LOG.isInfoEnabled()) {
+			for (ThreadInfo info : infos) {
+				StackTraceElement[] stackTrace = info.getStackTrace();
+				LOG.info("\"{}\" is blocked at {}.", info.getThreadName(),
+						(stackTrace.length == 0) ? "<unknown>" : stackTrace[0]);
+			}
+		}
+	}
+
     private void dumpThread(Thread thread) {
         StackTraceElement[] stackTrace = thread.getStackTrace();
         if (stackTrace.length == 0) {
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import patterntesting.runtime.monitor.LatencyHistogram;
+
+/**
+ * The LockMonitor collects the lock statistic of one method which is marked
+ * as {@link patterntesting.annotation.concurrent.Synchronized}: how long the
+ * threads waited for the lock and how long they held it, how often the lock
+ * was contended and how many threads are actually waiting. As in the
+ * profiler the values are recorded in {@link LongAdder}s and a
+ * {@link LatencyHistogram}, so recording does not lock.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class LockMonitor implements Comparable<LockMonitor> {
+
+	private final String label;
+	private final LongAdder acquisitions = new LongAdder();
+	private final LongAdder contended = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final LongAdder holdNanos = new LongAdder();
+	private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+	private final LongAccumulator maxHoldNanos = new LongAccumulator(Math::max, 0L);
+	private final LatencyHistogram waitHistogram = new LatencyHistogram();
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	/**
+	 * Instantiates a new lock monitor.
+	 *
+	 * @param label
+	 *            the label (normally the signature of the method)
+	 */
+	public LockMonitor(final String label) {
+		this.label = label;
+	}
+
+	/**
+	 * Is called before a thread starts to wait for a contended lock.
+	 */
+	void startWaiting() {
+		this.waiting.incrementAndGet();
+	}
+
+	/**
+	 * Is called after a thread stopped to wait for a contended lock.
+	 */
+	void stopWaiting() {
+		this.waiting.decrementAndGet();
+	}
+
+	/**
+	 * Records a granted lock.
+	 *
+	 * @param nanos
+	 *            the time the thread waited for the lock
+	 * @param wasContended
+	 *            true if the lock was not free at the first try
+	 */
+	void addAcquisition(final long nanos, final boolean wasContended) {
+		this.acquisitions.increment();
+		if (wasContended) {
+			this.contended.increment();
+		}
+		this.waitNanos.add(nanos);
+		this.maxWaitNanos.accumulate(nanos);
+		this.waitHistogram.record(nanos);
+	}
+
+	/**
+	 * Records a lock which was not granted within the timeout.
+	 *
+	 * @param nanos
+	 *            the time the thread waited for the lock
+	 */
+	void addTimeout(final long nanos) {
+		this.timeouts.increment();
+		this.contended.increment();
+		this.waitNanos.add(nanos);
+		this.maxWaitNanos.accumulate(nanos);
+	}
+
+	/**
+	 * Records the time a lock was held.
+	 *
+	 * @param nanos
+	 *            the hold time in nanoseconds
+	 */
+	void addHoldTime(final long nanos) {
+		this.holdNanos.add(nanos);
+		this.maxHoldNanos.accumulate(nanos);
+	}
+
+	/**
+	 * Resets all counters (but not the number of waiting threads).
+	 */
+	public void reset() {
+		this.acquisitions.reset();
+		this.contended.reset();
+		this.timeouts.reset();
+		this.waitNanos.reset();
+		this.holdNanos.reset();
+		this.maxWaitNanos.reset();
+		this.maxHoldNanos.reset();
+		this.waitHistogram.reset();
+	}
+
+	/**
+	 * Gets the label.
+	 *
+	 * @return the label
+	 */
+	public String getLabel() {
+		return this.label;
+	}
+
+	/**
+	 * Gets the number of granted locks.
+	 *
+	 * @return the number of acquisitions
+	 */
+	public long getAcquisitions() {
+		return this.acquisitions.sum();
+	}
+
+	/**
+	 * Gets the number of acquisitions where the lock was not free at the
+	 * first try (including the timeouts).
+	 *
+	 * @return the number of contended acquisitions
+	 */
+	public long getContended() {
+		return this.contended.sum();
+	}
+
+	/**
+	 * Gets the number of locks which were not granted within the timeout.
+	 *
+	 * @return the number of timeouts
+	 */
+	public long getTimeouts() {
+		return this.timeouts.sum();
+	}
+
+	/**
+	 * Gets the total time the threads waited for the lock.
+	 *
+	 * @return the wait time in nanoseconds
+	 */
+	public long getWaitNanos() {
+		return this.waitNanos.sum();
+	}
+
+	/**
+	 * Gets the maximal time a thread waited for the lock.
+	 *
+	 * @return the max. wait time in nanoseconds
+	 */
+	public long getMaxWaitNanos() {
+		return this.maxWaitNanos.get();
+	}
+
+	/**
+	 * Gets the wait time for the given percentile.
+	 *
+	 * @param percentile
+	 *            the percentile (e.g. 99)
+	 * @return the wait time in nanoseconds
+	 */
+	public long getWaitNanosAtPercentile(final double percentile) {
+		return this.waitHistogram.getValueAtPercentile(percentile);
+	}
+
+	/**
+	 * Gets the total time the lock was held.
+	 *
+	 * @return the hold time in nanoseconds
+	 */
+	public long getHoldNanos() {
+		return this.holdNanos.sum();
+	}
+
+	/**
+	 * Gets the maximal time the lock was held.
+	 *
+	 * @return the max. hold time in nanoseconds
+	 */
+	public long getMaxHoldNanos() {
+		return this.maxHoldNanos.get();
+	}
+
+	/**
+	 * Gets the number of threads which are actually waiting for the lock.
+	 *
+	 * @return the queue length
+	 */
+	public int getQueueLength() {
+		return this.waiting.get();
+	}
+
+	/**
+	 * The monitor with the higher wait time comes first.
+	 *
+	 * @param other
+	 *            the other monitor
+	 * @return a negative value if this monitor waited longer
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(final LockMonitor other) {
+		int cmp = Long.compare(other.getWaitNanos(), this.getWaitNanos());
+		return (cmp == 0) ? this.label.compareTo(other.label) : cmp;
+	}
+
+	/**
+	 * Short description of the lock statistic.
+	 *
+	 * @return the string
+	 */
+	public String toShortString() {
+		long n = this.getAcquisitions();
+		return this.label + ": " + n + " acquisitions, " + this.getContended() + " contended, "
+				+ this.getTimeouts() + " timeouts, wait " + this.getWaitNanos() / 1000000.0 + " ms (max "
+				+ this.getMaxWaitNanos() / 1000000.0 + " ms), hold " + this.getHoldNanos() / 1000000.0
+				+ " ms, " + this.getQueueLength() + " waiting";
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.label + ")";
+	}
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.JoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.util.Environment;
+
+/**
+ * The LockOrderGraph records in which order the locks of the
+ * {@link patterntesting.annotation.concurrent.Synchronized} methods are
+ * acquired. The nodes of the graph are the classes of the locks. The lock
+ * of the objects of class A (node "A") and the lock of the static methods
+ * of class A (node "A.class") are different nodes. If a thread which holds
+ * the lock of class A acquires the lock of class B the edge A -&gt; B is
+ * added. If there is already a path from B to A the lock order is not
+ * consistent and a dead lock is possible - even if it did not happen yet.
+ * This is logged as warning and reported by {@link #getPotentialDeadLocks()}.
+ * <p>
+ * If a thread which holds the lock of an object of class A acquires the
+ * lock of another object of class A (e.g. <code>a1.transferTo(a2)</code>)
+ * the order of the two locks depends on the objects. This is also reported
+ * as potential dead lock ("A -&gt; A (another instance)").
+ * </p>
+ * <p>
+ * The graph is disabled by default. It can be enabled with the system
+ * property "patterntesting.lockGraph" or via the
+ * {@link ThreadDeadLockMonitorMBean}. If it is disabled the overhead is one
+ * volatile read per lock.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class LockOrderGraph {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LockOrderGraph.class);
+	private static final LockOrderGraph INSTANCE = new LockOrderGraph();
+	private volatile boolean enabled = Environment.isPropertyEnabled(Environment.LOCK_GRAPH);
+	private final Map<String, Set<String>> edges = new ConcurrentHashMap<>();
+	private final Set<String> potentialDeadLocks = ConcurrentHashMap.newKeySet();
+	private final ThreadLocal<Deque<Held>> heldLocks = ThreadLocal.withInitial(ArrayDeque::new);
+
+	/**
+	 * Gets the single instance of LockOrderGraph.
+	 *
+	 * @return single instance of LockOrderGraph
+	 */
+	public static LockOrderGraph getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Checks if the lock graph is enabled.
+	 *
+	 * @return true, if enabled
+	 */
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * Enables or disables the lock graph.
+	 *
+	 * @param enabled
+	 *            true to enable it
+	 */
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+		LOG.debug("{} is {}.", this, enabled ? "enabled" : "disabled");
+	}
+
+	/**
+	 * Must be called before the lock for the given joinpoint is acquired.
+	 * The returned node must be given back to {@link #released(String)}
+	 * after the lock is released (or not granted). For static methods the
+	 * node of the class lock ("A.class") is used.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @param lock
+	 *            the lock (to distinguish the locks of different objects)
+	 * @return the node of the lock (or null if the graph is disabled)
+	 */
+	public static String acquiring(final JoinPoint.StaticPart jpsp, final Object lock) {
+		if (!INSTANCE.enabled) {
+			return null;
+		}
+		String node = jpsp.getSignature().getDeclaringTypeName();
+		if (Modifier.isStatic(jpsp.getSignature().getModifiers())) {
+			node += ".class";
+		}
+		INSTANCE.acquiring(node, lock);
+		return node;
+	}
+
+	/**
+	 * Must be called after the lock is released.
+	 *
+	 * @param node
+	 *            the node returned by
+	 *            {@link #acquiring(JoinPoint.StaticPart, Object)}
+	 */
+	public static void released(final String node) {
+		if (node != null) {
+			Iterator<Held> it = INSTANCE.heldLocks.get().iterator();
+			while (it.hasNext()) {
+				if (it.next().node.equals(node)) {
+					it.remove();
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an edge from each lock held by the actual thread to the given
+	 * node. The node is used also as lock.
+	 *
+	 * @param node
+	 *            the lock which is acquired
+	 */
+	void acquiring(final String node) {
+		this.acquiring(node, node);
+	}
+
+	/**
+	 * Adds an edge from each lock held by the actual thread to the given
+	 * node. If the thread holds another lock of the same node this is
+	 * recorded as potential dead lock. The same lock (reentrant locking) is
+	 * ignored.
+	 *
+	 * @param node
+	 *            the node of the lock which is acquired
+	 * @param lock
+	 *            the lock which is acquired
+	 */
+	void acquiring(final String node, final Object lock) {
+		Deque<Held> held = this.heldLocks.get();
+		for (Held from : held) {
+			if (!from.node.equals(node)) {
+				this.addEdge(from.node, node);
+			} else if (from.lock != lock) {
+				this.addSelfEdge(node);
+			}
+		}
+		held.push(new Held(node, lock));
+	}
+
+	private void addSelfEdge(final String node) {
+		String cycle = node + " -> " + node + " (another instance)";
+		if (this.potentialDeadLocks.add(cycle)) {
+			LOG.warn("Potential dead lock (order of locks depends on the instances): {}", cycle);
+		}
+	}
+
+	private void addEdge(final String from, final String to) {
+		Set<String> targets = this.edges.computeIfAbsent(from, k -> ConcurrentHashMap.newKeySet());
+		if (targets.add(to)) {
+			LOG.trace("Lock order {} -> {} recorded.", from, to);
+			List<String> path = this.findPath(to, from);
+			if (!path.isEmpty()) {
+				path.add(0, from);
+				String cycle = String.join(" -> ", path);
+				if (this.potentialDeadLocks.add(cycle)) {
+					LOG.warn("Potential dead lock (inconsistent lock order): {}", cycle);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds a path in the graph (breadth-first search).
+	 *
+	 * @param start
+	 *            the start node
+	 * @param end
+	 *            the end node
+	 * @return the path from start to end (or an empty list)
+	 */
+	List<String> findPath(final String start, final String end) {
+		Map<String, String> parents = new HashMap<>();
+		Deque<String> queue = new ArrayDeque<>();
+		queue.add(start);
+		parents.put(start, start);
+		while (!queue.isEmpty()) {
+			String node = queue.poll();
+			if (node.equals(end)) {
+				List<String> path = new ArrayList<>();
+				for (String n = end; !n.equals(start); n = parents.get(n)) {
+					path.add(n);
+				}
+				path.add(start);
+				Collections.reverse(path);
+				return path;
+			}
+			for (String next : this.edges.getOrDefault(node, Collections.emptySet())) {
+				if (parents.putIfAbsent(next, node) == null) {
+					queue.add(next);
+				}
+			}
+		}
+		return new ArrayList<>();
+	}
+
+	/**
+	 * Gets the lock cycles which were detected. Each cycle is described as
+	 * "A -&gt; B -&gt; A".
+	 *
+	 * @return the potential dead locks
+	 */
+	public String[] getPotentialDeadLocks() {
+		return this.potentialDeadLocks.toArray(new String[0]);
+	}
+
+	/**
+	 * Clears the graph and the detected cycles.
+	 */
+	public void reset() {
+		this.edges.clear();
+		this.potentialDeadLocks.clear();
+	}
+
+	/**
+	 * A lock held by a thread together with its node.
+	 */
+	private static final class Held {
+
+		private final String node;
+		private final Object lock;
+
+		private Held(final String node, final Object lock) {
+			this.node = node;
+			this.lock = lock;
+		}
+
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.edges.size() + " nodes with edges)";
+	}
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularDataSupport;
+
+import org.aspectj.lang.JoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.jmx.MBeanHelper;
+import patterntesting.runtime.util.SignatureHelper;
+
+/**
+ * The LockStatistic collects the {@link LockMonitor}s of the methods which
+ * are marked as {@link patterntesting.annotation.concurrent.Synchronized}.
+ * It is registered as MBean so you can see where the locks limit the
+ * scaling of your application long before a timeout occurs.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class LockStatistic implements LockStatisticMBean {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LockStatistic.class);
+	private static final LockStatistic INSTANCE = new LockStatistic();
+	private static final int TOP = 5;
+	private final Map<JoinPoint.StaticPart, LockMonitor> monitors = new ConcurrentHashMap<>();
+
+	static {
+		MBeanHelper.registerMBean(MBeanHelper.getMBeanName(INSTANCE), INSTANCE);
+	}
+
+	private LockStatistic() {
+	}
+
+	/**
+	 * Gets the single instance of LockStatistic.
+	 *
+	 * @return single instance of LockStatistic
+	 */
+	public static LockStatistic getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Gets the (cached) monitor for the given static part of a joinpoint.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the lock monitor
+	 */
+	public static LockMonitor getMonitor(final JoinPoint.StaticPart jpsp) {
+		LockMonitor mon = INSTANCE.monitors.get(jpsp);
+		if (mon == null) {
+			mon = INSTANCE.monitors.computeIfAbsent(jpsp,
+					sp -> new LockMonitor(SignatureHelper.getAsString(sp.getSignature())));
+		}
+		return mon;
+	}
+
+	/**
+	 * Gets the monitors sorted by their wait time (highest first). The wait
+	 * times are taken once before sorting because they may change while
+	 * sorting (which would violate the contract of the comparator).
+	 *
+	 * @return the monitors
+	 */
+	public LockMonitor[] getMonitors() {
+		LockMonitor[] sorted = this.monitors.values().toArray(new LockMonitor[0]);
+		Map<LockMonitor, Long> waitNanos = new IdentityHashMap<>(sorted.length);
+		for (LockMonitor mon : sorted) {
+			waitNanos.put(mon, mon.getWaitNanos());
+		}
+		Arrays.sort(sorted, (m1, m2) -> {
+			int cmp = Long.compare(waitNanos.get(m2), waitNanos.get(m1));
+			return (cmp == 0) ? m1.getLabel().compareTo(m2.getLabel()) : cmp;
+		});
+		return sorted;
+	}
+
+	/**
+	 * Gets the lock statistic of each method.
+	 *
+	 * @return the statistics
+	 * @see LockStatisticMBean#getStatistics()
+	 */
+	@Override
+	@SuppressWarnings("rawtypes")
+	public TabularData getStatistics() {
+		try {
+			String[] itemNames = { "Label", "Acquisitions", "Contended", "Timeouts", "Waiting", "AvgWait",
+					"MaxWait", "P99Wait", "AvgHold", "MaxHold" };
+			String[] itemDescriptions = { "method name", "number of granted locks", "number of contended locks",
+					"number of timeouts", "number of waiting threads", "average wait time (ms)",
+					"maximal wait time (ms)", "99th percentile of wait time (ms)", "average hold time (ms)",
+					"maximal hold time (ms)" };
+			OpenType[] itemTypes = { SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+					SimpleType.INTEGER, SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.DOUBLE,
+					SimpleType.DOUBLE };
+			CompositeType rowType = new CompositeType("lockType", "lock entry", itemNames, itemDescriptions,
+					itemTypes);
+			TabularDataSupport data = MBeanHelper.createTabularDataSupport(rowType, itemNames);
+			for (LockMonitor mon : this.getMonitors()) {
+				long n = Math.max(mon.getAcquisitions(), 1L);
+				Map<String, Object> map = new HashMap<>();
+				map.put("Label", mon.getLabel());
+				map.put("Acquisitions", mon.getAcquisitions());
+				map.put("Contended", mon.getContended());
+				map.put("Timeouts", mon.getTimeouts());
+				map.put("Waiting", mon.getQueueLength());
+				map.put("AvgWait", toMillis(mon.getWaitNanos() / n));
+				map.put("MaxWait", toMillis(mon.getMaxWaitNanos()));
+				map.put("P99Wait", toMillis(mon.getWaitNanosAtPercentile(99)));
+				map.put("AvgHold", toMillis(mon.getHoldNanos() / n));
+				map.put("MaxHold", toMillis(mon.getMaxHoldNanos()));
+				data.put(new CompositeDataSupport(rowType, map));
+			}
+			return data;
+		} catch (OpenDataException e) {
+			LOG.error("can't create TabularData for lock statistic", e);
+			return null;
+		}
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / 1000000.0;
+	}
+
+	/**
+	 * Gets the statistic of the (max. 5) contended locks with the highest
+	 * wait time.
+	 *
+	 * @return the top contended locks
+	 * @see LockStatisticMBean#getTopContended()
+	 */
+	@Override
+	public String[] getTopContended() {
+		return Arrays.stream(this.getMonitors()).filter(mon -> mon.getContended() > 0).limit(TOP)
+				.map(LockMonitor::toShortString).toArray(String[]::new);
+	}
+
+	/**
+	 * Gets the number of threads which are actually waiting for a lock.
+	 *
+	 * @return the queue length
+	 * @see LockStatisticMBean#getQueueLength()
+	 */
+	@Override
+	public int getQueueLength() {
+		int n = 0;
+		for (LockMonitor mon : this.monitors.values()) {
+			n += mon.getQueueLength();
+		}
+		return n;
+	}
+
+	/**
+	 * Gets the total number of locks which were not granted within the
+	 * timeout.
+	 *
+	 * @return the number of timeouts
+	 * @see LockStatisticMBean#getTimeouts()
+	 */
+	@Override
+	public long getTimeouts() {
+		long n = 0L;
+		for (LockMonitor mon : this.monitors.values()) {
+			n += mon.getTimeouts();
+		}
+		return n;
+	}
+
+	/**
+	 * Resets the statistic.
+	 *
+	 * @see LockStatisticMBean#reset()
+	 */
+	@Override
+	public void reset() {
+		for (LockMonitor mon : this.monitors.values()) {
+			mon.reset();
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.monitors.size() + " locks)";
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import javax.management.openmbean.TabularData;
+
+import patterntesting.runtime.jmx.Description;
+
+/**
+ * The Interface LockStatisticMBean.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+@Description("Lock statistic of methods annotated with @Synchronized")
+public interface LockStatisticMBean {
+
+	/**
+	 * Gets the lock statistic of each method.
+	 *
+	 * @return the statistics
+	 */
+	@Description("acquisitions, contention, wait and hold times (in ms) of each @Synchronized method")
+	TabularData getStatistics();
+
+	/**
+	 * Gets the statistic of the locks with the highest wait time.
+	 *
+	 * @return the top contended locks
+	 */
+	@Description("the locks with the highest wait time")
+	String[] getTopContended();
+
+	/**
+	 * Gets the number of threads which are actually waiting for a lock.
+	 *
+	 * @return the queue length
+	 */
+	@Description("number of threads actually waiting for a lock")
+	int getQueueLength();
+
+	/**
+	 * Gets the total number of locks which were not granted within the
+	 * timeout.
+	 *
+	 * @return the number of timeouts
+	 */
+	@Description("number of locks not granted within the timeout")
+	long getTimeouts();
+
+	/**
+	 * Resets the statistic.
+	 */
+	@Description("resets the statistic")
+	void reset();
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import patterntesting.annotation.concurrent.RunParallel;
+import patterntesting.runtime.monitor.LatencyHistogram;
+
+/**
+ * A ParallelRun contains the results of one call of a method which is
+ * annotated with {@link RunParallel}: the result or exception of each thread,
+ * the time each thread needed and a {@link LatencyHistogram} of these times.
+ * The last run of the actual thread can be get with
+ * {@link RunParallelAspect#getLastRun()}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ParallelRun {
+
+	private final String label;
+	private final Object[] results;
+	private final Throwable[] exceptions;
+	private final long[] nanos;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private long elapsedNanos;
+
+	/**
+	 * Instantiates a new parallel run.
+	 *
+	 * @param label
+	 *            the label (e.g. the signature of the method)
+	 * @param threads
+	 *            the number of threads
+	 */
+	ParallelRun(final String label, final int threads) {
+		this.label = label;
+		this.results = new Object[threads];
+		this.exceptions = new Throwable[threads];
+		this.nanos = new long[threads];
+	}
+
+	/**
+	 * Records the outcome of the given thread.
+	 *
+	 * @param index
+	 *            the index of the thread
+	 * @param result
+	 *            the result (or null)
+	 * @param thrown
+	 *            the exception (or null)
+	 * @param time
+	 *            the time in nanoseconds
+	 */
+	void record(final int index, final Object result, final Throwable thrown, final long time) {
+		this.results[index] = result;
+		this.exceptions[index] = thrown;
+		this.nanos[index] = time;
+		this.histogram.record(time);
+	}
+
+	/**
+	 * Sets the time the whole run needed.
+	 *
+	 * @param time
+	 *            the time in nanoseconds
+	 */
+	void setElapsedNanos(final long time) {
+		this.elapsedNanos = time;
+	}
+
+	/**
+	 * Gets the number of threads.
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreads() {
+		return this.results.length;
+	}
+
+	/**
+	 * Gets the result of each thread. The result of a thread which ended with
+	 * an exception is null.
+	 *
+	 * @return the results
+	 */
+	public List<Object> getResults() {
+		return Arrays.asList(this.results.clone());
+	}
+
+	/**
+	 * Gets the result of the first thread which did not end with an
+	 * exception.
+	 *
+	 * @return the result (or null)
+	 */
+	public Object getResult() {
+		for (int i = 0; i < this.results.length; i++) {
+			if (this.exceptions[i] == null) {
+				return this.results[i];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the exceptions of the threads which failed.
+	 *
+	 * @return the exceptions (an empty list if no thread failed)
+	 */
+	public List<Throwable> getExceptions() {
+		List<Throwable> thrown = new ArrayList<>();
+		for (Throwable t : this.exceptions) {
+			if (t != null) {
+				thrown.add(t);
+			}
+		}
+		return thrown;
+	}
+
+	/**
+	 * Checks if one of the threads ended with an exception.
+	 *
+	 * @return true, if failed
+	 */
+	public boolean hasFailed() {
+		for (Throwable t : this.exceptions) {
+			if (t != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the time each thread needed.
+	 *
+	 * @return the times in nanoseconds
+	 */
+	public long[] getNanos() {
+		return this.nanos.clone();
+	}
+
+	/**
+	 * Gets the time the whole run needed (from the start of the first thread
+	 * till the end of the last thread).
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return this.elapsedNanos;
+	}
+
+	/**
+	 * Gets the histogram of the times the threads needed.
+	 *
+	 * @return the latency histogram
+	 */
+	public LatencyHistogram getHistogram() {
+		return this.histogram;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.label + ", " + this.getThreads() + " threads, "
+				+ this.getExceptions().size() + " failed)";
+	}
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import patterntesting.annotation.concurrent.Synchronized;
+
+/**
+ * The SynchronizedLock is the lock of an object (or class) which is used by
+ * the {@link SynchronizedAspect} and {@link SynchronizedStaticAspect} for
+ * methods marked as {@link Synchronized}. It is based on a
+ * {@link ReentrantReadWriteLock}: exclusive methods take the write lock, read
+ * and striped methods the read lock. Striped methods take additionally one
+ * of the stripe locks which is selected by the key argument.
+ * <p>
+ * With {@link #tryLock(Synchronized, Object, long, TimeUnit, LockMonitor)}
+ * the wait time and contention is recorded in a {@link LockMonitor}.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class SynchronizedLock {
+
+	private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+	private volatile Lock[] stripes;
+
+	/**
+	 * Tries to get the lock for the given mode within the given time. First
+	 * the lock is tried without waiting. If this fails the acquisition is
+	 * counted as contended and the thread waits for the lock.
+	 * <p>
+	 * An exclusive lock cannot be granted if the current thread holds
+	 * already the read lock (e.g. an exclusive method is called from a READ
+	 * method). This would wait forever, so an
+	 * {@link IllegalMonitorStateException} is thrown instead.
+	 * </p>
+	 *
+	 * @param sync
+	 *            the annotation of the method with mode and number of stripes
+	 * @param key
+	 *            the key argument (only needed for striped mode)
+	 * @param timeout
+	 *            the timeout
+	 * @param unit
+	 *            the unit of the timeout
+	 * @param mon
+	 *            the monitor which records the wait time
+	 * @return true if the lock was granted
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	boolean tryLock(final Synchronized sync, final Object key, final long timeout, final TimeUnit unit,
+			final LockMonitor mon) throws InterruptedException {
+		if ((sync.mode() == Synchronized.Mode.EXCLUSIVE) && (this.rwLock.getReadHoldCount() > 0)
+				&& !this.rwLock.isWriteLockedByCurrentThread()) {
+			throw new IllegalMonitorStateException(Thread.currentThread() + " holds the read lock and cannot get "
+					+ "the exclusive lock for " + mon.getLabel() + " (upgrade of read lock is not possible)");
+		}
+		long t0 = System.nanoTime();
+		if (this.tryLock(sync, key)) {
+			mon.addAcquisition(System.nanoTime() - t0, false);
+			return true;
+		}
+		mon.startWaiting();
+		try {
+			boolean locked = this.tryLock(sync, key, timeout, unit);
+			if (locked) {
+				mon.addAcquisition(System.nanoTime() - t0, true);
+			} else {
+				mon.addTimeout(System.nanoTime() - t0);
+			}
+			return locked;
+		} finally {
+			mon.stopWaiting();
+		}
+	}
+
+	/**
+	 * Tries to get the lock for the given mode without waiting.
+	 *
+	 * @param sync
+	 *            the annotation of the method with mode and number of stripes
+	 * @param key
+	 *            the key argument (only needed for striped mode)
+	 * @return true if the lock was granted
+	 */
+	boolean tryLock(final Synchronized sync, final Object key) {
+		switch (sync.mode()) {
+		case READ:
+			return this.rwLock.readLock().tryLock();
+		case STRIPED:
+			if (!this.rwLock.readLock().tryLock()) {
+				return false;
+			}
+			if (this.getStripe(sync, key).tryLock()) {
+				return true;
+			}
+			this.rwLock.readLock().unlock();
+			return false;
+		default:
+			return this.rwLock.writeLock().tryLock();
+		}
+	}
+
+	/**
+	 * Tries to get the lock for the given mode within the given time.
+	 *
+	 * @param sync
+	 *            the annotation of the method with mode and number of stripes
+	 * @param key
+	 *            the key argument (only needed for striped mode)
+	 * @param timeout
+	 *            the timeout
+	 * @param unit
+	 *            the unit of the timeout
+	 * @return true if the lock was granted
+	 * @throws InterruptedException
+	 *             the interrupted exception
+	 */
+	boolean tryLock(final Synchronized sync, final Object key, final long timeout, final TimeUnit unit)
+			throws InterruptedException {
+		switch (sync.mode()) {
+		case READ:
+			return this.rwLock.readLock().tryLock(timeout, unit);
+		case STRIPED:
+			long deadline = System.nanoTime() + unit.toNanos(timeout);
+			if (!this.rwLock.readLock().tryLock(timeout, unit)) {
+				return false;
+			}
+			boolean locked = false;
+			try {
+				locked = this.getStripe(sync, key).tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				return locked;
+			} finally {
+				if (!locked) {
+					this.rwLock.readLock().unlock();
+				}
+			}
+		default:
+			return this.rwLock.writeLock().tryLock(timeout, unit);
+		}
+	}
+
+	/**
+	 * Releases the lock for the given mode.
+	 *
+	 * @param sync
+	 *            the annotation of the method with mode and number of stripes
+	 * @param key
+	 *            the key argument (only needed for striped mode)
+	 */
+	void unlock(final Synchronized sync, final Object key) {
+		switch (sync.mode()) {
+		case READ:
+			this.rwLock.readLock().unlock();
+			break;
+		case STRIPED:
+			this.getStripe(sync, key).unlock();
+			this.rwLock.readLock().unlock();
+			break;
+		default:
+			this.rwLock.writeLock().unlock();
+			break;
+		}
+	}
+
+	/**
+	 * Gets the stripe for the given key.
+	 *
+	 * @param sync
+	 *            the annotation with the number of stripes
+	 * @param key
+	 *            the key
+	 * @return the stripe lock
+	 */
+	Lock getStripe(final Synchronized sync, final Object key) {
+		Lock[] locks = this.stripes;
+		if (locks == null) {
+			locks = this.createStripes(sync.stripes());
+		}
+		int h = (key == null) ? 0 : key.hashCode();
+		h ^= (h >>> 16);
+		return locks[h & (locks.length - 1)];
+	}
+
+	private synchronized Lock[] createStripes(final int n) {
+		if (this.stripes == null) {
+			int size = (n <= 1) ? 1 : Integer.highestOneBit(n - 1) << 1;
+			Lock[] locks = new Lock[size];
+			for (int i = 0; i < size; i++) {
+				locks[i] = new ReentrantLock();
+			}
+			this.stripes = locks;
+		}
+		return this.stripes;
+	}
+
+	/**
+	 * Gets the number of threads which are waiting for the lock.
+	 *
+	 * @return the queue length
+	 */
+	int getQueueLength() {
+		return this.rwLock.getQueueLength();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.rwLock + ")";
+	}
+
+}
@@ -23,9 +23,13 @@ package patterntesting.concurrent;
 import java.lang.management.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.*;
 
+import patterntesting.runtime.jmx.MBeanHelper;
+
 /**
  * You can use JMX and the 'jconsole' to find dead locks. But perhaps you can't
  * connect to JMX because your application server is behind a firewall or JMX
@@ -34,17 +38,39 @@ import org.slf4j.*;
  * <p>
  * After an idea of the magazin "Java Magazin" (April/May 09).
  * </p>
+ * <p>
+ * Since 2.6.1 also dead locks of {@link java.util.concurrent.locks.Lock}s
+ * are detected (via {@link ThreadMXBean#findDeadlockedThreads()}). Only the
+ * deadlocked threads are inspected (no dump of all stacks) and the lock cycle
+ * is reported once for each dead lock. The monitor is registered as MBean
+ * where you can change the interval and a backoff: if no new dead lock is
+ * found the interval is multiplied by the backoff factor (up to the max.
+ * interval). Here you can also enable the {@link LockOrderGraph} which
+ * reports potential dead locks of @Synchronized methods before they happen.
+ * </p>
  *
  * @author oliver
  * @version $Revision: 1.8 $
  * @since 10.07.2009
  */
-public final class ThreadDeadLockMonitor {
+public final class ThreadDeadLockMonitor implements ThreadDeadLockMonitorMBean {
 
 	private static final Logger log = LoggerFactory.getLogger(ThreadDeadLockMonitor.class);
-	private final Timer threadCheck = new Timer(true);
+	private static final AtomicInteger INSTANCES = new AtomicInteger();
+	private final ScheduledExecutorService threadCheck;
 	private final ThreadMXBean mbean = ManagementFactory.getThreadMXBean();
 	private final Collection<DeadLockListener> listeners = new CopyOnWriteArraySet<DeadLockListener>();
+	private final String mbeanName;
+	private final LongAdder checks = new LongAdder();
+	private final LongAdder deadLocks = new LongAdder();
+	private volatile long interval;
+	private volatile long maxInterval;
+	private volatile double backoffFactor = 1.0;
+	private volatile long currentInterval;
+	private volatile Set<Long> lastDeadLockedIds = Collections.emptySet();
+	private volatile String lastDeadLock = "";
+	private ScheduledFuture<?> nextCheck;
+	private int generation;
 
 	/**
 	 * The default check interval will be 5 minutes, i.e. this class checks
@@ -70,39 +96,181 @@ public final class ThreadDeadLockMonitor {
 	 * @param timeInMillis the time in millis
 	 */
 	public ThreadDeadLockMonitor(final long timeInMillis) {
-		threadCheck.schedule(new TimerTask() {
-			@Override
-			public void run() {
-				checkForDeadLocks();
-			}
-		}, timeInMillis, timeInMillis);
+		int n = INSTANCES.incrementAndGet();
+		this.threadCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "deadlock-monitor-" + n);
+			t.setDaemon(true);
+			return t;
+		});
+		this.interval = Math.max(timeInMillis, 1L);
+		this.maxInterval = this.interval;
+		this.currentInterval = this.interval;
 		addListener(new DeadLockLogger());
+		this.mbeanName = MBeanHelper.getMBeanName(this) + ",id=" + n;
+		MBeanHelper.registerMBean(this.mbeanName, this);
+		scheduleNextCheck(0);
+	}
+
+	/**
+	 * Schedules the next check. Only the checks of the current generation
+	 * are rescheduled. So a check which is already running if the interval
+	 * is changed (and a new check is scheduled) does not start a second
+	 * chain of checks.
+	 *
+	 * @param gen the generation of the calling check
+	 */
+	private synchronized void scheduleNextCheck(final int gen) {
+		if ((gen == this.generation) && !this.threadCheck.isShutdown()) {
+			this.nextCheck = this.threadCheck.schedule(() -> check(gen), this.currentInterval,
+					TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void check(final int gen) {
+		try {
+			if (checkForDeadLocks()) {
+				this.currentInterval = this.interval;
+			} else {
+				this.currentInterval = Math.min(Math.max((long) (this.currentInterval * this.backoffFactor),
+						this.interval), Math.max(this.maxInterval, this.interval));
+			}
+		} catch (RuntimeException ex) {
+			log.warn("Check for dead locks failed:", ex);
+		} finally {
+			scheduleNextCheck(gen);
+		}
 	}
 
-	private void checkForDeadLocks() {
+	/**
+	 * Checks for dead locks and notifies the listeners if a new dead lock is
+	 * found.
+	 *
+	 * @return true if a new dead lock was found
+	 */
+	private boolean checkForDeadLocks() {
+		this.checks.increment();
 		long[] ids = findDeadLockThreads();
 		if ((ids == null) || (ids.length == 0)) {
 			log.trace("no deadlocks found");
-		} else {
-			Thread[] threads = new Thread[ids.length];
-			for (int i = 0; i < ids.length; i++) {
-				threads[i] = findMatchingThreads(ids[i]);
-			}
-			notifyListeners(threads);
+			this.lastDeadLockedIds = Collections.emptySet();
+			return false;
+		}
+		Set<Long> idSet = new HashSet<>();
+		for (long id : ids) {
+			idSet.add(id);
+		}
+		if (idSet.equals(this.lastDeadLockedIds)) {
+			log.trace("deadlock of threads {} is already reported", idSet);
+			return false;
 		}
+		this.lastDeadLockedIds = idSet;
+		this.deadLocks.increment();
+		ThreadInfo[] infos = getThreadInfos(ids);
+		this.lastDeadLock = describeCycle(infos);
+		notifyListeners(findMatchingThreads(ids), infos);
+		return true;
 	}
 
 	private long[] findDeadLockThreads() {
+		if (mbean.isSynchronizerUsageSupported()) {
+			return mbean.findDeadlockedThreads();
+		}
 	    return mbean.findMonitorDeadlockedThreads();
 	}
 
-	private Thread findMatchingThreads(final long id) {
-		for (Thread thread : Thread.getAllStackTraces().keySet()) {
-			if (thread.getId() == id) {
-				return thread;
+	/**
+	 * Gets the infos with the lock and lock owner of the given threads. Only
+	 * the top frame of the stack is requested.
+	 */
+	private ThreadInfo[] getThreadInfos(final long[] ids) {
+		List<ThreadInfo> infos = new ArrayList<>(ids.length);
+		for (ThreadInfo info : mbean.getThreadInfo(ids, 1)) {
+			if (info != null) {
+				infos.add(info);
 			}
 		}
-		throw new IllegalStateException("thread " + id + " not found");
+		return infos.toArray(new ThreadInfo[0]);
+	}
+
+	/**
+	 * The threads are looked up via the thread groups which is much cheaper
+	 * than {@link Thread#getAllStackTraces()}.
+	 */
+	private static Thread[] findMatchingThreads(final long[] ids) {
+		ThreadGroup root = Thread.currentThread().getThreadGroup();
+		while (root.getParent() != null) {
+			root = root.getParent();
+		}
+		Thread[] all = new Thread[root.activeCount() * 2 + 1];
+		int n = root.enumerate(all, true);
+		List<Thread> threads = new ArrayList<>(ids.length);
+		for (long id : ids) {
+			for (int i = 0; i < n; i++) {
+				if (all[i].getId() == id) {
+					threads.add(all[i]);
+					break;
+				}
+			}
+		}
+		return threads.toArray(new Thread[0]);
+	}
+
+	/**
+	 * Describes the lock cycle of the given thread infos, e.g.
+	 * <code>"t1" waits for Lock1 held by "t2" -&gt; "t2" waits for Lock2
+	 * held by "t1"</code>.
+	 *
+	 * @param infos the infos of the deadlocked threads
+	 * @return the description of the cycle
+	 * @since 2.6.1
+	 */
+	public static String describeCycle(final ThreadInfo[] infos) {
+		if (infos.length == 0) {
+			return "";
+		}
+		Map<Long, ThreadInfo> byId = new HashMap<>();
+		for (ThreadInfo info : infos) {
+			byId.put(info.getThreadId(), info);
+		}
+		List<ThreadInfo> chain = new ArrayList<>();
+		ThreadInfo info = infos[0];
+		while ((info != null) && !chain.contains(info)) {
+			chain.add(info);
+			info = byId.get(info.getLockOwnerId());
+		}
+		List<ThreadInfo> cycle = (info == null) ? chain : chain.subList(chain.indexOf(info), chain.size());
+		StringBuilder buf = new StringBuilder();
+		for (ThreadInfo ti : cycle) {
+			if (buf.length() > 0) {
+				buf.append(" -> ");
+			}
+			buf.append('"').append(ti.getThreadName()).append("\" waits for ").append(ti.getLockName())
+					.append(" held by \"").append(ti.getLockOwnerName()).append('"');
+		}
+		return buf.toString();
+	}
+
+	/**
+	 * Checks immediately for dead locks.
+	 *
+	 * @return the description of the lock cycle (or an empty string)
+	 * @see ThreadDeadLockMonitorMBean#checkNow()
+	 * @since 2.6.1
+	 */
+	@Override
+	public String checkNow() {
+		checkForDeadLocks();
+		return this.lastDeadLockedIds.isEmpty() ? "" : this.lastDeadLock;
+	}
+
+	/**
+	 * Stops the monitor and unregisters it as MBean.
+	 *
+	 * @since 2.6.1
+	 */
+	public void stop() {
+		this.threadCheck.shutdownNow();
+		MBeanHelper.unregisterMBean(this.mbeanName);
 	}
 
 	/**
@@ -127,10 +295,184 @@ public final class ThreadDeadLockMonitor {
 		return listeners.remove(l);
 	}
 
-	private void notifyListeners(final Thread[] threads) {
+	private void notifyListeners(final Thread[] threads, final ThreadInfo[] infos) {
 		for (DeadLockListener l : listeners) {
-			l.deadLockDetected(threads);
+			l.deadLockDetected(threads, infos);
+		}
+	}
+
+	/**
+	 * Gets the check interval.
+	 *
+	 * @return the interval in milliseconds
+	 * @see ThreadDeadLockMonitorMBean#getInterval()
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getInterval() {
+		return this.interval;
+	}
+
+	/**
+	 * Sets the check interval. The next check is rescheduled with the new
+	 * interval.
+	 *
+	 * @param millis the interval in milliseconds
+	 * @see ThreadDeadLockMonitorMBean#setInterval(long)
+	 * @since 2.6.1
+	 */
+	@Override
+	public synchronized void setInterval(final long millis) {
+		this.interval = Math.max(millis, 1L);
+		this.currentInterval = this.interval;
+		if (this.nextCheck != null) {
+			this.nextCheck.cancel(false);
 		}
+		this.generation++;
+		scheduleNextCheck(this.generation);
+	}
+
+	/**
+	 * Gets the max. interval for the backoff.
+	 *
+	 * @return the max. interval in milliseconds
+	 * @see ThreadDeadLockMonitorMBean#getMaxInterval()
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getMaxInterval() {
+		return this.maxInterval;
+	}
+
+	/**
+	 * Sets the max. interval for the backoff.
+	 *
+	 * @param millis the max. interval in milliseconds
+	 * @see ThreadDeadLockMonitorMBean#setMaxInterval(long)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setMaxInterval(final long millis) {
+		this.maxInterval = millis;
+	}
+
+	/**
+	 * Gets the backoff factor.
+	 *
+	 * @return the backoff factor
+	 * @see ThreadDeadLockMonitorMBean#getBackoffFactor()
+	 * @since 2.6.1
+	 */
+	@Override
+	public double getBackoffFactor() {
+		return this.backoffFactor;
+	}
+
+	/**
+	 * Sets the backoff factor. A factor of 1 (default) means no backoff.
+	 *
+	 * @param factor the backoff factor (e.g. 2.0)
+	 * @see ThreadDeadLockMonitorMBean#setBackoffFactor(double)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setBackoffFactor(final double factor) {
+		this.backoffFactor = Math.max(factor, 1.0);
+	}
+
+	/**
+	 * Gets the actual interval (after backoff).
+	 *
+	 * @return the actual interval in milliseconds
+	 * @see ThreadDeadLockMonitorMBean#getCurrentInterval()
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getCurrentInterval() {
+		return this.currentInterval;
+	}
+
+	/**
+	 * Gets the number of checks.
+	 *
+	 * @return the number of checks
+	 * @see ThreadDeadLockMonitorMBean#getChecks()
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getChecks() {
+		return this.checks.sum();
+	}
+
+	/**
+	 * Gets the number of detected dead locks.
+	 *
+	 * @return the number of dead locks
+	 * @see ThreadDeadLockMonitorMBean#getDeadLocks()
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getDeadLocks() {
+		return this.deadLocks.sum();
+	}
+
+	/**
+	 * Gets the lock cycle of the last detected dead lock.
+	 *
+	 * @return the last dead lock
+	 * @see ThreadDeadLockMonitorMBean#getLastDeadLock()
+	 * @since 2.6.1
+	 */
+	@Override
+	public String getLastDeadLock() {
+		return this.lastDeadLock;
+	}
+
+	/**
+	 * Checks if the {@link LockOrderGraph} is enabled.
+	 *
+	 * @return true, if enabled
+	 * @see ThreadDeadLockMonitorMBean#isLockGraphEnabled()
+	 * @since 2.6.1
+	 */
+	@Override
+	public boolean isLockGraphEnabled() {
+		return LockOrderGraph.getInstance().isEnabled();
+	}
+
+	/**
+	 * Enables or disables the {@link LockOrderGraph}.
+	 *
+	 * @param enabled true to enable it
+	 * @see ThreadDeadLockMonitorMBean#setLockGraphEnabled(boolean)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setLockGraphEnabled(final boolean enabled) {
+		LockOrderGraph.getInstance().setEnabled(enabled);
+	}
+
+	/**
+	 * Gets the potential dead locks found by the {@link LockOrderGraph}.
+	 *
+	 * @return the potential dead locks
+	 * @see ThreadDeadLockMonitorMBean#getPotentialDeadLocks()
+	 * @since 2.6.1
+	 */
+	@Override
+	public String[] getPotentialDeadLocks() {
+		return LockOrderGraph.getInstance().getPotentialDeadLocks();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (every " + this.currentInterval + " ms)";
 	}
 
 }
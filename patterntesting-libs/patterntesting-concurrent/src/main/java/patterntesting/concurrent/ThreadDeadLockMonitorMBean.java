@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.concurrent;
+
+import patterntesting.runtime.jmx.Description;
+
+/**
+ * The Interface ThreadDeadLockMonitorMBean.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+@Description("Monitor which checks periodically for dead locks")
+public interface ThreadDeadLockMonitorMBean {
+
+	/**
+	 * Gets the check interval.
+	 *
+	 * @return the interval in milliseconds
+	 */
+	@Description("check interval in ms")
+	long getInterval();
+
+	/**
+	 * Sets the check interval.
+	 *
+	 * @param millis the interval in milliseconds
+	 */
+	void setInterval(long millis);
+
+	/**
+	 * Gets the max. interval for the backoff.
+	 *
+	 * @return the max. interval in milliseconds
+	 */
+	@Description("max. check interval in ms if the interval is increased by the backoff")
+	long getMaxInterval();
+
+	/**
+	 * Sets the max. interval for the backoff.
+	 *
+	 * @param millis the max. interval in milliseconds
+	 */
+	void setMaxInterval(long millis);
+
+	/**
+	 * Gets the backoff factor.
+	 *
+	 * @return the backoff factor
+	 */
+	@Description("factor for the interval after a check without new dead lock (1 = no backoff)")
+	double getBackoffFactor();
+
+	/**
+	 * Sets the backoff factor.
+	 *
+	 * @param factor the backoff factor
+	 */
+	void setBackoffFactor(double factor);
+
+	/**
+	 * Gets the actual interval (after backoff).
+	 *
+	 * @return the actual interval in milliseconds
+	 */
+	@Description("actual check interval in ms")
+	long getCurrentInterval();
+
+	/**
+	 * Gets the number of checks.
+	 *
+	 * @return the number of checks
+	 */
+	@Description("number of checks")
+	long getChecks();
+
+	/**
+	 * Gets the number of detected dead locks.
+	 *
+	 * @return the number of dead locks
+	 */
+	@Description("number of detected dead locks")
+	long getDeadLocks();
+
+	/**
+	 * Gets the lock cycle of the last detected dead lock.
+	 *
+	 * @return the last dead lock
+	 */
+	@Description("lock cycle of the last detected dead lock")
+	String getLastDeadLock();
+
+	/**
+	 * Checks if the lock graph is enabled.
+	 *
+	 * @return true, if enabled
+	 */
+	@Description("the lock order of @Synchronized methods is recorded")
+	boolean isLockGraphEnabled();
+
+	/**
+	 * Enables or disables the lock graph.
+	 *
+	 * @param enabled true to enable it
+	 */
+	void setLockGraphEnabled(boolean enabled);
+
+	/**
+	 * Gets the potential dead locks found by the lock graph.
+	 *
+	 * @return the potential dead locks
+	 */
+	@Description("inconsistent lock orders of @Synchronized methods")
+	String[] getPotentialDeadLocks();
+
+	/**
+	 * Checks immediately for dead locks.
+	 *
+	 * @return the description of the lock cycle (or an empty string)
+	 */
+	@Description("checks immediately for dead locks")
+	String checkNow();
+
+}
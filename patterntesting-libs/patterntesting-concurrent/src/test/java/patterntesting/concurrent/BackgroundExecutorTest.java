@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.concurrent;
+
+import org.junit.jupiter.api.Test;
+import patterntesting.annotation.concurrent.RunBackground.Mode;
+import patterntesting.runtime.util.Environment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BackgroundExecutor}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+class BackgroundExecutorTest {
+
+    /**
+     * Each mode should have its own executor.
+     */
+    @Test
+    void testOf() {
+        BackgroundExecutor pool = BackgroundExecutor.of(Mode.POOL);
+        assertEquals("POOL", pool.getMode());
+        assertSame(pool, BackgroundExecutor.of(Mode.POOL));
+        assertEquals(BackgroundExecutor.getDefaultMode().name(), BackgroundExecutor.of(Mode.DEFAULT).getMode());
+    }
+
+    /**
+     * For VIRTUAL the virtual threads are used if available. Otherwise the
+     * pool is used as fallback.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testOfVirtual() throws InterruptedException {
+        BackgroundExecutor virtual = BackgroundExecutor.of(Mode.VIRTUAL);
+        assertSame(virtual, BackgroundExecutor.of(Mode.VIRTUAL));
+        if (Runtime.version().feature() < 21) {
+            assertSame(BackgroundExecutor.of(Mode.POOL), virtual);
+        } else {
+            assertEquals("VIRTUAL", virtual.getMode());
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        virtual.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * An unknown mode in the system property should be ignored.
+     */
+    @Test
+    void testGetDefaultMode() {
+        System.setProperty(Environment.RUN_BACKGROUND_MODE, "pool");
+        try {
+            assertEquals(Mode.POOL, BackgroundExecutor.getDefaultMode());
+            System.setProperty(Environment.RUN_BACKGROUND_MODE, "unknown");
+            assertEquals(Mode.THREAD, BackgroundExecutor.getDefaultMode());
+        } finally {
+            System.clearProperty(Environment.RUN_BACKGROUND_MODE);
+        }
+    }
+
+    /**
+     * The counters should reflect completed and failed jobs.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testCounters() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor();
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute(done::countDown);
+        executor.execute(() -> {
+            done.countDown();
+            throw new IllegalStateException("provoked");
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        waitUntilIdle(executor);
+        assertEquals(2, executor.getSubmittedCount());
+        assertEquals(2, executor.getCompletedCount());
+        assertEquals(1, executor.getFailedCount());
+    }
+
+    /**
+     * If the queue is full the job should be executed by the caller.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testCallerRuns() throws InterruptedException {
+        BackgroundExecutor executor = new BackgroundExecutor(1, 1, BackgroundExecutor.Rejection.CALLER_RUNS);
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(blocker));
+            executor.execute(() -> await(blocker));
+            Thread[] runner = new Thread[1];
+            executor.execute(() -> runner[0] = Thread.currentThread());
+            assertSame(Thread.currentThread(), runner[0]);
+            assertEquals(1, executor.getRejectedCount());
+            assertEquals(1, executor.getQueueDepth());
+        } finally {
+            blocker.countDown();
+            executor.shutdown();
+        }
+        assertEquals(3, executor.getCompletedCount());
+    }
+
+    /**
+     * With ABORT a full queue should result in an exception.
+     */
+    @Test
+    void testAbort() {
+        BackgroundExecutor executor = new BackgroundExecutor(1, 1, BackgroundExecutor.Rejection.ABORT);
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(blocker));
+            executor.execute(() -> await(blocker));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+            assertEquals(1, executor.getRejectedCount());
+        } finally {
+            blocker.countDown();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The future of a submitted job should be completed with the result of
+     * the job.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSubmit() throws Exception {
+        BackgroundExecutor executor = new BackgroundExecutor();
+        CompletableFuture<Object> future = executor.submit(() -> CompletableFuture.supplyAsync(() -> 42));
+        assertEquals(42, future.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * A discarded job should cancel its future.
+     */
+    @Test
+    void testSubmitDiscarded() {
+        BackgroundExecutor executor = new BackgroundExecutor(1, 1, BackgroundExecutor.Rejection.DISCARD);
+        CountDownLatch blocker = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(blocker));
+            executor.execute(() -> await(blocker));
+            CompletableFuture<Object> future = executor.submit(() -> "discarded");
+            assertTrue(future.isCancelled());
+        } finally {
+            blocker.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntilIdle(final BackgroundExecutor executor) throws InterruptedException {
+        for (int i = 0; (i < 100) && (executor.getCompletedCount() < executor.getSubmittedCount()); i++) {
+            Thread.sleep(50);
+        }
+    }
+
+}
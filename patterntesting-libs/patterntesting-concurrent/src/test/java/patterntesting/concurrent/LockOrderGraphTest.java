@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import patterntesting.annotation.concurrent.Synchronized;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LockOrderGraph}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+class LockOrderGraphTest {
+
+    private final LockOrderGraph graph = LockOrderGraph.getInstance();
+
+    /**
+     * Resets the graph.
+     */
+    @AfterEach
+    void resetGraph() {
+        graph.setEnabled(false);
+        graph.reset();
+    }
+
+    /**
+     * An inconsistent lock order should be reported as potential dead lock
+     * although no dead lock happened.
+     */
+    @Test
+    void testInconsistentLockOrder() {
+        graph.reset();
+        graph.setEnabled(true);
+        new Account().transferTo(new Bank());
+        assertEquals(0, graph.getPotentialDeadLocks().length);
+        new Bank().transferTo(new Account());
+        String[] cycles = graph.getPotentialDeadLocks();
+        assertEquals(1, cycles.length, Arrays.toString(cycles));
+        assertTrue(cycles[0].contains(Account.class.getName() + " -> " + Bank.class.getName()), cycles[0]);
+    }
+
+    /**
+     * The lock of another object of the same class (e.g. a1.transferTo(a2))
+     * should be reported as potential dead lock, the same object
+     * (reentrant lock) not.
+     */
+    @Test
+    void testOtherInstanceOfSameClass() {
+        graph.reset();
+        graph.setEnabled(true);
+        Account account = new Account();
+        account.transferTo(account);
+        assertEquals(0, graph.getPotentialDeadLocks().length);
+        account.transferTo(new Account());
+        String[] cycles = graph.getPotentialDeadLocks();
+        assertEquals(1, cycles.length, Arrays.toString(cycles));
+        String name = Account.class.getName();
+        assertEquals(name + " -> " + name + " (another instance)", cycles[0]);
+    }
+
+    /**
+     * The object lock and the class lock are different locks. So the order
+     * object lock of Account -&gt; Bank -&gt; class lock of Account is no
+     * cycle.
+     */
+    @Test
+    void testClassLock() {
+        graph.reset();
+        graph.setEnabled(true);
+        new Account().transferTo(new Bank());
+        new Bank().audit();
+        assertEquals(0, graph.getPotentialDeadLocks().length, Arrays.toString(graph.getPotentialDeadLocks()));
+        assertFalse(graph.findPath(Bank.class.getName(), Account.class.getName() + ".class").isEmpty());
+    }
+
+    /**
+     * If the graph is disabled nothing should be recorded.
+     */
+    @Test
+    void testDisabled() {
+        graph.reset();
+        new Account().transferTo(new Bank());
+        new Bank().transferTo(new Account());
+        assertEquals(0, graph.getPotentialDeadLocks().length);
+    }
+
+    /**
+     * Test find path.
+     */
+    @Test
+    void testFindPath() {
+        graph.reset();
+        graph.acquiring("A");
+        graph.acquiring("B");
+        LockOrderGraph.released("B");
+        LockOrderGraph.released("A");
+        graph.acquiring("B");
+        graph.acquiring("C");
+        LockOrderGraph.released("C");
+        LockOrderGraph.released("B");
+        assertEquals(Arrays.asList("A", "B", "C"), graph.findPath("A", "C"));
+        assertTrue(graph.findPath("C", "A").isEmpty());
+    }
+
+    @Synchronized
+    static final class Account {
+
+        @Synchronized
+        void transferTo(final Bank bank) {
+            bank.book();
+        }
+
+        @Synchronized
+        void transferTo(final Account other) {
+            other.book();
+        }
+
+        @Synchronized
+        static void count() {
+        }
+
+        @Synchronized
+        void book() {
+        }
+
+    }
+
+    @Synchronized
+    static final class Bank {
+
+        @Synchronized
+        void transferTo(final Account account) {
+            account.book();
+        }
+
+        @Synchronized
+        void audit() {
+            Account.count();
+        }
+
+        @Synchronized
+        void book() {
+        }
+
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.concurrent;
+
+import org.junit.jupiter.api.Test;
+import patterntesting.annotation.concurrent.Synchronized;
+import patterntesting.runtime.jmx.MBeanHelper;
+import patterntesting.runtime.util.ThreadUtil;
+
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link LockStatistic}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+@Synchronized
+class LockStatisticTest {
+
+    /**
+     * Two threads calling a slow synchronized method should result in a
+     * contended lock.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testContention() throws InterruptedException {
+        LockStatistic.getInstance().reset();
+        Thread t1 = new Thread(this::slowMethod, "t1");
+        Thread t2 = new Thread(this::slowMethod, "t2");
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+        LockMonitor mon = getMonitor();
+        assertEquals(2, mon.getAcquisitions());
+        assertEquals(1, mon.getContended());
+        assertEquals(0, mon.getQueueLength());
+        assertTrue(mon.getMaxWaitNanos() >= 50_000_000L, mon.toShortString());
+        assertTrue(mon.getHoldNanos() >= 200_000_000L, mon.toShortString());
+        String[] top = LockStatistic.getInstance().getTopContended();
+        assertTrue(top.length > 0);
+        assertTrue(top[0].startsWith(mon.getLabel()), top[0]);
+    }
+
+    /**
+     * The statistic should be available as MBean.
+     */
+    @Test
+    void testStatistics() {
+        slowMethod();
+        TabularData data = LockStatistic.getInstance().getStatistics();
+        String label = getMonitor().getLabel();
+        assertTrue(data.values().stream().anyMatch(row -> label.equals(((CompositeData) row).get("Label"))));
+        assertTrue(MBeanHelper.isRegistered(LockStatistic.getInstance()));
+    }
+
+    private static LockMonitor getMonitor() {
+        for (LockMonitor mon : LockStatistic.getInstance().getMonitors()) {
+            if (mon.getLabel().endsWith("LockStatisticTest.slowMethod()")) {
+                return mon;
+            }
+        }
+        throw new AssertionError("no monitor for slowMethod()");
+    }
+
+    @Synchronized
+    private void slowMethod() {
+        ThreadUtil.sleep(100);
+    }
+
+}
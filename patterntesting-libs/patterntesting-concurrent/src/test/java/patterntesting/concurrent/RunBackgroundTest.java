@@ -24,7 +24,14 @@ import patterntesting.annotation.concurrent.RunBackground;
 import patterntesting.runtime.log.LogRecorder;
 import patterntesting.runtime.util.ThreadUtil;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * The Class RunBackgroundTest.
@@ -49,6 +56,102 @@ class RunBackgroundTest {
         log.info("record logs from background call: " + watched);
     }
 
+    /**
+     * A method with mode POOL should be executed by the pooled executor.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    void testBackgroundRunWithPool() throws InterruptedException {
+        BackgroundExecutor executor = BackgroundExecutor.of(RunBackground.Mode.POOL);
+        long submitted = executor.getSubmittedCount();
+        CountDownLatch done = new CountDownLatch(1);
+        countDownInPool(done);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(submitted + 1, executor.getSubmittedCount());
+    }
+
+    @RunBackground(mode = RunBackground.Mode.POOL)
+    private static void countDownInPool(final CountDownLatch latch) {
+        latch.countDown();
+    }
+
+    /**
+     * A method which returns a future should get a future which is completed
+     * by the background job.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testFuture() throws Exception {
+        CompletableFuture<String> future = greet("world");
+        assertEquals("hello world", future.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Several background calls can be joined.
+     */
+    @Test
+    void testJoinFutures() {
+        CompletableFuture<String> one = greet("one");
+        CompletableFuture<String> two = greet("two");
+        assertEquals("hello one, hello two", one.thenCombine(two, (a, b) -> a + ", " + b).join());
+    }
+
+    /**
+     * An exception of the background job should be propagated to the caller.
+     */
+    @Test
+    void testFutureWithException() {
+        Future<String> future = fail("provoked");
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("provoked", ex.getCause().getMessage());
+    }
+
+    /**
+     * Also an error of the background job should complete the future.
+     * Otherwise the caller would wait forever.
+     */
+    @Test
+    void testFutureWithError() {
+        CompletableFuture<String> future = failWithError("provoked");
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, ex.getCause());
+        assertEquals("provoked", ex.getCause().getMessage());
+    }
+
+    /**
+     * If the job takes longer than the timeout the future should be completed
+     * with a TimeoutException.
+     */
+    @Test
+    void testFutureWithTimeout() {
+        CompletableFuture<String> future = sleepTooLong();
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, ex.getCause());
+    }
+
+    @RunBackground(mode = RunBackground.Mode.POOL)
+    private static CompletableFuture<String> greet(final String name) {
+        return CompletableFuture.completedFuture("hello " + name);
+    }
+
+    @RunBackground
+    private static Future<String> fail(final String msg) {
+        throw new IllegalStateException(msg);
+    }
+
+    @RunBackground(mode = RunBackground.Mode.POOL)
+    private static CompletableFuture<String> failWithError(final String msg) {
+        throw new AssertionError(msg);
+    }
+
+    @RunBackground(timeout = 50, unit = TimeUnit.MILLISECONDS)
+    private static CompletableFuture<String> sleepTooLong() {
+        ThreadUtil.sleep(500, TimeUnit.MILLISECONDS);
+        return CompletableFuture.completedFuture("too late");
+    }
+
     @RunBackground
     private static void slowLog(final Logger watched) {
         ThreadUtil.sleep();
@@ -20,9 +20,14 @@ package patterntesting.concurrent;
 import org.junit.jupiter.api.Test;
 import patterntesting.annotation.concurrent.RunParallel;
 import patterntesting.concurrent.test.Counter;
+import patterntesting.runtime.monitor.ProfileMonitor;
+import patterntesting.runtime.monitor.ProfileStatistic;
 import patterntesting.runtime.util.ThreadUtil;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * The Class RunParallelTest.
@@ -79,4 +84,66 @@ public final class RunParallelTest {
         assertEquals(n0 + 2, Counter.getNumberOfInstances());
     }
 
+    /**
+     * The result of each thread should be collected in the last run.
+     */
+    @Test
+    public void testLastRun() {
+        AtomicInteger n = new AtomicInteger();
+        int result = incrementAndGet(n);
+        ParallelRun run = RunParallelAspect.getLastRun();
+        assertEquals(4, run.getThreads());
+        assertTrue(run.getResults().containsAll(Arrays.asList(1, 2, 3, 4)), run.getResults().toString());
+        assertTrue(run.getResults().contains(result));
+        assertFalse(run.hasFailed());
+        assertEquals(4, run.getHistogram().getTotalCount());
+        ProfileMonitor mon = ProfileStatistic.getInstance().getProfileMonitor(
+                "@RunParallel patterntesting.concurrent.RunParallelTest.incrementAndGet(AtomicInteger)");
+        assertNotNull(mon);
+        assertTrue(mon.getHits() >= 4);
+    }
+
+    @RunParallel(4)
+    private static int incrementAndGet(final AtomicInteger n) {
+        return n.incrementAndGet();
+    }
+
+    /**
+     * All threads should run at the same time.
+     */
+    @Test
+    public void testBarrier() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        measureActive(active, maxActive);
+        assertEquals(5, maxActive.get());
+    }
+
+    @RunParallel(5)
+    private static void measureActive(final AtomicInteger active, final AtomicInteger maxActive) {
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        ThreadUtil.sleep(200);
+        active.decrementAndGet();
+    }
+
+    /**
+     * The exception of a thread should be thrown to the caller. The other
+     * threads should be finished nevertheless.
+     */
+    @Test
+    public void testException() {
+        AtomicInteger n = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> failOnce(n));
+        ParallelRun run = RunParallelAspect.getLastRun();
+        assertEquals(1, run.getExceptions().size());
+        assertEquals(3, n.get());
+    }
+
+    @RunParallel(3)
+    private static void failOnce(final AtomicInteger n) {
+        if (n.incrementAndGet() == 2) {
+            throw new IllegalStateException("provoked");
+        }
+    }
+
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.concurrent;
+
+import org.junit.jupiter.api.Test;
+import patterntesting.annotation.concurrent.Synchronized;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link SynchronizedLock}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+class SynchronizedLockTest {
+
+    private final SynchronizedLock lock = new SynchronizedLock();
+
+    /**
+     * Several readers should get the lock at the same time, a writer not.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testReadLock() throws Exception {
+        Synchronized read = getAnnotation("read");
+        Synchronized exclusive = getAnnotation("exclusive");
+        assertTrue(lock.tryLock(read, null, 1, TimeUnit.SECONDS));
+        try {
+            assertTrue(tryLockInOtherThread(read, null));
+            assertFalse(tryLockInOtherThread(exclusive, null));
+        } finally {
+            lock.unlock(read, null);
+        }
+        assertTrue(tryLockInOtherThread(exclusive, null));
+    }
+
+    /**
+     * Different keys should use different stripes, the same key the same
+     * stripe.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testStripedLock() throws Exception {
+        Synchronized striped = getAnnotation("striped");
+        assertNotSame(lock.getStripe(striped, 1), lock.getStripe(striped, 2));
+        assertTrue(lock.tryLock(striped, 1, 1, TimeUnit.SECONDS));
+        try {
+            assertTrue(tryLockInOtherThread(striped, 2));
+            assertFalse(tryLockInOtherThread(striped, 1));
+            assertFalse(tryLockInOtherThread(getAnnotation("exclusive"), null));
+        } finally {
+            lock.unlock(striped, 1);
+        }
+        assertTrue(tryLockInOtherThread(striped, 1));
+    }
+
+    /**
+     * An exclusive method called from a read method would wait forever for
+     * the lock. So it should fail.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testExclusiveInsideRead() throws Exception {
+        Synchronized read = getAnnotation("read");
+        Synchronized exclusive = getAnnotation("exclusive");
+        LockMonitor mon = new LockMonitor("Annotated.exclusive()");
+        assertTrue(lock.tryLock(read, null, 1, TimeUnit.SECONDS, mon));
+        try {
+            IllegalMonitorStateException ex = assertThrows(IllegalMonitorStateException.class,
+                    () -> lock.tryLock(exclusive, null, 1, TimeUnit.SECONDS, mon));
+            assertTrue(ex.getMessage().contains("Annotated.exclusive()"), ex.getMessage());
+        } finally {
+            lock.unlock(read, null);
+        }
+        assertTrue(lock.tryLock(exclusive, null, 1, TimeUnit.SECONDS, mon));
+        try {
+            assertTrue(lock.tryLock(read, null, 1, TimeUnit.SECONDS, mon));
+            lock.unlock(read, null);
+        } finally {
+            lock.unlock(exclusive, null);
+        }
+    }
+
+    private boolean tryLockInOtherThread(final Synchronized sync, final Object key) throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                boolean locked = lock.tryLock(sync, key, 50, TimeUnit.MILLISECONDS);
+                if (locked) {
+                    lock.unlock(sync, key);
+                }
+                return locked;
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Synchronized getAnnotation(final String methodName) throws NoSuchMethodException {
+        return Annotated.class.getDeclaredMethod(methodName).getAnnotation(Synchronized.class);
+    }
+
+    @Synchronized
+    private static final class Annotated {
+
+        @Synchronized
+        void exclusive() {
+        }
+
+        @Synchronized(mode = Synchronized.Mode.READ)
+        void read() {
+        }
+
+        @Synchronized(mode = Synchronized.Mode.STRIPED, stripes = 4)
+        void striped() {
+        }
+
+    }
+
+}
@@ -26,7 +26,9 @@ import patterntesting.annotation.concurrent.ThreadSafe;
 import patterntesting.runtime.annotation.ProfileMe;
 import patterntesting.runtime.util.ThreadUtil;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -63,6 +65,36 @@ public final class SynchronizedTest implements Runnable {
         assertEquals(n + 2, counter, "lost update");
 	}
 
+	/**
+	 * Read methods should be executed by several threads at the same time.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public final void testReadMode() throws InterruptedException {
+		CountDownLatch readers = new CountDownLatch(2);
+		AtomicInteger met = new AtomicInteger();
+		Thread t1 = new Thread(() -> awaitOtherReader(readers, met), "r1");
+		Thread t2 = new Thread(() -> awaitOtherReader(readers, met), "r2");
+		t1.start();
+		t2.start();
+		t1.join();
+		t2.join();
+		assertEquals(2, met.get(), "readers were serialized");
+	}
+
+	@Synchronized(mode = Synchronized.Mode.READ)
+	private void awaitOtherReader(final CountDownLatch readers, final AtomicInteger met) {
+		readers.countDown();
+		try {
+			if (readers.await(500, TimeUnit.MILLISECONDS)) {
+				met.incrementAndGet();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
 	/////   do some stuff to test multi-threading   ///////////////////////////
 
 	/** this counter needs to be synchronized */
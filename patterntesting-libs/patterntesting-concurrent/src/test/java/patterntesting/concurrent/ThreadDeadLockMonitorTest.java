@@ -24,8 +24,14 @@ import org.junit.jupiter.api.Test;
 import patterntesting.concurrent.test.DeadLocker;
 import patterntesting.runtime.util.ThreadUtil;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * This test class will provocate a thread deadlock.
@@ -55,6 +61,77 @@ public final class ThreadDeadLockMonitorTest implements DeadLockListener {
 		}
 	}
 
+	/**
+	 * Dead locks of {@link ReentrantLock}s should be detected and reported
+	 * with the lock cycle.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@Test
+	public void testLockDeadlockDetection() throws InterruptedException {
+		ThreadDeadLockMonitor monitor = new ThreadDeadLockMonitor(1, TimeUnit.HOURS);
+		ReentrantLock lock1 = new ReentrantLock();
+		ReentrantLock lock2 = new ReentrantLock();
+		CountDownLatch bothLocked = new CountDownLatch(2);
+		Thread t1 = new Thread(() -> lockBoth(lock1, lock2, bothLocked), "dl-1");
+		Thread t2 = new Thread(() -> lockBoth(lock2, lock1, bothLocked), "dl-2");
+		t1.start();
+		t2.start();
+		try {
+			String cycle = "";
+			for (int i = 0; (i < 100) && cycle.isEmpty(); i++) {
+				ThreadUtil.sleep(20);
+				cycle = monitor.checkNow();
+			}
+			assertTrue(cycle.contains("\"dl-1\" waits for"), cycle);
+			assertTrue(cycle.contains("held by \"dl-2\""), cycle);
+			assertEquals(1, monitor.getDeadLocks());
+			monitor.checkNow();
+			assertEquals(1, monitor.getDeadLocks(), "same dead lock should be reported only once");
+		} finally {
+			t1.interrupt();
+			t2.interrupt();
+			monitor.stop();
+		}
+	}
+
+	private static void lockBoth(final ReentrantLock first, final ReentrantLock second, final CountDownLatch latch) {
+		try {
+			first.lockInterruptibly();
+			try {
+				latch.countDown();
+				latch.await();
+				second.lockInterruptibly();
+				second.unlock();
+			} finally {
+				first.unlock();
+			}
+		} catch (InterruptedException ex) {
+			log.debug("{} interrupted", Thread.currentThread());
+		}
+	}
+
+	/**
+	 * The interval should be increased by the backoff factor.
+	 */
+	@Test
+	public void testBackoff() {
+		ThreadDeadLockMonitor monitor = new ThreadDeadLockMonitor(10);
+		try {
+			monitor.setBackoffFactor(2.0);
+			monitor.setMaxInterval(40);
+			for (int i = 0; (i < 100) && (monitor.getCurrentInterval() < 40); i++) {
+				ThreadUtil.sleep(10);
+			}
+			assertEquals(40, monitor.getCurrentInterval());
+			assertTrue(monitor.getChecks() >= 2);
+			monitor.setInterval(20);
+			assertEquals(20, monitor.getCurrentInterval());
+		} finally {
+			monitor.stop();
+		}
+	}
+
 	/**
 	 * To provocate a deadlock we must first call acquireTwoLocks() which
 	 * acquires the this lock (because it is synchronized). Before
@@ -19,6 +19,14 @@
  */
 package patterntesting.exception;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import javax.management.JMException;
 
 import org.aspectj.lang.JoinPoint;
@@ -44,6 +52,20 @@ import patterntesting.runtime.util.*;
  * call <i>ExceptionFactory.getInstance()</i> (with the creation of
  * the instance it is also registered as MBean).
  * </p>
+ * <p>
+ * Since 2.6.1 the ExceptionFactory does not lock any longer. The number of
+ * exceptions which can be still provoked is an atomic counter, so the check
+ * if the factory is active is a single volatile read. The other settings
+ * (scope, fire, limit) are published as immutable settings which are
+ * replaced as a whole if one of them changes.
+ * </p>
+ * <p>
+ * With {@link FaultRule}s faults can be injected with a given probability,
+ * rate or in bursts for a package, class or method. Also latency can be
+ * injected instead of an exception. If rules are added only the joinpoints
+ * matching one of these rules get a fault. Which rule matches a joinpoint is
+ * cached for its static part.
+ * </p>
  *
  * @author <a href="boehm@javatux.de">oliver</a>
  * @version $Revision: 1.21 $
@@ -54,17 +76,15 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
     private static final Logger LOG = LoggerFactory.getLogger(ExceptionFactory.class);
     private static final ExceptionFactory INSTANCE;
     /** number of provoked exceptions. */
-    private long numberOfProvoked = 0L;
-    /** maximal number of provoked exceptions. */
-    private long maxNumberOfProvoked = 0L;
+    private final AtomicLong numberOfProvoked = new AtomicLong();
+    /** number of exceptions which can be still provoked (Long.MAX_VALUE = unlimited). */
+    private final AtomicLong remaining = new AtomicLong();
 	/** the last provoked exception which was thrown. */
-    private Throwable lastProvoked;
-    /** only classes and subclasses of 'limitedTo' can be provoked. */
-    private Class<? extends Throwable> limitedTo = Throwable.class;
-    /** to exception to be fired */
-    private Class<? extends Throwable> fire = null;
-    /** the scope can be limited to a single class. */
-    private Class<?> scope;
+    private volatile Throwable lastProvoked;
+    /** number of injected latencies. */
+    private final LongAdder numberOfDelays = new LongAdder();
+    /** the actual settings (scope, fire, limit and rules). */
+    private volatile Settings settings = Settings.DEFAULT;
 
     static {
     	INSTANCE = new ExceptionFactory();
@@ -131,8 +151,10 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @return the number of provoked exceptions
      * @see ExceptionFactoryMBean#getMaxNumberOfProvoked()
      */
-    public synchronized long getMaxNumberOfProvoked() {
-        return this.maxNumberOfProvoked;
+    public long getMaxNumberOfProvoked() {
+        long n = this.remaining.get();
+        long provoked = this.numberOfProvoked.get();
+        return (n > Long.MAX_VALUE - provoked) ? Long.MAX_VALUE : provoked + n;
     }
 
     /**
@@ -141,8 +163,8 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @return the number of provoked exceptions
      * @see ExceptionFactoryMBean#getNumberOfProvoked()
      */
-    public synchronized long getNumberOfProvoked() {
-        return this.numberOfProvoked;
+    public long getNumberOfProvoked() {
+        return this.numberOfProvoked.get();
     }
 
     /**
@@ -152,18 +174,18 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @param n the maximal number of provoked exceptions
      * @see ExceptionFactoryMBean#setMaxNumberOfProvoked(long)
      */
-    public synchronized void setMaxNumberOfProvoked(final long n) {
-        this.maxNumberOfProvoked = n;
+    public void setMaxNumberOfProvoked(final long n) {
+        this.remaining.set((n == Long.MAX_VALUE) ? n : Math.max(n - this.numberOfProvoked.get(), 0L));
     }
 
     /**
-     * Checks if is active.
+     * Checks if is active. This is a single volatile read.
      *
      * @return true if active
      * @see ExceptionFactoryMBean#isActive()
      */
-    public synchronized boolean isActive() {
-		return this.maxNumberOfProvoked > this.numberOfProvoked;
+    public boolean isActive() {
+		return this.remaining.get() > 0L;
 	}
 
     /**
@@ -172,9 +194,8 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @param active true or false
 	 * @see ExceptionFactoryMBean#setActive(boolean)
 	 */
-    public synchronized void setActive(final boolean active) {
-		this.maxNumberOfProvoked = active ? Long.MAX_VALUE
-                : this.numberOfProvoked;
+    public void setActive(final boolean active) {
+		this.remaining.set(active ? Long.MAX_VALUE : 0L);
 	}
 
     /**
@@ -182,7 +203,7 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      *
      * @see ExceptionFactoryMBean#activate()
      */
-    public synchronized void activate() {
+    public void activate() {
 		this.setActive(true);
 	}
 
@@ -191,8 +212,8 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      *
      * @see ExceptionFactoryMBean#activateOnce()
      */
-    public synchronized void activateOnce() {
-        this.maxNumberOfProvoked = this.numberOfProvoked + 1;
+    public void activateOnce() {
+        this.remaining.set(1L);
     }
 
     /**
@@ -200,7 +221,7 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      *
      * @see ExceptionFactoryMBean#deactivate()
      */
-    public synchronized void deactivate() {
+    public void deactivate() {
 		this.setActive(false);
 	}
 
@@ -221,38 +242,10 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @return the last exception which was thrown by one of the provoke methods
 	 * @see ExceptionFactoryMBean#getLastProvoked()
 	 */
-	public synchronized Throwable getLastProvoked() {
+	public Throwable getLastProvoked() {
 		return lastProvoked;
 	}
 
-	/**
-	 * "Not limited" means, limitedTo is a super class of the given type.
-	 * @param type the class type
-	 * @return true or false
-	 */
-	private synchronized boolean isNotLimited(final Class<?> type) {
-		if (type.equals(limitedTo)) {
-			return true;
-		}
-		if (type.equals(Throwable.class)) {
-			return false;
-		}
-		return isNotLimited(type.getSuperclass());
-	}
-
-	/**
-	 * "can be fired" means, that the given type is a subclass of "fire".
-	 * @param type the exception type
-	 * @return true or false
-	 */
-	private boolean canBeFired(final Class<? extends Throwable> type) {
-//	    return this.fire.isAssignableFrom(type);
-	    if (this.fire == null) {
-	        return true;
-	    }
-        return type.isAssignableFrom(this.fire);
-	}
-
     /**
      * Be careful - you can provoke any Exception with the method without the
      * need to declare it with a throws statement. For example
@@ -262,10 +255,11 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @param type e.g. IOException.class
      * @see ExceptionThrower#provoke(Class)
      */
-    public synchronized void provoke(final Class<? extends Throwable> type) {
-        if (Assertions.ENABLED && this.isActive() && this.isNotLimited(type)
-                && this.canBeFired(type)) {
-            fire(type);
+    public void provoke(final Class<? extends Throwable> type) {
+        Settings actual = this.settings;
+        if (Assertions.ENABLED && this.isActive() && actual.isNotLimited(type)
+                && actual.canBeFired(type)) {
+            fire(type, actual);
     	} else {
     		if (LOG.isTraceEnabled()) {
                 LOG.trace("active flag not set or " + this.getFire()
@@ -274,12 +268,28 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
     	}
     }
 
-    private void fire(final Class<? extends Throwable> type) {
-        this.numberOfProvoked++;
-        if (this.fire == null) {
-            ExceptionThrower.provoke(type);
-        } else {
-            ExceptionThrower.provoke(this.fire);
+    /**
+     * Fires the exception if there is still one left. The counter is
+     * decremented with compare-and-set so that the limit is never exceeded.
+     */
+    private void fire(final Class<? extends Throwable> type, final Settings actual) {
+        long n;
+        do {
+            n = this.remaining.get();
+            if (n <= 0L) {
+                return;
+            }
+        } while ((n != Long.MAX_VALUE) && !this.remaining.compareAndSet(n, n - 1));
+        this.numberOfProvoked.incrementAndGet();
+        try {
+            if (actual.fire == null) {
+                ExceptionThrower.provoke(type);
+            } else {
+                ExceptionThrower.provoke(actual.fire);
+            }
+        } catch (Throwable t) {
+            this.lastProvoked = t;
+            throw t;
         }
     }
 
@@ -287,14 +297,27 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * This methods throws one of the exception which is possible for the given
      * joinpoint. But only if the joinpoint matches one of the registered
      * objects, classes or threads.
+     * <p>
+     * If the factory is not active this method returns after a single
+     * volatile read.
+     * </p>
      *
      * @param jp the joinpoint for which an exception should be provoked
      */
     @SuppressWarnings("unchecked")
-    public synchronized void provokeFor(final JoinPoint jp) {
-        if ((this.scope == null) || this.matchScope(jp.getThis())) {
-            CodeSignature sig = (CodeSignature) jp.getSignature();
-            this.provokeOneOf(sig.getExceptionTypes());
+    public void provokeFor(final JoinPoint jp) {
+        if (!this.isActive()) {
+            return;
+        }
+        Settings actual = this.settings;
+        if ((actual.scope == null) || actual.matchScope(jp.getThis())) {
+            FaultRule rule = actual.getRuleFor(jp.getStaticPart());
+            if (rule == null) {
+                CodeSignature sig = (CodeSignature) jp.getSignature();
+                this.provokeOneOf(sig.getExceptionTypes(), actual);
+            } else if ((rule != Settings.NO_RULE) && rule.shouldFire()) {
+                this.inject(rule, jp, actual);
+            }
         } else {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("no excecption provoked for "
@@ -304,19 +327,23 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
         }
     }
 
-    private boolean matchScope(final Object target) {
-        return matchScope(target.getClass());
-    }
-
-    /**
-     * Checks if a scope is limited to the class itself. Subclasses and
-     * interfaces are also supported as parameter.
-     *
-     * @param target the target class
-     * @return true if target and scope are the same class
-     */
-    private boolean matchScope(final Class<?> target) {
-        return this.scope.isAssignableFrom(target);
+    @SuppressWarnings("unchecked")
+    private void inject(final FaultRule rule, final JoinPoint jp, final Settings actual) {
+        if (rule.isLatency()) {
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("{} delays {}", rule, JoinPointHelper.getAsShortString(jp));
+            }
+            this.numberOfDelays.increment();
+            rule.injectLatency();
+        } else {
+            CodeSignature sig = (CodeSignature) jp.getSignature();
+            try {
+                this.provokeOneOf(sig.getExceptionTypes(), actual);
+            } catch (Throwable t) {
+                rule.countFault();
+                throw t;
+            }
+        }
     }
 
     /**
@@ -328,18 +355,22 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      *
      * @param types a class array with exception types
      */
-    protected synchronized void provokeOneOf(final Class<? extends Throwable>[] types) {
+    protected void provokeOneOf(final Class<? extends Throwable>[] types) {
+        this.provokeOneOf(types, this.settings);
+    }
+
+    private void provokeOneOf(final Class<? extends Throwable>[] types, final Settings actual) {
     	if (this.isActive()) {
 	        for (int i = 0; i < types.length; i++) {
-	        	if (isNotLimited(types[i]) && this.canBeFired(types[i])) {
-	        	    fire(types[i]);
+	        	if (actual.isNotLimited(types[i]) && actual.canBeFired(types[i])) {
+	        	    fire(types[i], actual);
 	        	    break;
 	        	}
 	        }
     	} else {
     		if (LOG.isTraceEnabled()) {
                 LOG.trace("active flag not set or not a subclass of "
-                        + this.limitedTo + " -> no "
+                        + actual.limitedTo + " -> no "
                         + Converter.toString(types) + " thrown");
     		}
     	}
@@ -359,7 +390,7 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @see patterntesting.exception.ExceptionFactoryMBean#setScope(java.lang.String)
      */
     public synchronized void setScope(final Class<?> target) {
-        this.scope = target;
+        this.settings = this.settings.withScope(target);
     }
 
     /**
@@ -375,7 +406,7 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @see patterntesting.exception.ExceptionFactoryMBean#setScope(java.lang.String)
      * @since 1.1
      */
-    public synchronized void setScope(final String classname) {
+    public void setScope(final String classname) {
         try {
             Class<?> clazz = Class.forName(classname);
             this.setScope(clazz);
@@ -389,9 +420,8 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      *
      * @since 1.1
      */
-    public synchronized void resetScope() {
-        this.scope = null;
-
+    public void resetScope() {
+        this.setScope((Class<?>) null);
     }
 
     /**
@@ -402,11 +432,12 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @see patterntesting.exception.ExceptionFactoryMBean#getScope()
      * @since 1.1
      */
-    public synchronized String getScope() {
-        if (this.scope == null) {
+    public String getScope() {
+        Class<?> scope = this.settings.scope;
+        if (scope == null) {
             return ALL_CLASSES;
         }
-        return this.scope.getName();
+        return scope.getName();
     }
 
     /**
@@ -418,11 +449,12 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @see patterntesting.exception.ExceptionFactoryMBean#getFire()
      * @since 1.1
      */
-    public synchronized String getFire() {
-        if (this.fire == null) {
+    public String getFire() {
+        Class<? extends Throwable> fire = this.settings.fire;
+        if (fire == null) {
             return "all exceptions";
         }
-        return this.fire.getName();
+        return fire.getName();
     }
 
     /**
@@ -439,8 +471,8 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @since 1.1
      */
     @SuppressWarnings("unchecked")
-    public synchronized void setFire(final String classname) throws ClassNotFoundException {
-        this.fire = (Class<? extends Throwable>) Class.forName(classname);
+    public void setFire(final String classname) throws ClassNotFoundException {
+        this.setFire((Class<? extends Throwable>) Class.forName(classname));
     }
 
     /**
@@ -451,7 +483,7 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @since 1.1
      */
     public synchronized void setFire(final Class<? extends Throwable> fire) {
-        this.fire = fire;
+        this.settings = this.settings.withFire(fire);
     }
 
     /**
@@ -459,8 +491,109 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @see patterntesting.exception.ExceptionFactoryMBean#resetFire()
      * @since 1.1
      */
-    public synchronized void resetFire() {
-        this.fire = null;
+    public void resetFire() {
+        this.setFire((Class<? extends Throwable>) null);
+    }
+
+    /**
+     * Adds a rule. As soon as a rule is added only the joinpoints which
+     * match a rule will get a fault.
+     *
+     * @param rule the fault rule
+     * @since 2.6.1
+     */
+    public synchronized void addRule(final FaultRule rule) {
+        this.settings = this.settings.withRule(rule);
+        LOG.debug("{} added.", rule);
+    }
+
+    /**
+     * Adds a rule which provokes an exception with the given probability.
+     *
+     * @param pattern package, class or signature pattern
+     * @param probability the probability between 0 and 1
+     * @see ExceptionFactoryMBean#addProbabilityRule(String, double)
+     * @since 2.6.1
+     */
+    public void addProbabilityRule(final String pattern, final double probability) {
+        this.addRule(FaultRule.withProbability(pattern, probability));
+    }
+
+    /**
+     * Adds a rule which provokes not more than n exceptions per second.
+     *
+     * @param pattern package, class or signature pattern
+     * @param n number of exceptions per second
+     * @see ExceptionFactoryMBean#addRateRule(String, int)
+     * @since 2.6.1
+     */
+    public void addRateRule(final String pattern, final int n) {
+        this.addRule(FaultRule.withRate(pattern, n));
+    }
+
+    /**
+     * Adds a rule which provokes a burst of n exceptions every given seconds.
+     *
+     * @param pattern package, class or signature pattern
+     * @param n the size of the burst
+     * @param seconds the interval between two bursts
+     * @see ExceptionFactoryMBean#addBurstRule(String, int, int)
+     * @since 2.6.1
+     */
+    public void addBurstRule(final String pattern, final int n, final int seconds) {
+        this.addRule(FaultRule.withBurst(pattern, n, seconds));
+    }
+
+    /**
+     * Adds a rule which injects latency instead of an exception.
+     *
+     * @param pattern package, class or signature pattern
+     * @param probability the probability between 0 and 1
+     * @param millis the latency in milliseconds
+     * @see ExceptionFactoryMBean#addLatencyRule(String, double, long)
+     * @since 2.6.1
+     */
+    public void addLatencyRule(final String pattern, final double probability, final long millis) {
+        this.addRule(FaultRule.withLatency(pattern, probability, millis));
+    }
+
+    /**
+     * Gets the rules.
+     *
+     * @return the rules with the number of injected faults
+     * @see ExceptionFactoryMBean#getRules()
+     * @since 2.6.1
+     */
+    public String[] getRules() {
+        List<FaultRule> rules = this.settings.rules;
+        String[] descriptions = new String[rules.size()];
+        for (int i = 0; i < descriptions.length; i++) {
+            FaultRule rule = rules.get(i);
+            descriptions[i] = rule + ": " + rule.getNumberOfFaults() + " faults";
+        }
+        return descriptions;
+    }
+
+    /**
+     * Removes all rules. Afterwards the faults are provoked for all
+     * joinpoints again.
+     *
+     * @see ExceptionFactoryMBean#clearRules()
+     * @since 2.6.1
+     */
+    public synchronized void clearRules() {
+        this.settings = this.settings.withoutRules();
+    }
+
+    /**
+     * Gets the number of injected latencies.
+     *
+     * @return the number of delays
+     * @see ExceptionFactoryMBean#getNumberOfDelays()
+     * @since 2.6.1
+     */
+    public long getNumberOfDelays() {
+        return this.numberOfDelays.sum();
     }
 
     /**
@@ -469,10 +602,125 @@ public final class ExceptionFactory implements ExceptionFactoryMBean {
      * @since 1.1
      */
     public synchronized void reset() {
-        this.resetScope();
-        this.resetFire();
+        this.settings = Settings.DEFAULT;
         this.deactivate();
-        this.limitedTo = Throwable.class;
+    }
+
+    /**
+     * The settings of the ExceptionFactory. They are immutable so they can
+     * be read without lock. A change creates new settings.
+     *
+     * @since 2.6.1
+     */
+    static final class Settings {
+
+        /** The default settings (all classes, all exceptions). */
+        static final Settings DEFAULT = new Settings(null, null, Throwable.class,
+                Collections.emptyList());
+        /** Marker for joinpoints which does not match any rule. */
+        static final FaultRule NO_RULE = FaultRule.withProbability("", 0.0);
+
+        /** the scope can be limited to a single class. */
+        final Class<?> scope;
+        /** to exception to be fired */
+        final Class<? extends Throwable> fire;
+        /** only classes and subclasses of 'limitedTo' can be provoked. */
+        final Class<? extends Throwable> limitedTo;
+        /** the fault rules. */
+        final List<FaultRule> rules;
+        /** the matching rule for each joinpoint. */
+        private final ConcurrentMap<JoinPoint.StaticPart, FaultRule> ruleCache;
+
+        private Settings(final Class<?> scope, final Class<? extends Throwable> fire,
+                final Class<? extends Throwable> limitedTo, final List<FaultRule> rules) {
+            this(scope, fire, limitedTo, rules, new ConcurrentHashMap<>());
+        }
+
+        private Settings(final Class<?> scope, final Class<? extends Throwable> fire,
+                final Class<? extends Throwable> limitedTo, final List<FaultRule> rules,
+                final ConcurrentMap<JoinPoint.StaticPart, FaultRule> ruleCache) {
+            this.scope = scope;
+            this.fire = fire;
+            this.limitedTo = limitedTo;
+            this.rules = rules;
+            this.ruleCache = ruleCache;
+        }
+
+        Settings withScope(final Class<?> newScope) {
+            return new Settings(newScope, this.fire, this.limitedTo, this.rules, this.ruleCache);
+        }
+
+        Settings withFire(final Class<? extends Throwable> newFire) {
+            return new Settings(this.scope, newFire, this.limitedTo, this.rules, this.ruleCache);
+        }
+
+        Settings withRule(final FaultRule rule) {
+            List<FaultRule> newRules = new ArrayList<>(this.rules);
+            newRules.add(rule);
+            return new Settings(this.scope, this.fire, this.limitedTo,
+                    Collections.unmodifiableList(newRules));
+        }
+
+        Settings withoutRules() {
+            return new Settings(this.scope, this.fire, this.limitedTo, Collections.emptyList());
+        }
+
+        /**
+         * Gets the first rule which matches the given joinpoint. The result
+         * is cached so that the pattern matching is done only once for each
+         * joinpoint.
+         *
+         * @param jpsp the static part of the joinpoint
+         * @return null if no rules are defined, NO_RULE if no rule matches
+         */
+        FaultRule getRuleFor(final JoinPoint.StaticPart jpsp) {
+            if (this.rules.isEmpty()) {
+                return null;
+            }
+            return this.ruleCache.computeIfAbsent(jpsp, this::findRuleFor);
+        }
+
+        private FaultRule findRuleFor(final JoinPoint.StaticPart jpsp) {
+            for (FaultRule rule : this.rules) {
+                if (rule.matches(jpsp)) {
+                    return rule;
+                }
+            }
+            return NO_RULE;
+        }
+
+        /**
+         * Checks if a scope is limited to the class itself. Subclasses and
+         * interfaces are also supported as parameter.
+         *
+         * @param target the target object
+         * @return true if target and scope are the same class
+         */
+        boolean matchScope(final Object target) {
+            return (target != null) && this.scope.isAssignableFrom(target.getClass());
+        }
+
+        /**
+         * "Not limited" means, limitedTo is a super class of the given type.
+         * @param type the class type
+         * @return true or false
+         */
+        boolean isNotLimited(final Class<?> type) {
+            return this.limitedTo.isAssignableFrom(type);
+        }
+
+        /**
+         * "can be fired" means, that the given type is a subclass of "fire".
+         * @param type the exception type
+         * @return true or false
+         */
+        boolean canBeFired(final Class<? extends Throwable> type) {
+            if (this.fire == null) {
+                return true;
+            }
+            return type.isAssignableFrom(this.fire);
+        }
+
     }
 
 }
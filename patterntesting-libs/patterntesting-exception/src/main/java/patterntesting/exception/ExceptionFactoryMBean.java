@@ -182,6 +182,75 @@ public interface ExceptionFactoryMBean {
     @Description("returns the scope for which the exceptions will be thrown")
     String getScope();
 
+    /**
+     * Adds a rule which provokes an exception with the given probability
+     * for a package, class or method. Wildcards ("*") are allowed.
+     *
+     * @param pattern e.g. "patterntesting.sample" or "*.Crazy.read*"
+     * @param probability the probability between 0 and 1
+     * @since 2.6.1
+     */
+    @Description("provoke exceptions with the given probability for the pattern")
+    void addProbabilityRule(String pattern, double probability);
+
+    /**
+     * Adds a rule which provokes not more than n exceptions per second.
+     *
+     * @param pattern package, class or signature pattern
+     * @param n number of exceptions per second
+     * @since 2.6.1
+     */
+    @Description("provoke n exceptions per second for the pattern")
+    void addRateRule(String pattern, int n);
+
+    /**
+     * Adds a rule which provokes a burst of n exceptions every given seconds.
+     *
+     * @param pattern package, class or signature pattern
+     * @param n the size of the burst
+     * @param seconds the interval between two bursts
+     * @since 2.6.1
+     */
+    @Description("provoke a burst of n exceptions every given seconds for the pattern")
+    void addBurstRule(String pattern, int n, int seconds);
+
+    /**
+     * Adds a rule which injects latency instead of an exception.
+     *
+     * @param pattern package, class or signature pattern
+     * @param probability the probability between 0 and 1
+     * @param millis the latency in milliseconds
+     * @since 2.6.1
+     */
+    @Description("inject latency with the given probability for the pattern")
+    void addLatencyRule(String pattern, double probability, long millis);
+
+    /**
+     * Gets the rules.
+     *
+     * @return the rules with the number of injected faults
+     * @since 2.6.1
+     */
+    @Description("the fault rules")
+    String[] getRules();
+
+    /**
+     * Removes all rules.
+     *
+     * @since 2.6.1
+     */
+    @Description("removes all rules (exceptions are provoked everywhere again)")
+    void clearRules();
+
+    /**
+     * Gets the number of injected latencies.
+     *
+     * @return the number of delays
+     * @since 2.6.1
+     */
+    @Description("total number of injected latencies")
+    long getNumberOfDelays();
+
     /**
      * Resets all preferences.
      * @since 1.1
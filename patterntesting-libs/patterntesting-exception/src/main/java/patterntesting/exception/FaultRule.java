@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.exception;
+
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+
+/**
+ * A FaultRule describes for which joinpoints the {@link ExceptionFactory}
+ * should inject a fault and how often. The pattern is compared with the
+ * declaring type and the name of the signature (e.g.
+ * "patterntesting.sample.Crazy.read"):
+ * <ul>
+ * <li>a pattern without wildcard matches the package, class or method with
+ * this name and everything below it (e.g. "patterntesting.sample")</li>
+ * <li>a pattern with "*" is treated as wildcard (e.g. "*.Crazy.read*")</li>
+ * </ul>
+ * How often the fault is injected can be limited by a probability and by a
+ * maximal number of faults per time window. With a window of 1 second this
+ * is a rate, with a longer window the faults come in bursts. Instead of an
+ * exception a rule can also inject latency.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class FaultRule {
+
+	private final String pattern;
+	private final Pattern regex;
+	private final double probability;
+	private final int limit;
+	private final long windowMillis;
+	private final long latencyNanos;
+	/** The current window (high 32 bits) and its number of faults (low 32 bits). */
+	private final AtomicLong windowCount = new AtomicLong();
+	private final LongAdder faults = new LongAdder();
+
+	/**
+	 * Instantiates a new fault rule.
+	 *
+	 * @param pattern
+	 *            the package, class or signature pattern
+	 * @param probability
+	 *            the probability between 0 and 1 (1 means always)
+	 * @param limit
+	 *            maximal number of faults per window (0 means unlimited)
+	 * @param window
+	 *            the length of the window
+	 * @param unit
+	 *            the time unit of the window
+	 * @param latency
+	 *            the latency to inject in milliseconds (0 means an exception
+	 *            should be injected)
+	 */
+	public FaultRule(final String pattern, final double probability, final int limit, final long window,
+			final TimeUnit unit, final long latency) {
+		if ((probability < 0.0) || (probability > 1.0)) {
+			throw new IllegalArgumentException("probability " + probability + " not between 0 and 1");
+		}
+		this.pattern = pattern.trim();
+		this.regex = this.pattern.contains("*") ? toRegex(this.pattern) : null;
+		this.probability = probability;
+		this.limit = Math.max(limit, 0);
+		this.windowMillis = Math.max(unit.toMillis(window), 1L);
+		this.latencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(latency, 0L));
+	}
+
+	/**
+	 * Creates a rule which injects an exception with the given probability.
+	 *
+	 * @param pattern
+	 *            the package, class or signature pattern
+	 * @param probability
+	 *            the probability between 0 and 1
+	 * @return the fault rule
+	 */
+	public static FaultRule withProbability(final String pattern, final double probability) {
+		return new FaultRule(pattern, probability, 0, 1, TimeUnit.SECONDS, 0L);
+	}
+
+	/**
+	 * Creates a rule which injects not more than n exceptions per second.
+	 *
+	 * @param pattern
+	 *            the package, class or signature pattern
+	 * @param n
+	 *            number of exceptions per second
+	 * @return the fault rule
+	 */
+	public static FaultRule withRate(final String pattern, final int n) {
+		return new FaultRule(pattern, 1.0, n, 1, TimeUnit.SECONDS, 0L);
+	}
+
+	/**
+	 * Creates a rule which injects a burst of n exceptions at the begin of
+	 * each interval.
+	 *
+	 * @param pattern
+	 *            the package, class or signature pattern
+	 * @param n
+	 *            the size of the burst
+	 * @param seconds
+	 *            the interval between two bursts
+	 * @return the fault rule
+	 */
+	public static FaultRule withBurst(final String pattern, final int n, final int seconds) {
+		return new FaultRule(pattern, 1.0, n, seconds, TimeUnit.SECONDS, 0L);
+	}
+
+	/**
+	 * Creates a rule which injects latency with the given probability.
+	 *
+	 * @param pattern
+	 *            the package, class or signature pattern
+	 * @param probability
+	 *            the probability between 0 and 1
+	 * @param millis
+	 *            the latency in milliseconds
+	 * @return the fault rule
+	 */
+	public static FaultRule withLatency(final String pattern, final double probability, final long millis) {
+		return new FaultRule(pattern, probability, 0, 1, TimeUnit.SECONDS, Math.max(millis, 1L));
+	}
+
+	private static Pattern toRegex(final String wildcard) {
+		StringJoiner joiner = new StringJoiner(".*");
+		for (String part : wildcard.split("\\*", -1)) {
+			joiner.add(Pattern.quote(part));
+		}
+		return Pattern.compile(joiner.toString());
+	}
+
+	/**
+	 * Gets the pattern.
+	 *
+	 * @return the pattern
+	 */
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * Checks if this rule injects latency instead of an exception.
+	 *
+	 * @return true, if latency is injected
+	 */
+	public boolean isLatency() {
+		return this.latencyNanos > 0L;
+	}
+
+	/**
+	 * Gets the number of injected faults.
+	 *
+	 * @return the number of faults
+	 */
+	public long getNumberOfFaults() {
+		return this.faults.sum();
+	}
+
+	/**
+	 * Checks if the given joinpoint matches the pattern of this rule. This
+	 * check is expensive and should be cached.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return true, if successful
+	 */
+	public boolean matches(final JoinPoint.StaticPart jpsp) {
+		Signature sig = jpsp.getSignature();
+		return matches(sig.getDeclaringTypeName() + "." + sig.getName());
+	}
+
+	/**
+	 * Checks if the given name (e.g. "patterntesting.sample.Crazy.read")
+	 * matches the pattern of this rule.
+	 *
+	 * @param name
+	 *            the name of the method or constructor
+	 * @return true, if successful
+	 */
+	boolean matches(final String name) {
+		if (this.regex != null) {
+			return this.regex.matcher(name).matches();
+		}
+		if (!name.startsWith(this.pattern)) {
+			return false;
+		}
+		return (name.length() == this.pattern.length()) || (name.charAt(this.pattern.length()) == '.');
+	}
+
+	/**
+	 * Decides if a fault should be injected now. Probability and limit are
+	 * checked without lock. Window and number of faults are kept together in
+	 * one atomic value, so the reset for a new window and the counting
+	 * cannot interfere.
+	 *
+	 * @return true if a fault should be injected
+	 */
+	boolean shouldFire() {
+		if ((this.probability < 1.0) && (ThreadLocalRandom.current().nextDouble() >= this.probability)) {
+			return false;
+		}
+		if (this.limit > 0) {
+			int window = (int) (System.currentTimeMillis() / this.windowMillis);
+			long current;
+			int n;
+			do {
+				current = this.windowCount.get();
+				n = ((int) (current >>> 32) == window) ? (int) current : 0;
+				if (n >= this.limit) {
+					return false;
+				}
+			} while (!this.windowCount.compareAndSet(current, ((long) window << 32) | (n + 1)));
+		}
+		return true;
+	}
+
+	/**
+	 * Counts an injected fault.
+	 */
+	void countFault() {
+		this.faults.increment();
+	}
+
+	/**
+	 * Injects the latency of this rule. The thread is parked for the given
+	 * time (also if it wakes up before). If the thread is interrupted the
+	 * latency ends and the interrupt flag remains set.
+	 */
+	void injectLatency() {
+		this.countFault();
+		long deadline = System.nanoTime() + this.latencyNanos;
+		for (long nanos = this.latencyNanos; (nanos > 0L) && !Thread.currentThread().isInterrupted();
+				nanos = deadline - System.nanoTime()) {
+			LockSupport.parkNanos(this, nanos);
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder buf = new StringBuilder(this.getClass().getSimpleName());
+		buf.append(" (").append(this.pattern).append(": p=").append(this.probability);
+		if (this.limit > 0) {
+			buf.append(", ").append(this.limit).append('/').append(this.windowMillis).append(" ms");
+		}
+		if (isLatency()) {
+			buf.append(", latency=").append(TimeUnit.NANOSECONDS.toMillis(this.latencyNanos)).append(" ms");
+		}
+		return buf.append(')').toString();
+	}
+
+}
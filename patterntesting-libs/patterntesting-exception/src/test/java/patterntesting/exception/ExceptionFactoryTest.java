@@ -25,6 +25,8 @@ import patterntesting.runtime.util.Environment;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.net.SocketException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeFalse;
@@ -97,6 +99,60 @@ public final class ExceptionFactoryTest extends AbstractExceptionTest {
         }
     }
 
+    /**
+     * If several threads provoke an exception after activateOnce() only one
+     * of them should get it.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testActivateOnceConcurrent() throws InterruptedException {
+        synchronized (factory) {
+            factory.activateOnce();
+            AtomicInteger provoked = new AtomicInteger();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    try {
+                        start.await();
+                        factory.provoke(UnsupportedOperationException.class);
+                    } catch (UnsupportedOperationException expected) {
+                        provoked.incrementAndGet();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(1, provoked.get());
+            assertFalse(factory.isActive());
+        }
+    }
+
+    /**
+     * Test set max number of provoked.
+     */
+    @Test
+    public void testSetMaxNumberOfProvoked() {
+        synchronized (factory) {
+            long n = factory.getNumberOfProvoked();
+            factory.setMaxNumberOfProvoked(n + 2);
+            assertThrows(UnsupportedOperationException.class,
+                    () -> factory.provoke(UnsupportedOperationException.class));
+            assertThrows(UnsupportedOperationException.class,
+                    () -> factory.provoke(UnsupportedOperationException.class));
+            factory.provoke(UnsupportedOperationException.class);
+            assertEquals(n + 2, factory.getNumberOfProvoked());
+            assertEquals(n + 2, factory.getMaxNumberOfProvoked());
+            assertFalse(factory.isActive());
+        }
+    }
+
     /**
      * Tests setLimitedTo with a class as parameter.
      */
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link FaultRule}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class FaultRuleTest {
+
+    /**
+     * A pattern without wildcard matches the package, class or method and
+     * everything below.
+     */
+    @Test
+    public void testMatchesPrefix() {
+        FaultRule rule = FaultRule.withProbability("patterntesting.sample", 1.0);
+        assertTrue(rule.matches("patterntesting.sample"));
+        assertTrue(rule.matches("patterntesting.sample.Crazy.read"));
+        assertFalse(rule.matches("patterntesting.samples.Crazy.read"));
+        assertFalse(rule.matches("patterntesting.Crazy.read"));
+    }
+
+    /**
+     * Test matches with wildcards.
+     */
+    @Test
+    public void testMatchesWildcard() {
+        FaultRule rule = FaultRule.withProbability("*.Crazy.read*", 1.0);
+        assertTrue(rule.matches("patterntesting.sample.Crazy.read"));
+        assertTrue(rule.matches("patterntesting.sample.Crazy.readLine"));
+        assertFalse(rule.matches("patterntesting.sample.Crazy.write"));
+        assertFalse(rule.matches("patterntesting.sample.Crazy$1.read"));
+    }
+
+    /**
+     * A probability of 0 should never fire, 1 always.
+     */
+    @Test
+    public void testProbability() {
+        FaultRule never = FaultRule.withProbability("x", 0.0);
+        FaultRule always = FaultRule.withProbability("x", 1.0);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(never.shouldFire());
+            assertTrue(always.shouldFire());
+        }
+    }
+
+    /**
+     * Only the burst size should be fired in one interval.
+     */
+    @Test
+    public void testBurst() {
+        FaultRule rule = FaultRule.withBurst("x", 3, 3600);
+        int fired = 0;
+        for (int i = 0; i < 10; i++) {
+            if (rule.shouldFire()) {
+                fired++;
+            }
+        }
+        assertTrue(fired <= 6, "too many faults: " + fired);
+        assertTrue(fired >= 3, "too few faults: " + fired);
+    }
+
+    /**
+     * Also if several threads ask at the same time not more than the limit
+     * should be fired in one window.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testLimitConcurrent() throws InterruptedException {
+        FaultRule rule = FaultRule.withBurst("x", 100, 3600);
+        AtomicInteger fired = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (rule.shouldFire()) {
+                        fired.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(fired.get() <= 200, "too many faults: " + fired);
+        assertTrue(fired.get() >= 100, "too few faults: " + fired);
+    }
+
+    /**
+     * An interrupted thread should not wait for the end of the latency.
+     */
+    @Test
+    public void testInjectLatencyInterrupted() {
+        FaultRule rule = FaultRule.withLatency("x", 1.0, 10000);
+        Thread.currentThread().interrupt();
+        long t0 = System.currentTimeMillis();
+        try {
+            rule.injectLatency();
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        long t = System.currentTimeMillis() - t0;
+        assertTrue(t < 5000, "latency not interrupted: " + t + " ms");
+    }
+
+    /**
+     * Invalid probabilities should be rejected.
+     */
+    @Test
+    public void testInvalidProbability() {
+        assertThrows(IllegalArgumentException.class, () -> FaultRule.withProbability("x", 1.5));
+    }
+
+    /**
+     * Test to string.
+     */
+    @Test
+    public void testToString() {
+        String s = FaultRule.withLatency("patterntesting", 0.5, 100).toString();
+        assertTrue(s.contains("patterntesting"), s);
+        assertTrue(s.contains("latency=100 ms"), s);
+    }
+
+}
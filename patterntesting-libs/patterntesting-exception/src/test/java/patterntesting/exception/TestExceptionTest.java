@@ -24,7 +24,9 @@ import java.net.SocketException;
 import org.junit.jupiter.api.Test;
 import patterntesting.annotation.exception.TestException;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * The Class TestExceptionTest.
@@ -149,6 +151,65 @@ public final class TestExceptionTest extends AbstractExceptionTest implements Se
         }
     }
 
+    /**
+     * Only the method which matches the rule should get an exception.
+     *
+     * @throws IOException should not happen
+     */
+    @Test
+    public void testProbabilityRule() throws IOException {
+        synchronized (exceptionFactory) {
+            activate(FaultRule.withProbability("*.TestExceptionTest.mayThrowException", 1.0));
+            assertThrows(InterruptedException.class, () -> mayThrowException());
+            mayThrowIOException(false);
+            exceptionFactory.reset();
+        }
+    }
+
+    /**
+     * With a rate of 2 exceptions per second the third call should pass
+     * (if it is not the next second).
+     *
+     * @throws InterruptedException should not happen
+     */
+    @Test
+    public void testRateRule() throws InterruptedException {
+        synchronized (exceptionFactory) {
+            long n = exceptionFactory.getNumberOfProvoked();
+            activate(FaultRule.withBurst(this.getClass().getName(), 2, 60));
+            assertThrows(InterruptedException.class, () -> mayThrowException());
+            assertThrows(InterruptedException.class, () -> mayThrowException());
+            mayThrowException();
+            exceptionFactory.reset();
+            assertEquals(n + 2, exceptionFactory.getNumberOfProvoked());
+        }
+    }
+
+    /**
+     * A latency rule should delay the call instead of throwing an exception.
+     *
+     * @throws InterruptedException should not happen
+     */
+    @Test
+    public void testLatencyRule() throws InterruptedException {
+        synchronized (exceptionFactory) {
+            long n = exceptionFactory.getNumberOfDelays();
+            activate(FaultRule.withLatency("patterntesting.exception", 1.0, 50));
+            long t0 = System.nanoTime();
+            mayThrowException();
+            long t = System.nanoTime() - t0;
+            exceptionFactory.reset();
+            assertTrue(t >= 50_000_000L, "no latency injected");
+            assertEquals(n + 1, exceptionFactory.getNumberOfDelays());
+        }
+    }
+
+    private void activate(final FaultRule rule) {
+        exceptionFactory.reset();
+        exceptionFactory.addRule(rule);
+        exceptionFactory.activate();
+    }
+
     private void activateOnce(final Class<? extends Throwable> exception) {
         exceptionFactory.reset();
         exceptionFactory.setFire(exception);
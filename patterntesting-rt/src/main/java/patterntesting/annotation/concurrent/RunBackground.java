@@ -20,12 +20,33 @@
 package patterntesting.annotation.concurrent;
 
 import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * With this annotation you can mark methods which should run in background (as
  * separate thread). This is helpful for method you don't expect a result but do
  * some useful jobs like cleanup jobs or other house keeping tasks which can be
  * done in the background.
+ * <p>
+ * Since 2.6.1 you can choose how the background job is executed (see
+ * {@link Mode}). The default mode can be set with the system property
+ * "patterntesting.runBackground.mode".
+ * </p>
+ * <p>
+ * If the method returns a {@link java.util.concurrent.Future} or
+ * {@link java.util.concurrent.CompletableFuture} the caller gets a
+ * CompletableFuture which is completed by the background job: with the value
+ * of the future returned by the method or with the exception thrown by it.
+ * With the timeout and unit attributes the future is completed with a
+ * {@link java.util.concurrent.TimeoutException} if the job takes too long.
+ * Example:
+ * </p>
+ * <pre>
+ * &#64;RunBackground(timeout = 10, unit = TimeUnit.SECONDS)
+ * public CompletableFuture&lt;String&gt; load() {
+ *     return CompletableFuture.completedFuture(...);
+ * }
+ * </pre>
  *
  * @author <a href="boehm@javatux.de">oliver</a>
  * @version $Revision: 1.5 $
@@ -35,4 +56,58 @@ import java.lang.annotation.*;
 @Target({ ElementType.CONSTRUCTOR, ElementType.METHOD })
 public @interface RunBackground {
 
+    /**
+     * How the background job is executed. With {@link Mode#DEFAULT} the mode
+     * is taken from the system property "patterntesting.runBackground.mode"
+     * (or {@link Mode#THREAD} if it is not set).
+     *
+     * @return the mode
+     * @since 2.6.1
+     */
+    Mode mode() default Mode.DEFAULT;
+
+    /**
+     * The timeout for methods which return a future. The default value 0
+     * means no timeout.
+     *
+     * @return the timeout
+     * @since 2.6.1
+     */
+    long timeout() default 0L;
+
+    /**
+     * The unit of time (with TimeUnit.SECONDS as default).
+     *
+     * @return the time unit
+     * @since 2.6.1
+     */
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    /**
+     * The execution modes of a background job.
+     *
+     * @since 2.6.1
+     */
+    enum Mode {
+
+        /** The mode is taken from the system property. */
+        DEFAULT,
+
+        /** Each job gets its own new thread (as in former versions). */
+        THREAD,
+
+        /**
+         * The jobs are executed by a bounded thread pool with a bounded
+         * queue.
+         */
+        POOL,
+
+        /**
+         * Each job gets its own virtual thread (requires Java 21 or later,
+         * otherwise {@link #POOL} is used).
+         */
+        VIRTUAL
+
+    }
+
 }
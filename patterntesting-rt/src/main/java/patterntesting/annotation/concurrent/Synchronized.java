@@ -34,6 +34,20 @@ import java.util.concurrent.TimeUnit;
  * <code>@Synchronized(timeout=10, unit=TimeUnit.SECONDS)</code> will set the
  * timeout to 10 seconds.
  * </p>
+ * <p>
+ * Since 2.6.1 methods can use a read lock or a striped lock (see
+ * {@link Mode}). Example:
+ * </p>
+ * <pre>
+ * &#64;Synchronized(mode = Synchronized.Mode.READ)
+ * public int getBalance() { ... }
+ *
+ * &#64;Synchronized(mode = Synchronized.Mode.STRIPED, key = 0)
+ * public void transfer(String account, int amount) { ... }
+ * </pre>
+ * <p>
+ * The timeout of the class annotation is used for all modes.
+ * </p>
  *
  * @author <a href="boehm@javatux.de">oliver</a>
  * @see TimeUnit
@@ -58,4 +72,63 @@ public @interface Synchronized {
      */
     TimeUnit unit() default TimeUnit.SECONDS;
 
+    /**
+     * The locking mode of a method.
+     *
+     * @return the mode
+     * @since 2.6.1
+     */
+    Mode mode() default Mode.EXCLUSIVE;
+
+    /**
+     * The index of the argument which selects the stripe for
+     * {@link Mode#STRIPED}.
+     *
+     * @return the index of the key argument
+     * @since 2.6.1
+     */
+    int key() default 0;
+
+    /**
+     * The number of stripes for {@link Mode#STRIPED}. It is rounded up to a
+     * power of 2. The stripes are created with the first striped call of an
+     * object (or class) so the first striped method decides the number.
+     *
+     * @return the number of stripes
+     * @since 2.6.1
+     */
+    int stripes() default 16;
+
+    /**
+     * The locking modes of a method.
+     *
+     * @since 2.6.1
+     */
+    enum Mode {
+
+        /**
+         * Only one thread can execute an exclusive method of the object (or
+         * class for static methods). This is the write lock for the
+         * {@link #READ} methods.
+         */
+        EXCLUSIVE,
+
+        /**
+         * Several threads can execute read methods at the same time but not
+         * while an exclusive method is executed. Note that a read method must
+         * not call an exclusive method of the same object (no lock upgrade).
+         */
+        READ,
+
+        /**
+         * The lock is taken from a fixed array of locks (stripes) selected
+         * by the hash code of the key argument. So threads with different
+         * keys can execute the method at the same time (if the keys are not
+         * mapped to the same stripe). Exclusive methods wait for all striped
+         * methods.
+         */
+        STRIPED
+
+    }
+
 }
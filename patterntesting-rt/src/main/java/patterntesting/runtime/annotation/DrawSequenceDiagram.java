@@ -82,4 +82,43 @@ public @interface DrawSequenceDiagram {
 	 */
 	String[] included() default "*";
 
+	/**
+	 * Set this value to true if the diagram is recorded from several threads
+	 * at the same time. Then each thread gets its own actor and a text
+	 * diagram is written incrementally.
+	 *
+	 * @return true for concurrent recording
+	 * @since 2.6.1
+	 */
+	boolean concurrent() default false;
+
+	/**
+	 * The maximal call depth which is drawn. Calls below this depth are
+	 * ignored. The default value 0 means unlimited.
+	 *
+	 * @return the maximal call depth
+	 * @since 2.6.1
+	 */
+	int maxDepth() default 0;
+
+	/**
+	 * The maximal number of statements (messages and return messages) in the
+	 * diagram. If this number is reached further calls are ignored. The
+	 * default value 0 means unlimited.
+	 *
+	 * @return the maximal number of statements
+	 * @since 2.6.1
+	 */
+	int maxStatements() default 0;
+
+	/**
+	 * If set to true a call which repeats the previous call (same sender,
+	 * target and method) is not drawn again but counted. The call is then
+	 * drawn inside a loop box.
+	 *
+	 * @return true if repeated calls should be collapsed
+	 * @since 2.6.1
+	 */
+	boolean collapseLoops() default false;
+
 }
@@ -39,6 +39,11 @@ import java.lang.annotation.*;
  * <em>Note</em>: This works only for classes which are really loaded. If a
  * class is loaded you can see it with the ClasspathMonitorMBean.
  * </p>
+ * <p>
+ * For hot methods you can reduce the overhead of profiling with a sample
+ * rate. E.g. with <code>@ProfileMe(sampleRate = 100)</code> only every
+ * 100th call is measured (in average). Hits and total time are extrapolated.
+ * </p>
  *
  * @author <a href="boehm@javatux.de">oliver</a>
  * @see DontProfileMe
@@ -50,4 +55,15 @@ import java.lang.annotation.*;
 @Target({ ElementType.CONSTRUCTOR, ElementType.METHOD, ElementType.TYPE })
 public @interface ProfileMe {
 
+	/**
+	 * Only 1 of n calls is profiled if a sample rate &gt; 1 is given. The
+	 * default value (0) means that the sample rate of the
+	 * {@link patterntesting.runtime.monitor.ProfileStatistic} is used
+	 * (system property "patterntesting.profile.sampleRate").
+	 *
+	 * @return the sample rate
+	 * @since 2.6.1
+	 */
+	int sampleRate() default 0;
+
 }
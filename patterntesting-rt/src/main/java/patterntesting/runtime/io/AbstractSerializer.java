@@ -24,15 +24,28 @@ import clazzfish.monitor.ClasspathMonitor;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 import patterntesting.runtime.exception.DetailedInvalidClassException;
+import patterntesting.runtime.util.Environment;
 
 import java.io.*;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 
 /**
  * This is the common superclass for all Serializer casses in PatternTesting.
  * This class was introduced to be able to abstract from the used XStream
  * library in the log package. This allows us to declare the xstream library as
  * "optional" in the POM file.
+ * <p>
+ * Since 2.6.1 other serializers can be registered as service (in
+ * <code>META-INF/services/patterntesting.runtime.io.AbstractSerializer</code>)
+ * and selected with the system property "patterntesting.serializer" by its
+ * name (see {@link #getName()}) or its class name. The built-in serializers
+ * are "xstream", "binary" and "compact".
+ * </p>
  *
  * @author oliver
  * @since 1.4 (30.11.2013)
@@ -43,11 +56,20 @@ public abstract class AbstractSerializer {
 	private static final AbstractSerializer instance;
 
 	static {
-		if (isXStreamAvailable()) {
-			instance = new XStreamSerializer();
-		} else {
-			instance = new BinarySerializer();
+		String name = System.getProperty(Environment.SERIALIZER);
+		AbstractSerializer selected = null;
+		if (name != null) {
+			try {
+				selected = getInstance(name);
+				LOG.debug("{} is selected for serialization.", selected);
+			} catch (IllegalArgumentException ex) {
+				LOG.warn("Serializer \"{}\" is ignored ({}).", name, ex.getMessage());
+			}
 		}
+		if (selected == null) {
+			selected = isXStreamAvailable() ? new XStreamSerializer() : new BinarySerializer();
+		}
+		instance = selected;
 	}
 
 	private static boolean isXStreamAvailable() {
@@ -75,6 +97,78 @@ public abstract class AbstractSerializer {
 		return instance;
 	}
 
+	/**
+	 * Gets the serializer with the given name or class name.
+	 *
+	 * @param name
+	 *            the name (e.g. "compact") or the class name
+	 * @return the serializer
+	 * @throws IllegalArgumentException
+	 *             if there is no serializer with this name
+	 * @since 2.6.1
+	 */
+	public static AbstractSerializer getInstance(final String name) {
+		for (AbstractSerializer serializer : getAvailableSerializers()) {
+			if (serializer.getName().equalsIgnoreCase(name) || serializer.getClass().getName().equals(name)) {
+				return serializer;
+			}
+		}
+		throw new IllegalArgumentException("no serializer \"" + name + "\" found");
+	}
+
+	/**
+	 * Gets all available serializers: the built-in serializers (xstream only
+	 * if the xstream library is in the classpath) and the serializers which
+	 * are registered as service.
+	 *
+	 * @return the available serializers
+	 * @since 2.6.1
+	 */
+	public static List<AbstractSerializer> getAvailableSerializers() {
+		List<AbstractSerializer> serializers = new ArrayList<>();
+		if (isXStreamAvailable()) {
+			serializers.add(new XStreamSerializer());
+		}
+		serializers.add(new BinarySerializer());
+		serializers.add(new CompactSerializer());
+		try {
+			for (AbstractSerializer serializer : ServiceLoader.load(AbstractSerializer.class)) {
+				serializers.add(serializer);
+			}
+		} catch (ServiceConfigurationError ex) {
+			LOG.warn("Cannot load registered serializers ({}).", ex.getMessage());
+			LOG.debug("Details:", ex);
+		}
+		return serializers;
+	}
+
+	/**
+	 * Gets the name of the serializer. This is the class name without package
+	 * and without the suffix "Serializer" in lower case (e.g. "compact" for
+	 * the {@link CompactSerializer}).
+	 *
+	 * @return the name
+	 * @since 2.6.1
+	 */
+	public String getName() {
+		String name = this.getClass().getSimpleName();
+		if (name.endsWith("Serializer") && (name.length() > 10)) {
+			name = name.substring(0, name.length() - 10);
+		}
+		return name.toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.getName() + ")";
+	}
+
 	/**
 	 * Creates the {@link ObjectInputStream} that deserializes a stream of
 	 * objects from an InputStream.
@@ -0,0 +1,472 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.io;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CompactObjectInputStream reads the objects which were written by the
+ * {@link CompactObjectOutputStream}. The fields of a class are mapped by name
+ * and type. So fields which were added or removed after the recording are
+ * ignored.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class CompactObjectInputStream extends ObjectInputStream {
+
+	private static final Map<String, Class<?>> PRIMITIVES = new HashMap<>();
+	private final DataInputStream in;
+	private final List<Object> handles = new ArrayList<>();
+	private final List<StreamClass> classes = new ArrayList<>();
+
+	static {
+		for (Class<?> type : new Class<?>[] { int.class, long.class, boolean.class, double.class, float.class,
+				short.class, byte.class, char.class, void.class }) {
+			PRIMITIVES.put(type.getName(), type);
+		}
+	}
+
+	/**
+	 * Instantiates a new compact object input stream and reads the header.
+	 *
+	 * @param istream
+	 *            the underlying stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	CompactObjectInputStream(final InputStream istream) throws IOException {
+		super();
+		this.in = new DataInputStream(istream);
+		short magic = this.in.readShort();
+		if (magic != CompactObjectOutputStream.MAGIC) {
+			throw new StreamCorruptedException(String.format("invalid stream header: %04X", magic));
+		}
+		byte version = this.in.readByte();
+		if (version != CompactObjectOutputStream.VERSION) {
+			throw new StreamCorruptedException("unsupported version " + version);
+		}
+	}
+
+	/**
+	 * Reads the next object.
+	 *
+	 * @return the object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             if the class of the object is not found
+	 * @see java.io.ObjectInputStream#readObjectOverride()
+	 */
+	@Override
+	protected Object readObjectOverride() throws IOException, ClassNotFoundException {
+		byte tag = this.in.readByte();
+		while (tag == CompactObjectOutputStream.RESET) {
+			this.handles.clear();
+			this.classes.clear();
+			tag = this.in.readByte();
+		}
+		switch (tag) {
+		case CompactObjectOutputStream.NULL:
+			return null;
+		case CompactObjectOutputStream.REF:
+			return this.getHandle(this.readVarInt());
+		case CompactObjectOutputStream.STRING:
+			int index = this.reserveHandle();
+			return this.setHandle(index, this.readString());
+		case CompactObjectOutputStream.INTEGER:
+			return this.in.readInt();
+		case CompactObjectOutputStream.LONG:
+			return this.in.readLong();
+		case CompactObjectOutputStream.DOUBLE:
+			return this.in.readDouble();
+		case CompactObjectOutputStream.FLOAT:
+			return this.in.readFloat();
+		case CompactObjectOutputStream.SHORT:
+			return this.in.readShort();
+		case CompactObjectOutputStream.BYTE:
+			return this.in.readByte();
+		case CompactObjectOutputStream.CHARACTER:
+			return this.in.readChar();
+		case CompactObjectOutputStream.BOOLEAN:
+			return this.in.readBoolean();
+		case CompactObjectOutputStream.DATE:
+			return new Date(this.in.readLong());
+		case CompactObjectOutputStream.BIG_DECIMAL:
+			return new BigDecimal(this.readString());
+		case CompactObjectOutputStream.BIG_INTEGER:
+			byte[] bytes = new byte[this.readVarInt()];
+			this.in.readFully(bytes);
+			return new BigInteger(bytes);
+		default:
+			return this.readReference(tag);
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Object readReference(final byte tag) throws IOException, ClassNotFoundException {
+		switch (tag) {
+		case CompactObjectOutputStream.CLASS:
+			return this.readClass().type;
+		case CompactObjectOutputStream.ENUM:
+			Class<? extends Enum> enumType = (Class<? extends Enum>) this.readClass().type;
+			return Enum.valueOf(enumType, this.readString());
+		case CompactObjectOutputStream.ARRAY:
+			return this.readArray(this.readClass().type);
+		case CompactObjectOutputStream.OBJECT:
+			return this.readFields(this.readClass());
+		case CompactObjectOutputStream.COLLECTION:
+			return this.readCollection(this.readClass());
+		case CompactObjectOutputStream.MAP:
+			return this.readMap(this.readClass());
+		case CompactObjectOutputStream.SERIAL:
+			return this.readSerial();
+		default:
+			throw new StreamCorruptedException(String.format("invalid type code: %02X", tag));
+		}
+	}
+
+	private Object getHandle(final int handle) throws StreamCorruptedException {
+		if ((handle < 0) || (handle >= this.handles.size())) {
+			throw new StreamCorruptedException("invalid handle " + handle);
+		}
+		return this.handles.get(handle);
+	}
+
+	private int reserveHandle() {
+		this.handles.add(null);
+		return this.handles.size() - 1;
+	}
+
+	private Object setHandle(final int index, final Object obj) {
+		this.handles.set(index, obj);
+		return obj;
+	}
+
+	private String readString() throws IOException {
+		byte[] bytes = new byte[this.readVarInt()];
+		this.in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = this.in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new StreamCorruptedException("invalid number");
+	}
+
+	private StreamClass readClass() throws IOException, ClassNotFoundException {
+		int id = this.readVarInt() - 1;
+		if (id >= 0) {
+			if (id >= this.classes.size()) {
+				throw new StreamCorruptedException("invalid class id " + id);
+			}
+			return this.classes.get(id);
+		}
+		Class<?> type = resolveClass(this.readString());
+		int n = this.readVarInt();
+		Field[] fields = new Field[n];
+		char[] codes = new char[n];
+		CompactType compactType = (n > 0) ? CompactType.of(type) : null;
+		for (int i = 0; i < n; i++) {
+			String name = this.readString();
+			codes[i] = this.in.readChar();
+			fields[i] = compactType.getField(name, codes[i]);
+		}
+		StreamClass streamClass = new StreamClass(type, fields, codes);
+		this.classes.add(streamClass);
+		return streamClass;
+	}
+
+	private static Class<?> resolveClass(final String name) throws ClassNotFoundException {
+		Class<?> primitive = PRIMITIVES.get(name);
+		if (primitive != null) {
+			return primitive;
+		}
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		if (loader != null) {
+			try {
+				return Class.forName(name, false, loader);
+			} catch (ClassNotFoundException ex) {
+				// try it with the class loader of this class
+			}
+		}
+		return Class.forName(name, false, CompactObjectInputStream.class.getClassLoader());
+	}
+
+	private Object readFields(final StreamClass streamClass) throws IOException, ClassNotFoundException {
+		CompactType compactType = CompactType.of(streamClass.type);
+		if (compactType.getKind() != CompactType.Kind.REFLECTION) {
+			throw new InvalidClassException(streamClass.type.getName(), "cannot be read via reflection");
+		}
+		Object obj = compactType.newInstance();
+		this.handles.add(obj);
+		try {
+			for (int i = 0; i < streamClass.codes.length; i++) {
+				this.readField(obj, streamClass.fields[i], streamClass.codes[i]);
+			}
+		} catch (IllegalAccessException | IllegalArgumentException ex) {
+			throw new InvalidClassException(streamClass.type.getName(), "cannot set field: " + ex);
+		}
+		return obj;
+	}
+
+	private void readField(final Object obj, final Field field, final char code)
+			throws IOException, ClassNotFoundException, IllegalAccessException {
+		Object value = (code == 'L') ? this.readObjectOverride() : this.readPrimitive(code);
+		if (field != null) {
+			field.set(obj, value);
+		}
+	}
+
+	private Object readPrimitive(final char code) throws IOException {
+		switch (code) {
+		case 'I':
+			return this.in.readInt();
+		case 'J':
+			return this.in.readLong();
+		case 'Z':
+			return this.in.readBoolean();
+		case 'D':
+			return this.in.readDouble();
+		case 'F':
+			return this.in.readFloat();
+		case 'S':
+			return this.in.readShort();
+		case 'B':
+			return this.in.readByte();
+		case 'C':
+			return this.in.readChar();
+		default:
+			throw new StreamCorruptedException("invalid type code: " + code);
+		}
+	}
+
+	private Object readArray(final Class<?> arrayType) throws IOException, ClassNotFoundException {
+		int length = this.readVarInt();
+		Class<?> componentType = arrayType.getComponentType();
+		Object array = Array.newInstance(componentType, length);
+		this.handles.add(array);
+		if (componentType == byte.class) {
+			this.in.readFully((byte[]) array);
+		} else if (componentType.isPrimitive()) {
+			char code = CompactType.getTypeCode(componentType);
+			for (int i = 0; i < length; i++) {
+				Array.set(array, i, this.readPrimitive(code));
+			}
+		} else {
+			Object[] objects = (Object[]) array;
+			for (int i = 0; i < length; i++) {
+				objects[i] = this.readObjectOverride();
+			}
+		}
+		return array;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object readCollection(final StreamClass streamClass) throws IOException, ClassNotFoundException {
+		Collection<Object> collection = (Collection<Object>) CompactType.of(streamClass.type).newInstance();
+		this.handles.add(collection);
+		int size = this.readVarInt();
+		for (int i = 0; i < size; i++) {
+			collection.add(this.readObjectOverride());
+		}
+		return collection;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object readMap(final StreamClass streamClass) throws IOException, ClassNotFoundException {
+		Map<Object, Object> map = (Map<Object, Object>) CompactType.of(streamClass.type).newInstance();
+		this.handles.add(map);
+		int size = this.readVarInt();
+		for (int i = 0; i < size; i++) {
+			Object key = this.readObjectOverride();
+			map.put(key, this.readObjectOverride());
+		}
+		return map;
+	}
+
+	private Object readSerial() throws IOException, ClassNotFoundException {
+		int index = this.reserveHandle();
+		byte[] bytes = new byte[this.readVarInt()];
+		this.in.readFully(bytes);
+		try (ObjectInputStream serial = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return this.setHandle(index, serial.readObject());
+		}
+	}
+
+	/**
+	 * Reads an object as {@link #readObject()}.
+	 *
+	 * @return the object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             if the class of the object is not found
+	 * @see java.io.ObjectInputStream#readUnshared()
+	 */
+	@Override
+	public Object readUnshared() throws IOException, ClassNotFoundException {
+		return this.readObjectOverride();
+	}
+
+	@Override
+	public int read() throws IOException {
+		return this.in.read();
+	}
+
+	@Override
+	public int read(final byte[] buf, final int off, final int len) throws IOException {
+		return this.in.read(buf, off, len);
+	}
+
+	@Override
+	public int available() throws IOException {
+		return this.in.available();
+	}
+
+	@Override
+	public boolean readBoolean() throws IOException {
+		return this.in.readBoolean();
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		return this.in.readByte();
+	}
+
+	@Override
+	public int readUnsignedByte() throws IOException {
+		return this.in.readUnsignedByte();
+	}
+
+	@Override
+	public char readChar() throws IOException {
+		return this.in.readChar();
+	}
+
+	@Override
+	public short readShort() throws IOException {
+		return this.in.readShort();
+	}
+
+	@Override
+	public int readUnsignedShort() throws IOException {
+		return this.in.readUnsignedShort();
+	}
+
+	@Override
+	public int readInt() throws IOException {
+		return this.in.readInt();
+	}
+
+	@Override
+	public long readLong() throws IOException {
+		return this.in.readLong();
+	}
+
+	@Override
+	public float readFloat() throws IOException {
+		return this.in.readFloat();
+	}
+
+	@Override
+	public double readDouble() throws IOException {
+		return this.in.readDouble();
+	}
+
+	@Override
+	public void readFully(final byte[] buf) throws IOException {
+		this.in.readFully(buf);
+	}
+
+	@Override
+	public void readFully(final byte[] buf, final int off, final int len) throws IOException {
+		this.in.readFully(buf, off, len);
+	}
+
+	@Override
+	public int skipBytes(final int len) throws IOException {
+		return this.in.skipBytes(len);
+	}
+
+	@Override
+	public String readUTF() throws IOException {
+		return this.in.readUTF();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.classes.size() + " classes, " + this.handles.size()
+				+ " objects)";
+	}
+
+	/**
+	 * The description of a class as it was read from the stream.
+	 */
+	private static final class StreamClass {
+
+		private final Class<?> type;
+		private final Field[] fields;
+		private final char[] codes;
+
+		StreamClass(final Class<?> type, final Field[] fields, final char[] codes) {
+			this.type = type;
+			this.fields = fields;
+			this.codes = codes;
+		}
+
+	}
+
+}
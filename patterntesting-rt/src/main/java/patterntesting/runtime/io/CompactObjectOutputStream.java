@@ -0,0 +1,513 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.io;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * The CompactObjectOutputStream is the output stream of the
+ * {@link CompactSerializer}. Each class is described only once per stream
+ * (name and fields). Later objects of the same class refer to this
+ * description by a number. Objects which are written more than once are
+ * written as back reference.
+ * <p>
+ * Boxed primitives, {@link Date}, {@link BigDecimal} and {@link BigInteger}
+ * are written as values (without back reference).
+ * </p>
+ * <p>
+ * The primitive methods (like {@link #writeInt(int)}) write directly to the
+ * underlying stream. So they can be mixed with {@link #writeObject(Object)}
+ * as long as they are read in the same order.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class CompactObjectOutputStream extends ObjectOutputStream {
+
+	static final short MAGIC = (short) 0xC0DE;
+	static final byte VERSION = 1;
+	static final byte NULL = 0;
+	static final byte REF = 1;
+	static final byte STRING = 2;
+	static final byte INTEGER = 3;
+	static final byte LONG = 4;
+	static final byte DOUBLE = 5;
+	static final byte FLOAT = 6;
+	static final byte SHORT = 7;
+	static final byte BYTE = 8;
+	static final byte CHARACTER = 9;
+	static final byte BOOLEAN = 10;
+	static final byte CLASS = 11;
+	static final byte ENUM = 12;
+	static final byte ARRAY = 13;
+	static final byte OBJECT = 14;
+	static final byte COLLECTION = 15;
+	static final byte MAP = 16;
+	static final byte SERIAL = 17;
+	static final byte RESET = 18;
+	static final byte DATE = 19;
+	static final byte BIG_DECIMAL = 20;
+	static final byte BIG_INTEGER = 21;
+
+	private final DataOutputStream out;
+	private final Map<Object, Integer> handles = new IdentityHashMap<>();
+	private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+	/**
+	 * Instantiates a new compact object output stream and writes the header.
+	 *
+	 * @param ostream
+	 *            the underlying stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	CompactObjectOutputStream(final OutputStream ostream) throws IOException {
+		super();
+		this.out = new DataOutputStream(ostream);
+		this.out.writeShort(MAGIC);
+		this.out.writeByte(VERSION);
+	}
+
+	/**
+	 * Writes the given object.
+	 *
+	 * @param obj
+	 *            the object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @see java.io.ObjectOutputStream#writeObjectOverride(java.lang.Object)
+	 */
+	@Override
+	protected void writeObjectOverride(final Object obj) throws IOException {
+		if (obj == null) {
+			this.out.writeByte(NULL);
+			return;
+		}
+		Integer handle = this.handles.get(obj);
+		if (handle != null) {
+			this.out.writeByte(REF);
+			this.writeVarInt(handle);
+		} else if (obj instanceof String) {
+			this.out.writeByte(STRING);
+			this.register(obj);
+			this.writeString((String) obj);
+		} else if (!this.writeBoxed(obj)) {
+			this.writeReference(obj);
+		}
+	}
+
+	private boolean writeBoxed(final Object obj) throws IOException {
+		if (obj instanceof Integer) {
+			this.out.writeByte(INTEGER);
+			this.out.writeInt((Integer) obj);
+		} else if (obj instanceof Long) {
+			this.out.writeByte(LONG);
+			this.out.writeLong((Long) obj);
+		} else if (obj instanceof Double) {
+			this.out.writeByte(DOUBLE);
+			this.out.writeDouble((Double) obj);
+		} else if (obj instanceof Boolean) {
+			this.out.writeByte(BOOLEAN);
+			this.out.writeBoolean((Boolean) obj);
+		} else if (obj instanceof Float) {
+			this.out.writeByte(FLOAT);
+			this.out.writeFloat((Float) obj);
+		} else if (obj instanceof Short) {
+			this.out.writeByte(SHORT);
+			this.out.writeShort((Short) obj);
+		} else if (obj instanceof Byte) {
+			this.out.writeByte(BYTE);
+			this.out.writeByte((Byte) obj);
+		} else if (obj instanceof Character) {
+			this.out.writeByte(CHARACTER);
+			this.out.writeChar((Character) obj);
+		} else if (obj.getClass() == Date.class) {
+			this.out.writeByte(DATE);
+			this.out.writeLong(((Date) obj).getTime());
+		} else if (obj.getClass() == BigDecimal.class) {
+			this.out.writeByte(BIG_DECIMAL);
+			this.writeString(obj.toString());
+		} else if (obj.getClass() == BigInteger.class) {
+			this.out.writeByte(BIG_INTEGER);
+			byte[] bytes = ((BigInteger) obj).toByteArray();
+			this.writeVarInt(bytes.length);
+			this.out.write(bytes);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	private void writeReference(final Object obj) throws IOException {
+		Class<?> type = obj.getClass();
+		if (obj instanceof Class) {
+			this.out.writeByte(CLASS);
+			this.writeClass((Class<?>) obj);
+		} else if (obj instanceof Enum) {
+			this.out.writeByte(ENUM);
+			this.writeClass(((Enum<?>) obj).getDeclaringClass());
+			this.writeString(((Enum<?>) obj).name());
+		} else if (type.isArray()) {
+			this.out.writeByte(ARRAY);
+			this.writeClass(type);
+			this.register(obj);
+			this.writeArray(obj);
+		} else {
+			CompactType compactType = CompactType.of(type);
+			switch (hasComparator(obj) ? CompactType.Kind.SERIAL : compactType.getKind()) {
+			case REFLECTION:
+				this.out.writeByte(OBJECT);
+				this.writeClass(type);
+				this.register(obj);
+				this.writeFields(obj, compactType.getFields());
+				break;
+			case COLLECTION:
+				this.out.writeByte(COLLECTION);
+				this.writeClass(type);
+				this.register(obj);
+				this.writeCollection((Collection<?>) obj);
+				break;
+			case MAP:
+				this.out.writeByte(MAP);
+				this.writeClass(type);
+				this.register(obj);
+				this.writeMap((Map<?, ?>) obj);
+				break;
+			case SERIAL:
+				this.out.writeByte(SERIAL);
+				this.register(obj);
+				this.writeSerial(obj);
+				break;
+			default:
+				throw new NotSerializableException(type.getName());
+			}
+		}
+	}
+
+	private static boolean hasComparator(final Object obj) {
+		if (obj instanceof SortedMap) {
+			return ((SortedMap<?, ?>) obj).comparator() != null;
+		} else if (obj instanceof SortedSet) {
+			return ((SortedSet<?>) obj).comparator() != null;
+		} else if (obj instanceof PriorityQueue) {
+			return ((PriorityQueue<?>) obj).comparator() != null;
+		}
+		return false;
+	}
+
+	private void register(final Object obj) {
+		this.handles.put(obj, this.handles.size());
+	}
+
+	private void writeString(final String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		this.writeVarInt(bytes.length);
+		this.out.write(bytes);
+	}
+
+	/**
+	 * Writes a positive number with 7 bits per byte. Numbers below 128 need
+	 * only 1 byte.
+	 */
+	private void writeVarInt(final int value) throws IOException {
+		int v = value;
+		while ((v & ~0x7F) != 0) {
+			this.out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		this.out.writeByte(v);
+	}
+
+	/**
+	 * Writes the class. The first time 0, the name and the fields of the
+	 * class are written. Afterwards only the number of the class (+1) is
+	 * written.
+	 */
+	private void writeClass(final Class<?> type) throws IOException {
+		Integer id = this.classes.get(type);
+		if (id != null) {
+			this.writeVarInt(id + 1);
+			return;
+		}
+		this.classes.put(type, this.classes.size());
+		this.writeVarInt(0);
+		this.writeString(type.getName());
+		Field[] fields = (type.isPrimitive() || type.isArray()) ? new Field[0] : CompactType.of(type).getFields();
+		this.writeVarInt(fields.length);
+		for (Field field : fields) {
+			this.writeString(field.getName());
+			this.out.writeChar(CompactType.getTypeCode(field.getType()));
+		}
+	}
+
+	private void writeFields(final Object obj, final Field[] fields) throws IOException {
+		try {
+			for (Field field : fields) {
+				switch (CompactType.getTypeCode(field.getType())) {
+				case 'I':
+					this.out.writeInt(field.getInt(obj));
+					break;
+				case 'J':
+					this.out.writeLong(field.getLong(obj));
+					break;
+				case 'Z':
+					this.out.writeBoolean(field.getBoolean(obj));
+					break;
+				case 'D':
+					this.out.writeDouble(field.getDouble(obj));
+					break;
+				case 'F':
+					this.out.writeFloat(field.getFloat(obj));
+					break;
+				case 'S':
+					this.out.writeShort(field.getShort(obj));
+					break;
+				case 'B':
+					this.out.writeByte(field.getByte(obj));
+					break;
+				case 'C':
+					this.out.writeChar(field.getChar(obj));
+					break;
+				default:
+					this.writeObjectOverride(field.get(obj));
+					break;
+				}
+			}
+		} catch (IllegalAccessException ex) {
+			throw new NotSerializableException(obj.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+
+	private void writeArray(final Object array) throws IOException {
+		int length = Array.getLength(array);
+		this.writeVarInt(length);
+		Class<?> componentType = array.getClass().getComponentType();
+		if (componentType == byte.class) {
+			this.out.write((byte[]) array);
+		} else if (componentType.isPrimitive()) {
+			for (int i = 0; i < length; i++) {
+				this.writePrimitive(componentType, Array.get(array, i));
+			}
+		} else {
+			Object[] objects = (Object[]) array;
+			for (Object element : objects) {
+				this.writeObjectOverride(element);
+			}
+		}
+	}
+
+	private void writePrimitive(final Class<?> type, final Object value) throws IOException {
+		switch (CompactType.getTypeCode(type)) {
+		case 'I':
+			this.out.writeInt((Integer) value);
+			break;
+		case 'J':
+			this.out.writeLong((Long) value);
+			break;
+		case 'Z':
+			this.out.writeBoolean((Boolean) value);
+			break;
+		case 'D':
+			this.out.writeDouble((Double) value);
+			break;
+		case 'F':
+			this.out.writeFloat((Float) value);
+			break;
+		case 'S':
+			this.out.writeShort((Short) value);
+			break;
+		default:
+			this.out.writeChar((Character) value);
+			break;
+		}
+	}
+
+	private void writeCollection(final Collection<?> collection) throws IOException {
+		Object[] elements = collection.toArray();
+		this.writeVarInt(elements.length);
+		for (Object element : elements) {
+			this.writeObjectOverride(element);
+		}
+	}
+
+	private void writeMap(final Map<?, ?> map) throws IOException {
+		Map.Entry<?, ?>[] entries = map.entrySet().toArray(new Map.Entry<?, ?>[0]);
+		this.writeVarInt(entries.length);
+		for (Map.Entry<?, ?> entry : entries) {
+			this.writeObjectOverride(entry.getKey());
+			this.writeObjectOverride(entry.getValue());
+		}
+	}
+
+	/**
+	 * Objects with their own serialization (e.g. {@link java.util.Date}) are
+	 * written with the default Java serialization as byte array.
+	 */
+	private void writeSerial(final Object obj) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream serial = new ObjectOutputStream(bytes)) {
+			serial.writeObject(obj);
+		}
+		this.writeVarInt(bytes.size());
+		bytes.writeTo(this.out);
+	}
+
+	/**
+	 * Writes an object as {@link #writeObject(Object)}. A compact stream
+	 * does not distinguish between shared and unshared objects.
+	 *
+	 * @param obj
+	 *            the object
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @see java.io.ObjectOutputStream#writeUnshared(java.lang.Object)
+	 */
+	@Override
+	public void writeUnshared(final Object obj) throws IOException {
+		this.writeObjectOverride(obj);
+	}
+
+	/**
+	 * Forgets all written objects and classes. The reader is informed by a
+	 * RESET mark.
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @see java.io.ObjectOutputStream#reset()
+	 */
+	@Override
+	public void reset() throws IOException {
+		this.out.writeByte(RESET);
+		this.handles.clear();
+		this.classes.clear();
+	}
+
+	@Override
+	public void write(final int val) throws IOException {
+		this.out.write(val);
+	}
+
+	@Override
+	public void write(final byte[] buf) throws IOException {
+		this.out.write(buf);
+	}
+
+	@Override
+	public void write(final byte[] buf, final int off, final int len) throws IOException {
+		this.out.write(buf, off, len);
+	}
+
+	@Override
+	public void writeBoolean(final boolean val) throws IOException {
+		this.out.writeBoolean(val);
+	}
+
+	@Override
+	public void writeByte(final int val) throws IOException {
+		this.out.writeByte(val);
+	}
+
+	@Override
+	public void writeShort(final int val) throws IOException {
+		this.out.writeShort(val);
+	}
+
+	@Override
+	public void writeChar(final int val) throws IOException {
+		this.out.writeChar(val);
+	}
+
+	@Override
+	public void writeInt(final int val) throws IOException {
+		this.out.writeInt(val);
+	}
+
+	@Override
+	public void writeLong(final long val) throws IOException {
+		this.out.writeLong(val);
+	}
+
+	@Override
+	public void writeFloat(final float val) throws IOException {
+		this.out.writeFloat(val);
+	}
+
+	@Override
+	public void writeDouble(final double val) throws IOException {
+		this.out.writeDouble(val);
+	}
+
+	@Override
+	public void writeBytes(final String str) throws IOException {
+		this.out.writeBytes(str);
+	}
+
+	@Override
+	public void writeChars(final String str) throws IOException {
+		this.out.writeChars(str);
+	}
+
+	@Override
+	public void writeUTF(final String str) throws IOException {
+		this.out.writeUTF(str);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		this.out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.out.close();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.classes.size() + " classes, " + this.handles.size()
+				+ " objects)";
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.io;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * The CompactSerializer is a binary serializer which is faster and produces
+ * smaller results than the {@link BinarySerializer} for the typical recorded
+ * objects (strings, numbers, collections, simple beans):
+ * <ul>
+ * <li>A class is described only once per stream (name and fields). Afterwards
+ * only a number is written.</li>
+ * <li>The fields and the constructor of a class are looked up only once per
+ * class and cached.</li>
+ * <li>Strings, boxed primitives, dates, big numbers, arrays, enums and the
+ * standard collections of java.util are written directly.</li>
+ * </ul>
+ * Other classes must have a default constructor (it may be private). The
+ * serialized objects need not to be {@link java.io.Serializable}. But
+ * classes with their own serialization (e.g. with a writeObject method) or
+ * without default constructor are written with the default Java
+ * serialization. For them they must be {@link java.io.Serializable}.
+ * <p>
+ * You can select this serializer with the system property
+ * "patterntesting.serializer=compact".
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class CompactSerializer extends AbstractSerializer {
+
+	/**
+	 * Creates the {@link ObjectInputStream} that deserializes a stream of
+	 * objects which was written by the CompactSerializer.
+	 *
+	 * @param in
+	 *            the input stream
+	 * @return the object input stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public ObjectInputStream createObjectInputStream(final InputStream in) throws IOException {
+		return new CompactObjectInputStream(in);
+	}
+
+	/**
+	 * Creates the {@link ObjectOutputStream} that serializes a stream of
+	 * objects in the compact format to the {@link OutputStream}.
+	 *
+	 * @param out
+	 *            the out
+	 * @return the object output stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @see AbstractSerializer#createObjectOutputStream(java.io.OutputStream)
+	 */
+	@Override
+	public ObjectOutputStream createObjectOutputStream(final OutputStream out) throws IOException {
+		return new CompactObjectOutputStream(out);
+	}
+
+}
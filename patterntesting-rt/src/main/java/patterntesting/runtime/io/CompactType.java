@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.io;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The CompactType caches the information the {@link CompactSerializer}
+ * needs for a class: how it is serialized, the accessible fields and the
+ * constructor. The information is computed only once per class (with a
+ * {@link ClassValue}).
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class CompactType {
+
+	/** How the objects of a class are serialized. */
+	enum Kind {
+
+		/** The fields are written via reflection. */
+		REFLECTION,
+
+		/** The elements of the collection are written. */
+		COLLECTION,
+
+		/** The entries of the map are written. */
+		MAP,
+
+		/** The object is serialized with the default Java serialization. */
+		SERIAL,
+
+		/** The object cannot be serialized. */
+		UNSUPPORTED
+
+	}
+
+	private static final Logger LOG = LoggerFactory.getLogger(CompactType.class);
+	private static final Field[] NO_FIELDS = new Field[0];
+	private static final ClassValue<CompactType> TYPES = new ClassValue<CompactType>() {
+		@Override
+		protected CompactType computeValue(final Class<?> type) {
+			return new CompactType(type);
+		}
+	};
+
+	private final Class<?> type;
+	private final Kind kind;
+	private final Field[] fields;
+	private final Constructor<?> constructor;
+
+	private CompactType(final Class<?> type) {
+		this.type = type;
+		Constructor<?> ctor = getConstructorOf(type);
+		Field[] accessible = NO_FIELDS;
+		Kind k;
+		if (isCollectionOrMap(type) && (ctor != null)) {
+			k = Collection.class.isAssignableFrom(type) ? Kind.COLLECTION : Kind.MAP;
+		} else if (hasCustomSerialization(type) || (ctor == null)) {
+			k = serialKindOf(type);
+		} else {
+			accessible = getAccessibleFieldsOf(type);
+			k = (accessible == null) ? serialKindOf(type) : Kind.REFLECTION;
+		}
+		this.kind = k;
+		this.fields = (accessible == null) ? NO_FIELDS : accessible;
+		this.constructor = ctor;
+		LOG.trace("{} created.", this);
+	}
+
+	/**
+	 * Gets the (cached) type information for the given class.
+	 *
+	 * @param type
+	 *            the class
+	 * @return the compact type
+	 */
+	static CompactType of(final Class<?> type) {
+		return TYPES.get(type);
+	}
+
+	private static boolean isCollectionOrMap(final Class<?> type) {
+		return type.getName().startsWith("java.util.")
+				&& (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type));
+	}
+
+	private static Kind serialKindOf(final Class<?> type) {
+		return Serializable.class.isAssignableFrom(type) ? Kind.SERIAL : Kind.UNSUPPORTED;
+	}
+
+	private static Constructor<?> getConstructorOf(final Class<?> type) {
+		if (type.isInterface() || type.isArray() || type.isRecord() || Modifier.isAbstract(type.getModifiers())) {
+			return null;
+		}
+		try {
+			Constructor<?> ctor = type.getDeclaredConstructor();
+			ctor.setAccessible(true);
+			return ctor;
+		} catch (NoSuchMethodException | RuntimeException ex) {
+			LOG.trace("No accessible default constructor for {} ({}).", type, ex.getMessage());
+			return null;
+		}
+	}
+
+	private static boolean hasCustomSerialization(final Class<?> type) {
+		if (Externalizable.class.isAssignableFrom(type)) {
+			return true;
+		}
+		for (Class<?> c = type; (c != null) && (c != Object.class); c = c.getSuperclass()) {
+			for (Method method : c.getDeclaredMethods()) {
+				if (!Modifier.isStatic(method.getModifiers()) && isSerializationMethod(method.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isSerializationMethod(final String name) {
+		return "writeObject".equals(name) || "readObject".equals(name) || "writeReplace".equals(name)
+				|| "readResolve".equals(name);
+	}
+
+	/**
+	 * Gets the non static, non transient fields of the given class and its
+	 * super classes. The fields of the super class comes first, the fields of
+	 * each class are sorted by name. If a field is not accessible (e.g.
+	 * because the class belongs to a module which is not open) null is
+	 * returned.
+	 */
+	private static Field[] getAccessibleFieldsOf(final Class<?> type) {
+		List<Class<?>> hierarchy = new ArrayList<>();
+		for (Class<?> c = type; (c != null) && (c != Object.class); c = c.getSuperclass()) {
+			hierarchy.add(0, c);
+		}
+		List<Field> fields = new ArrayList<>();
+		try {
+			for (Class<?> c : hierarchy) {
+				List<Field> declared = new ArrayList<>();
+				for (Field field : c.getDeclaredFields()) {
+					int mod = field.getModifiers();
+					if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod)) {
+						field.setAccessible(true);
+						declared.add(field);
+					}
+				}
+				declared.sort(Comparator.comparing(Field::getName));
+				fields.addAll(declared);
+			}
+		} catch (RuntimeException ex) {
+			LOG.trace("Fields of {} are not accessible ({}).", type, ex.getMessage());
+			return null;
+		}
+		return fields.toArray(NO_FIELDS);
+	}
+
+	/**
+	 * Gets the class.
+	 *
+	 * @return the class
+	 */
+	Class<?> getType() {
+		return this.type;
+	}
+
+	/**
+	 * Gets the kind of serialization.
+	 *
+	 * @return the kind
+	 */
+	Kind getKind() {
+		return this.kind;
+	}
+
+	/**
+	 * Gets the fields which are serialized.
+	 *
+	 * @return the fields (must not be changed)
+	 */
+	Field[] getFields() {
+		return this.fields;
+	}
+
+	/**
+	 * Gets the field with the given name and type code.
+	 *
+	 * @param name
+	 *            the name of the field
+	 * @param code
+	 *            the type code (see {@link #getTypeCode(Class)})
+	 * @return the field or null if there is no such field
+	 */
+	Field getField(final String name, final char code) {
+		for (Field field : this.fields) {
+			if (field.getName().equals(name) && (getTypeCode(field.getType()) == code)) {
+				return field;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates a new instance with the default constructor.
+	 *
+	 * @return the new instance
+	 * @throws IOException
+	 *             if the instance cannot be created
+	 */
+	Object newInstance() throws IOException {
+		if (this.constructor == null) {
+			throw new InvalidClassException(this.type.getName(), "no default constructor");
+		}
+		try {
+			return this.constructor.newInstance();
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException ex) {
+			throw new InvalidClassException(this.type.getName(), "cannot create instance: " + ex);
+		}
+	}
+
+	/**
+	 * Gets the type code of the given class. This is the same code as it is
+	 * used by the JVM for primitive types. For all other types 'L' is
+	 * returned.
+	 *
+	 * @param clazz
+	 *            the clazz
+	 * @return the type code
+	 */
+	static char getTypeCode(final Class<?> clazz) {
+		if (!clazz.isPrimitive()) {
+			return 'L';
+		} else if (clazz == int.class) {
+			return 'I';
+		} else if (clazz == long.class) {
+			return 'J';
+		} else if (clazz == boolean.class) {
+			return 'Z';
+		} else if (clazz == double.class) {
+			return 'D';
+		} else if (clazz == float.class) {
+			return 'F';
+		} else if (clazz == short.class) {
+			return 'S';
+		} else if (clazz == byte.class) {
+			return 'B';
+		} else {
+			return 'C';
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.type.getName() + ", " + this.kind + ", "
+				+ this.fields.length + " fields)";
+	}
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The BinaryTraceViewer is the offline tool for the files written by the
+ * {@link BinaryTraceWriter}. It prints the calls of each thread in the same
+ * indented form as {@link Trace} does and a summary with the time spent in
+ * each method.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class BinaryTraceViewer {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BinaryTraceViewer.class);
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+	private final Map<Integer, String> joinpoints = new HashMap<>();
+	private final Map<Long, String> threads = new HashMap<>();
+	private final Map<Long, ByteBuffer[]> regions = new LinkedHashMap<>();
+	private final Map<String, long[]> timings = new TreeMap<>();
+
+	/**
+	 * Reads the given trace file and its index file.
+	 *
+	 * @param file
+	 *            the trace file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public BinaryTraceViewer(final File file) throws IOException {
+		this.readIndex(BinaryTraceWriter.getIndexFile(file));
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < BinaryTraceWriter.HEADER_SIZE) {
+				throw new IOException("'" + file + "' is too short for a binary trace file");
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt(0) != BinaryTraceWriter.MAGIC) {
+				throw new IOException("'" + file + "' is not a binary trace file");
+			}
+			int regionSize = buffer.getInt(8);
+			int regionCount = buffer.getInt(12);
+			for (int i = 0; i < regionCount; i++) {
+				int offset = BinaryTraceWriter.HEADER_SIZE + i * regionSize;
+				ByteBuffer region = buffer.duplicate();
+				region.position(offset);
+				region.limit(offset + regionSize);
+				region = region.slice();
+				if (region.getInt(8) == 0) {
+					continue;
+				}
+				long threadId = region.getLong(0);
+				ByteBuffer[] previous = this.regions.getOrDefault(threadId, new ByteBuffer[0]);
+				ByteBuffer[] merged = Arrays.copyOf(previous, previous.length + 1);
+				merged[previous.length] = region;
+				this.regions.put(threadId, merged);
+			}
+		}
+	}
+
+	private void readIndex(final File indexFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				String[] fields = line.split("\t", 3);
+				if (fields.length < 3) {
+					LOG.debug("Line '{}' of '{}' is ignored.", line, indexFile);
+				} else if ("J".equals(fields[0])) {
+					this.joinpoints.put(Integer.valueOf(fields[1]), fields[2]);
+				} else if ("T".equals(fields[0])) {
+					this.threads.put(Long.valueOf(fields[1]), fields[2]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prints the calls of each thread and a summary of the times.
+	 *
+	 * @param out
+	 *            the output stream (e.g. System.out)
+	 */
+	public void printTo(final PrintStream out) {
+		for (Map.Entry<Long, ByteBuffer[]> entry : this.regions.entrySet()) {
+			out.println("----- Thread " + this.threads.get(entry.getKey()) + " -----");
+			Deque<long[]> stack = new ArrayDeque<>();
+			for (ByteBuffer region : entry.getValue()) {
+				this.printRegionTo(out, region, stack);
+			}
+		}
+		out.println("----- Summary -----");
+		out.println("Label; Unit; Total; Avg; Hits");
+		for (Map.Entry<String, long[]> entry : this.timings.entrySet()) {
+			long[] timing = entry.getValue();
+			double total = timing[1] / NANOS_PER_MILLI;
+			out.println("\"" + entry.getKey() + "\"; ms; " + total + "; " + (total / timing[0]) + "; " + timing[0]);
+		}
+	}
+
+	private void printRegionTo(final PrintStream out, final ByteBuffer region, final Deque<long[]> stack) {
+		int count = region.getInt(8);
+		for (int i = 0; i < count; i++) {
+			int pos = BinaryTraceWriter.REGION_HEADER_SIZE + i * BinaryTraceWriter.RECORD_SIZE;
+			long time = region.getLong(pos);
+			int id = region.getInt(pos + 8);
+			short kind = region.getShort(pos + 12);
+			short depth = region.getShort(pos + 14);
+			String label = this.joinpoints.getOrDefault(id, "#" + id);
+			switch (kind) {
+			case BinaryTraceWriter.START:
+				out.println(Trace.indent(depth) + "> " + label);
+				stack.push(new long[] { id, time });
+				break;
+			case BinaryTraceWriter.END:
+				out.println(Trace.indent(depth) + "< " + label + this.getTimeOf(id, label, time, stack));
+				break;
+			default:
+				out.println(Trace.indent(depth) + "<*" + label + this.getTimeOf(id, label, time, stack));
+				break;
+			}
+		}
+	}
+
+	private String getTimeOf(final int id, final String label, final long time, final Deque<long[]> stack) {
+		while (!stack.isEmpty()) {
+			long[] start = stack.pop();
+			if (start[0] == id) {
+				long nanos = time - start[1];
+				long[] timing = this.timings.computeIfAbsent(label, k -> new long[2]);
+				timing[0]++;
+				timing[1] += nanos;
+				return " (" + (nanos / NANOS_PER_MILLI) + " ms)";
+			}
+		}
+		return "";
+	}
+
+	/**
+	 * Gets the timings of the methods. This map is filled by
+	 * {@link #printTo(PrintStream)}.
+	 *
+	 * @return hits and total time in nanoseconds for each method
+	 */
+	public Map<String, long[]> getTimings() {
+		return this.timings;
+	}
+
+	/**
+	 * Prints the given binary trace file.
+	 *
+	 * @param args
+	 *            the trace file
+	 */
+	public static void main(final String[] args) {
+		if (args.length != 1) {
+			System.err.println("usage: " + BinaryTraceViewer.class.getName() + " trace-file");
+			System.exit(1);
+		}
+		try {
+			new BinaryTraceViewer(new File(args[0])).printTo(System.out);
+		} catch (IOException ioe) {
+			LOG.error("main({}) failed", args[0], ioe);
+			System.err.println("command failed: " + ioe.getLocalizedMessage());
+		}
+	}
+
+}
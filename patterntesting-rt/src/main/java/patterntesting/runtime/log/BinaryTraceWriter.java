@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.JoinPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.util.Environment;
+import patterntesting.runtime.util.SignatureHelper;
+
+/**
+ * The BinaryTraceWriter is an alternative to the text output of
+ * {@link Trace}. It writes fixed-size records into a memory-mapped file
+ * which is pre-sized at the beginning. Each thread gets its own region of
+ * the file so the threads need no synchronization for writing. The
+ * joinpoints are interned and written only once into a separate index file
+ * (with the suffix ".idx").
+ * <p>
+ * The file can be viewed with the {@link BinaryTraceViewer}.
+ * </p>
+ * <p>
+ * Layout of the file (all numbers in big endian):
+ * </p>
+ * <pre>
+ * header:  magic (int), version (int), region size (int), regions (int), start time (long)
+ * region:  thread id (long), number of records (int), reserved (int), records...
+ * record:  time since start in ns (long), joinpoint id (int), kind (short), depth (short)
+ * </pre>
+ * <p>
+ * If the file is full further events are dropped and counted. Because each
+ * thread which writes a record gets its own region (and a region is not
+ * reused if the thread dies) the number of regions limits the number of
+ * threads which can be traced. With the default sizes (64 MB file and
+ * 1 MB regions, see {@link Environment#TRACE_FILE_SIZE} and
+ * {@link Environment#TRACE_REGION_SIZE}) these are 63 threads.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class BinaryTraceWriter implements AutoCloseable {
+
+	/** Kind of a record for the start of a method. */
+	public static final short START = 1;
+
+	/** Kind of a record for the end of a method. */
+	public static final short END = 2;
+
+	/** Kind of a record for a method which ends with an exception. */
+	public static final short THROWING = 3;
+
+	/** The magic number at the beginning of a file ("PTBT"). */
+	static final int MAGIC = 0x50544254;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+	static final int REGION_HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 16;
+
+	/** The default size of the file (64 MB). */
+	static final int DEFAULT_FILE_SIZE = Integer.getInteger(Environment.TRACE_FILE_SIZE, 64 * 1024 * 1024);
+
+	/** The default size of a region (1 MB). */
+	static final int DEFAULT_REGION_SIZE = Integer.getInteger(Environment.TRACE_REGION_SIZE, 1024 * 1024);
+
+	private static final Logger LOG = LoggerFactory.getLogger(BinaryTraceWriter.class);
+	private final File file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final Writer index;
+	private final int regionSize;
+	private final int regionCount;
+	private final long startNanos = System.nanoTime();
+	private final AtomicInteger nextRegion = new AtomicInteger();
+	private final Map<JoinPoint.StaticPart, Integer> joinpoints = new ConcurrentHashMap<>();
+	private final ThreadLocal<Region> regions = new ThreadLocal<>();
+	private final LongAdder dropped = new LongAdder();
+	private volatile boolean closed;
+
+	/**
+	 * Creates a binary trace file with 64 MB, divided into regions of 1 MB.
+	 * These defaults can be changed with the system properties
+	 * "patterntesting.trace.fileSize" and "patterntesting.trace.regionSize".
+	 *
+	 * @param file
+	 *            the file
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public BinaryTraceWriter(final File file) throws IOException {
+		this(file, DEFAULT_FILE_SIZE, DEFAULT_REGION_SIZE);
+	}
+
+	/**
+	 * Creates a binary trace file with the given size.
+	 *
+	 * @param file
+	 *            the file
+	 * @param fileSize
+	 *            the size of the file in bytes
+	 * @param regionSize
+	 *            the size of a region in bytes
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public BinaryTraceWriter(final File file, final int fileSize, final int regionSize) throws IOException {
+		this.file = file;
+		this.regionSize = Math.max(regionSize, REGION_HEADER_SIZE + RECORD_SIZE);
+		this.regionCount = Math.max((fileSize - HEADER_SIZE) / this.regionSize, 1);
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				HEADER_SIZE + (long) this.regionCount * this.regionSize);
+		this.buffer.putInt(0, MAGIC);
+		this.buffer.putInt(4, VERSION);
+		this.buffer.putInt(8, this.regionSize);
+		this.buffer.putInt(12, this.regionCount);
+		this.buffer.putLong(16, System.currentTimeMillis());
+		this.index = new BufferedWriter(new OutputStreamWriter(
+				Files.newOutputStream(getIndexFile(file).toPath()), StandardCharsets.UTF_8));
+		LOG.debug("Binary trace is written to '{}' ({} regions).", file, this.regionCount);
+	}
+
+	/**
+	 * Gets the index file with the joinpoints and threads which belongs to
+	 * the given trace file.
+	 *
+	 * @param traceFile
+	 *            the trace file
+	 * @return the index file
+	 */
+	public static File getIndexFile(final File traceFile) {
+		return new File(traceFile.getPath() + ".idx");
+	}
+
+	/**
+	 * Gets the file.
+	 *
+	 * @return the file
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Writes a record for the given joinpoint.
+	 *
+	 * @param kind
+	 *            {@link #START}, {@link #END} or {@link #THROWING}
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @param depth
+	 *            the call depth
+	 */
+	public void write(final short kind, final JoinPoint.StaticPart jpsp, final int depth) {
+		long time = System.nanoTime() - this.startNanos;
+		Region region = this.getRegion();
+		if (region == null) {
+			this.dropped.increment();
+			return;
+		}
+		ByteBuffer buf = region.buffer;
+		int pos = REGION_HEADER_SIZE + region.count * RECORD_SIZE;
+		buf.putLong(pos, time);
+		buf.putInt(pos + 8, this.getIdOf(jpsp));
+		buf.putShort(pos + 12, kind);
+		buf.putShort(pos + 14, (short) Math.min(depth, Short.MAX_VALUE));
+		region.count++;
+		buf.putInt(8, region.count);
+	}
+
+	private Region getRegion() {
+		if (this.closed) {
+			return null;
+		}
+		Region region = this.regions.get();
+		if ((region == null) || region.isFull()) {
+			if (this.nextRegion.get() > this.regionCount) {
+				return null;
+			}
+			int n = this.nextRegion.getAndIncrement();
+			if (n >= this.regionCount) {
+				if (n == this.regionCount) {
+					LOG.warn("All {} regions of '{}' are used - records of {} are dropped (increase '{}').",
+							this.regionCount, this.file, Thread.currentThread(), Environment.TRACE_FILE_SIZE);
+				}
+				return null;
+			}
+			region = new Region(this.buffer, HEADER_SIZE + n * this.regionSize, this.regionSize);
+			this.regions.set(region);
+			this.registerThread();
+		}
+		return region;
+	}
+
+	private int getIdOf(final JoinPoint.StaticPart jpsp) {
+		Integer id = this.joinpoints.get(jpsp);
+		if (id == null) {
+			id = this.intern(jpsp);
+		}
+		return id;
+	}
+
+	private synchronized int intern(final JoinPoint.StaticPart jpsp) {
+		Integer id = this.joinpoints.get(jpsp);
+		if (id == null) {
+			id = this.joinpoints.size();
+			this.writeIndex("J\t" + id + "\t" + SignatureHelper.getAsString(jpsp.getSignature()));
+			this.joinpoints.put(jpsp, id);
+		}
+		return id;
+	}
+
+	private synchronized void registerThread() {
+		Thread t = Thread.currentThread();
+		this.regions.get().buffer.putLong(0, t.getId());
+		this.writeIndex("T\t" + t.getId() + "\t" + t.getName());
+	}
+
+	private void writeIndex(final String line) {
+		try {
+			this.index.write(line);
+			this.index.write('\n');
+			this.index.flush();
+		} catch (IOException ioe) {
+			LOG.warn("Cannot write '{}' to index of '{}':", line, this.file, ioe);
+		}
+	}
+
+	/**
+	 * Gets the number of dropped records.
+	 *
+	 * @return the number of dropped records
+	 */
+	public long getDropped() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Closes the file. Records which are written afterwards are dropped.
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.buffer.force();
+		this.channel.close();
+		this.index.close();
+		LOG.debug("'{}' is closed ({} records dropped).", this.file, this.getDropped());
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.file + ")";
+	}
+
+	/**
+	 * The region of one thread.
+	 */
+	private static final class Region {
+
+		private final ByteBuffer buffer;
+		private final int capacity;
+		private int count;
+
+		private Region(final ByteBuffer mapped, final int offset, final int size) {
+			ByteBuffer dup = mapped.duplicate();
+			dup.position(offset);
+			dup.limit(offset + size);
+			this.buffer = dup.slice();
+			this.capacity = (size - REGION_HEADER_SIZE) / RECORD_SIZE;
+		}
+
+		private boolean isFull() {
+			return this.count >= this.capacity;
+		}
+
+	}
+
+}
@@ -29,14 +29,19 @@ import patterntesting.runtime.util.SignatureHelper;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * In contradiction to {@link ObjectRecorder} this class only records joinpoints
  * and return values if they are different from the last record. I.e. If a
  * return value is always the same for the same joinpoint this pair is only
  * recorded once.
+ * <p>
+ * Since 2.6.1 the recorder can be used from several threads. With the
+ * container formats (see {@link RecordFormat}) a value which was returned
+ * several times is stored only once with the number of repetitions.
+ * </p>
  *
  * @author oliver (boehm@javatux.de)
  * @since 1.3.1 (01.09.2013)
@@ -44,7 +49,7 @@ import java.util.Map;
 public class LazyObjectRecorder extends ObjectRecorder {
 
 	private static final Logger LOG = LoggerFactory.getLogger(LazyObjectRecorder.class);
-	private final Map<String, ValueContainer> cachedJoinpoints = new HashMap<>();
+	private final Map<String, ValueContainer> cachedJoinpoints = new ConcurrentHashMap<>();
 
 	/**
 	 * Instantiates a new lazy object recorder.
@@ -73,6 +78,32 @@ public class LazyObjectRecorder extends ObjectRecorder {
 		super(ostream);
 	}
 
+	/**
+	 * Instantiates a new lazy object recorder with the given format.
+	 *
+	 * @param logFile
+	 *            the log file
+	 * @param format
+	 *            the record format
+	 * @since 2.6.1
+	 */
+	public LazyObjectRecorder(final File logFile, final RecordFormat format) {
+		super(logFile, format);
+	}
+
+	/**
+	 * Instantiates a new lazy object recorder with the given format.
+	 *
+	 * @param ostream
+	 *            the ostream
+	 * @param format
+	 *            the record format
+	 * @since 2.6.1
+	 */
+	public LazyObjectRecorder(final OutputStream ostream, final RecordFormat format) {
+		super(ostream, format);
+	}
+
 	/**
 	 * Both things are logged with this method: the call of a method (joinPoint)
 	 * and the return value of this method. Constructors or method of type
@@ -108,31 +139,42 @@ public class LazyObjectRecorder extends ObjectRecorder {
 		}
 	}
 
-	@SuppressWarnings("deprecation")
+	/**
+	 * The container of a joinpoint is locked during saving. So the values of
+	 * the same joinpoint are stored in the right order whereas different
+	 * joinpoints can be recorded in parallel.
+	 */
 	private void saveLazy(final String statement, final Object returnValue) throws IOException {
 		ValueContainer saved = this.cachedJoinpoints.get(statement);
 		if (saved == null) {
-			this.cachedJoinpoints.put(statement, new ValueContainer(returnValue));
-			save(statement, returnValue);
-		} else {
+			ValueContainer created = new ValueContainer(returnValue);
+			synchronized (created) {
+				saved = this.cachedJoinpoints.putIfAbsent(statement, created);
+				if (saved == null) {
+					save(statement, returnValue);
+					return;
+				}
+			}
+		}
+		saveLazy(statement, returnValue, saved);
+	}
+
+	@SuppressWarnings("deprecation")
+	private void saveLazy(final String statement, final Object returnValue, final ValueContainer saved)
+			throws IOException {
+		synchronized (saved) {
 			if (ObjectUtils.equals(saved.value, returnValue)) {
 				LOG.trace("cached: {} = {}", statement, returnValue);
 				saved.count++;
 			} else {
-				saveCache(statement, saved);
+				LOG.trace("saving: {} = {}", statement, saved);
+				save(statement, saved.value, saved.count);
 				saved.setValue(returnValue);
 				save(statement, returnValue);
 			}
 		}
 	}
 
-	private void saveCache(final String statement, final ValueContainer saved) throws IOException {
-		LOG.trace("saving: {} = {}", statement, saved);
-		for (int i = 0; i < saved.count; i++) {
-			save(statement, saved.value);
-		}
-	}
-
 	// ------------------------------------------------------------------------
 
 	/**
@@ -43,6 +43,7 @@ public final class ObjectPlayer {
 	private static final Logger LOG = LoggerFactory.getLogger(ObjectPlayer.class);
 	private static final AbstractSerializer SERIALIZER = AbstractSerializer.getInstance();
 	private final Map<String, List<Object>> loggedJoinpoints = new HashMap<>();
+	private final RecordContainerReader indexedRecording;
 
 	/**
 	 * Instantiates a new object player. The logged objects will be loaded from
@@ -54,7 +55,42 @@ public final class ObjectPlayer {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public ObjectPlayer(final File logFile) throws IOException {
-		load(logFile);
+		this(logFile, false);
+	}
+
+	/**
+	 * Instantiates a new object player. If lazy loading is wanted and the
+	 * given file is an indexed container (see {@link RecordFormat}) only the
+	 * index is read. The return values are deserialized on demand when they
+	 * are requested. This is recommended for big recordings which would not
+	 * fit into the heap. Otherwise all values are loaded at once.
+	 *
+	 * @param logFile
+	 *            the log file
+	 * @param lazy
+	 *            true if the values should be loaded on demand
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @since 2.6.1
+	 */
+	public ObjectPlayer(final File logFile, final boolean lazy) throws IOException {
+		if (lazy && RecordContainerReader.isIndexed(logFile)) {
+			this.indexedRecording = new RecordContainerReader(logFile);
+			LOG.debug("Return values of \"{}\" will be loaded on demand.", logFile);
+		} else {
+			this.indexedRecording = null;
+			load(logFile);
+		}
+	}
+
+	/**
+	 * Checks if the return values are loaded on demand.
+	 *
+	 * @return true, if lazy
+	 * @since 2.6.1
+	 */
+	public boolean isLazy() {
+		return this.indexedRecording != null;
 	}
 
 	/**
@@ -76,14 +112,23 @@ public final class ObjectPlayer {
 		return null;
 	}
 
-	private Object getReturnValue(final String joinPoint) {
+	/**
+	 * Gets the next return value for the given joinpoint (as string).
+	 *
+	 * @param joinPoint
+	 *            the join point as string
+	 * @return the return value
+	 */
+	Object getReturnValue(final String joinPoint) {
 		Object returnValue = null;
-		if (loggedJoinpoints.containsKey(joinPoint)) {
-			List<Object> loggedReturnValues = loggedJoinpoints.get(joinPoint);
+		List<Object> loggedReturnValues = loggedJoinpoints.get(joinPoint);
+		if (loggedReturnValues != null) {
 			returnValue = loggedReturnValues.get(0);
 			if (loggedReturnValues.size() > 1) {
 				loggedReturnValues.remove(0);
 			}
+		} else if ((this.indexedRecording != null) && this.indexedRecording.contains(joinPoint)) {
+			returnValue = getIndexedReturnValue(joinPoint);
 		} else {
 			LOG.trace("Not recorded: {}", joinPoint);
 		}
@@ -91,6 +136,15 @@ public final class ObjectPlayer {
 		return returnValue;
 	}
 
+	private Object getIndexedReturnValue(final String joinPoint) {
+		try {
+			return this.indexedRecording.getReturnValue(joinPoint);
+		} catch (IOException ioe) {
+			throw new IORuntimeException("cannot load return value of " + joinPoint + " from "
+					+ this.indexedRecording, ioe);
+		}
+	}
+
 	/**
 	 * If you want to use an always recored object log you can load it with this
 	 * method. This allows you to use different files for logging and loading of
@@ -118,6 +172,10 @@ public final class ObjectPlayer {
 	 * If you want to use an always recorded object log you can load it with
 	 * this method. This allows you to use different files for logging and
 	 * loading of recorded objects.
+	 * <p>
+	 * Since 2.6.1 the container format of the {@link ObjectRecorder} (see
+	 * {@link RecordFormat}) is also supported. It is detected automatically.
+	 * </p>
 	 *
 	 * @param istream
 	 *            the istream
@@ -125,6 +183,24 @@ public final class ObjectPlayer {
 	 *             Signals that an I/O exception has occurred.
 	 */
 	public void load(final InputStream istream) throws IOException {
+		BufferedInputStream bistream = new BufferedInputStream(istream);
+		DataInputStream distream = new DataInputStream(bistream);
+		bistream.mark(4);
+		try {
+			if (distream.readInt() == RecordContainerWriter.MAGIC) {
+				RecordContainerReader.readBlocks(distream, this::logToMemory);
+				LOG.debug("{} joinpoint(s) are read from container {}.", this.loggedJoinpoints.size(), istream);
+				return;
+			}
+		} catch (EOFException ex) {
+			LOG.debug("{} is empty ({}).", istream, ex.getMessage());
+			LOG.trace("Details:", ex);
+		}
+		bistream.reset();
+		loadSerialized(bistream);
+	}
+
+	private void loadSerialized(final InputStream istream) throws IOException {
 		ObjectInputStream oistream = SERIALIZER.createObjectInputStream(istream);
 		try {
 			load(oistream);
@@ -141,7 +217,7 @@ public final class ObjectPlayer {
 			while (true) {
 				String jp = (String) oistream.readObject();
 				Object retValue = oistream.readObject();
-				logToMemory(jp, retValue);
+				logToMemory(jp, retValue, 1);
 				if (retValue == null) {
 					LOG.debug("No more objects in {} available.", oistream);
 					break;
@@ -153,13 +229,13 @@ public final class ObjectPlayer {
 		}
 	}
 
-	private void logToMemory(final String joinPoint, final Object returnValue) {
-		List<Object> loggedReturnValues = new ArrayList<>();
-		if (loggedJoinpoints.containsKey(joinPoint)) {
-			loggedReturnValues = loggedJoinpoints.get(joinPoint);
+	private void logToMemory(final String joinPoint, final Object returnValue, final int count) {
+		List<Object> loggedReturnValues = loggedJoinpoints.computeIfAbsent(joinPoint, k -> new ArrayList<>());
+		if (count == 1) {
+			loggedReturnValues.add(returnValue);
+		} else {
+			loggedReturnValues.addAll(Collections.nCopies(count, returnValue));
 		}
-		loggedReturnValues.add(returnValue);
-		loggedJoinpoints.put(joinPoint, loggedReturnValues);
 		if (LOG.isTraceEnabled()) {
 			LOG.trace("logged (" + loggedReturnValues.size() + "): {} = {}", joinPoint,
 					Converter.toString(returnValue));
@@ -215,6 +291,9 @@ public final class ObjectPlayer {
 	 */
 	@Override
 	public String toString() {
+		if (this.indexedRecording != null) {
+			return this.getClass().getSimpleName() + " with " + indexedRecording.size() + " indexed joinpoint(s).";
+		}
 		return this.getClass().getSimpleName() + " with " + loggedJoinpoints.size() + " joinpoint(s).";
 	}
 
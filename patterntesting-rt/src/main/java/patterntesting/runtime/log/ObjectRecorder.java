@@ -19,7 +19,9 @@
 package patterntesting.runtime.log;
 
 import java.io.*;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.*;
 import org.aspectj.lang.JoinPoint;
@@ -50,6 +52,7 @@ public class ObjectRecorder extends AbstractLogger {
 	private static final Logger LOG = LoggerFactory.getLogger(ObjectRecorder.class);
 	private static final AbstractSerializer serializer = AbstractSerializer.getInstance();
 	private final ObjectOutputStream objStream;
+	private final RecordContainerWriter containerWriter;
 
 	/**
 	 * Instantiates a new object recorder. The logged objects are stored in a
@@ -67,8 +70,36 @@ public class ObjectRecorder extends AbstractLogger {
 	 *            the log file
 	 */
 	public ObjectRecorder(final File logFile) {
-		this(ExtendedFile.createOutputStreamFor(logFile));
-		LOG.info("Objects will be recorded to \"{}\".", logFile);
+		this(logFile, RecordFormat.SERIALIZED);
+	}
+
+	/**
+	 * Instantiates a new object logger. The logged objects will be stored in
+	 * the given log file with the given format. If the log file ends with
+	 * ".gz" it is written compressed (as expected by the {@link ObjectPlayer}).
+	 *
+	 * @param logFile
+	 *            the log file
+	 * @param format
+	 *            the record format
+	 * @since 2.6.1
+	 */
+	public ObjectRecorder(final File logFile, final RecordFormat format) {
+		this(createOutputStreamFor(logFile), format);
+		LOG.info("Objects will be recorded to \"{}\" ({}).", logFile, format);
+	}
+
+	private static OutputStream createOutputStreamFor(final File logFile) {
+		OutputStream ostream = ExtendedFile.createOutputStreamFor(logFile);
+		if ((ostream == System.out) || !FilenameUtils.isExtension(logFile.getName(), "gz")) {
+			return ostream;
+		}
+		try {
+			return new GZIPOutputStream(ostream);
+		} catch (IOException ioe) {
+			IOUtils.closeQuietly(ostream);
+			throw new IllegalArgumentException("cannot compress " + logFile, ioe);
+		}
 	}
 
 	/**
@@ -78,23 +109,83 @@ public class ObjectRecorder extends AbstractLogger {
 	 *            the ostream
 	 */
 	public ObjectRecorder(final OutputStream ostream) {
+		this(ostream, RecordFormat.SERIALIZED);
+	}
+
+	/**
+	 * Instantiates a new object logger to the given stream. With
+	 * {@link RecordFormat#CONTAINER} or
+	 * {@link RecordFormat#COMPRESSED_CONTAINER} the objects are written in
+	 * batches. So do not forget to close the recorder at the end (or let the
+	 * shutdown hook do it).
+	 *
+	 * @param ostream
+	 *            the ostream
+	 * @param format
+	 *            the record format
+	 * @since 2.6.1
+	 */
+	public ObjectRecorder(final OutputStream ostream, final RecordFormat format) {
 		super(ostream);
 		try {
-			this.objStream = serializer.createObjectOutputStream(ostream);
+			if (format == RecordFormat.SERIALIZED) {
+				this.objStream = serializer.createObjectOutputStream(ostream);
+				this.containerWriter = null;
+			} else {
+				this.objStream = null;
+				this.containerWriter = new RecordContainerWriter(ostream, serializer,
+						format == RecordFormat.COMPRESSED_CONTAINER);
+			}
 		} catch (IOException ioe) {
 			throw new IllegalArgumentException("cannot use " + ostream, ioe);
 		}
 	}
 
+	/**
+	 * Gets the record format.
+	 *
+	 * @return the record format
+	 * @since 2.6.1
+	 */
+	public RecordFormat getFormat() {
+		if (this.containerWriter == null) {
+			return RecordFormat.SERIALIZED;
+		}
+		return this.containerWriter.isCompressed() ? RecordFormat.COMPRESSED_CONTAINER : RecordFormat.CONTAINER;
+	}
+
+	/**
+	 * Writes the buffered objects (if any) before the stream is closed at
+	 * shutdown.
+	 *
+	 * @see AbstractLogger#run()
+	 */
+	@Override
+	public void run() {
+		this.flushContainer();
+		super.run();
+	}
+
 	/**
 	 * Closes the stream with the logged objects.
 	 */
 	@Override
 	public void close() {
+		this.flushContainer();
 		IOUtils.closeQuietly(this.objStream);
 		super.close();
 	}
 
+	private void flushContainer() {
+		if (this.containerWriter != null) {
+			try {
+				this.containerWriter.close();
+			} catch (IOException ioe) {
+				LOG.warn("Cannot write buffered objects of {}:", this.containerWriter, ioe);
+			}
+		}
+	}
+
 	/**
 	 * Both things are logged with this method: the call of a method (joinPoint)
 	 * and the return value of this method. Constructors or method of type
@@ -116,13 +207,14 @@ public class ObjectRecorder extends AbstractLogger {
 		try {
 			save(statement, returnValue);
 		} catch (IOException ioe) {
-			LOG.debug("Logging to {} failed:", objStream, ioe);
+			LOG.debug("Logging to {} failed:", this.getLogStream(), ioe);
 			LOG.info("{} = {}", statement, returnValue);
 		}
 	}
 
 	/**
-	 * Saves the given joinPoint / returnValue pair to the log stream.
+	 * Saves the given joinPoint / returnValue pair to the log stream. The
+	 * pair is written atomically, so it can be called from several threads.
 	 *
 	 * @param joinPoint
 	 *            the join point
@@ -133,9 +225,44 @@ public class ObjectRecorder extends AbstractLogger {
 	 */
 	protected void save(final String joinPoint, final Object returnValue) throws IOException {
 		LOG.debug("RECORD: {} = {}", joinPoint, returnValue);
-		objStream.writeObject(joinPoint);
-		objStream.writeObject(returnValue);
-		objStream.flush();
+		if (this.containerWriter != null) {
+			this.containerWriter.write(joinPoint, returnValue);
+			return;
+		}
+		synchronized (objStream) {
+			objStream.writeObject(joinPoint);
+			objStream.writeObject(returnValue);
+			objStream.flush();
+		}
+	}
+
+	/**
+	 * Saves the given joinPoint / returnValue pair which was returned n times.
+	 * With the container formats (see {@link RecordFormat}) it is stored only
+	 * once together with the number of repetitions. With the serialized
+	 * format it is stored n times.
+	 *
+	 * @param joinPoint
+	 *            the join point
+	 * @param returnValue
+	 *            the return value
+	 * @param count
+	 *            how often the return value was returned
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @since 2.6.1
+	 */
+	protected void save(final String joinPoint, final Object returnValue, final int count) throws IOException {
+		if (this.containerWriter == null) {
+			synchronized (objStream) {
+				for (int i = 0; i < count; i++) {
+					save(joinPoint, returnValue);
+				}
+			}
+		} else {
+			LOG.debug("RECORD: {} = {} ({} x)", joinPoint, returnValue, count);
+			this.containerWriter.write(joinPoint, returnValue, count);
+		}
 	}
 
 }
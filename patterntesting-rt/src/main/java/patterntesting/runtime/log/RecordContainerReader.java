@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.io.AbstractSerializer;
+import patterntesting.runtime.util.Environment;
+
+/**
+ * The RecordContainerReader reads the return values of an indexed container
+ * (written by the {@link RecordContainerWriter}) on demand. Only the index
+ * at the end of the file is read at the beginning. If a value is needed the
+ * block with this value is mapped into memory and deserialized. The last
+ * recently used blocks are cached (default is 16 blocks, can be changed with
+ * the system property "patterntesting.player.cacheSize").
+ * <p>
+ * Because the values of a block are serialized as one object stream (with
+ * back references) always a whole block is deserialized and not a single
+ * value.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class RecordContainerReader {
+
+	/** The default number of cached blocks. */
+	static final int DEFAULT_CACHE_SIZE = Integer.getInteger(Environment.PLAYER_CACHE_SIZE, 16);
+
+	private static final Logger LOG = LoggerFactory.getLogger(RecordContainerReader.class);
+	private static final AbstractSerializer SERIALIZER = AbstractSerializer.getInstance();
+	private final File file;
+	private final boolean compressed;
+	private final long[] blockOffsets;
+	private final long indexOffset;
+	private final List<String> dictionary = new ArrayList<>();
+	private final Map<String, Cursor> cursors = new HashMap<>();
+	private final Map<Integer, Map<String, List<Object>>> cache;
+	private int loadedBlocks;
+
+	/**
+	 * Instantiates a new reader with the default cache size.
+	 *
+	 * @param file
+	 *            the container file
+	 * @throws IOException
+	 *             if the file is not an indexed container
+	 */
+	RecordContainerReader(final File file) throws IOException {
+		this(file, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Instantiates a new reader.
+	 *
+	 * @param file
+	 *            the container file
+	 * @param cacheSize
+	 *            the number of cached blocks
+	 * @throws IOException
+	 *             if the file is not an indexed container
+	 */
+	RecordContainerReader(final File file, final int cacheSize) throws IOException {
+		this.file = file;
+		this.cache = createCache(Math.max(cacheSize, 1));
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+			long size = channel.size();
+			if (size < 2 * RecordContainerWriter.FOOTER_SIZE) {
+				throw new IOException("no index in " + file + " (" + size + " bytes)");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 12);
+			if (header.getInt() != RecordContainerWriter.MAGIC) {
+				throw new IOException("no record container: " + file);
+			}
+			header.getInt();
+			this.compressed = (header.getInt() & RecordContainerWriter.FLAG_COMPRESSED) != 0;
+			ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - RecordContainerWriter.FOOTER_SIZE,
+					RecordContainerWriter.FOOTER_SIZE);
+			this.indexOffset = footer.getLong();
+			if ((footer.getInt() != RecordContainerWriter.MAGIC) || (this.indexOffset < 12)
+					|| (this.indexOffset >= size)) {
+				throw new IOException("no index in " + file);
+			}
+			ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, this.indexOffset,
+					size - RecordContainerWriter.FOOTER_SIZE - this.indexOffset);
+			this.blockOffsets = readIndex(index);
+		}
+		LOG.debug("{} opened with {} block(s).", this, this.blockOffsets.length);
+	}
+
+	private long[] readIndex(final ByteBuffer index) throws IOException {
+		if (index.getInt() != RecordContainerWriter.INDEX) {
+			throw new IOException("corrupt index in " + file);
+		}
+		long[] offsets = new long[index.getInt()];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = index.getLong();
+		}
+		int n = index.getInt();
+		for (int i = 0; i < n; i++) {
+			byte[] bytes = new byte[index.getInt()];
+			index.get(bytes);
+			String joinPoint = new String(bytes, StandardCharsets.UTF_8);
+			int[][] entries = new int[index.getInt()][2];
+			for (int[] entry : entries) {
+				entry[0] = index.getInt();
+				entry[1] = index.getInt();
+			}
+			this.dictionary.add(joinPoint);
+			this.cursors.put(joinPoint, new Cursor(entries));
+		}
+		return offsets;
+	}
+
+	private static Map<Integer, Map<String, List<Object>>> createCache(final int size) {
+		return new LinkedHashMap<Integer, Map<String, List<Object>>>(size * 2, 0.75f, true) {
+			private static final long serialVersionUID = 20261018L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Integer, Map<String, List<Object>>> eldest) {
+				return this.size() > size;
+			}
+		};
+	}
+
+	/**
+	 * Checks if the given file is a container with an index.
+	 *
+	 * @param file
+	 *            the file
+	 * @return true, if is indexed
+	 */
+	static boolean isIndexed(final File file) {
+		long size = file.length();
+		if (size < 2 * RecordContainerWriter.FOOTER_SIZE) {
+			return false;
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			if (raf.readInt() != RecordContainerWriter.MAGIC) {
+				return false;
+			}
+			raf.seek(size - 4);
+			return raf.readInt() == RecordContainerWriter.MAGIC;
+		} catch (IOException ioe) {
+			LOG.debug("Cannot read {} ({}).", file, ioe.getMessage());
+			LOG.trace("Details:", ioe);
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if the given joinpoint was recorded.
+	 *
+	 * @param joinPoint
+	 *            the joinpoint as string
+	 * @return true, if recorded
+	 */
+	boolean contains(final String joinPoint) {
+		return this.cursors.containsKey(joinPoint);
+	}
+
+	/**
+	 * Gets the number of recorded joinpoints.
+	 *
+	 * @return the number of joinpoints
+	 */
+	int size() {
+		return this.cursors.size();
+	}
+
+	/**
+	 * Gets the number of blocks which were loaded (and deserialized) until
+	 * now.
+	 *
+	 * @return the number of loaded blocks
+	 */
+	synchronized int getLoadedBlocks() {
+		return this.loadedBlocks;
+	}
+
+	/**
+	 * Gets the next return value for the given joinpoint. If all values are
+	 * consumed the last value is returned again (like the
+	 * {@link ObjectPlayer} does it).
+	 *
+	 * @param joinPoint
+	 *            the joinpoint as string
+	 * @return the return value (or null if not recorded)
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	synchronized Object getReturnValue(final String joinPoint) throws IOException {
+		Cursor cursor = this.cursors.get(joinPoint);
+		if (cursor == null) {
+			return null;
+		}
+		if (cursor.entry < cursor.entries.length) {
+			int[] entry = cursor.entries[cursor.entry];
+			List<Object> values = this.getBlock(entry[0]).get(joinPoint);
+			cursor.last = values.get(cursor.consumed);
+			cursor.consumed++;
+			if (cursor.consumed >= entry[1]) {
+				cursor.entry++;
+				cursor.consumed = 0;
+			}
+		}
+		return cursor.last;
+	}
+
+	private Map<String, List<Object>> getBlock(final int n) throws IOException {
+		Map<String, List<Object>> block = this.cache.get(n);
+		if (block == null) {
+			block = this.loadBlock(n);
+			this.cache.put(n, block);
+		}
+		return block;
+	}
+
+	private Map<String, List<Object>> loadBlock(final int n) throws IOException {
+		long offset = this.blockOffsets[n];
+		long end = (n + 1 < this.blockOffsets.length) ? this.blockOffsets[n + 1] : this.indexOffset;
+		byte[] stored = new byte[(int) (end - offset - 8)];
+		int rawLength;
+		try (RandomAccessFile raf = new RandomAccessFile(this.file, "r"); FileChannel channel = raf.getChannel()) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, end - offset);
+			rawLength = buffer.getInt();
+			buffer.getInt();
+			buffer.get(stored);
+		}
+		byte[] raw = this.compressed ? inflate(stored, rawLength) : stored;
+		Map<String, List<Object>> block = new HashMap<>();
+		readBlock(raw, this.dictionary, (jp, value, count) -> block.computeIfAbsent(jp, k -> new ArrayList<>())
+				.addAll(Collections.nCopies(count, value)));
+		this.loadedBlocks++;
+		LOG.trace("Block {} of {} loaded ({} bytes).", n, this.file, raw.length);
+		return block;
+	}
+
+	/**
+	 * Decompresses the given block.
+	 *
+	 * @param stored
+	 *            the stored (compressed) bytes
+	 * @param rawLength
+	 *            the raw length
+	 * @return the raw bytes
+	 * @throws IOException
+	 *             if the block is corrupt
+	 */
+	static byte[] inflate(final byte[] stored, final int rawLength) throws IOException {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored);
+			byte[] raw = new byte[rawLength];
+			int n = 0;
+			while ((n < rawLength) && !inflater.finished()) {
+				n += inflater.inflate(raw, n, rawLength - n);
+			}
+			return raw;
+		} catch (DataFormatException ex) {
+			throw new IOException("corrupt block with " + stored.length + " bytes", ex);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	/**
+	 * Reads the records of the given (uncompressed) block. New joinpoints are
+	 * added to the given dictionary, known joinpoints are skipped.
+	 *
+	 * @param raw
+	 *            the raw bytes of the block
+	 * @param dictionary
+	 *            the dictionary (id is the position in the list)
+	 * @param consumer
+	 *            gets the joinpoint / value pairs (with the number of
+	 *            repetitions)
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	static void readBlock(final byte[] raw, final List<String> dictionary, final RecordConsumer consumer)
+			throws IOException {
+		try (ObjectInputStream oistream = SERIALIZER.createObjectInputStream(new ByteArrayInputStream(raw))) {
+			for (byte type = oistream.readByte(); type != RecordContainerWriter.END; type = oistream.readByte()) {
+				switch (type) {
+				case RecordContainerWriter.DICT:
+					int id = oistream.readInt();
+					byte[] bytes = new byte[oistream.readInt()];
+					oistream.readFully(bytes);
+					if (id == dictionary.size()) {
+						dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+					}
+					break;
+				case RecordContainerWriter.VALUE:
+					String jp = dictionary.get(oistream.readInt());
+					consumer.accept(jp, oistream.readObject(), 1);
+					break;
+				case RecordContainerWriter.REPEAT:
+					String repeated = dictionary.get(oistream.readInt());
+					int count = oistream.readInt();
+					consumer.accept(repeated, oistream.readObject(), count);
+					break;
+				default:
+					throw new IOException("unknown record type " + type);
+				}
+			}
+		} catch (ClassNotFoundException cnfe) {
+			throw new IOException("unknown object in block", cnfe);
+		}
+	}
+
+	/**
+	 * Reads all blocks of a container from the given stream. The header
+	 * (magic number) must be already read. Reading stops at the index or at
+	 * the end of the stream.
+	 *
+	 * @param distream
+	 *            the stream
+	 * @param consumer
+	 *            gets the joinpoint / value pairs (with the number of
+	 *            repetitions)
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	static void readBlocks(final DataInputStream distream, final RecordConsumer consumer)
+			throws IOException {
+		int version = distream.readInt();
+		if (version != RecordContainerWriter.VERSION) {
+			throw new IOException("unsupported container version " + version);
+		}
+		boolean compressed = (distream.readInt() & RecordContainerWriter.FLAG_COMPRESSED) != 0;
+		List<String> dictionary = new ArrayList<>();
+		try {
+			for (int rawLength = distream.readInt(); rawLength != RecordContainerWriter.INDEX; rawLength = distream
+					.readInt()) {
+				byte[] stored = new byte[distream.readInt()];
+				distream.readFully(stored);
+				readBlock(compressed ? inflate(stored, rawLength) : stored, dictionary, consumer);
+			}
+		} catch (EOFException ex) {
+			LOG.debug("No more blocks available ({}).", ex.getMessage());
+			LOG.trace("Details:", ex);
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.file + ", " + this.cursors.size() + " joinpoints)";
+	}
+
+	/**
+	 * Gets the records of a block.
+	 */
+	@FunctionalInterface
+	interface RecordConsumer {
+
+		/**
+		 * Accepts a record.
+		 *
+		 * @param joinPoint
+		 *            the joinpoint as string
+		 * @param value
+		 *            the value
+		 * @param count
+		 *            how often the value was recorded
+		 */
+		void accept(String joinPoint, Object value, int count);
+
+	}
+
+	/**
+	 * The position of the next value of a joinpoint.
+	 */
+	private static final class Cursor {
+
+		private final int[][] entries;
+		private int entry;
+		private int consumed;
+		private Object last;
+
+		Cursor(final int[][] entries) {
+			this.entries = entries;
+		}
+
+	}
+
+}
@@ -0,0 +1,442 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.io.AbstractSerializer;
+import patterntesting.runtime.util.Environment;
+
+/**
+ * The RecordContainerWriter writes the records of the {@link ObjectRecorder}
+ * in the {@link RecordFormat#CONTAINER} format. Each joinpoint is written
+ * only once into a dictionary and referenced afterwards by its id. The
+ * records are collected in a buffer and written as one block if the buffer
+ * is bigger than the batch size or if the last block is older than the
+ * flush interval. The flush interval is also checked by a background timer,
+ * so the records of an idle recorder are written, too. Optionally each block
+ * is compressed.
+ * <p>
+ * Each block is written as its own object stream (created by the
+ * {@link AbstractSerializer}), so class descriptors are written only once per
+ * block and not for each value. Layout of the file:
+ * </p>
+ * <pre>
+ * header:  magic (int), version (int), flags (int)
+ * block:   raw length (int), stored length (int), stored bytes
+ * records: DICT id (int), length (int), joinpoint (UTF-8)
+ *          VALUE id (int), value (object)
+ *          REPEAT id (int), count (int), value (object)
+ *          END
+ * index:   INDEX (int), number of blocks (int), block offsets (long),
+ *          number of joinpoints (int), for each joinpoint:
+ *          length (int), joinpoint (UTF-8), number of entries (int),
+ *          for each entry: block number (int), number of values (int)
+ * footer:  offset of index (long), magic (int)
+ * </pre>
+ * <p>
+ * The index is written when the writer is closed. It is used by the
+ * {@link RecordContainerReader} to load only the blocks which are needed.
+ * The offsets are positions in the uncompressed container. So the index can
+ * be used only for a raw file and not if the container is written into a
+ * compressed stream (e.g. a {@link java.util.zip.GZIPOutputStream}). In this
+ * case no index is written and the container can be only read as a whole.
+ * Use {@link RecordFormat#COMPRESSED_CONTAINER} for a compressed container
+ * with index.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class RecordContainerWriter {
+
+	/** The magic number at the beginning of a container ("PTRC"). */
+	static final int MAGIC = 0x50545243;
+	static final int VERSION = 1;
+	static final int FLAG_COMPRESSED = 1;
+	static final byte END = 0;
+	static final byte DICT = 1;
+	static final byte VALUE = 2;
+	static final byte REPEAT = 3;
+	/** Marks the index (instead of the raw length of a block). */
+	static final int INDEX = -1;
+	/** Size of the footer (offset of the index + magic). */
+	static final int FOOTER_SIZE = 12;
+	private static final int HEADER_SIZE = 12;
+
+	/** The default batch size in bytes. */
+	static final int DEFAULT_BATCH_SIZE = Integer.getInteger(Environment.RECORDER_BATCH_SIZE, 64 * 1024);
+
+	/** The default flush interval in milliseconds. */
+	static final long DEFAULT_FLUSH_MILLIS = Long.getLong(Environment.RECORDER_FLUSH_MILLIS, 1000L);
+
+	private static final Logger LOG = LoggerFactory.getLogger(RecordContainerWriter.class);
+	private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread t = new Thread(r, "record-flusher");
+		t.setDaemon(true);
+		return t;
+	});
+	private final OutputStream ostream;
+	private final AbstractSerializer serializer;
+	private final boolean compressed;
+	private final int batchSize;
+	private final long flushMillis;
+	private final boolean indexed;
+	private final ScheduledFuture<?> flushTimer;
+	private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+	private final List<List<int[]>> entries = new ArrayList<>();
+	private final List<Long> blockOffsets = new ArrayList<>();
+	private long position = HEADER_SIZE;
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	private ObjectOutputStream out;
+	private long lastFlush = System.currentTimeMillis();
+	private boolean closed;
+
+	/**
+	 * Instantiates a new writer with the default batch size and flush
+	 * interval.
+	 *
+	 * @param ostream
+	 *            the stream for the container
+	 * @param serializer
+	 *            the serializer for the values
+	 * @param compressed
+	 *            true if the blocks should be compressed
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	RecordContainerWriter(final OutputStream ostream, final AbstractSerializer serializer, final boolean compressed)
+			throws IOException {
+		this(ostream, serializer, compressed, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_MILLIS);
+	}
+
+	/**
+	 * Instantiates a new writer.
+	 *
+	 * @param ostream
+	 *            the stream for the container
+	 * @param serializer
+	 *            the serializer for the values
+	 * @param compressed
+	 *            true if the blocks should be compressed
+	 * @param batchSize
+	 *            the size of a block in bytes
+	 * @param flushMillis
+	 *            the max. time in milliseconds between two blocks
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	RecordContainerWriter(final OutputStream ostream, final AbstractSerializer serializer, final boolean compressed,
+			final int batchSize, final long flushMillis) throws IOException {
+		this.ostream = ostream;
+		this.serializer = serializer;
+		this.compressed = compressed;
+		this.batchSize = Math.max(batchSize, 1);
+		this.flushMillis = flushMillis;
+		this.indexed = !(ostream instanceof DeflaterOutputStream);
+		DataOutputStream header = new DataOutputStream(ostream);
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.writeInt(compressed ? FLAG_COMPRESSED : 0);
+		header.flush();
+		if (flushMillis > 0) {
+			this.flushTimer = FlushTask.schedule(this);
+		} else {
+			this.flushTimer = null;
+		}
+	}
+
+	/**
+	 * Checks if the blocks are compressed.
+	 *
+	 * @return true, if compressed
+	 */
+	boolean isCompressed() {
+		return this.compressed;
+	}
+
+	/**
+	 * Writes the given joinpoint / value pair.
+	 *
+	 * @param joinPoint
+	 *            the joinpoint as string
+	 * @param value
+	 *            the value
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	void write(final String joinPoint, final Object value) throws IOException {
+		this.write(joinPoint, value, 1);
+	}
+
+	/**
+	 * Writes the given joinpoint / value pair which was repeated n times.
+	 * A repeated value is written only once as REPEAT record. Because the
+	 * value is written in the same object stream as the original value it
+	 * needs normally only a back reference.
+	 *
+	 * @param joinPoint
+	 *            the joinpoint as string
+	 * @param value
+	 *            the value
+	 * @param count
+	 *            how often the value was repeated
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	synchronized void write(final String joinPoint, final Object value, final int count) throws IOException {
+		if (count < 1) {
+			return;
+		}
+		if (this.closed) {
+			throw new IOException("writer for " + this.ostream + " is already closed");
+		}
+		if (this.out == null) {
+			this.out = this.serializer.createObjectOutputStream(this.buffer);
+		}
+		int id = this.getIdOf(joinPoint);
+		if (count == 1) {
+			this.out.writeByte(VALUE);
+			this.out.writeInt(id);
+		} else {
+			this.out.writeByte(REPEAT);
+			this.out.writeInt(id);
+			this.out.writeInt(count);
+		}
+		this.out.writeObject(value);
+		this.addEntry(id, count);
+		this.flushIfNeeded();
+	}
+
+	private int getIdOf(final String joinPoint) throws IOException {
+		Integer id = this.dictionary.get(joinPoint);
+		if (id == null) {
+			id = this.dictionary.size();
+			this.dictionary.put(joinPoint, id);
+			this.entries.add(new ArrayList<>());
+			byte[] bytes = joinPoint.getBytes(StandardCharsets.UTF_8);
+			this.out.writeByte(DICT);
+			this.out.writeInt(id);
+			this.out.writeInt(bytes.length);
+			this.out.write(bytes);
+		}
+		return id;
+	}
+
+	private void addEntry(final int id, final int count) {
+		int block = this.blockOffsets.size();
+		List<int[]> list = this.entries.get(id);
+		int[] last = list.isEmpty() ? null : list.get(list.size() - 1);
+		if ((last != null) && (last[0] == block)) {
+			last[1] += count;
+		} else {
+			list.add(new int[] { block, count });
+		}
+	}
+
+	private void flushIfNeeded() throws IOException {
+		if ((this.buffer.size() >= this.batchSize)
+				|| (System.currentTimeMillis() - this.lastFlush >= this.flushMillis)) {
+			this.flush();
+		}
+	}
+
+	/**
+	 * Is called by the timer to write the buffered records of an idle
+	 * writer.
+	 */
+	private synchronized void flushIfIdle() {
+		if (this.closed || (System.currentTimeMillis() - this.lastFlush < this.flushMillis)) {
+			return;
+		}
+		try {
+			this.flush();
+		} catch (IOException ioe) {
+			LOG.warn("Cannot write buffered records of {}:", this, ioe);
+		}
+	}
+
+	/**
+	 * Writes the buffered records as one block.
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	synchronized void flush() throws IOException {
+		this.lastFlush = System.currentTimeMillis();
+		if (this.out == null) {
+			return;
+		}
+		this.out.writeByte(END);
+		this.out.close();
+		this.out = null;
+		byte[] raw = this.buffer.toByteArray();
+		this.buffer.reset();
+		byte[] stored = this.compressed ? compress(raw) : raw;
+		DataOutputStream block = new DataOutputStream(this.ostream);
+		block.writeInt(raw.length);
+		block.writeInt(stored.length);
+		block.write(stored);
+		block.flush();
+		this.blockOffsets.add(this.position);
+		this.position += 8 + stored.length;
+		LOG.trace("Block with {} bytes ({} stored) written.", raw.length, stored.length);
+	}
+
+	private static byte[] compress(final byte[] raw) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished()) {
+				int n = deflater.deflate(chunk);
+				compressed.write(chunk, 0, n);
+			}
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Flushes the buffered records and writes the index (if the underlying
+	 * stream is not compressed). The underlying stream is not closed.
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	synchronized void close() throws IOException {
+		if (!this.closed) {
+			if (this.flushTimer != null) {
+				this.flushTimer.cancel(false);
+			}
+			this.flush();
+			if (this.indexed) {
+				this.writeIndex();
+			} else {
+				this.writeEnd();
+			}
+			this.closed = true;
+		}
+	}
+
+	private void writeIndex() throws IOException {
+		DataOutputStream index = new DataOutputStream(this.ostream);
+		index.writeInt(INDEX);
+		index.writeInt(this.blockOffsets.size());
+		for (long offset : this.blockOffsets) {
+			index.writeLong(offset);
+		}
+		index.writeInt(this.dictionary.size());
+		for (Map.Entry<String, Integer> entry : this.dictionary.entrySet()) {
+			byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+			index.writeInt(bytes.length);
+			index.write(bytes);
+			List<int[]> list = this.entries.get(entry.getValue());
+			index.writeInt(list.size());
+			for (int[] e : list) {
+				index.writeInt(e[0]);
+				index.writeInt(e[1]);
+			}
+		}
+		index.writeLong(this.position);
+		index.writeInt(MAGIC);
+		index.flush();
+		LOG.debug("Index with {} joinpoint(s) and {} block(s) written.", this.dictionary.size(),
+				this.blockOffsets.size());
+	}
+
+	/**
+	 * Marks the end of the blocks without an index.
+	 */
+	private void writeEnd() throws IOException {
+		DataOutputStream end = new DataOutputStream(this.ostream);
+		end.writeInt(INDEX);
+		end.flush();
+		LOG.debug("No index written for compressed stream {}.", this.ostream);
+	}
+
+	/**
+	 * The task for the timer. It holds the writer only weakly, so a writer
+	 * which is not closed can be garbage collected. In this case the task
+	 * cancels itself.
+	 */
+	private static final class FlushTask implements Runnable {
+
+		private final WeakReference<RecordContainerWriter> writer;
+		private volatile ScheduledFuture<?> future;
+
+		private FlushTask(final RecordContainerWriter writer) {
+			this.writer = new WeakReference<>(writer);
+		}
+
+		private static ScheduledFuture<?> schedule(final RecordContainerWriter writer) {
+			FlushTask task = new FlushTask(writer);
+			task.future = FLUSHER.scheduleWithFixedDelay(task, writer.flushMillis, writer.flushMillis,
+					TimeUnit.MILLISECONDS);
+			return task.future;
+		}
+
+		@Override
+		public void run() {
+			RecordContainerWriter w = this.writer.get();
+			if (w == null) {
+				ScheduledFuture<?> f = this.future;
+				if (f != null) {
+					f.cancel(false);
+				}
+			} else {
+				w.flushIfIdle();
+			}
+		}
+
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.dictionary.size() + " joinpoints)";
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+/**
+ * The formats which are supported by the {@link ObjectRecorder}. The
+ * {@link ObjectPlayer} detects the format automatically.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public enum RecordFormat {
+
+	/**
+	 * The classic format: joinpoint (as string) and return value are written
+	 * as serialized objects for each record.
+	 */
+	SERIALIZED,
+
+	/**
+	 * A container with a dictionary for the joinpoints. The records are
+	 * written in batches.
+	 */
+	CONTAINER,
+
+	/**
+	 * Like {@link #CONTAINER} but each batch is compressed.
+	 */
+	COMPRESSED_CONTAINER;
+
+}
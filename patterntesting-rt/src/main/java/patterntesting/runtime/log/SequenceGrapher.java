@@ -49,6 +49,20 @@ import patterntesting.runtime.util.regex.TypePattern;
  * <a href="https://www.websequencediagrams.com/">websequence diagrams</a>. This
  * format will be used as default.
  * </p>
+ * <p>
+ * Since 2.6.1 a SequenceGrapher can be created in concurrent mode. Then each
+ * thread gets its own lane (with the thread as actor), objects are registered
+ * by identity and the statements of a text diagram are flushed to the file
+ * after {@link Environment#SEQUENCE_DIAGRAM_FLUSH_SIZE} statements (default
+ * is 1000). The recorded objects are then held only weakly. So long running
+ * flows can be recorded without holding all statements and objects in
+ * memory.
+ * </p>
+ * <p>
+ * To keep big diagrams readable the recording can be limited by a maximal
+ * call depth and a maximal number of statements. Repeated identical calls
+ * can be collapsed into a loop box (see {@link #setCollapseLoops(boolean)}).
+ * </p>
  *
  * @author oliver
  * @since 1.3.1 (06.09.2013)
@@ -56,13 +70,31 @@ import patterntesting.runtime.util.regex.TypePattern;
 public class SequenceGrapher extends AbstractLogger {
 
 	private static final Logger LOG = LoggerFactory.getLogger(SequenceGrapher.class);
+	private static final ClassValue<Boolean> ACTOR_CLASSES = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(final Class<?> type) {
+			return isActorClass(type);
+		}
+	};
 	private final SequenceDiagramWriter diagramWriter;
 	private final List<DrawStatement> statements = new ArrayList<>();
-	private final Map<Object, String> objnames = new HashMap<>();
-	private final Map<Object, DrawStatement> placeHolders = new HashMap<>();
-	private final Map<Object, String> varnames = new HashMap<>();
-	private final Deque<String> callerNames = new ArrayDeque<>();
+	private final Map<Object, String> objnames;
+	private final Map<Object, DrawStatement> placeHolders;
+	private final Map<Object, String> varnames;
+	private final Map<String, Object> varnameKeys = new HashMap<>();
+	private final Map<String, Object> placeHolderKeys = new HashMap<>();
+	private final Map<String, String> typenames = new HashMap<>();
+	private final List<DrawStatement> threadActors = new ArrayList<>();
+	private final ThreadLocal<Lane> lanes = ThreadLocal.withInitial(Lane::new);
+	private final boolean concurrent;
+	private final int flushSize;
+	private final Map<Class<?>, Boolean> excludedTypes = new HashMap<>();
 	private TypePattern[] excludeFilter = new TypePattern[0];
+	private int maxDepth;
+	private int maxStatements;
+	private boolean collapseLoops;
+	private int numberOfMessages;
+	private int flushes;
 	private int objectNumber = 0;
 
 	/**
@@ -80,19 +112,63 @@ public class SequenceGrapher extends AbstractLogger {
 	 *            the log file
 	 */
 	public SequenceGrapher(final File logFile) {
-		this(ExtendedFile.createOutputStreamFor(logFile), logFile);
+		this(logFile, false);
+	}
+
+	/**
+	 * Instantiates a new sequence grapher. In concurrent mode the grapher can
+	 * be used by several threads at the same time. Each thread gets its own
+	 * actor and a text diagram is written incrementally. A diagram for
+	 * UMLGraph (".pic") is written at the end because all objects must be
+	 * known before the first message.
+	 *
+	 * @param logFile
+	 *            the log file
+	 * @param concurrent
+	 *            true for concurrent mode
+	 * @since 2.6.1
+	 */
+	public SequenceGrapher(final File logFile, final boolean concurrent) {
+		this(ExtendedFile.createOutputStreamFor(logFile), logFile, concurrent);
 	}
 
-	private SequenceGrapher(final OutputStream ostream, final File logFile) {
+	private SequenceGrapher(final OutputStream ostream, final File logFile, final boolean concurrent) {
 		super(ostream);
 		LOG.info("Sequence diagram will be written to \"{}\".", logFile);
+		this.concurrent = concurrent;
 		String extension = FilenameUtils.getExtension(logFile.getName());
 		if ("pic".equalsIgnoreCase(extension)) {
 			diagramWriter = new UmlGraphWriter(ostream);
+			this.flushSize = 0;
 		} else {
 			diagramWriter = new SequenceDiagramWriter(ostream);
 			diagramWriter.writeHeaderFor(logFile);
+			this.flushSize = concurrent ? Math.max(Integer.getInteger(Environment.SEQUENCE_DIAGRAM_FLUSH_SIZE, 1000), 1)
+					: 0;
 		}
+		if (this.flushSize > 0) {
+			this.objnames = new WeakIdentityMap<>();
+			this.placeHolders = new WeakIdentityMap<>();
+			this.varnames = new WeakIdentityMap<>((type, name) -> this.typenames.remove(type, name));
+		} else if (concurrent) {
+			this.objnames = new IdentityHashMap<>();
+			this.placeHolders = new IdentityHashMap<>();
+			this.varnames = new IdentityHashMap<>();
+		} else {
+			this.objnames = new HashMap<>();
+			this.placeHolders = new HashMap<>();
+			this.varnames = new HashMap<>();
+		}
+	}
+
+	/**
+	 * Checks if this grapher is in concurrent mode.
+	 *
+	 * @return true, if concurrent
+	 * @since 2.6.1
+	 */
+	public boolean isConcurrent() {
+		return this.concurrent;
 	}
 
 	/**
@@ -103,25 +179,97 @@ public class SequenceGrapher extends AbstractLogger {
 	 *            the new exclude filter
 	 * @since 1.4.1
 	 */
-	public void setExcludeFilter(final String[] pattern) {
+	public synchronized void setExcludeFilter(final String[] pattern) {
 		this.excludeFilter = new TypePattern[pattern.length];
 		for (int i = 0; i < pattern.length; i++) {
 			this.excludeFilter[i] = new TypePattern(pattern[i]);
 		}
+		this.excludedTypes.clear();
+	}
+
+	/**
+	 * Sets the maximal call depth. Calls below this depth are not recorded.
+	 *
+	 * @param depth
+	 *            the maximal depth (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	public synchronized void setMaxDepth(final int depth) {
+		this.maxDepth = Math.max(depth, 0);
+	}
+
+	/**
+	 * Gets the maximal call depth.
+	 *
+	 * @return the maximal depth (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	public synchronized int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	/**
+	 * Sets the maximal number of statements. If this number is reached no
+	 * new calls are recorded. Only the return messages of the calls which
+	 * are already recorded are added.
+	 *
+	 * @param max
+	 *            the maximal number of statements (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	public synchronized void setMaxStatements(final int max) {
+		this.maxStatements = Math.max(max, 0);
+	}
+
+	/**
+	 * Gets the maximal number of statements.
+	 *
+	 * @return the maximal number of statements (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	public synchronized int getMaxStatements() {
+		return this.maxStatements;
+	}
+
+	/**
+	 * If set to true a call which repeats the previous call (same sender,
+	 * target and method) is not drawn again. Instead the first call is drawn
+	 * inside a loop box with the number of repetitions.
+	 *
+	 * @param collapse
+	 *            true for collapsing repeated calls
+	 * @since 2.6.1
+	 */
+	public synchronized void setCollapseLoops(final boolean collapse) {
+		this.collapseLoops = collapse;
+	}
+
+	/**
+	 * Checks if repeated calls are collapsed into a loop box.
+	 *
+	 * @return true, if repeated calls are collapsed
+	 * @since 2.6.1
+	 */
+	public synchronized boolean isCollapseLoops() {
+		return this.collapseLoops;
 	}
 
 	/**
 	 * Closes the stream with the logged objects.
 	 */
 	@Override
-	public void close() {
+	public synchronized void close() {
 		this.closeQuietly();
 		super.close();
 	}
 
 	private void closeQuietly() {
-		this.sortOutEmptyCreateMessages();
-		writeSequenceDiagram();
+		if (this.flushSize > 0) {
+			this.flush();
+		} else {
+			this.sortOutEmptyCreateMessages();
+			writeSequenceDiagram();
+		}
 		diagramWriter.close();
 	}
 
@@ -129,55 +277,90 @@ public class SequenceGrapher extends AbstractLogger {
 		if (!objnames.isEmpty()) {
 			this.addObjects();
 		}
+		statements.addAll(0, threadActors);
 		diagramWriter.addStatements(statements);
 		diagramWriter.writeSequenceDiagram();
 	}
 
+	/**
+	 * Writes the cached statements to the file and clears the cache. This is
+	 * only done in concurrent mode for text diagrams.
+	 */
+	private void flush() {
+		diagramWriter.writeStatements(this.statements);
+		this.statements.clear();
+		this.flushes++;
+	}
+
+	private void addStatement(final DrawStatement stmt) {
+		this.statements.add(stmt);
+		if (stmt.hasMessage()) {
+			this.lanes.get().lastMessage = stmt;
+			this.numberOfMessages++;
+		}
+		if ((this.flushSize > 0) && (this.statements.size() >= this.flushSize)) {
+			this.flush();
+		}
+	}
+
 	/**
 	 * Here we prepare the cached statements to the file. If a create message is
 	 * found with no other activities this creation will be sorted out to keep
 	 * the generated sequence diagram simple.
+	 * <p>
+	 * Since 2.6.1 the activities of each actor are counted in one pass before
+	 * so this method needs linear time.
+	 * </p>
 	 */
 	private void sortOutEmptyCreateMessages() {
-		List<DrawStatement> emptyCreateMessages = new ArrayList<>();
+		Map<String, Integer> activities = new HashMap<>();
+		Map<DrawStatement, Integer> createMessages = new HashMap<>();
 		for (DrawStatement stmt : this.statements) {
-			if ((stmt.getType() == DrawType.CREATE_MESSAGE) && !hasActivities(stmt)) {
+			for (String actor : stmt.getActors()) {
+				activities.merge(actor, 1, Integer::sum);
+			}
+			if (stmt.getType() == DrawType.CREATE_MESSAGE) {
+				createMessages.merge(stmt, 1, Integer::sum);
+			}
+		}
+		Set<DrawStatement> emptyCreateMessages = new HashSet<>();
+		for (Entry<DrawStatement, Integer> entry : createMessages.entrySet()) {
+			DrawStatement stmt = entry.getKey();
+			if (activities.get(stmt.getTarget()) <= entry.getValue()) {
 				LOG.debug("{} will be ignored because it is a single statement.", stmt);
 				emptyCreateMessages.add(stmt);
-				Object toBeRemoved = this.getPlaceHolderKey(stmt.getTarget());
-				this.placeHolders.remove(toBeRemoved);
-				removeValue(this.varnames, stmt.getTarget());
+				this.placeHolders.remove(this.placeHolderKeys.remove(stmt.getTarget()));
+				this.removeVarname(stmt.getTarget());
 			}
 		}
-		this.statements.removeAll(emptyCreateMessages);
-	}
-
-	private Object getPlaceHolderKey(final String name) {
-		for (Entry<Object, DrawStatement> entry : this.placeHolders.entrySet()) {
-			DrawStatement stmt = entry.getValue();
-			if (name.equals(stmt.getSender())) {
-				return entry.getKey();
-			}
+		if (!emptyCreateMessages.isEmpty()) {
+			this.statements.removeIf(emptyCreateMessages::contains);
 		}
-		return "?";
 	}
 
-	private static void removeValue(final Map<Object, String> map, final String name) {
-		for (Map.Entry<Object, String> entry : map.entrySet()) {
-			if (name.equals(entry.getValue())) {
-				map.remove(entry.getKey());
-				break;
-			}
+	private void removeVarname(final String name) {
+		Object key = this.varnameKeys.remove(name);
+		if (key != null) {
+			this.varnames.remove(key);
+			this.typenames.remove(key.getClass().getName(), name);
 		}
 	}
 
 	private void addObjects() {
 		List<DrawStatement> objects = new ArrayList<>();
-		SortedMap<String, Object> sortedObjectNames = getSortedObjectNames();
+		SortedMap<String, Object> sortedObjectNames = new TreeMap<>(new VarnameComparator());
+		List<DrawStatement> actors = new ArrayList<>();
+		for (Entry<Object, String> entry : objnames.entrySet()) {
+			Object obj = entry.getKey();
+			if (isActor(obj)) {
+				actors.add(this.getActorStatement(entry.getValue(), obj));
+			} else {
+				sortedObjectNames.put(entry.getValue(), obj);
+			}
+		}
 		String firstName = sortedObjectNames.firstKey();
 		objects.add(this.getActorStatement(firstName, sortedObjectNames.get(firstName)));
 		sortedObjectNames.remove(firstName);
-		List<String> actorNames = this.getActorNames();
 		for (Entry<String, Object> entry : sortedObjectNames.entrySet()) {
 			objects.add(this.getObjectStatement(entry));
 		}
@@ -185,49 +368,19 @@ public class SequenceGrapher extends AbstractLogger {
 		for (DrawStatement stmt : placeHolderStatements) {
 			objects.add(stmt);
 		}
-		for (int i = 0; i < actorNames.size(); i++) {
-			objects.add(this.getActorStatement(actorNames.get(i)));
-		}
+		objects.addAll(actors);
 		statements.addAll(0, objects);
 	}
 
-	private SortedMap<String, Object> getSortedObjectNames() {
-		SortedMap<String, Object> sortedObjectNames = new TreeMap<>(new VarnameComparator());
-		for (Entry<Object, String> entry : objnames.entrySet()) {
-			Object name = entry.getKey();
-			if (!isActor(name)) {
-				sortedObjectNames.put(entry.getValue(), name);
-			}
-		}
-		return sortedObjectNames;
-	}
-
 	private Collection<DrawStatement> getSortedPlaceHolders() {
 		Collection<DrawStatement> stmts = new TreeSet<>(new PlaceholderComparator());
 		stmts.addAll(this.placeHolders.values());
 		return stmts;
 	}
 
-	/**
-	 * Static classes with only static elements are considered as actor to
-	 * distinguish them from "normal" objects.
-	 *
-	 * @return the actors
-	 */
-	private List<String> getActorNames() {
-		List<String> actors = new ArrayList<>();
-		for (Entry<Object, String> entry : objnames.entrySet()) {
-			Object name = entry.getKey();
-			if (isActor(name)) {
-				actors.add(entry.getValue());
-			}
-		}
-		return actors;
-	}
-
 	/**
 	 * Classes with only static methods are considered as actor to distinguish
-	 * them from "normal" classed.
+	 * them from "normal" classed. The result is cached for each class.
 	 *
 	 * @param name
 	 *            the name
@@ -237,7 +390,10 @@ public class SequenceGrapher extends AbstractLogger {
 		if (!(name instanceof Class<?>)) {
 			return false;
 		}
-		Class<?> clazz = (Class<?>) name;
+		return ACTOR_CLASSES.get((Class<?>) name);
+	}
+
+	private static boolean isActorClass(final Class<?> clazz) {
 		Method[] methods = clazz.getMethods();
 		for (Method method : methods) {
 			if (!Modifier.isStatic(method.getModifiers()) && !method.getDeclaringClass().equals(Object.class)) {
@@ -253,11 +409,6 @@ public class SequenceGrapher extends AbstractLogger {
 		return true;
 	}
 
-	private DrawStatement getActorStatement(final String name) {
-		Entry<Object, String> entry = getEntryOfValue(name, objnames);
-		return getActorStatement(name, entry.getKey());
-	}
-
 	private DrawStatement getActorStatement(final String name, final Object value) {
 		Class<?> clazz = value.getClass();
 		if (value instanceof Class<?>) {
@@ -272,36 +423,6 @@ public class SequenceGrapher extends AbstractLogger {
 		return new DrawStatement(DrawType.OBJECT, entry.getKey(), targetName);
 	}
 
-	private static Entry<Object, String> getEntryOfValue(final String value, final Map<Object, String> map) {
-		for (Entry<Object, String> entry : map.entrySet()) {
-			if (value.equals(entry.getValue())) {
-				return entry;
-			}
-		}
-		throw new NotFoundException("value \"" + value + "\" not found in " + map);
-	}
-
-	/**
-	 * If the target of the given statement is part of any other statement
-	 * 'true' will be returned.
-	 *
-	 * @param drawStatement
-	 *            the draw statement
-	 * @return true, if successful
-	 */
-	private boolean hasActivities(final DrawStatement drawStatement) {
-		String target = drawStatement.getTarget();
-		for (DrawStatement stmt : this.statements) {
-			if (drawStatement.equals(stmt)) {
-				continue;
-			}
-			if (stmt.hasActor(target)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * Logs the creation of an object in the created sequence diagram.
 	 *
@@ -333,7 +454,12 @@ public class SequenceGrapher extends AbstractLogger {
 	 * @param jpInfo
 	 *            the jp info
 	 */
-	public void createMessage(final Object creator, final Object createdObject, final StaticPart jpInfo) {
+	public synchronized void createMessage(final Object creator, final Object createdObject,
+			final StaticPart jpInfo) {
+		if (!this.isRecording(this.lanes.get())) {
+			LOG.trace("Creation of {} is not logged because of depth or size limit.", createdObject);
+			return;
+		}
 		if (this.matches(creator) || this.matches(createdObject)) {
 			LOG.debug("{} --creates--> {} is not logged because of exclude filter.", creator, createdObject);
 			return;
@@ -349,11 +475,78 @@ public class SequenceGrapher extends AbstractLogger {
 		this.addCreateMessage(name, createdObject, typeName, jpInfo);
 	}
 
-	private boolean matches(final Object creator) {
-		for (int i = 0; i < this.excludeFilter.length; i++) {
-			if (this.excludeFilter[i].matches(creator)) {
-				return true;
+	/**
+	 * Checks if the given object is excluded by the exclude filter. Because
+	 * the filter depends only on the type of the object the decision is
+	 * cached for each type.
+	 *
+	 * @param obj
+	 *            the object
+	 * @return true, if the object should not appear in the diagram
+	 */
+	private boolean matches(final Object obj) {
+		if ((obj == null) || (this.excludeFilter.length == 0)) {
+			return false;
+		}
+		Class<?> type = obj.getClass();
+		Boolean excluded = this.excludedTypes.get(type);
+		if (excluded == null) {
+			excluded = Boolean.FALSE;
+			for (int i = 0; i < this.excludeFilter.length; i++) {
+				if (this.excludeFilter[i].matches(type)) {
+					excluded = Boolean.TRUE;
+					break;
+				}
+			}
+			this.excludedTypes.put(type, excluded);
+		}
+		return excluded;
+	}
+
+	/**
+	 * Checks if a new call or creation in the given lane should be recorded.
+	 * This is not the case if it is part of a call which is not recorded, if
+	 * the maximal depth is reached or if the maximal number of statements is
+	 * reached.
+	 *
+	 * @param lane
+	 *            the lane of the current thread
+	 * @return true, if recording is possible
+	 */
+	private boolean isRecording(final Lane lane) {
+		if (!lane.recorded.isEmpty() && !lane.recorded.peek()) {
+			return false;
+		}
+		if ((this.maxDepth > 0) && (lane.recorded.size() >= this.maxDepth)) {
+			return false;
+		}
+		if ((this.maxStatements > 0) && (this.numberOfMessages >= this.maxStatements)) {
+			if (this.numberOfMessages == this.maxStatements) {
+				LOG.info("Limit of {} statements is reached - further calls are not drawn.", this.maxStatements);
+				this.numberOfMessages++;
 			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the given call repeats the last call of the lane (which has
+	 * ended with the last message of the lane). If yes the repetition is
+	 * counted.
+	 */
+	private boolean isRepetition(final Lane lane, final String senderName, final String targetName,
+			final StaticPart jpInfo) {
+		Call last = lane.lastCall;
+		if ((last == null) || (last.returnMessage != lane.lastMessage) || (last.flushes != this.flushes)) {
+			return false;
+		}
+		DrawStatement stmt = last.message;
+		if (senderName.equals(stmt.getSender()) && targetName.equals(stmt.getTarget())
+				&& jpInfo.equals(stmt.getJpInfo())) {
+			stmt.repeat();
+			last.returnMessage.repeat();
+			return true;
 		}
 		return false;
 	}
@@ -367,6 +560,9 @@ public class SequenceGrapher extends AbstractLogger {
 			}
 			stmt = new DrawStatement(DrawType.PLACEHOLDER_OBJECT, name, jpInfo);
 			this.placeHolders.put(obj, stmt);
+			if (this.flushSize == 0) {
+				this.placeHolderKeys.put(name, obj);
+			}
 		}
 		return stmt.getSender();
 	}
@@ -374,6 +570,13 @@ public class SequenceGrapher extends AbstractLogger {
 	private String addObject(final Object obj) {
 		String name = this.addVarnameFor(obj);
 		objnames.put(obj, name);
+		if (this.flushSize > 0) {
+			if (isActor(obj)) {
+				this.addStatement(this.getActorStatement(name, obj));
+			} else {
+				this.addStatement(new DrawStatement(DrawType.OBJECT, name, DrawStatement.createTargetName(obj)));
+			}
+		}
 		return name;
 	}
 
@@ -409,17 +612,18 @@ public class SequenceGrapher extends AbstractLogger {
 	private String getVarnameFor(final Class<?> clazz) {
 		String name = this.varnames.get(clazz);
 		if (name == null) {
-			for (Entry<Object, String> entry : this.varnames.entrySet()) {
-				if (clazz.equals(entry.getKey().getClass())) {
-					return entry.getValue();
-				}
+			name = this.typenames.get(clazz.getName());
+			if (name == null) {
+				name = addObject(clazz);
 			}
-			name = addObject(clazz);
 		}
 		return name;
 	}
 
 	private String getActorName() {
+		if (this.concurrent) {
+			return getThreadActorName();
+		}
 		String name = this.varnames.get("Actor");
 		if (name == null) {
 			name = addVarnameFor("Actor");
@@ -427,6 +631,27 @@ public class SequenceGrapher extends AbstractLogger {
 		return name;
 	}
 
+	/**
+	 * In concurrent mode each thread is an actor with its own lane in the
+	 * diagram.
+	 *
+	 * @return the name of the actor for the current thread
+	 */
+	private String getThreadActorName() {
+		Thread thread = Thread.currentThread();
+		String name = this.varnames.get(thread);
+		if (name == null) {
+			name = addVarnameFor(thread);
+			DrawStatement stmt = new DrawStatement(DrawType.ACTOR, name, thread.getName().replaceAll("\\W", "_"));
+			if (this.flushSize > 0) {
+				this.addStatement(stmt);
+			} else {
+				this.threadActors.add(stmt);
+			}
+		}
+		return name;
+	}
+
 	private String addVarnameFor(final Object obj) {
 		if (obj instanceof Class<?>) {
 			return addVarnameFor((Class<?>) obj);
@@ -445,6 +670,10 @@ public class SequenceGrapher extends AbstractLogger {
 			LOG.trace("{} already in map of var names.", obj);
 		} else {
 			this.varnames.put(obj, name);
+			if (this.flushSize == 0) {
+				this.varnameKeys.put(name, obj);
+			}
+			this.typenames.putIfAbsent(obj.getClass().getName(), name);
 			this.objectNumber++;
 		}
 		return this.varnames.get(obj);
@@ -459,23 +688,36 @@ public class SequenceGrapher extends AbstractLogger {
 	 * Trys to log the call of the given excecution joinpoint. For this reason
 	 * we must find the caller which is a little bit tricky. We use the
 	 * classname of the mapped variable names to guess which could be the
-	 * caller.
+	 * caller. As for calls the maximal depth and the maximal number of
+	 * statements are respected.
 	 *
 	 * @param execution
 	 *            the execution joinpoint
 	 */
-	public void execute(final JoinPoint execution) {
+	public synchronized void execute(final JoinPoint execution) {
+		Lane lane = this.lanes.get();
+		boolean creation = execution.getSignature() instanceof ConstructorSignature;
+		if (!this.isRecording(lane)) {
+			if (!creation) {
+				lane.recorded.push(Boolean.FALSE);
+			}
+			return;
+		}
 		DrawStatement stmt = this.getLastMessage();
 		if (stmt.isFromCallJoinpoint() && stmt.hasSameSignatureAs(execution.getStaticPart())) {
 			LOG.debug("Joinpoint '{}' is logged already as call.", execution);
+			if (!creation) {
+				lane.recorded.push(Boolean.TRUE);
+			}
 			return;
 		}
 		String senderName = getCallerNameOf(execution);
 		String targetName = getTargetName(execution);
 		StaticPart jpInfo = execution.getStaticPart();
-		if (execution.getSignature() instanceof ConstructorSignature) {
+		if (creation) {
 			this.addCreateMessage(senderName, execution.getThis(), targetName, jpInfo);
 		} else {
+			lane.recorded.push(Boolean.TRUE);
 			this.message(senderName, targetName, jpInfo, execution.getArgs());
 		}
 	}
@@ -504,12 +746,16 @@ public class SequenceGrapher extends AbstractLogger {
 	 *            the return value
 	 * @since 1.6 (03.06.2015)
 	 */
-	public void returnFromExecute(final JoinPoint execution, final Object returnValue) {
+	public synchronized void returnFromExecute(final JoinPoint execution, final Object returnValue) {
+		if (!this.leave()) {
+			return;
+		}
 		String senderName = getCallerNameOf(execution);
 		String targetName = getTargetName(execution);
-		String caller = this.callerNames.pop();
+		Deque<String> callerNames = this.lanes.get().callerNames;
+		String caller = callerNames.pop();
 		LOG.trace("Caller '{}' was taken from stack.", caller);
-		assert caller.equals(senderName) : "'" + senderName + "' was not on top of stack " + this.callerNames;
+		assert caller.equals(senderName) : "'" + senderName + "' was not on top of stack " + callerNames;
 		this.addReturnMessage(senderName, targetName, returnValue, execution.getStaticPart());
 	}
 
@@ -531,11 +777,10 @@ public class SequenceGrapher extends AbstractLogger {
 	private String getCallerNameOf(final JoinPoint execution) {
 		StackTraceElement caller = JoinPointHelper.getCallerOf(execution);
 		String classname = caller.getClassName();
-		for (Entry<Object, String> entry : varnames.entrySet()) {
-			if (classname.equals(entry.getKey().getClass().getName())) {
-				LOG.trace("Caller of {} is {}.", execution, entry);
-				return entry.getValue();
-			}
+		String name = this.typenames.get(classname);
+		if (name != null) {
+			LOG.trace("Caller of {} is {}.", execution, name);
+			return name;
 		}
 		LOG.trace("Caller of {} not found in {}.", execution, varnames);
 		try {
@@ -581,13 +826,26 @@ public class SequenceGrapher extends AbstractLogger {
 	 *            the args
 	 */
 	@NullArgsAllowed
-	public void message(final Object sender, final Object target, final StaticPart jpInfo, final Object[] args) {
+	public synchronized void message(final Object sender, final Object target, final StaticPart jpInfo,
+			final Object[] args) {
+		Lane lane = this.lanes.get();
+		if (!this.isRecording(lane)) {
+			lane.recorded.push(Boolean.FALSE);
+			return;
+		}
 		if (this.matches(sender) || this.matches(target)) {
 			LOG.debug("{} -----------> {} is not logged because of exclude filter.", sender, target);
+			lane.recorded.push(Boolean.FALSE);
 			return;
 		}
 		String senderName = this.getVarnameFor(sender);
 		String targetName = this.getVarnameFor(target, jpInfo);
+		if (this.collapseLoops && this.isRepetition(lane, senderName, targetName, jpInfo)) {
+			LOG.trace("{} -----------> {} is counted as repetition.", senderName, targetName);
+			lane.recorded.push(Boolean.FALSE);
+			return;
+		}
+		lane.recorded.push(Boolean.TRUE);
 		this.message(senderName, targetName, jpInfo, args);
 	}
 
@@ -617,13 +875,16 @@ public class SequenceGrapher extends AbstractLogger {
 	 * @param returnValue
 	 *            the return value
 	 */
-	public void returnMessage(final JoinPoint call, final Object returnValue) {
+	public synchronized void returnMessage(final JoinPoint call, final Object returnValue) {
+		if (!this.leave()) {
+			return;
+		}
 		DrawStatement stmt = this.getLastMessage();
 		if (stmt.isFromExecutionJoinpoint() && stmt.hasSameSignatureAs(call.getStaticPart())) {
 			LOG.debug("Joinpoint '{}' is logged already as call.", call);
 			return;
 		}
-		this.returnMessage(call.getTarget(), returnValue, call.getStaticPart());
+		this.recordReturnMessage(call.getTarget(), returnValue, call.getStaticPart());
 	}
 
 	/**
@@ -636,7 +897,24 @@ public class SequenceGrapher extends AbstractLogger {
 	 * @param jpInfo
 	 *            the jp info
 	 */
-	public void returnMessage(final Object returnee, final Object returnValue, final StaticPart jpInfo) {
+	public synchronized void returnMessage(final Object returnee, final Object returnValue,
+			final StaticPart jpInfo) {
+		if (this.leave()) {
+			this.recordReturnMessage(returnee, returnValue, jpInfo);
+		}
+	}
+
+	/**
+	 * Leaves the actual call of the current thread.
+	 *
+	 * @return true, if the call was recorded
+	 */
+	private boolean leave() {
+		Deque<Boolean> recorded = this.lanes.get().recorded;
+		return recorded.isEmpty() || recorded.pop();
+	}
+
+	private void recordReturnMessage(final Object returnee, final Object returnValue, final StaticPart jpInfo) {
 		if (this.matches(returnee)) {
 			LOG.debug("{} <--{}-- is not logged because of exclude filter.", returnee, returnValue);
 			return;
@@ -644,36 +922,33 @@ public class SequenceGrapher extends AbstractLogger {
 		this.addReturnMessage(returnee, returnValue, jpInfo);
 	}
 
+	/**
+	 * Gets the last message of the current thread.
+	 *
+	 * @return the last message or {@link DrawStatement#NULL}
+	 */
 	private DrawStatement getLastMessage() {
-		for (int i = this.statements.size() - 1; i >= 0; i--) {
-			DrawStatement stmt = this.statements.get(i);
-			switch (stmt.getType()) {
-			case MESSAGE:
-			case CREATE_MESSAGE:
-			case RETURN_MESSAGE:
-				return stmt;
-			default:
-				break;
-			}
-		}
-		return DrawStatement.NULL;
+		return this.lanes.get().lastMessage;
 	}
 
 	private void addCreateMessage(final String senderName, final Object created, final String typeName,
 			final StaticPart jpInfo) {
 		DrawStatement stmt = new DrawStatement(senderName, created, typeName, jpInfo);
-		this.statements.add(stmt);
+		this.addStatement(stmt);
 	}
 
 	private void addMessage(final String senderName, final String targetName, final StaticPart jpInfo,
 			final Object[] args) {
-		this.callerNames.push(senderName);
+		Lane lane = this.lanes.get();
+		lane.callerNames.push(senderName);
 		DrawStatement stmt = new DrawStatement(senderName, targetName, jpInfo, args);
-		this.statements.add(stmt);
+		lane.calls.push(new Call(stmt, this.flushes));
+		this.addStatement(stmt);
 	}
 
 	private void addReturnMessage(final Object returnee, final Object returnValue, final StaticPart jpInfo) {
-		String receiverName = this.callerNames.pop();
+		Deque<String> callerNames = this.lanes.get().callerNames;
+		String receiverName = callerNames.isEmpty() ? getActorName() : callerNames.pop();
 		String returneeName = this.getVarnameFor(returnee, jpInfo);
 		addReturnMessage(receiverName, returneeName, returnValue, jpInfo);
 	}
@@ -681,7 +956,45 @@ public class SequenceGrapher extends AbstractLogger {
 	private void addReturnMessage(final String receiverName, final String returneeName, final Object returnValue,
 			final StaticPart jpInfo) {
 		DrawStatement stmt = new DrawStatement(receiverName, returneeName, returnValue, jpInfo);
-		this.statements.add(stmt);
+		this.addStatement(stmt);
+		Lane lane = this.lanes.get();
+		Call call = lane.calls.poll();
+		if (call != null) {
+			call.returnMessage = stmt;
+			lane.lastCall = call;
+		}
+	}
+
+	/**
+	 * The lane of one thread with its stack of callers and its last message.
+	 * The stack of recorded flags contains for each open call if it is
+	 * recorded or not.
+	 */
+	private static final class Lane {
+
+		private final Deque<String> callerNames = new ArrayDeque<>();
+		private final Deque<Boolean> recorded = new ArrayDeque<>();
+		private final Deque<Call> calls = new ArrayDeque<>();
+		private DrawStatement lastMessage = DrawStatement.NULL;
+		private Call lastCall;
+
+	}
+
+	/**
+	 * A recorded call with its message and return message. The number of
+	 * flushes is needed to see if the call is still in the cache.
+	 */
+	private static final class Call {
+
+		private final DrawStatement message;
+		private final int flushes;
+		private DrawStatement returnMessage;
+
+		private Call(final DrawStatement message, final int flushes) {
+			this.message = message;
+			this.flushes = flushes;
+		}
+
 	}
 
 	/**
@@ -20,12 +20,18 @@
 
 package patterntesting.runtime.log;
 
+import java.io.File;
+import java.io.IOException;
+
 import org.slf4j.LoggerFactory;
 import org.slf4j.*;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.reflect.SourceLocation;
 
+import patterntesting.annotation.check.runtime.MayReturnNull;
+import patterntesting.runtime.jmx.MBeanHelper;
 import patterntesting.runtime.util.Converter;
+import patterntesting.runtime.util.Environment;
 import patterntesting.runtime.util.JoinPointHelper;
 
 /**
@@ -38,7 +44,10 @@ import patterntesting.runtime.util.JoinPointHelper;
 public final class Trace {
 
 	private static final Logger LOG = LoggerFactory.getLogger(Trace.class);
-	private static final int INDENT_START = calibrateStacktraceDepth();
+	private static final String[] INDENTS = createIndents(64);
+	private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+	private static volatile TraceSink sink = createSink();
+	private static volatile BinaryTraceWriter binaryTrace = createBinaryTrace();
 
 	static {
 		if (LOG.isTraceEnabled()) {
@@ -54,20 +63,34 @@ public final class Trace {
 	private Trace() {
 	}
 
-	private static int calibrateStacktraceDepth() {
-		return Thread.currentThread().getStackTrace().length;
+	private static String[] createIndents(final int n) {
+		String[] indents = new String[n];
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			indents[i] = buffer.toString();
+			buffer.append("  ");
+		}
+		return indents;
 	}
 
 	/**
-	 * Logs the trace with a start sign ("&gt;").
+	 * Logs the trace with a start sign ("&gt;"). The call depth of the
+	 * actual thread is incremented, so each call of this method must be
+	 * followed by {@link #end(JoinPoint)} or
+	 * {@link #throwing(JoinPoint, Throwable)}.
 	 *
 	 * @param joinpoint
 	 *            the joinpoint
 	 */
 	public static void start(final JoinPoint joinpoint) {
+		int[] depth = DEPTH.get();
+		int level = depth[0]++;
+		BinaryTraceWriter writer = binaryTrace;
+		if (writer != null) {
+			writer.write(BinaryTraceWriter.START, joinpoint.getStaticPart(), level);
+		}
 		if (LOG.isDebugEnabled()) {
-			int level = getIndentLevel();
-			trace(level, "> ", joinpoint, "");
+			trace(level, "> ", joinpoint, null, false);
 		}
 	}
 
@@ -78,9 +101,9 @@ public final class Trace {
 	 *            the joinpoint
 	 */
 	public static void end(final JoinPoint joinpoint) {
+		int level = leave(joinpoint, BinaryTraceWriter.END);
 		if (LOG.isDebugEnabled()) {
-			int level = getIndentLevel();
-			trace(level, "< ", joinpoint, "");
+			trace(level, "< ", joinpoint, null, false);
 		}
 	}
 
@@ -93,9 +116,9 @@ public final class Trace {
 	 *            the result
 	 */
 	public static void end(final JoinPoint joinpoint, final Object result) {
+		int level = leave(joinpoint, BinaryTraceWriter.END);
 		if (LOG.isDebugEnabled()) {
-			int level = getIndentLevel();
-			trace(level, "< ", joinpoint, " = " + Converter.toShortString(result));
+			trace(level, "< ", joinpoint, result, true);
 		}
 	}
 
@@ -108,10 +131,16 @@ public final class Trace {
 	 *            the t
 	 */
 	public static void throwing(final JoinPoint joinpoint, final Throwable t) {
+		int level = leave(joinpoint, BinaryTraceWriter.THROWING);
 		if (LOG.isDebugEnabled()) {
-			int level = getIndentLevel();
-			trace(level, "<*", joinpoint, "");
-			trace(level, " *** ", t);
+			TraceSink traceSink = sink;
+			if (traceSink == null) {
+				trace(level, "<*", joinpoint, "");
+				trace(level, " *** ", t);
+			} else {
+				traceSink.offer("<*", joinpoint, level, null, false, null);
+				traceSink.offer(" *** ", joinpoint, level, null, false, t);
+			}
 		}
 	}
 
@@ -124,9 +153,9 @@ public final class Trace {
 	 *            the suffix
 	 */
 	public static void end(final JoinPoint joinpoint, final String suffix) {
+		int level = leave(joinpoint, BinaryTraceWriter.END);
 		if (LOG.isDebugEnabled()) {
-			int level = getIndentLevel();
-			trace(level, "< ", joinpoint, suffix);
+			trace(level, "< ", joinpoint, suffix, false);
 		}
 	}
 
@@ -138,11 +167,105 @@ public final class Trace {
 	 */
 	public static void trace(final JoinPoint joinpoint) {
 		if (LOG.isDebugEnabled()) {
-			int level = getIndentLevel();
-			trace(level, " | ", joinpoint, "");
+			int level = DEPTH.get()[0];
+			trace(level, " | ", joinpoint, null, false);
+		}
+	}
+
+	/**
+	 * Traces the event synchronously or hands it over to the sink (if an
+	 * asynchronous sink is set).
+	 */
+	private static void trace(final int level, final String prefix, final JoinPoint joinpoint, final Object result,
+			final boolean hasResult) {
+		TraceSink traceSink = sink;
+		if (traceSink != null) {
+			traceSink.offer(prefix, joinpoint, level, result, hasResult, null);
+		} else if (hasResult) {
+			trace(level, prefix, joinpoint, " = " + Converter.toShortString(result));
+		} else {
+			trace(level, prefix, joinpoint, (result == null) ? "" : result.toString());
 		}
 	}
 
+	/**
+	 * Sets the sink for an asynchronous trace output. With null the trace
+	 * output is logged synchronously (as before 2.6.1).
+	 *
+	 * @param traceSink
+	 *            the sink or null
+	 * @since 2.6.1
+	 */
+	public static void setSink(final TraceSink traceSink) {
+		sink = traceSink;
+	}
+
+	/**
+	 * Gets the sink for the asynchronous trace output.
+	 *
+	 * @return the sink or null (if trace is logged synchronously)
+	 * @since 2.6.1
+	 */
+	@MayReturnNull
+	public static TraceSink getSink() {
+		return sink;
+	}
+
+	/**
+	 * Sets the writer for the binary trace file. With null no binary trace
+	 * is written. The binary trace is written independent from the log
+	 * level.
+	 *
+	 * @param writer
+	 *            the writer or null
+	 * @since 2.6.1
+	 */
+	public static void setBinaryTrace(final BinaryTraceWriter writer) {
+		binaryTrace = writer;
+	}
+
+	/**
+	 * Gets the writer for the binary trace file.
+	 *
+	 * @return the writer or null
+	 * @since 2.6.1
+	 */
+	@MayReturnNull
+	public static BinaryTraceWriter getBinaryTrace() {
+		return binaryTrace;
+	}
+
+	private static BinaryTraceWriter createBinaryTrace() {
+		String filename = System.getProperty(Environment.TRACE_FILE);
+		if (filename == null) {
+			return null;
+		}
+		try {
+			BinaryTraceWriter writer = new BinaryTraceWriter(new File(filename));
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					writer.close();
+				} catch (IOException ioe) {
+					LOG.warn("Cannot close {}:", writer, ioe);
+				}
+			}, "binary-trace-closer"));
+			return writer;
+		} catch (IOException ioe) {
+			LOG.warn("Cannot create binary trace file '{}':", filename, ioe);
+			return null;
+		}
+	}
+
+	private static TraceSink createSink() {
+		if (!Environment.isPropertyEnabled(Environment.TRACE_ASYNC)) {
+			return null;
+		}
+		TraceSink traceSink = new TraceSink(LOG, Integer.getInteger(Environment.TRACE_BUFFER_SIZE, 8192),
+				TraceSink.Overflow.valueOf(System.getProperty(Environment.TRACE_OVERFLOW, "DROP").toUpperCase()));
+		MBeanHelper.registerMBean(MBeanHelper.getMBeanName(traceSink), traceSink);
+		return traceSink;
+	}
+
 	private static void trace(final int level, final String prefix, final JoinPoint joinpoint, final String suffix) {
 		if (LOG.isTraceEnabled()) {
 			String loc = getLocation(joinpoint);
@@ -160,17 +283,55 @@ public final class Trace {
 		}
 	}
 
-	private static String indent(final int level) {
-		StringBuilder buffer = new StringBuilder();
-		for (int i = 0; i < level; i++) {
+	/**
+	 * Gets the indentation for the given level. The indentations for the
+	 * first levels are cached.
+	 *
+	 * @param level
+	 *            the level
+	 * @return the indentation
+	 */
+	static String indent(final int level) {
+		if (level < INDENTS.length) {
+			return INDENTS[level];
+		}
+		StringBuilder buffer = new StringBuilder(INDENTS[INDENTS.length - 1]);
+		for (int i = INDENTS.length - 1; i < level; i++) {
 			buffer.append("  ");
 		}
 		return buffer.toString();
 	}
 
-	private static int getIndentLevel() {
-		StackTraceElement[] stacktrace = Thread.currentThread().getStackTrace();
-		return stacktrace.length - INDENT_START;
+	/**
+	 * Gets the actual call depth of the current thread.
+	 *
+	 * @return the depth
+	 */
+	static int getDepth() {
+		return DEPTH.get()[0];
+	}
+
+	/**
+	 * Decrements the call depth of the current thread. The depth does not
+	 * drop below 0 (e.g. if an end is traced without a start). If a binary
+	 * trace is active the end is recorded there.
+	 *
+	 * @param joinpoint
+	 *            the joinpoint
+	 * @param kind
+	 *            the kind of the record for the binary trace
+	 * @return the depth after decrementing
+	 */
+	private static int leave(final JoinPoint joinpoint, final short kind) {
+		int[] depth = DEPTH.get();
+		if (depth[0] > 0) {
+			depth[0]--;
+		}
+		BinaryTraceWriter writer = binaryTrace;
+		if (writer != null) {
+			writer.write(kind, joinpoint.getStaticPart(), depth[0]);
+		}
+		return depth[0];
 	}
 
 	private static String getLocation(final JoinPoint joinpoint) {
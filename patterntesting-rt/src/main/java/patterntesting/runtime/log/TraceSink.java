@@ -0,0 +1,405 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.util.Converter;
+import patterntesting.runtime.util.JoinPointHelper;
+
+/**
+ * The TraceSink decouples the formatting and writing of the trace output
+ * from the application threads. The application thread only copies the raw
+ * event (joinpoint, result, thread, depth and time) into a pre-allocated
+ * slot of a ring buffer. A background thread formats the events and writes
+ * them in batches.
+ * <p>
+ * The ring buffer is bounded and lock-free (multiple producers, one
+ * consumer). If it is full the event is dropped (policy {@link Overflow#DROP})
+ * or the application thread waits until there is space again (policy
+ * {@link Overflow#WAIT}). Dropped events are counted. Events which are
+ * offered after {@link #close()} are also counted as dropped.
+ * </p>
+ * <p>
+ * NOTE: The arguments and the result are formatted later in the background
+ * thread. So if they are changed in the meantime you will see the changed
+ * values.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class TraceSink implements TraceSinkMBean, AutoCloseable {
+
+	/**
+	 * What should happen if the ring buffer is full.
+	 */
+	public enum Overflow {
+
+		/** The new event is dropped. */
+		DROP,
+
+		/** The application thread waits until the event can be buffered. */
+		WAIT
+
+	}
+
+	private static final Logger LOG = LoggerFactory.getLogger(TraceSink.class);
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+			.withZone(ZoneId.systemDefault());
+	private static final int BATCH_SIZE = 256;
+	private final Logger log;
+	private final Writer writer;
+	private final Overflow overflow;
+	private final Event[] events;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head;
+	private volatile long flushed;
+	private final LongAdder dropped = new LongAdder();
+	private final AtomicLong written = new AtomicLong();
+	private final Thread consumer;
+	private volatile boolean running = true;
+	private volatile boolean closed;
+
+	/**
+	 * Creates a sink which writes the formatted events in batches to the
+	 * given logger.
+	 *
+	 * @param log
+	 *            the logger
+	 * @param capacity
+	 *            the capacity (rounded up to the next power of 2)
+	 * @param overflow
+	 *            the overflow policy
+	 */
+	public TraceSink(final Logger log, final int capacity, final Overflow overflow) {
+		this(log, null, capacity, overflow);
+	}
+
+	/**
+	 * Creates a sink which writes the formatted events in batches to the
+	 * given writer.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @param capacity
+	 *            the capacity (rounded up to the next power of 2)
+	 * @param overflow
+	 *            the overflow policy
+	 */
+	public TraceSink(final Writer writer, final int capacity, final Overflow overflow) {
+		this(LOG, writer, capacity, overflow);
+	}
+
+	private TraceSink(final Logger log, final Writer writer, final int capacity, final Overflow overflow) {
+		this.log = log;
+		this.writer = writer;
+		this.overflow = overflow;
+		int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+		this.events = new Event[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			this.events[i] = new Event();
+			this.sequences.set(i, i);
+		}
+		this.mask = size - 1;
+		this.consumer = new Thread(this::consume, "trace-sink");
+		this.consumer.setDaemon(true);
+		this.consumer.start();
+	}
+
+	/**
+	 * Puts the given event into the ring buffer.
+	 *
+	 * @param prefix
+	 *            the prefix (e.g. "&gt; " for the start of a method)
+	 * @param joinpoint
+	 *            the joinpoint
+	 * @param depth
+	 *            the call depth
+	 * @param result
+	 *            the result or a suffix (if hasResult is false)
+	 * @param hasResult
+	 *            true if the result should be traced
+	 * @param thrown
+	 *            the thrown exception or null
+	 * @return true if the event was buffered, false if it was dropped
+	 */
+	public boolean offer(final String prefix, final JoinPoint joinpoint, final int depth, final Object result,
+			final boolean hasResult, final Throwable thrown) {
+		if (this.closed) {
+			this.dropped.increment();
+			return false;
+		}
+		long pos;
+		while (true) {
+			pos = this.tail.get();
+			long diff = this.sequences.get((int) pos & this.mask) - pos;
+			if (diff == 0) {
+				if (this.tail.compareAndSet(pos, pos + 1)) {
+					break;
+				}
+			} else if (diff < 0) {
+				if ((this.overflow == Overflow.DROP) || !this.running) {
+					this.dropped.increment();
+					return false;
+				}
+				Thread.yield();
+			}
+		}
+		int index = (int) pos & this.mask;
+		Event event = this.events[index];
+		event.prefix = prefix;
+		event.joinpoint = joinpoint;
+		event.depth = depth;
+		event.result = result;
+		event.hasResult = hasResult;
+		event.thrown = thrown;
+		event.thread = Thread.currentThread();
+		event.millis = System.currentTimeMillis();
+		this.sequences.set(index, pos + 1);
+		if (this.closed) {
+			this.drainRemaining();
+		}
+		return true;
+	}
+
+	private void consume() {
+		StringBuilder batch = new StringBuilder();
+		while (this.running || (this.head < this.tail.get())) {
+			int n = this.drainTo(batch);
+			if (n == 0) {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+			} else {
+				this.write(batch);
+				this.written.addAndGet(n);
+				this.flushed = this.head;
+				batch.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * After the consumer thread has stopped the events of producers which
+	 * were in the middle of an offer are written by the closing thread or by
+	 * the producer itself.
+	 */
+	private synchronized void drainRemaining() {
+		StringBuilder batch = new StringBuilder();
+		for (int n = this.drainTo(batch); n > 0; n = this.drainTo(batch)) {
+			this.write(batch);
+			this.written.addAndGet(n);
+			this.flushed = this.head;
+			batch.setLength(0);
+		}
+	}
+
+	private int drainTo(final StringBuilder batch) {
+		boolean longFormat = this.log.isTraceEnabled();
+		int n = 0;
+		while (n < BATCH_SIZE) {
+			long pos = this.head;
+			int index = (int) pos & this.mask;
+			if (this.sequences.get(index) != pos + 1) {
+				break;
+			}
+			Event event = this.events[index];
+			try {
+				event.appendTo(batch, longFormat);
+			} catch (RuntimeException ex) {
+				batch.append(" (").append(ex).append(")\n");
+			}
+			event.clear();
+			this.sequences.lazySet(index, pos + this.events.length);
+			this.head = pos + 1;
+			n++;
+		}
+		return n;
+	}
+
+	private void write(final StringBuilder batch) {
+		if (this.writer == null) {
+			batch.setLength(batch.length() - 1);
+			if (this.log.isTraceEnabled()) {
+				this.log.trace("\n{}", batch);
+			} else {
+				this.log.debug("\n{}", batch);
+			}
+			return;
+		}
+		try {
+			this.writer.append(batch);
+			this.writer.flush();
+		} catch (IOException ioe) {
+			LOG.warn("Cannot write {} characters of trace output:", batch.length(), ioe);
+		}
+	}
+
+	/**
+	 * Waits till all buffered events are written.
+	 *
+	 * @param timeout
+	 *            the max. time to wait in milliseconds
+	 * @return true if all events are written
+	 */
+	public boolean flush(final long timeout) {
+		long target = this.tail.get();
+		long deadline = System.currentTimeMillis() + timeout;
+		while (this.flushed < target) {
+			if (System.currentTimeMillis() > deadline) {
+				return false;
+			}
+			LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		return true;
+	}
+
+	/**
+	 * Stops the background thread after all buffered events are written.
+	 *
+	 * @throws InterruptedException
+	 *             if the current thread is interrupted
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		this.running = false;
+		this.consumer.join();
+		this.closed = true;
+		this.drainRemaining();
+	}
+
+	/**
+	 * Gets the capacity of the ring buffer.
+	 *
+	 * @return the capacity
+	 * @see TraceSinkMBean#getCapacity()
+	 */
+	@Override
+	public int getCapacity() {
+		return this.events.length;
+	}
+
+	/**
+	 * Gets the overflow policy.
+	 *
+	 * @return "DROP" or "WAIT"
+	 * @see TraceSinkMBean#getOverflowPolicy()
+	 */
+	@Override
+	public String getOverflowPolicy() {
+		return this.overflow.name();
+	}
+
+	/**
+	 * Gets the number of dropped events.
+	 *
+	 * @return the number of dropped events
+	 * @see TraceSinkMBean#getDropped()
+	 */
+	@Override
+	public long getDropped() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Gets the number of written events.
+	 *
+	 * @return the number of written events
+	 * @see TraceSinkMBean#getWritten()
+	 */
+	@Override
+	public long getWritten() {
+		return this.written.get();
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.events.length + " events, " + this.overflow + ")";
+	}
+
+	/**
+	 * The raw trace event. The events are pre-allocated and reused.
+	 */
+	private static final class Event {
+
+		private String prefix;
+		private JoinPoint joinpoint;
+		private int depth;
+		private Object result;
+		private boolean hasResult;
+		private Throwable thrown;
+		private Thread thread;
+		private long millis;
+
+		private void appendTo(final StringBuilder buf, final boolean longFormat) {
+			TIME_FORMAT.formatTo(Instant.ofEpochMilli(this.millis), buf);
+			buf.append(" [").append(this.thread.getName()).append("] ").append(Trace.indent(this.depth));
+			if (this.thrown != null) {
+				buf.append(this.prefix).append(this.thrown).append('\n');
+				return;
+			}
+			buf.append(this.prefix);
+			if (longFormat) {
+				buf.append(JoinPointHelper.getAsLongString(this.joinpoint));
+			} else {
+				buf.append(JoinPointHelper.getAsShortString(this.joinpoint));
+			}
+			if (this.hasResult) {
+				buf.append(" = ").append(Converter.toShortString(this.result));
+			} else if (this.result != null) {
+				buf.append(this.result);
+			}
+			if (longFormat) {
+				SourceLocation loc = this.joinpoint.getSourceLocation();
+				buf.append(" (").append(loc.getFileName()).append(':').append(loc.getLine()).append(')');
+			}
+			buf.append('\n');
+		}
+
+		private void clear() {
+			this.joinpoint = null;
+			this.result = null;
+			this.thrown = null;
+			this.thread = null;
+		}
+
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import patterntesting.runtime.jmx.Description;
+
+/**
+ * The Interface TraceSinkMBean.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+@Description("Asynchronous sink for the trace output")
+public interface TraceSinkMBean {
+
+	/**
+	 * Gets the capacity of the ring buffer.
+	 *
+	 * @return the capacity
+	 */
+	@Description("max. number of events which can be buffered")
+	int getCapacity();
+
+	/**
+	 * Gets the overflow policy.
+	 *
+	 * @return "DROP" or "WAIT"
+	 */
+	@Description("what happens if the buffer is full (DROP or WAIT)")
+	String getOverflowPolicy();
+
+	/**
+	 * Gets the number of dropped events.
+	 *
+	 * @return the number of dropped events
+	 */
+	@Description("number of events which were dropped because the buffer was full")
+	long getDropped();
+
+	/**
+	 * Gets the number of written events.
+	 *
+	 * @return the number of written events
+	 */
+	@Description("number of events which were written")
+	long getWritten();
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.log;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The WeakIdentityMap compares the keys by identity (like the
+ * {@link IdentityHashMap}) but holds them only weakly (like the
+ * {@link java.util.WeakHashMap}). Entries of keys which are garbage
+ * collected are removed with the next access of the map. This class is not
+ * thread-safe.
+ *
+ * @param <V> the type of the values
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class WeakIdentityMap<V> extends AbstractMap<Object, V> {
+
+	private final Map<Key, V> map = new HashMap<>();
+	private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+	private final BiConsumer<String, V> onExpunge;
+
+	/**
+	 * Instantiates a new weak identity map.
+	 */
+	WeakIdentityMap() {
+		this((type, value) -> {
+		});
+	}
+
+	/**
+	 * Instantiates a new weak identity map with a listener which is called
+	 * for each entry whose key was garbage collected.
+	 *
+	 * @param onExpunge
+	 *            gets the class name of the collected key and the value
+	 */
+	WeakIdentityMap(final BiConsumer<String, V> onExpunge) {
+		this.onExpunge = onExpunge;
+	}
+
+	@Override
+	public V get(final Object key) {
+		this.expunge();
+		return this.map.get(new Key(key, null));
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		this.expunge();
+		return this.map.containsKey(new Key(key, null));
+	}
+
+	@Override
+	public V put(final Object key, final V value) {
+		this.expunge();
+		return this.map.put(new Key(key, this.queue), value);
+	}
+
+	@Override
+	public V remove(final Object key) {
+		this.expunge();
+		return this.map.remove(new Key(key, null));
+	}
+
+	@Override
+	public int size() {
+		this.expunge();
+		return this.map.size();
+	}
+
+	@Override
+	public void clear() {
+		this.map.clear();
+		while (this.queue.poll() != null) {
+			// the collected keys are no longer in the map
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the entries with living keys. Changes of the
+	 * snapshot do not change this map.
+	 *
+	 * @return the entry set
+	 * @see java.util.AbstractMap#entrySet()
+	 */
+	@Override
+	public Set<Entry<Object, V>> entrySet() {
+		this.expunge();
+		Map<Object, V> snapshot = new IdentityHashMap<>();
+		for (Entry<Key, V> entry : this.map.entrySet()) {
+			Object key = entry.getKey().get();
+			if (key != null) {
+				snapshot.put(key, entry.getValue());
+			}
+		}
+		return snapshot.entrySet();
+	}
+
+	private void expunge() {
+		for (Object ref = this.queue.poll(); ref != null; ref = this.queue.poll()) {
+			Key key = (Key) ref;
+			V value = this.map.remove(key);
+			if (value != null) {
+				this.onExpunge.accept(key.type, value);
+			}
+		}
+	}
+
+	/**
+	 * The weak key. The hash code and the class name are kept because they
+	 * are needed after the referent is collected.
+	 */
+	private static final class Key extends WeakReference<Object> {
+
+		private final int hash;
+		private final String type;
+
+		private Key(final Object referent, final ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.hash = System.identityHashCode(referent);
+			this.type = (referent == null) ? null : referent.getClass().getName();
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof Key)) {
+				return false;
+			}
+			Object referent = this.get();
+			return (referent != null) && (referent == ((Key) other).get());
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+	}
+
+}
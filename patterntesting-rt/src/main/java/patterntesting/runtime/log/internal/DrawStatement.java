@@ -21,6 +21,7 @@
 package patterntesting.runtime.log.internal;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -46,6 +47,7 @@ public final class DrawStatement {
 	private final String target;
 	private final StaticPart jpInfo;
 	private final Object[] args;
+	private int repeats = 1;
 
 	/**
 	 * Instantiates a new draw statement of type 'PLACE_HOLDER'.
@@ -210,6 +212,26 @@ public final class DrawStatement {
 		return this.args;
 	}
 
+	/**
+	 * Gets the number of repetitions of this statement. A value greater than
+	 * 1 means that this statement is drawn inside a loop box.
+	 *
+	 * @return the number of repetitions (default is 1)
+	 * @since 2.6.1
+	 */
+	public int getRepeats() {
+		return this.repeats;
+	}
+
+	/**
+	 * Counts one more repetition of this statement.
+	 *
+	 * @since 2.6.1
+	 */
+	public void repeat() {
+		this.repeats++;
+	}
+
 	/**
 	 * Gets the args as string.
 	 *
@@ -294,6 +316,28 @@ public final class DrawStatement {
 		}
 	}
 
+	/**
+	 * Gets the names of the actors which are involved in this statement. This
+	 * are the names for which {@link #hasActor(String)} returns true.
+	 *
+	 * @return the actor names (an empty array if no actor is involved)
+	 * @since 2.6.1
+	 */
+	public String[] getActors() {
+		switch (this.type) {
+		case CREATE_MESSAGE:
+		case MESSAGE:
+			return new String[] { this.target };
+		case RETURN_MESSAGE:
+			if (StringUtils.equals(this.sender, this.target)) {
+				return new String[] { this.target };
+			}
+			return new String[] { this.sender, this.target };
+		default:
+			return new String[0];
+		}
+	}
+
 	/**
 	 * Checks for message.
 	 *
@@ -364,7 +408,7 @@ public final class DrawStatement {
 	 */
 	@Override
 	public int hashCode() {
-		return this.type.hashCode() + ((this.sender == null) ? 0 : this.sender.hashCode());
+		return Objects.hash(this.type, this.sender, this.target);
 	}
 
 	/**
@@ -48,6 +48,7 @@ public class SequenceDiagramWriter {
 	private final Writer writer;
 	private final List<DrawStatement> statements = new ArrayList<>();
 	private final Map<String, String> placeholders = new HashMap<>();
+	private final Map<String, Integer> objectLabels = new HashMap<>();
 
 	/**
 	 * Instantiates a new sequence diagram writer.
@@ -136,30 +137,60 @@ public class SequenceDiagramWriter {
 	 */
 	public void writeSequenceDiagram() {
 		for (DrawStatement stmt : this.statements) {
-			switch (stmt.getType()) {
-			case ACTOR:
-				placeholders.put(stmt.getSender(), stmt.getTarget());
-				break;
-			case OBJECT:
-				addToPlaceholders(stmt.getSender(), stmt.getTarget());
-				break;
-			case PLACEHOLDER_OBJECT:
-				LOG.debug("Statement '{}' is ignored for generated diagram.", stmt);
-				break;
-			case CREATE_MESSAGE:
-				writeCreateMessage(stmt);
-				break;
-			case MESSAGE:
-				writeMessage(stmt);
-				break;
-			case RETURN_MESSAGE:
-				writeReturnMessage(stmt);
-				break;
-			default:
-				writeLine(stmt.toString());
-				break;
+			if (stmt.getType() == DrawType.OBJECT) {
+				this.objectLabels.merge(stmt.getSender(), 1, Integer::sum);
 			}
 		}
+		for (DrawStatement stmt : this.statements) {
+			writeStatement(stmt);
+		}
+	}
+
+	/**
+	 * Writes the given statements directly (without caching them) and
+	 * flushes the writer. This is used for a sequence diagram which is
+	 * written incrementally. The objects and actors must be part of the
+	 * statements before they are used the first time.
+	 *
+	 * @param drawStatements
+	 *            the statements
+	 * @since 2.6.1
+	 */
+	public void writeStatements(final Collection<DrawStatement> drawStatements) {
+		for (DrawStatement stmt : drawStatements) {
+			writeStatement(stmt);
+		}
+		try {
+			this.getWriter().flush();
+		} catch (IOException ioe) {
+			LOG.debug("Flushing {} failed:", this.getWriter(), ioe);
+		}
+	}
+
+	private void writeStatement(final DrawStatement stmt) {
+		switch (stmt.getType()) {
+		case ACTOR:
+			placeholders.put(stmt.getSender(), stmt.getTarget());
+			break;
+		case OBJECT:
+			addToPlaceholders(stmt.getSender(), stmt.getTarget());
+			break;
+		case PLACEHOLDER_OBJECT:
+			LOG.debug("Statement '{}' is ignored for generated diagram.", stmt);
+			break;
+		case CREATE_MESSAGE:
+			writeCreateMessage(stmt);
+			break;
+		case MESSAGE:
+			writeMessage(stmt);
+			break;
+		case RETURN_MESSAGE:
+			writeReturnMessage(stmt);
+			break;
+		default:
+			writeLine(stmt.toString());
+			break;
+		}
 	}
 
 	private void addToPlaceholders(final String varname, final String label) {
@@ -171,13 +202,7 @@ public class SequenceDiagramWriter {
 	}
 
 	private int getNumberOfObjectLabels(final String label) {
-		int n = 0;
-		for (DrawStatement stmt : this.statements) {
-			if ((stmt.getType() == DrawType.OBJECT) && (label.equals(stmt.getSender()))) {
-				n++;
-			}
-		}
-		return n;
+		return this.objectLabels.getOrDefault(label, 0);
 	}
 
 	/**
@@ -199,6 +224,9 @@ public class SequenceDiagramWriter {
 	 *            the stmt
 	 */
 	protected void writeMessage(final DrawStatement stmt) {
+		if (stmt.getRepeats() > 1) {
+			writeLine("loop " + stmt.getRepeats() + " times");
+		}
 		StaticPart jpInfo = stmt.getJpInfo();
 		String target = stmt.getTarget();
 		writeLine(this.placeholders.get(stmt.getSender()) + " ->  +" + this.placeholders.get(target) + ": "
@@ -214,6 +242,9 @@ public class SequenceDiagramWriter {
 	protected void writeReturnMessage(final DrawStatement stmt) {
 		writeLine(this.placeholders.get(stmt.getTarget()) + " --> -" + this.placeholders.get(stmt.getSender()) + ": "
 				+ Converter.toShortString(stmt.getArgs()[0]));
+		if (stmt.getRepeats() > 1) {
+			writeLine("end");
+		}
 	}
 
 	private static String toName(final String label, final String varname) {
@@ -267,6 +267,9 @@ public final class UmlGraphWriter extends SequenceDiagramWriter {
 			writeLine("step();");
 		}
 		StaticPart jpInfo = stmt.getJpInfo();
+		if (stmt.getRepeats() > 1) {
+			writeLine("\n# loop " + stmt.getRepeats() + " times");
+		}
 		writeLine("\n# --> " + jpInfo);
 		writeLine("message(" + stmt.getSender() + "," + stmt.getTarget() + ",\"" + jpInfo.getSignature().getName()
 				+ StringEscapeUtils.escapeJava(stmt.getArgsAsString()) + "\");");
@@ -282,6 +285,9 @@ public final class UmlGraphWriter extends SequenceDiagramWriter {
 		writeLine("return_message(" + stmt.getTarget() + "," + stmt.getSender() + ",\""
 				+ toEscapedString(Converter.toShortString(stmt.getArgs()[0])) + "\");");
 		writeLine("inactive(" + stmt.getTarget() + ");");
+		if (stmt.getRepeats() > 1) {
+			writeLine("# end of loop");
+		}
 	}
 
 	private static String toEscapedString(final Object returnValue) {
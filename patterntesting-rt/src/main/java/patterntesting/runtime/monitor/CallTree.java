@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import patterntesting.runtime.util.Environment;
+
+/**
+ * The CallTree records the measured times along the caller path. Each thread
+ * keeps its own path of nested calls so the time of a method can be split
+ * into the time of its callees and its self time.
+ * <p>
+ * To limit the memory the depth and the width of the tree are bounded.
+ * Calls deeper than the max. depth are counted as self time of the deepest
+ * node. If a node has reached the max. number of children all other callees
+ * are collected under {@link #OTHERS}.
+ * </p>
+ * <p>
+ * The tree can be exported in the "collapsed stack" format which is
+ * understood by flame graph tools (e.g. flamegraph.pl or speedscope).
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class CallTree {
+
+	/** The default max. depth of the tree. */
+	public static final int DEFAULT_MAX_DEPTH = Integer.getInteger(Environment.PROFILE_CALL_TREE_MAX_DEPTH, 32);
+
+	/** The default max. number of children of a node. */
+	public static final int DEFAULT_MAX_WIDTH = Integer.getInteger(Environment.PROFILE_CALL_TREE_MAX_WIDTH, 64);
+
+	/** Label of the node which collects the callees above the max. width. */
+	public static final String OTHERS = "(others)";
+
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final Node root = new Node("root");
+	private final int maxDepth;
+	private final int maxWidth;
+	private final ThreadLocal<Path> paths;
+
+	/**
+	 * Instantiates a new call tree with the default limits.
+	 */
+	public CallTree() {
+		this(DEFAULT_MAX_DEPTH, DEFAULT_MAX_WIDTH);
+	}
+
+	/**
+	 * Instantiates a new call tree.
+	 *
+	 * @param maxDepth
+	 *            the max. depth of the tree
+	 * @param maxWidth
+	 *            the max. number of children of a node
+	 */
+	public CallTree(final int maxDepth, final int maxWidth) {
+		this.maxDepth = Math.max(maxDepth, 1);
+		this.maxWidth = Math.max(maxWidth, 1);
+		this.paths = ThreadLocal.withInitial(() -> new Path(this.maxDepth));
+	}
+
+	/**
+	 * Gets the root node. The root itself is never measured, only its
+	 * children.
+	 *
+	 * @return the root node
+	 */
+	public Node getRoot() {
+		return this.root;
+	}
+
+	/**
+	 * Gets the max. depth.
+	 *
+	 * @return the max depth
+	 */
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	/**
+	 * Gets the max. number of children of a node.
+	 *
+	 * @return the max width
+	 */
+	public int getMaxWidth() {
+		return this.maxWidth;
+	}
+
+	/**
+	 * Must be called at the begin of a call. Each call of this method must
+	 * be followed by a call of {@link #exit(long, long)} in the same thread.
+	 *
+	 * @param label
+	 *            the label (e.g. the signature of the called method)
+	 */
+	public void enter(final String label) {
+		Path path = this.paths.get();
+		if (path.depth >= this.maxDepth) {
+			path.overflow++;
+			return;
+		}
+		Node parent = (path.depth == 0) ? this.root : path.nodes[path.depth - 1];
+		path.nodes[path.depth] = parent.getChild(label, this.maxWidth);
+		path.childNanos[path.depth] = 0L;
+		path.depth++;
+	}
+
+	/**
+	 * Must be called at the end of a call.
+	 *
+	 * @param nanos
+	 *            the measured time of the call in nanoseconds
+	 * @param weight
+	 *            the number of calls this call stands for (see
+	 *            {@link ProfileSampler})
+	 */
+	public void exit(final long nanos, final long weight) {
+		Path path = this.paths.get();
+		if (path.overflow > 0) {
+			path.overflow--;
+			return;
+		}
+		if (path.depth == 0) {
+			return;
+		}
+		path.depth--;
+		Node node = path.nodes[path.depth];
+		path.nodes[path.depth] = null;
+		long self = Math.max(nanos - path.childNanos[path.depth], 0L);
+		node.add(nanos * weight, self * weight, weight);
+		if (path.depth > 0) {
+			path.childNanos[path.depth - 1] += nanos;
+		}
+	}
+
+	/**
+	 * Writes the tree in the "collapsed stack" format: one line for each
+	 * path with the labels separated by ';' and the self time in
+	 * microseconds.
+	 *
+	 * @param writer
+	 *            the writer
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public void writeCollapsedStacksTo(final Writer writer) throws IOException {
+		for (Node child : this.root.getChildren()) {
+			writeCollapsedStacks(child, new StringBuilder(), writer);
+		}
+	}
+
+	private static void writeCollapsedStacks(final Node node, final StringBuilder prefix, final Writer writer)
+			throws IOException {
+		int length = prefix.length();
+		if (length > 0) {
+			prefix.append(';');
+		}
+		prefix.append(node.label.replace(';', ','));
+		long micros = node.self.sum() / 1000L;
+		if (micros > 0) {
+			writer.write(prefix.toString());
+			writer.write(' ');
+			writer.write(Long.toString(micros));
+			writer.write('\n');
+		}
+		for (Node child : node.getChildren()) {
+			writeCollapsedStacks(child, prefix, writer);
+		}
+		prefix.setLength(length);
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (depth=" + this.maxDepth + ", width=" + this.maxWidth + ")";
+	}
+
+	/**
+	 * The path of nested calls of one thread.
+	 */
+	private static final class Path {
+
+		private final Node[] nodes;
+		private final long[] childNanos;
+		private int depth;
+		private int overflow;
+
+		private Path(final int maxDepth) {
+			this.nodes = new Node[maxDepth];
+			this.childNanos = new long[maxDepth];
+		}
+
+	}
+
+	/**
+	 * A node of the call tree. It represents a method (or constructor) on a
+	 * given caller path.
+	 */
+	public static final class Node {
+
+		private final String label;
+		private final Map<String, Node> children = new ConcurrentHashMap<>();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final LongAdder self = new LongAdder();
+
+		private Node(final String label) {
+			this.label = label;
+		}
+
+		private Node getChild(final String childLabel, final int maxWidth) {
+			Node child = this.children.get(childLabel);
+			if (child != null) {
+				return child;
+			}
+			String key = (this.children.size() < maxWidth) ? childLabel : OTHERS;
+			return this.children.computeIfAbsent(key, Node::new);
+		}
+
+		private void add(final long totalNanos, final long selfNanos, final long n) {
+			this.hits.add(n);
+			this.total.add(totalNanos);
+			this.self.add(selfNanos);
+		}
+
+		/**
+		 * Gets the label.
+		 *
+		 * @return the label
+		 */
+		public String getLabel() {
+			return this.label;
+		}
+
+		/**
+		 * Gets the number of calls on this path.
+		 *
+		 * @return the hits
+		 */
+		public long getHits() {
+			return this.hits.sum();
+		}
+
+		/**
+		 * Gets the total time (including the callees) in milliseconds.
+		 *
+		 * @return the total time
+		 */
+		public double getTotal() {
+			return this.total.sum() / NANOS_PER_MILLI;
+		}
+
+		/**
+		 * Gets the self time (without the callees) in milliseconds.
+		 *
+		 * @return the self time
+		 */
+		public double getSelf() {
+			return this.self.sum() / NANOS_PER_MILLI;
+		}
+
+		/**
+		 * Gets the child with the given label.
+		 *
+		 * @param childLabel
+		 *            the label of the child
+		 * @return the child or null
+		 */
+		public Node getChild(final String childLabel) {
+			return this.children.get(childLabel);
+		}
+
+		/**
+		 * Gets the children sorted by their label.
+		 *
+		 * @return the children
+		 */
+		public Node[] getChildren() {
+			Node[] nodes = this.children.values().toArray(new Node[0]);
+			Arrays.sort(nodes, (a, b) -> a.label.compareTo(b.label));
+			return nodes;
+		}
+
+		/**
+		 * To string.
+		 *
+		 * @return the string
+		 * @see java.lang.Object#toString()
+		 */
+		@Override
+		public String toString() {
+			return this.label + " (" + getHits() + " hits, total " + getTotal() + " ms, self " + getSelf()
+					+ " ms)";
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+/**
+ * The EvictionPolicy decides which monitor is removed if the max. number of
+ * monitors is reached (see {@link ProfileMonitorFactory#setMaxNumMonitors(int)}).
+ * The monitor with the lowest rank is removed.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public enum EvictionPolicy {
+
+	/** The least recently used monitor is removed. */
+	LRU {
+		@Override
+		double rankOf(final SimpleProfileMonitor monitor) {
+			return monitor.getLastAccessMillis();
+		}
+	},
+
+	/** The least frequently used monitor (with the fewest hits) is removed. */
+	LFU {
+		@Override
+		double rankOf(final SimpleProfileMonitor monitor) {
+			return monitor.getHits();
+		}
+	},
+
+	/** The monitor with the least total time is removed. */
+	LEAST_TOTAL {
+		@Override
+		double rankOf(final SimpleProfileMonitor monitor) {
+			return monitor.getTotal();
+		}
+	};
+
+	/**
+	 * Gets the rank of the given monitor. The monitor with the lowest rank
+	 * is removed first.
+	 *
+	 * @param monitor
+	 *            the monitor
+	 * @return the rank
+	 */
+	abstract double rankOf(final SimpleProfileMonitor monitor);
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram records times (in nanoseconds) into a fixed number of
+ * logarithmic buckets, similar to the HdrHistogram. Each power of 2 is
+ * divided into 16 sub buckets. So the relative error of a percentile is less
+ * than 7%. Values above 2^40 ns (about 18 minutes) are put into the last
+ * bucket.
+ * <p>
+ * Recording a value does not lock and does not allocate any object, so it
+ * can be called from several threads at the same time.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int MAX_EXPONENT = 40;
+	private static final int NUMBER_OF_BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+
+	/**
+	 * Records the given time.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 */
+	public void record(final long nanos) {
+		counts.incrementAndGet(indexOf(nanos));
+	}
+
+	/**
+	 * Records the given time n times. This is used if the time is
+	 * measured only for some samples.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @param n
+	 *            how often the time should be recorded
+	 * @since 2.6.1
+	 */
+	public void record(final long nanos, final long n) {
+		counts.addAndGet(indexOf(nanos), n);
+	}
+
+	/**
+	 * Adds the values of the other histogram.
+	 *
+	 * @param other
+	 *            the other histogram
+	 */
+	void add(final LatencyHistogram other) {
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			long n = other.counts.get(i);
+			if (n > 0L) {
+				counts.addAndGet(i, n);
+			}
+		}
+	}
+
+	/**
+	 * Resets all buckets.
+	 */
+	public void reset() {
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			counts.set(i, 0L);
+		}
+	}
+
+	/**
+	 * Gets the total number of recorded values.
+	 *
+	 * @return the total count
+	 */
+	public long getTotalCount() {
+		long total = 0L;
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			total += counts.get(i);
+		}
+		return total;
+	}
+
+	/**
+	 * Gets the value for the given percentile. The highest value of the
+	 * bucket which contains the percentile is returned. If no value was
+	 * recorded 0 is returned.
+	 *
+	 * @param percentile
+	 *            the percentile between 0 and 100 (e.g. 99.9)
+	 * @return the value in nanoseconds
+	 */
+	public long getValueAtPercentile(final double percentile) {
+		return getValuesAtPercentiles(percentile)[0];
+	}
+
+	/**
+	 * Gets the values for the given percentiles. All values are calculated
+	 * from the same snapshot of the buckets.
+	 *
+	 * @param percentiles
+	 *            the percentiles (e.g. 50, 90, 99, 99.9)
+	 * @return the values in nanoseconds
+	 */
+	public long[] getValuesAtPercentiles(final double... percentiles) {
+		long[] snapshot = new long[NUMBER_OF_BUCKETS];
+		long total = 0L;
+		for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			total += snapshot[i];
+		}
+		long[] values = new long[percentiles.length];
+		if (total > 0L) {
+			for (int i = 0; i < percentiles.length; i++) {
+				values[i] = getValueAtPercentile(snapshot, total, percentiles[i]);
+			}
+		}
+		return values;
+	}
+
+	private static long getValueAtPercentile(final long[] snapshot, final long total, final double percentile) {
+		double p = Math.min(Math.max(percentile, 0.0), 100.0);
+		long target = Math.max(1L, (long) Math.ceil(p / 100.0 * total));
+		long sum = 0L;
+		for (int i = 0; i < snapshot.length; i++) {
+			sum += snapshot[i];
+			if (sum >= target) {
+				return highestValueOf(i);
+			}
+		}
+		return highestValueOf(snapshot.length - 1);
+	}
+
+	static int indexOf(final long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) Math.max(nanos, 0L);
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		if (exponent > MAX_EXPONENT) {
+			return NUMBER_OF_BUCKETS - 1;
+		}
+		int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long lowestValueOf(final int index) {
+		int block = index / SUB_BUCKETS;
+		long subBucket = index % SUB_BUCKETS;
+		if (block == 0) {
+			return subBucket;
+		}
+		int exponent = block + SUB_BUCKET_BITS - 1;
+		return (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+	}
+
+	static long highestValueOf(final int index) {
+		if (index >= NUMBER_OF_BUCKETS - 1) {
+			return (1L << (MAX_EXPONENT + 1)) - 1;
+		}
+		return lowestValueOf(index + 1) - 1;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + getTotalCount() + " values)";
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The MonitorPool holds the monitors of a {@link SimpleProfileMonitorFactory}
+ * which can be evicted. Adding, removing and selecting a victim is done in
+ * constant time. To find the victim a fixed number of randomly chosen
+ * monitors is compared (like Redis does it for its LRU and LFU policies). So
+ * the hot path of profiling is not burdened with bookkeeping for the
+ * eviction.
+ * <p>
+ * This class is not thread-safe - the caller is responsible for the
+ * synchronization.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+final class MonitorPool {
+
+	/** The number of monitors which are compared to find a victim. */
+	static final int SAMPLE_SIZE = 8;
+
+	private final List<SimpleProfileMonitor> monitors = new ArrayList<>();
+	private final Map<String, Integer> indexes = new HashMap<>();
+
+	/**
+	 * Adds the given monitor (if it is not already in the pool).
+	 *
+	 * @param monitor
+	 *            the monitor
+	 */
+	void add(final SimpleProfileMonitor monitor) {
+		if (!this.indexes.containsKey(monitor.getLabel())) {
+			this.indexes.put(monitor.getLabel(), this.monitors.size());
+			this.monitors.add(monitor);
+		}
+	}
+
+	/**
+	 * Removes the given monitor. The last monitor is moved into the gap so
+	 * that no elements must be shifted.
+	 *
+	 * @param monitor
+	 *            the monitor
+	 */
+	void remove(final SimpleProfileMonitor monitor) {
+		Integer index = this.indexes.remove(monitor.getLabel());
+		if (index == null) {
+			return;
+		}
+		SimpleProfileMonitor last = this.monitors.remove(this.monitors.size() - 1);
+		if (index < this.monitors.size()) {
+			this.monitors.set(index, last);
+			this.indexes.put(last.getLabel(), index);
+		}
+	}
+
+	/**
+	 * Selects the monitor which should be evicted next. If the pool is not
+	 * greater than {@link #SAMPLE_SIZE} all monitors are compared.
+	 *
+	 * @param policy
+	 *            the eviction policy
+	 * @return the victim or null if the pool is empty
+	 */
+	SimpleProfileMonitor selectVictim(final EvictionPolicy policy) {
+		int size = this.monitors.size();
+		boolean sampled = size > SAMPLE_SIZE;
+		int n = sampled ? SAMPLE_SIZE : size;
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		SimpleProfileMonitor victim = null;
+		double minRank = Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			SimpleProfileMonitor candidate = this.monitors.get(sampled ? random.nextInt(size) : i);
+			double rank = policy.rankOf(candidate);
+			if ((victim == null) || (rank < minRank)) {
+				victim = candidate;
+				minRank = rank;
+			}
+		}
+		return victim;
+	}
+
+	/**
+	 * Gets the number of monitors in the pool.
+	 *
+	 * @return the size
+	 */
+	int size() {
+		return this.monitors.size();
+	}
+
+	/**
+	 * Removes all monitors from the pool.
+	 */
+	void clear() {
+		this.monitors.clear();
+		this.indexes.clear();
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ProfileDumpReader reads the files written by the
+ * {@link ProfileExporter} and merges them into one statistic. The files may
+ * come from several JVMs (e.g. from all nodes of a cluster or from several
+ * restarts of the same node).
+ * <p>
+ * It can be also called from the command line with the export files or
+ * directories as arguments. The merged statistic is printed as CSV.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ProfileDumpReader {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileDumpReader.class);
+	private final Map<String, SimpleProfileMonitor> monitors = new TreeMap<>();
+	private final Set<String> jvms = new TreeSet<>();
+	private final SimpleProfileMonitor root = new SimpleProfileMonitor("merged");
+
+	/**
+	 * Reads the given file or all export files of the given directory.
+	 *
+	 * @param file
+	 *            the export file or a directory
+	 * @return this reader
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public ProfileDumpReader read(final File file) throws IOException {
+		if (file.isDirectory()) {
+			File[] files = file.listFiles((d, name) -> name.endsWith(ProfileExporter.SUFFIX));
+			if (files != null) {
+				Arrays.sort(files);
+				for (File f : files) {
+					this.read(f);
+				}
+			}
+			return this;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			int lineNumber = 0;
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				lineNumber++;
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				try {
+					this.add(line);
+				} catch (IllegalArgumentException ex) {
+					LOG.info("Line {} of '{}' is ignored ({}).", lineNumber, file, ex.getMessage());
+				}
+			}
+		}
+		LOG.debug("'{}' is read.", file);
+		return this;
+	}
+
+	private void add(final String line) {
+		String[] fields = line.split("\t");
+		if (fields.length != 7) {
+			throw new IllegalArgumentException("7 fields expected instead of " + fields.length);
+		}
+		this.jvms.add(fields[1]);
+		String label = fields[2];
+		SimpleProfileMonitor mon = this.monitors.get(label);
+		if (mon == null) {
+			mon = new SimpleProfileMonitor(label, this.root);
+			this.monitors.put(label, mon);
+		}
+		mon.addSum(Long.parseLong(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5]),
+				Long.parseLong(fields[6]));
+	}
+
+	/**
+	 * Gets the merged monitors.
+	 *
+	 * @return monitors sorted after total time (descending order)
+	 */
+	public ProfileMonitor[] getMonitors() {
+		ProfileMonitor[] merged = this.monitors.values().toArray(new ProfileMonitor[0]);
+		Arrays.sort(merged);
+		return merged;
+	}
+
+	/**
+	 * Gets the JVMs which have written the files.
+	 *
+	 * @return the JVMs (e.g. "4711@localhost")
+	 */
+	public Set<String> getJvms() {
+		return this.jvms;
+	}
+
+	/**
+	 * Prints the merged statistic as CSV. The export files contain no
+	 * histogram, so there are no percentile columns (in contrast to
+	 * {@link ProfileMonitor#toCsvString()}).
+	 *
+	 * @param out
+	 *            the output stream (e.g. System.out)
+	 */
+	public void printCsvTo(final PrintStream out) {
+		ProfileMonitor[] merged = this.getMonitors();
+		if (merged.length == 0) {
+			return;
+		}
+		out.println("Label; Unit; Total; Avg; Hits; Max; Min");
+		for (ProfileMonitor mon : merged) {
+			out.println('"' + mon.getLabel() + "\"; " + mon.getUnits() + "; " + mon.getTotal() + "; " + mon.getAvg()
+					+ "; " + mon.getHits() + "; " + mon.getMax() + "; " + mon.getMin());
+		}
+	}
+
+	/**
+	 * Merges the given export files or directories and prints the result
+	 * as CSV.
+	 *
+	 * @param args
+	 *            the export files or directories
+	 */
+	public static void main(final String[] args) {
+		if (args.length == 0) {
+			System.err.println("usage: " + ProfileDumpReader.class.getName() + " file|dir...");
+			System.exit(1);
+		}
+		ProfileDumpReader reader = new ProfileDumpReader();
+		try {
+			for (String arg : args) {
+				reader.read(new File(arg));
+			}
+			reader.printCsvTo(System.out);
+		} catch (IOException ioe) {
+			LOG.error("main({}) failed", Arrays.toString(args), ioe);
+			System.err.println("command failed: " + ioe.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.monitors.size() + " monitors from " + this.jvms.size()
+				+ " JVMs)";
+	}
+
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ProfileExporter appends periodically the changes of the
+ * {@link ProfileStatistic} since the last export to a file. So the
+ * statistic of a process which is killed is not lost (at most the values of
+ * the last period). The files can be merged with the
+ * {@link ProfileDumpReader}, also if they come from several JVMs.
+ * <p>
+ * Each line of a file is a delta record with the following fields,
+ * separated by a tab:
+ * </p>
+ * <pre>
+ * timestamp  jvm  label  hits  total  min  max
+ * </pre>
+ * <p>
+ * All times are in nanoseconds. Min and max are the values since the last
+ * reset of the monitor. Lines starting with '#' are comments. If a file is
+ * greater than the given max. size a new file is started; only the last
+ * files are kept. This limit includes the files of former processes on the
+ * same host (e.g. before a restart) which are written with another process
+ * id.
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ProfileExporter implements AutoCloseable {
+
+	/** The suffix of the export files. */
+	public static final String SUFFIX = ".pdump";
+
+	/** The header of each export file. */
+	static final String HEADER = "# timestamp\tjvm\tlabel\thits\ttotal\tmin\tmax";
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProfileExporter.class);
+	private final ProfileStatistic statistic;
+	private final File dir;
+	private final String prefix;
+	private final String jvm;
+	private final Pattern hostFiles;
+	private final long maxFileSize;
+	private final int maxFiles;
+	private final Map<String, long[]> exported = new HashMap<>();
+	private ScheduledExecutorService scheduler;
+	private FileChannel channel;
+	private int fileNumber;
+
+	/**
+	 * Instantiates a new exporter for the given statistic.
+	 *
+	 * @param statistic
+	 *            the statistic
+	 * @param dir
+	 *            the directory of the export files
+	 */
+	public ProfileExporter(final ProfileStatistic statistic, final File dir) {
+		this(statistic, dir, 10L * 1024 * 1024, 10);
+	}
+
+	/**
+	 * Instantiates a new exporter for the given statistic.
+	 *
+	 * @param statistic
+	 *            the statistic
+	 * @param dir
+	 *            the directory of the export files
+	 * @param maxFileSize
+	 *            the max. size of an export file in bytes
+	 * @param maxFiles
+	 *            the number of export files which are kept
+	 */
+	public ProfileExporter(final ProfileStatistic statistic, final File dir, final long maxFileSize,
+			final int maxFiles) {
+		this.statistic = statistic;
+		this.dir = dir;
+		this.jvm = ManagementFactory.getRuntimeMXBean().getName();
+		this.prefix = getPrefixFor(statistic, this.jvm);
+		this.hostFiles = getHostFilesPattern(statistic, this.jvm);
+		this.maxFileSize = maxFileSize;
+		this.maxFiles = Math.max(maxFiles, 1);
+	}
+
+	private static String getPrefixFor(final ProfileStatistic statistic, final String jvm) {
+		return statistic.getClass().getSimpleName() + "-" + toFilename(jvm) + "-";
+	}
+
+	private static String toFilename(final String name) {
+		return name.replaceAll("[^\\w.-]", "_");
+	}
+
+	/**
+	 * The name of a JVM is normally "pid@host". The returned pattern matches
+	 * the export files of all processes on this host.
+	 *
+	 * @param statistic
+	 *            the statistic
+	 * @param jvm
+	 *            the name of the JVM
+	 * @return the pattern for the file names
+	 */
+	private static Pattern getHostFilesPattern(final ProfileStatistic statistic, final String jvm) {
+		int n = jvm.indexOf('@');
+		if (n < 0) {
+			return Pattern.compile(Pattern.quote(getPrefixFor(statistic, jvm)) + "\\d+" + Pattern.quote(SUFFIX));
+		}
+		return Pattern.compile(Pattern.quote(statistic.getClass().getSimpleName() + "-") + "\\d+_"
+				+ Pattern.quote(toFilename(jvm.substring(n + 1)) + "-") + "\\d+" + Pattern.quote(SUFFIX));
+	}
+
+	/**
+	 * Gets the directory of the export files.
+	 *
+	 * @return the directory
+	 */
+	public File getDir() {
+		return this.dir;
+	}
+
+	/**
+	 * Starts the periodic export in a background thread.
+	 *
+	 * @param periodSeconds
+	 *            the period in seconds
+	 */
+	public synchronized void start(final int periodSeconds) {
+		if (this.scheduler != null) {
+			return;
+		}
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "profile-exporter");
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			return t;
+		});
+		this.scheduler.scheduleAtFixedRate(this::exportQuietly, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+		LOG.info("Profiling data is exported every {} s to '{}'.", periodSeconds, this.dir);
+	}
+
+	/**
+	 * Stops the periodic export. A last export is done to save the values
+	 * since the last period.
+	 *
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (this.scheduler != null) {
+				this.scheduler.shutdown();
+				this.scheduler = null;
+			}
+		}
+		this.export();
+		synchronized (this) {
+			if (this.channel != null) {
+				this.channel.close();
+				this.channel = null;
+			}
+		}
+	}
+
+	private void exportQuietly() {
+		try {
+			this.export();
+		} catch (IOException ioe) {
+			LOG.warn("Cannot export profiling data to '{}':", this.dir, ioe);
+		}
+	}
+
+	/**
+	 * Exports the changes since the last export. Monitors without changes
+	 * are not exported. If a monitor was reset (or evicted and created
+	 * again) since the last export its values are exported as they are.
+	 *
+	 * @return the number of exported records
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	public synchronized int export() throws IOException {
+		long now = System.currentTimeMillis();
+		StringBuilder buf = new StringBuilder();
+		int n = 0;
+		Map<String, long[]> current = new HashMap<>();
+		for (ProfileMonitor mon : this.statistic.getMonitors()) {
+			long[] sums = ((SimpleProfileMonitor) mon).getSums();
+			long[] last = this.exported.get(mon.getLabel());
+			long hits = sums[0];
+			long total = sums[1];
+			if ((last != null) && (last[4] == sums[4])) {
+				hits -= last[0];
+				total -= last[1];
+			}
+			current.put(mon.getLabel(), sums);
+			if (hits <= 0) {
+				continue;
+			}
+			buf.append(now).append('\t').append(this.jvm).append('\t').append(mon.getLabel()).append('\t')
+					.append(hits).append('\t').append(total).append('\t').append(sums[2]).append('\t')
+					.append(sums[3]).append('\n');
+			n++;
+		}
+		this.exported.clear();
+		this.exported.putAll(current);
+		if (n > 0) {
+			this.write(buf);
+			LOG.debug("{} records exported.", n);
+		}
+		return n;
+	}
+
+	private void write(final CharSequence records) throws IOException {
+		if ((this.channel != null) && (this.channel.size() >= this.maxFileSize)) {
+			this.channel.close();
+			this.channel = null;
+			this.fileNumber++;
+		}
+		if (this.channel == null) {
+			this.channel = this.openChannel();
+		}
+		ByteBuffer buffer = StandardCharsets.UTF_8.encode(records.toString());
+		while (buffer.hasRemaining()) {
+			this.channel.write(buffer);
+		}
+		this.channel.force(false);
+	}
+
+	private FileChannel openChannel() throws IOException {
+		Files.createDirectories(this.dir.toPath());
+		Path file = this.getFile(this.fileNumber).toPath();
+		FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		if (fc.size() == 0) {
+			fc.write(StandardCharsets.UTF_8.encode(HEADER + '\n'));
+		}
+		this.prune(file.toFile());
+		LOG.debug("Profiling data is exported to '{}'.", file);
+		return fc;
+	}
+
+	/**
+	 * Deletes the oldest export files of this host (also of former
+	 * processes) so that not more than the max. number of files is kept.
+	 *
+	 * @param current
+	 *            the actual export file which is never deleted
+	 */
+	private void prune(final File current) {
+		File[] files = this.dir.listFiles((d, name) -> this.hostFiles.matcher(name).matches());
+		if ((files == null) || (files.length <= this.maxFiles)) {
+			return;
+		}
+		List<File> candidates = new ArrayList<>(List.of(files));
+		candidates.remove(current);
+		candidates.sort(Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+		for (int i = 0; i < files.length - this.maxFiles && i < candidates.size(); i++) {
+			File old = candidates.get(i);
+			if (old.delete()) {
+				LOG.debug("Old export file '{}' is deleted.", old);
+			}
+		}
+	}
+
+	/**
+	 * Gets the export file with the given number.
+	 *
+	 * @param n
+	 *            the number of the file
+	 * @return the file
+	 */
+	File getFile(final int n) {
+		return new File(this.dir, this.prefix + n + SUFFIX);
+	}
+
+	/**
+	 * Gets the export file of the given JVM with the given number.
+	 *
+	 * @param otherJvm
+	 *            the name of the JVM (e.g. "4711@localhost")
+	 * @param n
+	 *            the number of the file
+	 * @return the file
+	 */
+	File getFile(final String otherJvm, final int n) {
+		return new File(this.dir, getPrefixFor(this.statistic, otherJvm) + n + SUFFIX);
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.dir + ")";
+	}
+
+}
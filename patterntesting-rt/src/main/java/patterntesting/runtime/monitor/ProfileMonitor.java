@@ -45,6 +45,30 @@ public interface ProfileMonitor extends Comparable<ProfileMonitor> {
 	 */
 	void add(double value);
 
+	/**
+	 * Adds the given time in nanoseconds. In contrast to {@link #add(double)}
+	 * this method must be thread-safe and should not allocate any object
+	 * because it is called for each profiled method.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @since 2.6.1
+	 */
+	void addNanos(long nanos);
+
+	/**
+	 * Adds the given time in nanoseconds as if it were measured n times.
+	 * This is needed if only some calls are profiled (sampling) and the hits
+	 * and the total time should be extrapolated.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @param n
+	 *            the number of calls the measured time stands for
+	 * @since 2.6.1
+	 */
+	void addNanos(long nanos, long n);
+
 	/**
 	 * Gets the total.
 	 *
@@ -96,6 +120,17 @@ public interface ProfileMonitor extends Comparable<ProfileMonitor> {
 	 */
 	double getAvg();
 
+	/**
+	 * Gets the time for the given percentile. E.g. a percentile of 99 means
+	 * that 99% of all measured times are less or equal the returned value.
+	 *
+	 * @param percentile
+	 *            the percentile between 0 and 100 (e.g. 99.9)
+	 * @return the time (in ms) for the given percentile
+	 * @since 2.6.1
+	 */
+	double getPercentile(double percentile);
+
 	/**
 	 * To short string.
 	 *
@@ -22,6 +22,8 @@ package patterntesting.runtime.monitor;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.aspectj.lang.JoinPoint;
+
 /**
  * This factory abstracts the differences between the monitor based on JAMon and
  * the simple monitor provided by PatternTesting itself.
@@ -67,6 +69,33 @@ public abstract class ProfileMonitorFactory {
 	 */
 	public abstract int getMaxNumMonitors();
 
+	/**
+	 * Sets the policy which decides which monitor is removed if the max.
+	 * number of monitors is reached.
+	 *
+	 * @param policy
+	 *            the eviction policy
+	 * @since 2.6.1
+	 */
+	public abstract void setEvictionPolicy(final EvictionPolicy policy);
+
+	/**
+	 * Gets the eviction policy.
+	 *
+	 * @return the eviction policy
+	 * @since 2.6.1
+	 */
+	public abstract EvictionPolicy getEvictionPolicy();
+
+	/**
+	 * Gets the number of monitors which were removed because the max. number
+	 * of monitors was reached.
+	 *
+	 * @return the number of evictions
+	 * @since 2.6.1
+	 */
+	public abstract long getEvictions();
+
 	/**
 	 * Adds the monitors.
 	 *
@@ -96,6 +125,19 @@ public abstract class ProfileMonitorFactory {
 	 */
 	public abstract ProfileMonitor getMonitor(final String label);
 
+	/**
+	 * Gets the monitor for the given static part of a joinpoint. In contrast
+	 * to {@link #getMonitor(String)} the same monitor is returned for each
+	 * call so that no new objects are created. The measured time must be
+	 * added with {@link ProfileMonitor#addNanos(long)}.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the monitor
+	 * @since 2.6.1
+	 */
+	public abstract ProfileMonitor getMonitor(final JoinPoint.StaticPart jpsp);
+
 	/**
 	 * Gets the monitors (unsorted).
 	 *
@@ -108,6 +150,40 @@ public abstract class ProfileMonitorFactory {
 	 */
 	public abstract void reset();
 
+	/**
+	 * Resets the values of all monitors but keeps the monitors. This is done
+	 * without locking by swapping the counters of each monitor.
+	 *
+	 * @return the snapshots of the monitors before the reset
+	 * @since 2.6.1
+	 */
+	public ProfileMonitor[] snapshotAndReset() {
+		ProfileMonitor[] monitors = this.rootMonitor.getMonitors();
+		ProfileMonitor[] snapshots = new ProfileMonitor[monitors.length];
+		for (int i = 0; i < monitors.length; i++) {
+			snapshots[i] = ((SimpleProfileMonitor) monitors[i]).snapshotAndReset();
+		}
+		this.rootMonitor.snapshotAndReset();
+		return snapshots;
+	}
+
+	/**
+	 * Gets the monitors with the values of the last seconds.
+	 *
+	 * @param seconds
+	 *            the last seconds (e.g. 300 for the last 5 minutes)
+	 * @return snapshots of the monitors (unsorted)
+	 * @since 2.6.1
+	 */
+	public ProfileMonitor[] getWindows(final int seconds) {
+		ProfileMonitor[] monitors = this.rootMonitor.getMonitors();
+		ProfileMonitor[] windows = new ProfileMonitor[monitors.length];
+		for (int i = 0; i < monitors.length; i++) {
+			windows[i] = ((SimpleProfileMonitor) monitors[i]).getWindow(seconds);
+		}
+		return windows;
+	}
+
 	/**
 	 * To string.
 	 *
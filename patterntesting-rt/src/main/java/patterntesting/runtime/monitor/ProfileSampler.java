@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.ConstructorSignature;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import patterntesting.runtime.annotation.ProfileMe;
+
+/**
+ * The ProfileSampler decides for one joinpoint if a call should be profiled
+ * or not. Two kinds of sampling are supported which can be combined:
+ * <ul>
+ * <li>sample rate: only 1 of n calls is profiled (randomly chosen)</li>
+ * <li>samples per second: not more than n calls per second are profiled</li>
+ * </ul>
+ * If a call is profiled the {@link #sample()} method returns the number of
+ * calls this sample stands for. This number is used to extrapolate hits and
+ * total time of the {@link ProfileMonitor}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ProfileSampler {
+
+	/** The sampler which profiles each call. */
+	public static final ProfileSampler ALL = new ProfileSampler(1, 0);
+
+	private final int sampleRate;
+	private final int samplesPerSecond;
+	/** The current second (high 32 bits) and its number of samples (low 32 bits). */
+	private final AtomicLong secondSamples = new AtomicLong();
+	private final LongAdder rejected = new LongAdder();
+
+	/**
+	 * Instantiates a new profile sampler.
+	 *
+	 * @param sampleRate
+	 *            1 of n calls is profiled (1 means each call)
+	 * @param samplesPerSecond
+	 *            maximal number of profiled calls per second (0 means
+	 *            unlimited)
+	 */
+	public ProfileSampler(final int sampleRate, final int samplesPerSecond) {
+		this.sampleRate = Math.max(sampleRate, 1);
+		this.samplesPerSecond = Math.max(samplesPerSecond, 0);
+	}
+
+	/**
+	 * Creates the sampler for the given joinpoint. If the method, constructor
+	 * or class is annotated with {@link ProfileMe} and a sample rate is given
+	 * there this sample rate wins over the given default rate.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @param defaultRate
+	 *            the default sample rate
+	 * @param samplesPerSecond
+	 *            maximal number of profiled calls per second
+	 * @return the profile sampler
+	 */
+	public static ProfileSampler of(final JoinPoint.StaticPart jpsp, final int defaultRate,
+			final int samplesPerSecond) {
+		int rate = getSampleRateOf(jpsp.getSignature());
+		if (rate <= 0) {
+			rate = defaultRate;
+		}
+		if ((rate <= 1) && (samplesPerSecond <= 0)) {
+			return ALL;
+		}
+		return new ProfileSampler(rate, samplesPerSecond);
+	}
+
+	private static int getSampleRateOf(final Signature sig) {
+		int rate = 0;
+		if (sig instanceof MethodSignature) {
+			rate = getSampleRateOf(((MethodSignature) sig).getMethod());
+		} else if (sig instanceof ConstructorSignature) {
+			rate = getSampleRateOf(((ConstructorSignature) sig).getConstructor());
+		}
+		if ((rate <= 0) && (sig != null)) {
+			rate = getSampleRateOf(sig.getDeclaringType());
+		}
+		return rate;
+	}
+
+	private static int getSampleRateOf(final AnnotatedElement element) {
+		if (element == null) {
+			return 0;
+		}
+		ProfileMe annotation = element.getAnnotation(ProfileMe.class);
+		return (annotation == null) ? 0 : annotation.sampleRate();
+	}
+
+	/**
+	 * Gets the sample rate.
+	 *
+	 * @return the sample rate
+	 */
+	public int getSampleRate() {
+		return this.sampleRate;
+	}
+
+	/**
+	 * Gets the maximal number of samples per second.
+	 *
+	 * @return the samples per second (0 means unlimited)
+	 */
+	public int getSamplesPerSecond() {
+		return this.samplesPerSecond;
+	}
+
+	/**
+	 * Decides if the actual call should be profiled. If not 0 is returned.
+	 * Otherwise the number of calls is returned which is represented by
+	 * this sample. The second and the number of samples in this second are
+	 * kept together in one atomic value, so the limit per second holds also
+	 * for concurrent calls at the turn of a second.
+	 *
+	 * @return 0 if call should not be profiled, otherwise the weight
+	 */
+	public long sample() {
+		if ((this.sampleRate > 1) && (ThreadLocalRandom.current().nextInt(this.sampleRate) != 0)) {
+			return 0L;
+		}
+		if (this.samplesPerSecond == 0) {
+			return this.sampleRate;
+		}
+		int second = (int) (System.currentTimeMillis() / 1000L);
+		long current;
+		int n;
+		do {
+			current = this.secondSamples.get();
+			n = ((int) (current >>> 32) == second) ? (int) current : 0;
+			if (n >= this.samplesPerSecond) {
+				this.rejected.increment();
+				return 0L;
+			}
+		} while (!this.secondSamples.compareAndSet(current, ((long) second << 32) | (n + 1)));
+		return this.sampleRate * (this.rejected.sumThenReset() + 1L);
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (1/" + this.sampleRate + ", " + this.samplesPerSecond + "/s)";
+	}
+
+}
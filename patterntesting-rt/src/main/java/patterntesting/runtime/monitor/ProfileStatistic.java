@@ -17,12 +17,14 @@
  */
 package patterntesting.runtime.monitor;
 
+import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.Signature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import patterntesting.annotation.check.runtime.MayReturnNull;
 import patterntesting.runtime.annotation.DontProfileMe;
 import patterntesting.runtime.jmx.MBeanHelper;
+import patterntesting.runtime.util.Environment;
 import patterntesting.runtime.util.SignatureHelper;
 
 import javax.management.ObjectName;
@@ -32,6 +34,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Till v2.5 this was constructed as a thin layer around com.jamonapi.MonitorFactory
@@ -48,6 +51,12 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 
 	private ObjectName mbeanName = MBeanHelper.getAsObjectName(this.getClass());
 	private final ProfileMonitorFactory factory;
+	private final Map<JoinPoint.StaticPart, ProfileSampler> samplers = new ConcurrentHashMap<>();
+	private volatile int sampleRate = Integer.getInteger(Environment.PROFILE_SAMPLE_RATE, 1);
+	private volatile int samplesPerSecond = Integer.getInteger(Environment.PROFILE_SAMPLES_PER_SECOND, 0);
+	private volatile CallTree callTree = Environment.isPropertyEnabled(Environment.PROFILE_CALL_TREE) ? new CallTree()
+			: null;
+	private volatile ProfileExporter exporter;
 
 	/**
 	 * Gets the single instance of ProfileStatistic.
@@ -68,6 +77,10 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 		MBeanHelper.registerMBean(this.mbeanName, this);
 		factory = new SimpleProfileMonitorFactory(rootMonitor);
 		factory.setMaxNumMonitors(100);
+		String exportDir = System.getProperty(Environment.PROFILE_EXPORT_DIR);
+		if (exportDir != null) {
+			this.startExport(exportDir, Integer.getInteger(Environment.PROFILE_EXPORT_PERIOD, 60));
+		}
 	}
 
 	/**
@@ -129,21 +142,49 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	}
 
 	/**
-	 * We can't reset all ProfileMonitors - we must keep the empty monitors with
-	 * 0 hits to see which methods or constructors are never called.
+	 * We can't remove the ProfileMonitors - we must keep the empty monitors
+	 * with 0 hits to see which methods or constructors are never called. So
+	 * only the measured values are reset. This is done without locking so
+	 * the profiled methods are not blocked during a reset.
 	 */
 	@Override
-	synchronized public void reset() {
-		List<String> labels = new ArrayList<>();
-		ProfileMonitor[] monitors = getMonitors();
-		for (int i = 0; i < monitors.length; i++) {
-			if (monitors[i].getHits() == 0) {
-				labels.add(monitors[i].getLabel());
-			}
-		}
-		this.factory.addMonitors(labels);
+	public void reset() {
+		this.factory.snapshotAndReset();
+		this.resetCallTree();
 		LOG.debug("{} is resetted.", this);
 	}
+
+	/**
+	 * Resets the measured values (like {@link #reset()}) and returns the
+	 * values before the reset. Because no lock is needed for it no hit is
+	 * lost, even if the profiled methods are called during the reset.
+	 *
+	 * @return the snapshots sorted after total time (descending order)
+	 * @since 2.6.1
+	 */
+	public ProfileMonitor[] snapshotAndReset() {
+		ProfileMonitor[] snapshots = this.factory.snapshotAndReset();
+		this.resetCallTree();
+		Arrays.sort(snapshots);
+		LOG.debug("{} is resetted.", this);
+		return snapshots;
+	}
+
+	/**
+	 * Gets the monitors with the values of the last minutes. The number of
+	 * minutes is limited by the system property
+	 * "patterntesting.profile.windowSeconds" (default is 15 minutes).
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return monitors sorted after total time (descending order)
+	 * @since 2.6.1
+	 */
+	public ProfileMonitor[] getWindowMonitors(final int minutes) {
+		ProfileMonitor[] monitors = this.factory.getWindows(minutes * 60);
+		Arrays.sort(monitors);
+		return monitors;
+	}
 	
 	/**
 	 * Resets the root monitor.
@@ -249,6 +290,128 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 		return factory.getMaxNumMonitors();
 	}
 
+	/**
+	 * Sets the eviction policy which decides which entry is removed if the
+	 * max. size is reached. The default policy can be also set with the
+	 * system property "patterntesting.profile.evictionPolicy".
+	 *
+	 * @param policy
+	 *            "LRU", "LFU" or "LEAST_TOTAL"
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setEvictionPolicy(final String policy) {
+		factory.setEvictionPolicy(EvictionPolicy.valueOf(policy.trim().toUpperCase()));
+	}
+
+	/**
+	 * Gets the eviction policy.
+	 *
+	 * @return the eviction policy
+	 * @since 2.6.1
+	 */
+	@Override
+	public String getEvictionPolicy() {
+		return factory.getEvictionPolicy().name();
+	}
+
+	/**
+	 * Gets the number of evicted entries.
+	 *
+	 * @return the number of evictions
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getEvictions() {
+		return factory.getEvictions();
+	}
+
+	/**
+	 * Sets the sample rate. With a sample rate of 100 only every 100th call
+	 * (in average) is profiled. Hits and total time are extrapolated.
+	 *
+	 * @param rate
+	 *            the new sample rate (1 means each call)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setSampleRate(final int rate) {
+		this.sampleRate = Math.max(rate, 1);
+		this.samplers.clear();
+		LOG.debug("Sample rate is set to {}.", this.sampleRate);
+	}
+
+	/**
+	 * Gets the sample rate.
+	 *
+	 * @return the sample rate
+	 * @since 2.6.1
+	 */
+	@Override
+	public int getSampleRate() {
+		return this.sampleRate;
+	}
+
+	/**
+	 * Sets the maximal number of profiled calls per second and method.
+	 *
+	 * @param n
+	 *            the max. number of samples per second (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setSamplesPerSecond(final int n) {
+		this.samplesPerSecond = Math.max(n, 0);
+		this.samplers.clear();
+		LOG.debug("Samples per second are set to {}.", this.samplesPerSecond);
+	}
+
+	/**
+	 * Gets the maximal number of profiled calls per second and method.
+	 *
+	 * @return the samples per second (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	@Override
+	public int getSamplesPerSecond() {
+		return this.samplesPerSecond;
+	}
+
+	/**
+	 * Enables or disables the call tree. If it is enabled the measured times
+	 * are also recorded along the caller path (see {@link CallTree}). The
+	 * call tree can be also enabled with the system property
+	 * "patterntesting.profile.callTree".
+	 *
+	 * @param enabled
+	 *            true to enable the call tree
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setCallTreeEnabled(final boolean enabled) {
+		if (enabled != this.isCallTreeEnabled()) {
+			this.callTree = enabled ? new CallTree() : null;
+			LOG.debug("Call tree is {}.", enabled ? "enabled" : "disabled");
+		}
+	}
+
+	/**
+	 * Checks if the call tree is enabled.
+	 *
+	 * @return true, if call tree is enabled
+	 * @since 2.6.1
+	 */
+	@Override
+	public boolean isCallTreeEnabled() {
+		return this.callTree != null;
+	}
+
+	private void resetCallTree() {
+		if (this.callTree != null) {
+			this.callTree = new CallTree();
+		}
+	}
+
 	///// business logic (measurement, statistics and more) ///////////////
 
 	/**
@@ -260,6 +423,7 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	@Override
 	public void run() {
 		try {
+			stopExport();
 			dumpStatistic();
 		} catch (IOException ioe) {
 			LOG.warn("Cannot dump statistic to temporary file:", ioe);
@@ -302,10 +466,161 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 		return mon;
 	}
 
+	/**
+	 * Gets the monitor for the given static part of a joinpoint. This is the
+	 * preferred way for aspects to profile a method: the returned monitor is
+	 * cached and shared between all threads. So you must measure the time
+	 * yourself and add it with {@link ProfileMonitor#addNanos(long)}.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the profile monitor
+	 * @since 2.6.1
+	 */
+	public static ProfileMonitor getMonitor(final JoinPoint.StaticPart jpsp) {
+		return INSTANCE.getProfileMonitorFor(jpsp);
+	}
+
+	/**
+	 * Gets a monitor for the given label. All monitors for the same label add
+	 * their values to the same statistic. Use this method if the values
+	 * should appear beside the profiling data of the methods, e.g. for the
+	 * timings of a parallel run. As with {@link #getMonitor(JoinPoint.StaticPart)}
+	 * you must measure the time yourself and add it with
+	 * {@link ProfileMonitor#addNanos(long)}.
+	 *
+	 * @param label
+	 *            the label of the monitor
+	 * @return the profile monitor
+	 * @since 2.6.1
+	 */
+	public static ProfileMonitor getMonitor(final String label) {
+		return INSTANCE.factory.getMonitor(label);
+	}
+
+	/**
+	 * Gets the (cached) profile monitor for the given static part of a
+	 * joinpoint.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the profile monitor
+	 * @since 2.6.1
+	 */
+	public ProfileMonitor getProfileMonitorFor(final JoinPoint.StaticPart jpsp) {
+		return factory.getMonitor(jpsp);
+	}
+
+	/**
+	 * Gets the sampler for the given static part of a joinpoint. The sampler
+	 * decides which calls are profiled.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the profile sampler
+	 * @since 2.6.1
+	 */
+	public static ProfileSampler getSampler(final JoinPoint.StaticPart jpsp) {
+		return INSTANCE.getProfileSamplerFor(jpsp);
+	}
+
+	/**
+	 * Gets the (cached) sampler for the given static part of a joinpoint.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the profile sampler
+	 * @since 2.6.1
+	 */
+	public ProfileSampler getProfileSamplerFor(final JoinPoint.StaticPart jpsp) {
+		ProfileSampler sampler = this.samplers.get(jpsp);
+		if (sampler == null) {
+			sampler = this.samplers.computeIfAbsent(jpsp,
+					sp -> ProfileSampler.of(sp, this.sampleRate, this.samplesPerSecond));
+		}
+		return sampler;
+	}
+
 	private synchronized ProfileMonitor getMonitor(final Signature sig) {
 		return factory.getMonitor(SignatureHelper.getAsString(sig));
 	}
 
+	/**
+	 * Starts the periodic export of the profiling data into the given
+	 * directory. Only the changes since the last export are appended. The
+	 * export can be also started with the system properties
+	 * "patterntesting.profile.exportDir" and
+	 * "patterntesting.profile.exportPeriod".
+	 *
+	 * @param dir
+	 *            the export directory
+	 * @param periodSeconds
+	 *            the period in seconds
+	 * @see ProfileExporter
+	 * @since 2.6.1
+	 */
+	@Override
+	public synchronized void startExport(final String dir, final int periodSeconds) {
+		if (this.exporter != null) {
+			this.stopExport();
+		}
+		this.exporter = new ProfileExporter(this, new File(dir));
+		this.exporter.start(periodSeconds);
+	}
+
+	/**
+	 * Stops the periodic export. The changes since the last export are
+	 * exported before.
+	 *
+	 * @since 2.6.1
+	 */
+	@Override
+	public synchronized void stopExport() {
+		if (this.exporter != null) {
+			try {
+				this.exporter.close();
+			} catch (IOException ioe) {
+				LOG.warn("Cannot export profiling data to '{}':", this.exporter.getDir(), ioe);
+			}
+			this.exporter = null;
+		}
+	}
+
+	/**
+	 * Gets the export directory.
+	 *
+	 * @return the export directory or null if the export is not started
+	 * @since 2.6.1
+	 */
+	@Override
+	@MayReturnNull
+	public String getExportDir() {
+		ProfileExporter exp = this.exporter;
+		return (exp == null) ? null : exp.getDir().getPath();
+	}
+
+	/**
+	 * Gets the call tree which is used by the profile aspect.
+	 *
+	 * @return the call tree or null if it is not enabled
+	 * @since 2.6.1
+	 */
+	@MayReturnNull
+	public static CallTree getCallTree() {
+		return INSTANCE.getProfileCallTree();
+	}
+
+	/**
+	 * Gets the call tree.
+	 *
+	 * @return the call tree or null if it is not enabled
+	 * @since 2.6.1
+	 */
+	@MayReturnNull
+	public CallTree getProfileCallTree() {
+		return this.callTree;
+	}
+
 	/**
 	 * Gets the monitors (unsorted).
 	 *
@@ -327,7 +642,10 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	}
 
 	private ProfileMonitor getMaxHitsMonitor() {
-		ProfileMonitor[] monitors = getMonitors();
+		return getMaxHitsMonitor(getMonitors());
+	}
+
+	private static ProfileMonitor getMaxHitsMonitor(final ProfileMonitor[] monitors) {
 		ProfileMonitor max = new SimpleProfileMonitor();
 		for (int i = 0; i < monitors.length; i++) {
 			if (monitors[i].getHits() >= max.getHits()) {
@@ -371,7 +689,10 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	}
 
 	private ProfileMonitor getMaxTotalMonitor() {
-		ProfileMonitor[] monitors = getMonitors();
+		return getMaxTotalMonitor(getMonitors());
+	}
+
+	private static ProfileMonitor getMaxTotalMonitor(final ProfileMonitor[] monitors) {
 		ProfileMonitor max = new SimpleProfileMonitor();
 		for (int i = 0; i < monitors.length; i++) {
 			if (monitors[i].getTotal() >= max.getTotal()) {
@@ -415,8 +736,11 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	}
 
 	private ProfileMonitor getMaxAvgMonitor() {
-		ProfileMonitor[] monitors = getMonitors();
-		ProfileMonitor max = monitors[0];
+		return getMaxAvgMonitor(getMonitors());
+	}
+
+	private static ProfileMonitor getMaxAvgMonitor(final ProfileMonitor[] monitors) {
+		ProfileMonitor max = (monitors.length == 0) ? new SimpleProfileMonitor() : monitors[0];
 		double maxValue = 0.0;
 		for (int i = 0; i < monitors.length; i++) {
 			double value = monitors[i].getAvg();
@@ -471,7 +795,10 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	}
 
 	private ProfileMonitor getMaxMaxMonitor() {
-		ProfileMonitor[] monitors = getMonitors();
+		return getMaxMaxMonitor(getMonitors());
+	}
+
+	private static ProfileMonitor getMaxMaxMonitor(final ProfileMonitor[] monitors) {
 		ProfileMonitor max = new SimpleProfileMonitor();
 		for (int i = 0; i < monitors.length; i++) {
 			if (monitors[i].getMax() >= max.getMax()) {
@@ -521,8 +848,86 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getStatistics()
 	 */
 	@Override
-	@SuppressWarnings("rawtypes")
 	public TabularData getStatistics() {
+		return getStatistics(getSortedMonitors());
+	}
+
+	/**
+	 * Gets the statistics of the last minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the statistics
+	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getStatistics(int)
+	 * @since 2.6.1
+	 */
+	@Override
+	public TabularData getStatistics(final int minutes) {
+		return getStatistics(getWindowMonitors(minutes));
+	}
+
+	/**
+	 * Gets the statistic of the method with the maximal hits in the last
+	 * minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max hits statistic
+	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getMaxHitsStatistic(int)
+	 * @since 2.6.1
+	 */
+	@Override
+	public String getMaxHitsStatistic(final int minutes) {
+		return getMaxHitsMonitor(getWindowMonitors(minutes)).toShortString();
+	}
+
+	/**
+	 * Gets the statistic of the method with the maximal total time in the
+	 * last minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max total statistic
+	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getMaxTotalStatistic(int)
+	 * @since 2.6.1
+	 */
+	@Override
+	public String getMaxTotalStatistic(final int minutes) {
+		return getMaxTotalMonitor(getWindowMonitors(minutes)).toShortString();
+	}
+
+	/**
+	 * Gets the statistic of the method with the maximal average time in the
+	 * last minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max avg statistic
+	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getMaxAvgStatistic(int)
+	 * @since 2.6.1
+	 */
+	@Override
+	public String getMaxAvgStatistic(final int minutes) {
+		return getMaxAvgMonitor(getWindowMonitors(minutes)).toShortString();
+	}
+
+	/**
+	 * Gets the statistic of the method with the maximal time in the last
+	 * minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max max statistic
+	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getMaxMaxStatistic(int)
+	 * @since 2.6.1
+	 */
+	@Override
+	public String getMaxMaxStatistic(final int minutes) {
+		return getMaxMaxMonitor(getWindowMonitors(minutes)).toShortString();
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static TabularData getStatistics(final ProfileMonitor[] monitors) {
 		try {
 			String[] itemNames = { "Label", "Units", "Hits", "Avg", "Total", "Min", "Max" };
 			String[] itemDescriptions = { "method name", "time unit (e.g. ms)", "number of hits", "average time",
@@ -532,7 +937,6 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 			CompositeType rowType = new CompositeType("propertyType", "property entry", itemNames, itemDescriptions,
 					itemTypes);
 			TabularDataSupport data = MBeanHelper.createTabularDataSupport(rowType, itemNames);
-			ProfileMonitor[] monitors = getSortedMonitors();
 			for (int i = 0; i < monitors.length; i++) {
 				Map<String, Object> map = new HashMap<>();
 				map.put("Label", monitors[i].getLabel());
@@ -552,6 +956,46 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 		}
 	}
 
+	/**
+	 * Gets the percentiles (50%, 90%, 99% and 99.9%) of the measured times
+	 * for each monitor.
+	 *
+	 * @return the percentiles
+	 * @see patterntesting.runtime.monitor.ProfileStatisticMBean#getPercentiles()
+	 * @since 2.6.1
+	 */
+	@Override
+	@SuppressWarnings("rawtypes")
+	public TabularData getPercentiles() {
+		try {
+			String[] itemNames = { "Label", "Units", "Hits", "P50", "P90", "P99", "P99.9" };
+			String[] itemDescriptions = { "method name", "time unit (e.g. ms)", "number of hits", "median time",
+					"90th percentile", "99th percentile", "99.9th percentile" };
+			OpenType[] itemTypes = { SimpleType.STRING, SimpleType.STRING, SimpleType.INTEGER, SimpleType.DOUBLE,
+					SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.DOUBLE };
+			CompositeType rowType = new CompositeType("percentileType", "percentile entry", itemNames,
+					itemDescriptions, itemTypes);
+			TabularDataSupport data = MBeanHelper.createTabularDataSupport(rowType, itemNames);
+			ProfileMonitor[] monitors = getSortedMonitors();
+			for (int i = 0; i < monitors.length; i++) {
+				Map<String, Object> map = new HashMap<>();
+				map.put("Label", monitors[i].getLabel());
+				map.put("Units", monitors[i].getUnits());
+				map.put("Hits", monitors[i].getHits());
+				map.put("P50", monitors[i].getPercentile(50));
+				map.put("P90", monitors[i].getPercentile(90));
+				map.put("P99", monitors[i].getPercentile(99));
+				map.put("P99.9", monitors[i].getPercentile(99.9));
+				CompositeDataSupport compData = new CompositeDataSupport(rowType, map);
+				data.put(compData);
+			}
+			return data;
+		} catch (OpenDataException e) {
+			LOG.error("can't create TabularData for percentiles", e);
+			return null;
+		}
+	}
+
 	/**
 	 * Log statistic.
 	 *
@@ -600,7 +1044,9 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
 	}
 
 	/**
-	 * Dump statistic to the given file.
+	 * Dump statistic to the given file. If the call tree is enabled it is
+	 * dumped as collapsed stacks to a file with the same name but with the
+	 * suffix ".collapsed" (instead of ".csv").
 	 *
 	 * @param dumpFile
 	 *            the dump file
@@ -623,6 +1069,34 @@ public class ProfileStatistic extends Thread implements ProfileStatisticMBean {
     		}
 		}
 		LOG.info("Profiling data dumped to '{}'.", dumpFile);
+		CallTree tree = this.callTree;
+		if (tree != null) {
+			dumpCallTreeTo(tree, getCollapsedFileFor(dumpFile));
+		}
+	}
+
+	/**
+	 * Gets the file for the call tree which belongs to the given dump file.
+	 *
+	 * @param dumpFile
+	 *            the dump file (e.g. "profile.csv")
+	 * @return the file for the call tree (e.g. "profile.collapsed")
+	 * @since 2.6.1
+	 */
+	public static File getCollapsedFileFor(final File dumpFile) {
+		String name = dumpFile.getName();
+		if (name.endsWith(".csv")) {
+			name = name.substring(0, name.length() - 4);
+		}
+		return new File(dumpFile.getParentFile(), name + ".collapsed");
+	}
+
+	private static void dumpCallTreeTo(final CallTree tree, final File file) throws IOException {
+		try (BufferedWriter writer = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			tree.writeCollapsedStacksTo(writer);
+		}
+		LOG.info("Call tree dumped to '{}'.", file);
 	}
 
 	/**
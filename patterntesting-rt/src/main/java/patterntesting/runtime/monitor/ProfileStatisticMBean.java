@@ -155,6 +155,93 @@ public interface ProfileStatisticMBean {
 	@Description("get maximal number of statistic entries")
 	int getMaxSize();
 
+	/**
+	 * Sets the eviction policy which decides which entry is removed if the
+	 * max. size is reached.
+	 *
+	 * @param policy
+	 *            "LRU", "LFU" or "LEAST_TOTAL"
+	 * @since 2.6.1
+	 */
+	@Description("set the eviction policy (LRU, LFU or LEAST_TOTAL)")
+	void setEvictionPolicy(String policy);
+
+	/**
+	 * Gets the eviction policy.
+	 *
+	 * @return the eviction policy
+	 * @since 2.6.1
+	 */
+	@Description("get the eviction policy (LRU, LFU or LEAST_TOTAL)")
+	String getEvictionPolicy();
+
+	/**
+	 * Gets the number of evicted entries.
+	 *
+	 * @return the number of evictions
+	 * @since 2.6.1
+	 */
+	@Description("number of entries which were removed because the max. size was reached")
+	long getEvictions();
+
+	/**
+	 * Sets the sample rate. With a sample rate of 100 only every 100th call
+	 * is profiled.
+	 *
+	 * @param rate
+	 *            the new sample rate (1 means each call)
+	 * @since 2.6.1
+	 */
+	@Description("set the sample rate (1 = profile each call, 100 = profile 1 of 100 calls)")
+	void setSampleRate(int rate);
+
+	/**
+	 * Gets the sample rate.
+	 *
+	 * @return the sample rate
+	 * @since 2.6.1
+	 */
+	@Description("get the sample rate (1 = profile each call, 100 = profile 1 of 100 calls)")
+	int getSampleRate();
+
+	/**
+	 * Sets the maximal number of profiled calls per second and method.
+	 *
+	 * @param n
+	 *            the max. number of samples per second (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	@Description("set maximal number of profiled calls per second and method (0 = unlimited)")
+	void setSamplesPerSecond(int n);
+
+	/**
+	 * Gets the maximal number of profiled calls per second and method.
+	 *
+	 * @return the samples per second (0 means unlimited)
+	 * @since 2.6.1
+	 */
+	@Description("get maximal number of profiled calls per second and method (0 = unlimited)")
+	int getSamplesPerSecond();
+
+	/**
+	 * Enables or disables the call tree.
+	 *
+	 * @param enabled
+	 *            true to enable the call tree
+	 * @since 2.6.1
+	 */
+	@Description("record the times along the caller path (call tree)")
+	void setCallTreeEnabled(boolean enabled);
+
+	/**
+	 * Checks if the call tree is enabled.
+	 *
+	 * @return true, if call tree is enabled
+	 * @since 2.6.1
+	 */
+	@Description("true if the times are recorded along the caller path")
+	boolean isCallTreeEnabled();
+
 	/**
 	 * Gets the statistics.
 	 *
@@ -163,6 +250,103 @@ public interface ProfileStatisticMBean {
 	@Description("the statistic table")
 	TabularData getStatistics();
 
+	/**
+	 * Gets the percentiles (50%, 90%, 99% and 99.9%) of each method.
+	 *
+	 * @return the percentiles
+	 * @since 2.6.1
+	 */
+	@Description("the percentiles of the measured times")
+	TabularData getPercentiles();
+
+	/**
+	 * Gets the statistics of the last minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the statistics
+	 * @since 2.6.1
+	 */
+	@Description("the statistic table of the last minutes")
+	TabularData getStatistics(int minutes);
+
+	/**
+	 * Gets the statistic of the method with the maximal hits in the last
+	 * minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max hits statistic
+	 * @since 2.6.1
+	 */
+	@Description("statistic of the method with the maximal hits in the last minutes")
+	String getMaxHitsStatistic(int minutes);
+
+	/**
+	 * Gets the statistic of the method with the maximal total time in the
+	 * last minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max total statistic
+	 * @since 2.6.1
+	 */
+	@Description("statistic of the method with the maximal total time in the last minutes")
+	String getMaxTotalStatistic(int minutes);
+
+	/**
+	 * Gets the statistic of the method with the maximal average time in the
+	 * last minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max avg statistic
+	 * @since 2.6.1
+	 */
+	@Description("statistic of the method with the maximal average time in the last minutes")
+	String getMaxAvgStatistic(int minutes);
+
+	/**
+	 * Gets the statistic of the method with the maximal time in the last
+	 * minutes.
+	 *
+	 * @param minutes
+	 *            the last minutes (e.g. 5)
+	 * @return the max max statistic
+	 * @since 2.6.1
+	 */
+	@Description("statistic of the method with the maximal time in the last minutes")
+	String getMaxMaxStatistic(int minutes);
+
+	/**
+	 * Starts the periodic export of the profiling data.
+	 *
+	 * @param dir
+	 *            the export directory
+	 * @param periodSeconds
+	 *            the period in seconds
+	 * @since 2.6.1
+	 */
+	@Description("export the profiling data periodically into the given directory")
+	void startExport(String dir, int periodSeconds);
+
+	/**
+	 * Stops the periodic export.
+	 *
+	 * @since 2.6.1
+	 */
+	@Description("stop the periodic export of the profiling data")
+	void stopExport();
+
+	/**
+	 * Gets the export directory.
+	 *
+	 * @return the export directory or null
+	 * @since 2.6.1
+	 */
+	@Description("directory of the periodic export (null if not started)")
+	String getExportDir();
+
 	/**
 	 * Log statistic.
 	 */
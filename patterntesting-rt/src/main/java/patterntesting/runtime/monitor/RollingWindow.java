@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import patterntesting.runtime.util.Environment;
+
+/**
+ * The RollingWindow keeps the measured times of the last seconds in a ring
+ * buffer with one bucket per second. The default size is 900 seconds (15
+ * minutes) and can be changed with the system property
+ * "patterntesting.profile.windowSeconds".
+ * <p>
+ * The values of the current second are accumulated in {@link LongAdder}s, so
+ * recording does not lock. Only when a new second starts the values are
+ * moved into the ring buffer (by the first thread which notices it).
+ * </p>
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class RollingWindow {
+
+	/** The default size of the window in seconds. */
+	public static final int DEFAULT_SECONDS = Integer.getInteger(Environment.PROFILE_WINDOW_SECONDS, 900);
+
+	private final int size;
+	private final long[] hits;
+	private final long[] totals;
+	private final long[] mins;
+	private final long[] maxs;
+	private final LongAdder currentHits = new LongAdder();
+	private final LongAdder currentTotal = new LongAdder();
+	private final LongAccumulator currentMin = new LongAccumulator(Math::min, Long.MAX_VALUE);
+	private final LongAccumulator currentMax = new LongAccumulator(Math::max, 0L);
+	private volatile long currentSecond;
+
+	/**
+	 * Instantiates a new rolling window with the default size.
+	 */
+	public RollingWindow() {
+		this(DEFAULT_SECONDS);
+	}
+
+	/**
+	 * Instantiates a new rolling window.
+	 *
+	 * @param seconds
+	 *            the size of the window in seconds
+	 */
+	public RollingWindow(final int seconds) {
+		this(seconds, System.currentTimeMillis());
+	}
+
+	/**
+	 * Instantiates a new rolling window which starts at the given time.
+	 *
+	 * @param seconds
+	 *            the size of the window in seconds
+	 * @param millis
+	 *            the start time in milliseconds
+	 */
+	RollingWindow(final int seconds, final long millis) {
+		this.size = Math.max(seconds, 1);
+		this.hits = new long[size];
+		this.totals = new long[size];
+		this.mins = new long[size];
+		this.maxs = new long[size];
+		Arrays.fill(this.mins, Long.MAX_VALUE);
+		this.currentSecond = millis / 1000L;
+	}
+
+	/**
+	 * Gets the size of the window.
+	 *
+	 * @return the size in seconds
+	 */
+	public int getSeconds() {
+		return this.size;
+	}
+
+	/**
+	 * Records the given time n times.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @param n
+	 *            the number of calls the measured time stands for
+	 * @param millis
+	 *            the actual time in milliseconds
+	 */
+	public void record(final long nanos, final long n, final long millis) {
+		long second = millis / 1000L;
+		if (second != this.currentSecond) {
+			roll(second);
+		}
+		this.currentHits.add(n);
+		this.currentTotal.add(nanos * n);
+		this.currentMin.accumulate(nanos);
+		this.currentMax.accumulate(nanos);
+	}
+
+	private synchronized void roll(final long second) {
+		long last = this.currentSecond;
+		if (second <= last) {
+			return;
+		}
+		int slot = (int) (last % size);
+		this.hits[slot] = this.currentHits.sumThenReset();
+		this.totals[slot] = this.currentTotal.sumThenReset();
+		this.mins[slot] = this.currentMin.getThenReset();
+		this.maxs[slot] = this.currentMax.getThenReset();
+		for (long s = last + 1; (s < second) && (s <= last + size); s++) {
+			clear((int) (s % size));
+		}
+		this.currentSecond = second;
+	}
+
+	private void clear(final int slot) {
+		this.hits[slot] = 0L;
+		this.totals[slot] = 0L;
+		this.mins[slot] = Long.MAX_VALUE;
+		this.maxs[slot] = 0L;
+	}
+
+	/**
+	 * Adds the values of the last seconds to the given monitor.
+	 *
+	 * @param monitor
+	 *            the monitor which receives the values
+	 * @param seconds
+	 *            the last seconds (limited by the size of the window)
+	 */
+	void addTo(final SimpleProfileMonitor monitor, final int seconds) {
+		addTo(monitor, seconds, System.currentTimeMillis());
+	}
+
+	/**
+	 * Adds the values of the seconds before the given time to the given
+	 * monitor.
+	 *
+	 * @param monitor
+	 *            the monitor which receives the values
+	 * @param seconds
+	 *            the last seconds (limited by the size of the window)
+	 * @param millis
+	 *            the actual time in milliseconds
+	 */
+	void addTo(final SimpleProfileMonitor monitor, final int seconds, final long millis) {
+		long now = millis / 1000L;
+		long from = now - Math.min(Math.max(seconds, 1), size);
+		synchronized (this) {
+			long current = this.currentSecond;
+			if (current > from) {
+				monitor.addSum(this.currentHits.sum(), this.currentTotal.sum(), this.currentMin.get(),
+						this.currentMax.get());
+			}
+			for (long s = Math.max(from + 1, current - size + 1); s < current; s++) {
+				int slot = (int) (s % size);
+				monitor.addSum(this.hits[slot], this.totals[slot], this.mins[slot], this.maxs[slot]);
+			}
+		}
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return this.getClass().getSimpleName() + " (" + this.size + " s)";
+	}
+
+}
@@ -21,6 +21,10 @@ package patterntesting.runtime.monitor;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.LoggerFactory;
 import org.slf4j.*;
@@ -30,6 +34,17 @@ import patterntesting.runtime.util.SignatureHelper;
 
 /**
  * The Class SimpleProfileMonitor.
+ * <p>
+ * Since 2.6.1 the measured values are accumulated in {@link LongAdder}s and
+ * {@link LongAccumulator}s (in nanoseconds). So the same monitor can be
+ * updated concurrently by several threads without losing any hits and
+ * without allocating new objects for each measurement.
+ * </p>
+ * <p>
+ * The values of the last minutes are kept in a {@link RollingWindow}. All
+ * other values can be reset with {@link #snapshotAndReset()} without locking
+ * the monitor.
+ * </p>
  *
  * @author <a href="boehm@javatux.de">oliver</a>
  * @version $Revision: 1.27 $
@@ -38,20 +53,20 @@ import patterntesting.runtime.util.SignatureHelper;
 public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 
 	private static final Logger LOG = LoggerFactory.getLogger(SimpleProfileMonitor.class);
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
 	private SimpleProfileMonitor parent;
 	private final Map<String, SimpleProfileMonitor> childs = new ConcurrentHashMap<>();
 	private final String label;
+	/** false for monitors which are used only once (no histogram, no window) */
+	private final boolean detailed;
 	/** start time in nanoseconds */
 	private long startTime;
-	/** the measured time in milliseconds */
-	private double total;
-	private double lastValue;
-	private double min;
-	private double max;
-	/** number of calls (or "hits") */
-	private int hits;
-	private final Date firstAccess = new Date();
-	private Date lastAccess = new Date();
+	/** the measured values which are swapped as a whole by a reset */
+	private volatile Counters counters;
+	private volatile long lastValue;
+	private volatile RollingWindow window;
+	private final long firstAccess = System.currentTimeMillis();
+	private volatile long lastAccess = firstAccess;
 
 	/**
 	 * Instantiates a new simple profile monitor.
@@ -69,6 +84,28 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	public SimpleProfileMonitor(final String rootLabel) {
 		this.reset();
 		this.label = rootLabel;
+		this.detailed = true;
+	}
+
+	private SimpleProfileMonitor(final String label, final SimpleProfileMonitor parent, final boolean detailed) {
+		this.counters = new Counters();
+		this.label = label;
+		this.parent = parent;
+		this.detailed = detailed;
+	}
+
+	/**
+	 * Creates a monitor for a single call. This monitor is not registered as
+	 * child of the given parent and does not record a histogram or a
+	 * window. So it is cheap to create it for each call.
+	 *
+	 * @param parent
+	 *            the parent which receives the measured time
+	 * @return the simple profile monitor
+	 * @since 2.6.1
+	 */
+	static SimpleProfileMonitor createCallMonitor(final SimpleProfileMonitor parent) {
+		return new SimpleProfileMonitor(parent.label, parent, false);
 	}
 
 	/**
@@ -78,15 +115,50 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public void reset() {
-		this.total = 0.0;
-		this.lastValue = 0.0;
-		this.min = Double.MAX_VALUE;
-		this.max = 0.0;
-		this.hits = 0;
+		this.counters = new Counters();
+		this.lastValue = 0L;
+		this.window = null;
 		this.parent = null;
 		this.childs.clear();
 	}
 
+	/**
+	 * Resets the measured values but keeps the monitor (and its parent and
+	 * childs). This is done by swapping the internal counters so no lock is
+	 * needed. The old values are returned as a detached snapshot.
+	 *
+	 * @return a snapshot of the values before the reset
+	 * @since 2.6.1
+	 */
+	public SimpleProfileMonitor snapshotAndReset() {
+		Counters old = this.counters;
+		this.counters = new Counters();
+		SimpleProfileMonitor snapshot = new SimpleProfileMonitor(this.label, null, false);
+		snapshot.counters = old;
+		snapshot.lastValue = this.lastValue;
+		snapshot.lastAccess = this.lastAccess;
+		return snapshot;
+	}
+
+	/**
+	 * Gets a detached snapshot with the values of the last seconds. These
+	 * values are taken from the {@link RollingWindow} of this monitor.
+	 *
+	 * @param seconds
+	 *            the last seconds (e.g. 300 for the last 5 minutes)
+	 * @return a snapshot with the values of the last seconds
+	 * @since 2.6.1
+	 */
+	public SimpleProfileMonitor getWindow(final int seconds) {
+		SimpleProfileMonitor snapshot = new SimpleProfileMonitor(this.label, null, false);
+		RollingWindow w = this.window;
+		if (w != null) {
+			w.addTo(snapshot, seconds);
+		}
+		snapshot.lastAccess = this.lastAccess;
+		return snapshot;
+	}
+
 	/**
 	 * Instantiates a new simple profile monitor.
 	 *
@@ -110,6 +182,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	public SimpleProfileMonitor(final String label, final SimpleProfileMonitor parent) {
 		this.reset();
 		this.label = label;
+		this.detailed = true;
 		this.parent = parent;
 		this.parent.addChild(this);
 	}
@@ -222,7 +295,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	@Override
 	public void start() {
 		this.startTime = System.nanoTime();
-		this.lastAccess = new Date();
+		this.lastAccess = System.currentTimeMillis();
 	}
 
 	/**
@@ -232,8 +305,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public void stop() {
-		long time = System.nanoTime() - startTime;
-		this.add(time / 1000000.0);
+		this.addNanos(System.nanoTime() - startTime);
 	}
 
 	/**
@@ -245,17 +317,70 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public void add(final double value) {
-		this.lastValue = value;
-		this.total += value;
-		this.hits++;
-		if (this.parent != null) {
-			this.parent.add(value);
+		this.addNanos(Math.round(value * NANOS_PER_MILLI));
+	}
+
+	/**
+	 * Adds the given time (in nanoseconds). This method is thread-safe and
+	 * does not allocate any object, so it can be called by several threads
+	 * for the same monitor at the same time.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @see ProfileMonitor#addNanos(long)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void addNanos(final long nanos) {
+		this.addNanos(nanos, 1L);
+	}
+
+	/**
+	 * Adds the given time (in nanoseconds) as if it were measured n times.
+	 * Hits, total time and the histogram are extrapolated by n.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @param n
+	 *            the number of calls the measured time stands for
+	 * @see ProfileMonitor#addNanos(long, long)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void addNanos(final long nanos, final long n) {
+		long now = System.currentTimeMillis();
+		this.lastValue = nanos;
+		this.lastAccess = now;
+		this.counters.add(nanos, n, this.detailed);
+		if (this.detailed && (RollingWindow.DEFAULT_SECONDS > 0)) {
+			this.getRollingWindow().record(nanos, n, now);
 		}
-		if (value < this.min) {
-			this.min = value;
+		SimpleProfileMonitor parentMonitor = this.parent;
+		if (parentMonitor != null) {
+			parentMonitor.addFromChild(nanos, n, now);
 		}
-		if (value > this.max) {
-			this.max = value;
+	}
+
+	/**
+	 * The parents (e.g. the root monitor) get only the counters of their
+	 * childs but no histogram and no window. Otherwise each profiled call
+	 * would update the same histogram of the root monitor. The percentiles
+	 * of a parent are merged from its childs when they are read.
+	 *
+	 * @param nanos
+	 *            the measured time in nanoseconds
+	 * @param n
+	 *            the number of calls the measured time stands for
+	 * @param now
+	 *            the actual time in milliseconds
+	 */
+	private void addFromChild(final long nanos, final long n, final long now) {
+		this.lastValue = nanos;
+		this.lastAccess = now;
+		this.counters.add(nanos, n, false);
+		SimpleProfileMonitor parentMonitor = this.parent;
+		if (parentMonitor != null) {
+			parentMonitor.addFromChild(nanos, n, now);
 		}
 	}
 
@@ -267,7 +392,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public double getTotal() {
-		return this.total;
+		return toMillis(this.counters.total.sum());
 	}
 
 	/**
@@ -278,7 +403,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public double getLastValue() {
-		return this.lastValue;
+		return toMillis(this.lastValue);
 	}
 
 	/**
@@ -289,18 +414,20 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public double getMax() {
-		return this.max;
+		return toMillis(this.counters.max.get());
 	}
 
 	/**
-	 * Gets the min.
+	 * Gets the min. If no value was measured till now
+	 * {@link Double#MAX_VALUE} is returned.
 	 *
 	 * @return the min
 	 * @see ProfileMonitor#getMin()
 	 */
 	@Override
 	public double getMin() {
-		return this.min;
+		long value = this.counters.min.get();
+		return (value == Long.MAX_VALUE) ? Double.MAX_VALUE : toMillis(value);
 	}
 
 	/**
@@ -311,7 +438,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public int getHits() {
-		return this.hits;
+		return this.counters.hits.intValue();
 	}
 
 	/**
@@ -322,7 +449,107 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public double getAvg() {
-		return this.total / this.hits;
+		Counters c = this.counters;
+		return toMillis(c.total.sum()) / c.hits.sum();
+	}
+
+	/**
+	 * Gets the time for the given percentile. The time is taken from a
+	 * {@link LatencyHistogram} so it may differ up to 7% from the real value.
+	 *
+	 * @param percentile
+	 *            the percentile between 0 and 100 (e.g. 99.9)
+	 * @return the time (in ms) for the given percentile
+	 * @see ProfileMonitor#getPercentile(double)
+	 * @since 2.6.1
+	 */
+	@Override
+	public double getPercentile(final double percentile) {
+		LatencyHistogram h = this.getLatencyHistogram();
+		return (h == null) ? 0.0 : toMillis(h.getValueAtPercentile(percentile));
+	}
+
+	/**
+	 * Adds the sums of some measurements. This is used to fill snapshots.
+	 *
+	 * @param n
+	 *            the number of hits
+	 * @param nanos
+	 *            the total time in nanoseconds
+	 * @param minNanos
+	 *            the minimal time in nanoseconds
+	 * @param maxNanos
+	 *            the maximal time in nanoseconds
+	 */
+	void addSum(final long n, final long nanos, final long minNanos, final long maxNanos) {
+		Counters c = this.counters;
+		c.hits.add(n);
+		c.total.add(nanos);
+		c.min.accumulate(minNanos);
+		c.max.accumulate(maxNanos);
+	}
+
+	/**
+	 * Gets the sums of the measured values. All values are taken from the
+	 * same counters so a reset in between does not mix old and new values.
+	 * The last element is the generation of the counters. It changes with
+	 * each reset (and is different for each monitor), so a reset can be
+	 * detected by comparing it.
+	 *
+	 * @return hits, total, min and max time (in nanoseconds) and generation
+	 * @see #addSum(long, long, long, long)
+	 */
+	long[] getSums() {
+		Counters c = this.counters;
+		return new long[] { c.hits.sum(), c.total.sum(), c.min.get(), c.max.get(), c.generation };
+	}
+
+	/**
+	 * Gets the histogram with the own values and the values of all childs.
+	 * The histograms of the childs are merged on each call.
+	 *
+	 * @return the histogram or null if no value was recorded
+	 */
+	private LatencyHistogram getLatencyHistogram() {
+		LatencyHistogram h = this.counters.histogram;
+		if (this.childs.isEmpty()) {
+			return h;
+		}
+		LatencyHistogram merged = new LatencyHistogram();
+		if (h != null) {
+			merged.add(h);
+		}
+		for (SimpleProfileMonitor child : this.childs.values()) {
+			LatencyHistogram childHistogram = child.getLatencyHistogram();
+			if (childHistogram != null) {
+				merged.add(childHistogram);
+			}
+		}
+		return merged;
+	}
+
+	/**
+	 * The window is created not before the first value is added. So monitors
+	 * which are never called need no memory for it.
+	 *
+	 * @return the rolling window
+	 */
+	private RollingWindow getRollingWindow() {
+		RollingWindow w = this.window;
+		if (w == null) {
+			synchronized (this) {
+				w = this.window;
+				if (w == null) {
+					w = new RollingWindow();
+					this.window = w;
+				}
+			}
+		}
+		return w;
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / NANOS_PER_MILLI;
 	}
 
 	/**
@@ -355,7 +582,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public String toShortString() {
-		return "total: " + this.total + " ms / avg: " + this.getAvg() + " ms / hits: " + this.hits;
+		return "total: " + this.getTotal() + " ms / avg: " + this.getAvg() + " ms / hits: " + this.getHits();
 	}
 
 	/**
@@ -366,7 +593,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public String toCsvHeadline() {
-		return "Label; Unit; Total; Avg; Hits; Max; Min";
+		return "Label; Unit; Total; Avg; Hits; Max; Min; P50; P90; P99; P99.9";
 	}
 
 	/**
@@ -377,8 +604,16 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public String toCsvString() {
-		return '"' + this.getLabel() + "\"; ms; " + this.total + "; " + this.getAvg() + "; " + this.hits + "; "
-				+ this.getMax() + "; " + this.getMin();
+		StringBuilder buf = new StringBuilder();
+		buf.append('"').append(this.getLabel()).append("\"; ms; ").append(this.getTotal()).append("; ")
+				.append(this.getAvg()).append("; ").append(this.getHits()).append("; ").append(this.getMax())
+				.append("; ").append(this.getMin());
+		LatencyHistogram h = this.getLatencyHistogram();
+		long[] values = (h == null) ? new long[4] : h.getValuesAtPercentiles(50, 90, 99, 99.9);
+		for (long value : values) {
+			buf.append("; ").append(toMillis(value));
+		}
+		return buf.toString();
 	}
 
 	/**
@@ -422,7 +657,7 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public Date getFirstAccess() {
-		return (Date) this.firstAccess.clone();
+		return new Date(this.firstAccess);
 	}
 
 	/**
@@ -433,7 +668,17 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 	 */
 	@Override
 	public Date getLastAccess() {
-		return (Date) this.lastAccess.clone();
+		return new Date(this.lastAccess);
+	}
+
+	/**
+	 * Gets the last access in milliseconds. In contrast to
+	 * {@link #getLastAccess()} no object is created.
+	 *
+	 * @return the last access in milliseconds
+	 */
+	long getLastAccessMillis() {
+		return this.lastAccess;
 	}
 
 	/**
@@ -474,4 +719,52 @@ public final class SimpleProfileMonitor extends AbstractProfileMonitor {
 		return this.label.hashCode();
 	}
 
+	/**
+	 * The measured values of a monitor. They are held together in one object
+	 * so that they can be swapped as a whole.
+	 */
+	private static final class Counters {
+
+		private static final AtomicLong GENERATIONS = new AtomicLong();
+		private final long generation = GENERATIONS.incrementAndGet();
+		/** the measured time in nanoseconds */
+		private final LongAdder total = new LongAdder();
+		/** number of calls (or "hits") */
+		private final LongAdder hits = new LongAdder();
+		private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+		private volatile LatencyHistogram histogram;
+
+		private void add(final long nanos, final long n, final boolean withHistogram) {
+			this.total.add(nanos * n);
+			this.hits.add(n);
+			this.min.accumulate(nanos);
+			this.max.accumulate(nanos);
+			if (withHistogram) {
+				this.getHistogram().record(nanos, n);
+			}
+		}
+
+		/**
+		 * The histogram is created not before the first value is added. So
+		 * monitors which are never called are cheap.
+		 *
+		 * @return the histogram
+		 */
+		private LatencyHistogram getHistogram() {
+			LatencyHistogram h = this.histogram;
+			if (h == null) {
+				synchronized (this) {
+					h = this.histogram;
+					if (h == null) {
+						h = new LatencyHistogram();
+						this.histogram = h;
+					}
+				}
+			}
+			return h;
+		}
+
+	}
+
 }
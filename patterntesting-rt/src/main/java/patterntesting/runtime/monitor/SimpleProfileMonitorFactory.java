@@ -18,10 +18,19 @@
 
 package patterntesting.runtime.monitor;
 
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import patterntesting.runtime.util.Environment;
+import patterntesting.runtime.util.SignatureHelper;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This was the counterpart to JamonMonitorFactory. It encapsulate the different
@@ -36,7 +45,14 @@ import java.util.List;
 public final class SimpleProfileMonitorFactory extends ProfileMonitorFactory {
 
 	private static final Logger LOG = LoggerFactory.getLogger(SimpleProfileMonitorFactory.class);
+	private final Map<JoinPoint.StaticPart, SimpleProfileMonitor> staticParts = new ConcurrentHashMap<>();
+	/** reverse map of staticParts (guarded by 'this') to evict in constant time */
+	private final Map<SimpleProfileMonitor, List<JoinPoint.StaticPart>> cachedStaticParts = new IdentityHashMap<>();
+	private final MonitorPool pool = new MonitorPool();
+	private final LongAdder evictions = new LongAdder();
 	private int maxSize = Integer.MAX_VALUE;
+	private volatile EvictionPolicy evictionPolicy = EvictionPolicy
+			.valueOf(System.getProperty(Environment.PROFILE_EVICTION_POLICY, EvictionPolicy.LRU.name()));
 
 	/**
 	 * Instantiates a new jamon monitor factory.
@@ -69,58 +85,82 @@ public final class SimpleProfileMonitorFactory extends ProfileMonitorFactory {
 	@Override
 	public ProfileMonitor getMonitor(final String label) {
 		SimpleProfileMonitor parent = this.getSimpleProfileMonitor(label);
-		return new SimpleProfileMonitor(label, parent);
+		return SimpleProfileMonitor.createCallMonitor(parent);
+	}
+
+	/**
+	 * Gets the monitor for the given static part of a joinpoint. The monitor
+	 * is cached so that the signature must be converted only once to a label.
+	 *
+	 * @param jpsp
+	 *            the static part of the joinpoint
+	 * @return the monitor
+	 * @see ProfileMonitorFactory#getMonitor(JoinPoint.StaticPart)
+	 * @since 2.6.1
+	 */
+	@Override
+	public ProfileMonitor getMonitor(final JoinPoint.StaticPart jpsp) {
+		SimpleProfileMonitor monitor = this.staticParts.get(jpsp);
+		if (monitor == null) {
+			monitor = this.createMonitorFor(jpsp);
+		}
+		return monitor;
+	}
+
+	private synchronized SimpleProfileMonitor createMonitorFor(final JoinPoint.StaticPart jpsp) {
+		SimpleProfileMonitor monitor = this.staticParts.get(jpsp);
+		if (monitor == null) {
+			monitor = this.getSimpleProfileMonitor(SignatureHelper.getAsString(jpsp.getSignature()));
+			this.staticParts.put(jpsp, monitor);
+			this.cachedStaticParts.computeIfAbsent(monitor, m -> new ArrayList<>(1)).add(jpsp);
+			LOG.trace("{} is cached for '{}'.", monitor, jpsp);
+		}
+		return monitor;
 	}
 
 	private SimpleProfileMonitor getSimpleProfileMonitor(final String sig) {
 		SimpleProfileMonitor monitor = this.rootMonitor.getMonitor(sig);
 		if (monitor == null) {
+			monitor = this.createSimpleProfileMonitor(sig);
+		}
+		return monitor;
+	}
+
+	private synchronized SimpleProfileMonitor createSimpleProfileMonitor(final String sig) {
+		SimpleProfileMonitor monitor = this.rootMonitor.getMonitor(sig);
+		if (monitor == null) {
+			this.evict(this.maxSize - 1);
 			monitor = new SimpleProfileMonitor(sig, this.rootMonitor);
-			int tooMuch = this.rootMonitor.getNumberOfMonitors() - maxSize;
-			for (int i = 0; i < tooMuch; i++) {
-				ProfileMonitor[] monitors = this.rootMonitor.getMonitors();
-				SimpleProfileMonitor oldest = getOldestMonitorOf(monitors);
-				this.removeMonitor(oldest);
-			}
+			this.pool.add(monitor);
 		}
 		return monitor;
 	}
 
-	private void removeMonitor(final SimpleProfileMonitor monitor) {
-		this.rootMonitor.removeMonitor(monitor);
+	/**
+	 * Evicts monitors until not more than the given number of monitors is
+	 * left. Which monitor is evicted is decided by the eviction policy.
+	 *
+	 * @param size
+	 *            the number of monitors which may remain
+	 */
+	private void evict(final int size) {
+		while (this.pool.size() > Math.max(size, 0)) {
+			SimpleProfileMonitor victim = this.pool.selectVictim(this.evictionPolicy);
+			this.removeMonitor(victim);
+			this.evictions.increment();
+			LOG.trace("{} is evicted ({}).", victim, this.evictionPolicy);
+		}
 	}
 
-	private static SimpleProfileMonitor getOldestMonitorOf(final ProfileMonitor[] monitors) {
-		ProfileMonitor oldest = monitors[0];
-		int maxHits = oldest.getHits();
-		double maxAvg = oldest.getAvg();
-		double maxTotal = oldest.getTotal();
-		double maxMax = oldest.getMax();
-		for (int i = 1; i < monitors.length; i++) {
-			ProfileMonitor mon = monitors[i];
-			if (mon == null) {
-				LOG.info("Will return {} as oldest because monitor {} is null (lost?).", oldest, i);
-				break;
-			}
-			if (oldest.getLastAccess().after(mon.getFirstAccess()) && mon.getHits() <= maxHits && mon.getAvg() <= maxAvg
-					&& mon.getTotal() <= maxTotal && mon.getMax() <= maxMax) {
-				oldest = mon;
-			} else {
-				if (mon.getHits() > maxHits) {
-					maxHits = mon.getHits();
-				}
-				if (mon.getAvg() > maxAvg) {
-					maxAvg = mon.getAvg();
-				}
-				if (mon.getTotal() > maxTotal) {
-					maxTotal = mon.getTotal();
-				}
-				if (mon.getMax() > maxMax) {
-					maxMax = mon.getMax();
-				}
+	private void removeMonitor(final SimpleProfileMonitor monitor) {
+		this.rootMonitor.removeMonitor(monitor);
+		this.pool.remove(monitor);
+		List<JoinPoint.StaticPart> cached = this.cachedStaticParts.remove(monitor);
+		if (cached != null) {
+			for (JoinPoint.StaticPart jpsp : cached) {
+				this.staticParts.remove(jpsp);
 			}
 		}
-		return (SimpleProfileMonitor) oldest;
 	}
 
 	/**
@@ -142,16 +182,48 @@ public final class SimpleProfileMonitorFactory extends ProfileMonitorFactory {
 	 * @since 1.6
 	 */
 	@Override
-	public void setMaxNumMonitors(final int size) {
+	public synchronized void setMaxNumMonitors(final int size) {
 		maxSize = size;
-		ProfileMonitor[] monitors = this.rootMonitor.getMonitors();
-		int tooMuch = monitors.length - size;
-		for (int i = 0; i < tooMuch; i++) {
-			SimpleProfileMonitor oldest = getOldestMonitorOf(monitors);
-			this.removeMonitor(oldest);
-			monitors = this.rootMonitor.getMonitors();
-		}
-		LOG.debug("Max size is set to {}, actual size is {}.", size, monitors.length);
+		this.evict(size);
+		LOG.debug("Max size is set to {}, actual size is {}.", size, this.pool.size());
+	}
+
+	/**
+	 * Sets the eviction policy.
+	 *
+	 * @param policy
+	 *            the new eviction policy
+	 * @see ProfileMonitorFactory#setEvictionPolicy(EvictionPolicy)
+	 * @since 2.6.1
+	 */
+	@Override
+	public void setEvictionPolicy(final EvictionPolicy policy) {
+		this.evictionPolicy = policy;
+		LOG.debug("Eviction policy is set to {}.", policy);
+	}
+
+	/**
+	 * Gets the eviction policy.
+	 *
+	 * @return the eviction policy
+	 * @see ProfileMonitorFactory#getEvictionPolicy()
+	 * @since 2.6.1
+	 */
+	@Override
+	public EvictionPolicy getEvictionPolicy() {
+		return this.evictionPolicy;
+	}
+
+	/**
+	 * Gets the number of evicted monitors.
+	 *
+	 * @return the number of evictions
+	 * @see ProfileMonitorFactory#getEvictions()
+	 * @since 2.6.1
+	 */
+	@Override
+	public long getEvictions() {
+		return this.evictions.sum();
 	}
 
 	/**
@@ -160,8 +232,11 @@ public final class SimpleProfileMonitorFactory extends ProfileMonitorFactory {
 	 * @see ProfileMonitorFactory#reset()
 	 */
 	@Override
-	public void reset() {
+	public synchronized void reset() {
 		this.rootMonitor.reset();
+		this.pool.clear();
+		this.staticParts.clear();
+		this.cachedStaticParts.clear();
 	}
 
 	/**
@@ -173,7 +248,14 @@ public final class SimpleProfileMonitorFactory extends ProfileMonitorFactory {
 	 */
 	@Override
 	public void addMonitors(final List<String> labels) {
-		this.rootMonitor.addChildren(labels);
+		for (String lbl : labels) {
+			try {
+				Signature sig = SignatureHelper.getAsSignature(lbl);
+				this.getSimpleProfileMonitor(SignatureHelper.getAsString(sig));
+			} catch (ReflectiveOperationException ex) {
+				LOG.info("Cannot add monitor for '{}':", lbl, ex);
+			}
+		}
 	}
 
 }
@@ -76,6 +76,81 @@ public class Environment {
 	/** System property for annotation SmokeTest. */
 	public static final String RUN_SMOKE_TESTS = "patterntesting.runSmokeTests";
 
+	/** System property for the sample rate of profiling (e.g. "100"). */
+	public static final String PROFILE_SAMPLE_RATE = "patterntesting.profile.sampleRate";
+
+	/** System property for the maximal number of profiled calls per second. */
+	public static final String PROFILE_SAMPLES_PER_SECOND = "patterntesting.profile.samplesPerSecond";
+
+	/** System property for the size of the profiling window in seconds. */
+	public static final String PROFILE_WINDOW_SECONDS = "patterntesting.profile.windowSeconds";
+
+	/** System property for the eviction policy of profiling (LRU, LFU or LEAST_TOTAL). */
+	public static final String PROFILE_EVICTION_POLICY = "patterntesting.profile.evictionPolicy";
+
+	/** System property for the directory where profiling data is exported periodically. */
+	public static final String PROFILE_EXPORT_DIR = "patterntesting.profile.exportDir";
+
+	/** System property for the export period of profiling data in seconds. */
+	public static final String PROFILE_EXPORT_PERIOD = "patterntesting.profile.exportPeriod";
+
+	/** System property to enable the asynchronous trace output. */
+	public static final String TRACE_ASYNC = "patterntesting.trace.async";
+
+	/** System property for the number of buffered trace events (default is 8192). */
+	public static final String TRACE_BUFFER_SIZE = "patterntesting.trace.bufferSize";
+
+	/** System property for the overflow policy of the trace buffer (DROP or WAIT). */
+	public static final String TRACE_OVERFLOW = "patterntesting.trace.overflow";
+
+	/** System property for the file of the binary trace. */
+	public static final String TRACE_FILE = "patterntesting.trace.file";
+
+	/** System property for the size of the binary trace file in bytes (default is 64 MB). */
+	public static final String TRACE_FILE_SIZE = "patterntesting.trace.fileSize";
+
+	/** System property for the size of a thread region of the binary trace file in bytes (default is 1 MB). */
+	public static final String TRACE_REGION_SIZE = "patterntesting.trace.regionSize";
+
+	/** System property for the default mode of @RunBackground (THREAD, POOL or VIRTUAL). */
+	public static final String RUN_BACKGROUND_MODE = "patterntesting.runBackground.mode";
+
+	/** System property for the number of threads of the @RunBackground pool. */
+	public static final String RUN_BACKGROUND_POOL_SIZE = "patterntesting.runBackground.poolSize";
+
+	/** System property for the size of the queue of the @RunBackground pool. */
+	public static final String RUN_BACKGROUND_QUEUE_SIZE = "patterntesting.runBackground.queueSize";
+
+	/** System property for the rejection policy of the @RunBackground pool (CALLER_RUNS, ABORT or DISCARD). */
+	public static final String RUN_BACKGROUND_REJECTION = "patterntesting.runBackground.rejection";
+
+	/** System property to record the lock order of @Synchronized methods (lock graph). */
+	public static final String LOCK_GRAPH = "patterntesting.lockGraph";
+
+	/** System property to select the serializer (e.g. "compact" or a class name). */
+	public static final String SERIALIZER = "patterntesting.serializer";
+
+	/** System property for the size of a block (in bytes) of the object recorder. */
+	public static final String RECORDER_BATCH_SIZE = "patterntesting.recorder.batchSize";
+
+	/** System property for the max. time (in ms) between two blocks of the object recorder. */
+	public static final String RECORDER_FLUSH_MILLIS = "patterntesting.recorder.flushMillis";
+
+	/** System property for the number of blocks which are cached by a lazy object player. */
+	public static final String PLAYER_CACHE_SIZE = "patterntesting.player.cacheSize";
+
+	/** System property for the number of statements after which a concurrent sequence diagram is flushed. */
+	public static final String SEQUENCE_DIAGRAM_FLUSH_SIZE = "patterntesting.sequenceDiagram.flushSize";
+
+	/** System property to enable the call tree of profiling. */
+	public static final String PROFILE_CALL_TREE = "patterntesting.profile.callTree";
+
+	/** System property for the max. depth of the call tree. */
+	public static final String PROFILE_CALL_TREE_MAX_DEPTH = "patterntesting.profile.callTree.maxDepth";
+
+	/** System property for the max. number of callees per node of the call tree. */
+	public static final String PROFILE_CALL_TREE_MAX_WIDTH = "patterntesting.profile.callTree.maxWidth";
+
 	/** True if property for integration test is set. */
 	public static final boolean INTEGRATION_TEST_ENABLED = Environment.isPropertyEnabled(Environment.INTEGRATION_TEST);
 
@@ -28,6 +28,7 @@ import java.io.File;
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * The Class AbstractSerializerTest.
@@ -67,5 +68,16 @@ public abstract class AbstractSerializerTest {
         }
     }
 
+    /**
+     * The serializer should be found by its name and by its class name.
+     */
+    @Test
+    public void testGetInstanceByName() {
+        assertEquals(serializer.getClass(), AbstractSerializer.getInstance(serializer.getName()).getClass());
+        assertEquals(serializer.getClass(),
+                AbstractSerializer.getInstance(serializer.getClass().getName()).getClass());
+        assertThrows(IllegalArgumentException.class, () -> AbstractSerializer.getInstance("unknown"));
+    }
+
 }
 
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.io;
+
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests for {@link CompactSerializer} class.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class CompactSerializerTest extends AbstractSerializerTest {
+
+    /**
+     * Gets the serializer.
+     *
+     * @return the serializer
+     * @see AbstractSerializerTest#getSerializer()
+     */
+    @Override
+    protected AbstractSerializer getSerializer() {
+        return new CompactSerializer();
+    }
+
+    /**
+     * Tests some standard objects.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testStandardObjects() throws IOException {
+        List<Object> list = new ArrayList<>(Arrays.asList("a", 1, 2L, 3.0, 4.0f, (short) 5, (byte) 6, 'c', true,
+                null, TimeUnit.SECONDS, String.class, int.class));
+        Map<String, Object> map = new HashMap<>();
+        map.put("list", list);
+        map.put("date", new Date(1234567890L));
+        map.put("decimal", new BigDecimal("3.14"));
+        map.put("integer", new BigInteger("-12345678901234567890"));
+        map.put("timestamp", new Timestamp(1234567890L));
+        map.put("sorted", new TreeSet<>(Collections.reverseOrder()));
+        map.put("unmodifiable", Collections.unmodifiableList(Arrays.asList("x", "y")));
+        assertEquals(map, saveAndLoad(map));
+        assertEquals(list, saveAndLoad(list));
+    }
+
+    /**
+     * Tests arrays.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testArrays() throws IOException {
+        assertArrayEquals(new int[] { 1, 2, 3 }, (int[]) saveAndLoad(new int[] { 1, 2, 3 }));
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) saveAndLoad(new byte[] { 1, 2, 3 }));
+        assertArrayEquals(new String[] { "a", null, "a" }, (String[]) saveAndLoad(new String[] { "a", null, "a" }));
+        assertArrayEquals(new long[][] { { 1L }, { 2L, 3L } },
+                (long[][]) saveAndLoad(new long[][] { { 1L }, { 2L, 3L } }));
+    }
+
+    /**
+     * Tests a simple bean (which is not serializable) with a cycle.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testBean() throws IOException {
+        Bean bean = new Bean("hello", 42);
+        bean.self = bean;
+        bean.values = new double[] { 1.5, 2.5 };
+        Bean loaded = (Bean) saveAndLoad(bean);
+        assertEquals(bean, loaded);
+        assertSame(loaded, loaded.self);
+    }
+
+    /**
+     * A class without default constructor which is not serializable cannot
+     * be written.
+     */
+    @Test
+    public void testNotSerializable() {
+        assertThrows(NotSerializableException.class, () -> saveAndLoad(new Thread()));
+    }
+
+    /**
+     * The class description should be written only once and should be
+     * shorter than the class description of the default Java serialization.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testClassDescriptionOnce() throws IOException {
+        int compactSize = sizeOf(new CompactSerializer());
+        int binarySize = sizeOf(new BinarySerializer());
+        assertTrue(compactSize < binarySize, "compact: " + compactSize + ", binary: " + binarySize);
+    }
+
+    private static int sizeOf(final AbstractSerializer serializer) throws IOException {
+        ByteArrayOutputStream ostream = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = serializer.createObjectOutputStream(ostream)) {
+            for (int i = 0; i < 100; i++) {
+                oos.writeObject(new SerialBean("bean" + i, i));
+            }
+        }
+        return ostream.size();
+    }
+
+    /**
+     * Primitive values and objects can be mixed in the same stream.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws ClassNotFoundException the class not found exception
+     */
+    @Test
+    public void testMixedStream() throws IOException, ClassNotFoundException {
+        AbstractSerializer serializer = getSerializer();
+        ByteArrayOutputStream ostream = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = serializer.createObjectOutputStream(ostream)) {
+            oos.writeByte(1);
+            oos.writeInt(2);
+            oos.writeObject("three");
+            oos.writeUTF("four");
+            oos.writeObject("three");
+        }
+        try (ObjectInputStream ois = serializer.createObjectInputStream(
+                new ByteArrayInputStream(ostream.toByteArray()))) {
+            assertEquals(1, ois.readByte());
+            assertEquals(2, ois.readInt());
+            Object three = ois.readObject();
+            assertEquals("three", three);
+            assertEquals("four", ois.readUTF());
+            assertSame(three, ois.readObject());
+        }
+    }
+
+    private Object saveAndLoad(final Object obj) throws IOException {
+        AbstractSerializer serializer = getSerializer();
+        ByteArrayOutputStream ostream = new ByteArrayOutputStream();
+        serializer.save(obj, ostream);
+        return serializer.load(new ByteArrayInputStream(ostream.toByteArray()));
+    }
+
+    /**
+     * A simple bean which is not serializable.
+     */
+    static class Bean {
+
+        private final String name;
+        private final int number;
+        private double[] values;
+        private Bean self;
+        private transient String ignored = "ignored";
+
+        private Bean() {
+            this(null, 0);
+        }
+
+        Bean(final String name, final int number) {
+            this.name = name;
+            this.number = number;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Bean)) {
+                return false;
+            }
+            Bean other = (Bean) obj;
+            return Objects.equals(this.name, other.name) && (this.number == other.number)
+                    && Arrays.equals(this.values, other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, number);
+        }
+
+        @Override
+        public String toString() {
+            return "Bean " + name + "/" + number + " " + ignored;
+        }
+
+    }
+
+    /**
+     * A serializable bean.
+     */
+    static class SerialBean implements java.io.Serializable {
+
+        private static final long serialVersionUID = 20261018L;
+        private String name;
+        private int number;
+
+        SerialBean() {
+        }
+
+        SerialBean(final String name, final int number) {
+            this.name = name;
+            this.number = number;
+        }
+
+        @Override
+        public String toString() {
+            return "SerialBean " + name + "/" + number;
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+
+package patterntesting.runtime.io;
+
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import patterntesting.runtime.annotation.IntegrationTest;
+import patterntesting.runtime.junit.extension.SmokeTestExtension;
+
+/**
+ * Compares the available serializers (xstream, binary, compact) with typical
+ * recorded return values. Like a JMH benchmark each serializer is warmed up
+ * first and then measured in several iterations. The results (time per
+ * round trip and size) are logged.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+@ExtendWith(SmokeTestExtension.class)
+public final class SerializerBenchmarkTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SerializerBenchmarkTest.class);
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int ITERATIONS = 10;
+    private static final int OPERATIONS = 1000;
+    private final List<Object> values = createRecordedValues();
+
+    /**
+     * Benchmark of all available serializers.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    @IntegrationTest("benchmark of the serializers")
+    public void benchmarkSerializers() throws IOException {
+        for (AbstractSerializer serializer : AbstractSerializer.getAvailableSerializers()) {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                roundTrip(serializer);
+            }
+            long best = Long.MAX_VALUE;
+            long total = 0L;
+            int size = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long t0 = System.nanoTime();
+                size = roundTrip(serializer);
+                long t = System.nanoTime() - t0;
+                best = Math.min(best, t);
+                total += t;
+            }
+            LOG.info("{}: {} us/op (best {} us/op), {} bytes/op", String.format("%-8s", serializer.getName()),
+                    total / ITERATIONS / OPERATIONS / 1000.0, best / OPERATIONS / 1000.0, size / OPERATIONS);
+        }
+    }
+
+    /**
+     * Writes the values OPERATIONS times (each time in a new stream as the
+     * {@link patterntesting.runtime.log.ObjectRecorder} does it in the
+     * container format) and reads them again.
+     */
+    private int roundTrip(final AbstractSerializer serializer) throws IOException {
+        int size = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            ByteArrayOutputStream ostream = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = serializer.createObjectOutputStream(ostream)) {
+                oos.writeObject(values);
+            }
+            size += ostream.size();
+            try (ObjectInputStream ois = serializer.createObjectInputStream(
+                    new ByteArrayInputStream(ostream.toByteArray()))) {
+                assertEquals(values, ois.readObject());
+            } catch (ClassNotFoundException ex) {
+                throw new IOException(ex);
+            }
+        }
+        return size;
+    }
+
+    private static List<Object> createRecordedValues() {
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("name", "name-" + i);
+            row.put("amount", new BigDecimal(i + ".99"));
+            row.put("created", new Date(1_000_000L * i));
+            row.put("active", (i % 2) == 0);
+            list.add(row);
+        }
+        list.add("Hello World!");
+        list.add(42L);
+        list.add(3.14);
+        return list;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+import patterntesting.runtime.mock.JoinPointStaticPartMock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link BinaryTraceViewer}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class BinaryTraceViewerTest {
+
+    private final JoinPoint.StaticPart hello = new JoinPointStaticPartMock("hello");
+    private final JoinPoint.StaticPart world = new JoinPointStaticPartMock("world");
+
+    /**
+     * The calls should be printed indented and the timing of each method
+     * should be summarized.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testPrintTo() throws IOException, InterruptedException {
+        File file = File.createTempFile("test", ".ptbt");
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(file, 64 * 1024, 4096)) {
+            writer.write(BinaryTraceWriter.START, hello, 0);
+            writer.write(BinaryTraceWriter.START, world, 1);
+            writer.write(BinaryTraceWriter.END, world, 1);
+            writer.write(BinaryTraceWriter.THROWING, hello, 0);
+            Thread t = new Thread(() -> {
+                writer.write(BinaryTraceWriter.START, world, 0);
+                writer.write(BinaryTraceWriter.END, world, 0);
+            });
+            t.start();
+            t.join();
+        }
+        BinaryTraceViewer viewer = new BinaryTraceViewer(file);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        viewer.printTo(new PrintStream(bytes, true, "UTF-8"));
+        String output = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(output.contains("\n" + Trace.indent(1) + "> " + world), output);
+        Map<String, long[]> timings = viewer.getTimings();
+        assertEquals(2, timings.size(), timings.keySet().toString());
+        assertEquals(2, timings.get(world.getSignature().toString())[0]);
+        assertTrue(file.delete());
+        assertTrue(BinaryTraceWriter.getIndexFile(file).delete());
+    }
+
+    /**
+     * Other files should be rejected.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testInvalidFile() throws IOException {
+        File file = File.createTempFile("test", ".ptbt");
+        File indexFile = BinaryTraceWriter.getIndexFile(file);
+        assertTrue(indexFile.createNewFile());
+        try {
+            assertThrows(IOException.class, () -> new BinaryTraceViewer(file));
+        } finally {
+            assertTrue(file.delete());
+            assertTrue(indexFile.delete());
+        }
+    }
+
+}
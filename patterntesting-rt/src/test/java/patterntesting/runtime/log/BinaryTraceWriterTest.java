@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+import patterntesting.runtime.mock.JoinPointStaticPartMock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link BinaryTraceWriter}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class BinaryTraceWriterTest {
+
+    private final JoinPoint.StaticPart hello = new JoinPointStaticPartMock("hello");
+
+    /**
+     * Each joinpoint and each thread should be written only once to the
+     * index file.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        File file = File.createTempFile("test", ".ptbt");
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(file, 64 * 1024, 4096)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(BinaryTraceWriter.START, hello, 0);
+                writer.write(BinaryTraceWriter.END, hello, 0);
+            }
+            assertEquals(0, writer.getDropped());
+        }
+        File indexFile = BinaryTraceWriter.getIndexFile(file);
+        List<String> lines = Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size(), lines.toString());
+        assertTrue(file.delete());
+        assertTrue(indexFile.delete());
+    }
+
+    /**
+     * If no region is left the records should be dropped.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testDropped() throws IOException {
+        File file = File.createTempFile("test", ".ptbt");
+        int regionSize = BinaryTraceWriter.REGION_HEADER_SIZE + 4 * BinaryTraceWriter.RECORD_SIZE;
+        try (BinaryTraceWriter writer = new BinaryTraceWriter(file, BinaryTraceWriter.HEADER_SIZE + regionSize,
+                regionSize)) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(BinaryTraceWriter.START, hello, i);
+            }
+            assertEquals(6, writer.getDropped());
+        }
+        assertTrue(file.delete());
+        assertTrue(BinaryTraceWriter.getIndexFile(file).delete());
+    }
+
+}
@@ -18,7 +18,13 @@
 
 package patterntesting.runtime.log;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.aspectj.lang.JoinPoint;
 import org.junit.jupiter.api.Test;
@@ -71,6 +77,78 @@ public class LazyObjectRecorderTest extends ObjectRecorderTest {
         FileTester.assertContentEquals(f3, f4);
     }
 
+    /**
+     * With the container format repeated values are stored only once with
+     * the number of repetitions. The same values must be replayed from a
+     * much smaller file.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testRepeatedValues() throws IOException {
+        File serialized = createFile("test-repeated.ser");
+        File container = createFile("test-repeated.rec");
+        JoinPoint jp = recordRepeated(new LazyObjectRecorder(serialized));
+        recordRepeated(new LazyObjectRecorder(container, RecordFormat.CONTAINER));
+        assertTrue(container.length() * 10 < serialized.length(),
+                container + " (" + container.length() + " bytes) is not much smaller than " + serialized + " ("
+                        + serialized.length() + " bytes)");
+        ObjectPlayer player = new ObjectPlayer(container);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("a", player.getReturnValue(jp));
+        }
+        assertEquals("b", player.getReturnValue(jp));
+        assertEquals(new ObjectPlayer(serialized), new ObjectPlayer(container));
+    }
+
+    private static JoinPoint recordRepeated(final LazyObjectRecorder recorder) {
+        Object[] values = new Object[1001];
+        for (int i = 0; i < 1000; i++) {
+            values[i] = "a";
+        }
+        values[1000] = "b";
+        return recordWith(recorder, values);
+    }
+
+    /**
+     * Several threads record the same joinpoint. No repetition should get
+     * lost.
+     *
+     * @throws InterruptedException the interrupted exception
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testConcurrentRecording() throws InterruptedException, IOException {
+        checkConcurrentRecording(RecordFormat.COMPRESSED_CONTAINER);
+        checkConcurrentRecording(RecordFormat.SERIALIZED);
+    }
+
+    private static void checkConcurrentRecording(final RecordFormat format) throws InterruptedException, IOException {
+        File record = createFile("test-concurrent-" + format + ".rec");
+        LazyObjectRecorder recorder = new LazyObjectRecorder(record, format);
+        JoinPoint jp = new JoinPointMock("lazy");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    recorder.log(jp, "a");
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        recorder.log(jp, "b");
+        recorder.close();
+        ObjectPlayer player = new ObjectPlayer(record, true);
+        for (int i = 0; i < 8000; i++) {
+            assertEquals("a", player.getReturnValue(jp));
+        }
+        assertEquals("b", player.getReturnValue(jp));
+    }
+
     private static File createRecord(final String filename, final Object... returnValues) {
         File record = createFile(filename);
         LazyObjectRecorder recorder = new LazyObjectRecorder(record);
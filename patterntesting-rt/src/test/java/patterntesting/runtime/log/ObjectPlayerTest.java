@@ -19,6 +19,8 @@
 package patterntesting.runtime.log;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
@@ -57,6 +59,106 @@ public final class ObjectPlayerTest {
         checkReplay(file, jp);
     }
 
+    /**
+     * The same test as {@link #testReplay()} but with the container format.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testReplayContainer() throws IOException {
+        checkReplay(RecordFormat.CONTAINER);
+    }
+
+    /**
+     * The same test as {@link #testReplay()} but with the compressed
+     * container format.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testReplayCompressedContainer() throws IOException {
+        checkReplay(RecordFormat.COMPRESSED_CONTAINER);
+    }
+
+    private static void checkReplay(final RecordFormat format) throws IOException {
+        File file = File.createTempFile("test", ".rec");
+        try (ObjectRecorder recorder = new ObjectRecorder(file, format)) {
+            assertEquals(format, recorder.getFormat());
+            save(recorder, "a", "b", "c");
+        }
+        checkReplay(file, testJoinPoint);
+    }
+
+    /**
+     * With lazy loading the values of an indexed container are loaded on
+     * demand. The result must be the same.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testReplayLazy() throws IOException {
+        File file = File.createTempFile("test", ".rec");
+        try (ObjectRecorder recorder = new ObjectRecorder(file, RecordFormat.COMPRESSED_CONTAINER)) {
+            save(recorder, "a", "b", "c");
+        }
+        ObjectPlayer player = new ObjectPlayer(file, true);
+        assertTrue(player.isLazy());
+        assertEquals("a", player.getReturnValue(testJoinPoint));
+        assertEquals("b", player.getReturnValue(testJoinPoint));
+        assertEquals("c", player.getReturnValue(testJoinPoint));
+        assertEquals("c", player.getReturnValue(testJoinPoint));
+        checkReplay(file, testJoinPoint);
+    }
+
+    /**
+     * A container in a ".gz" file has no index which could be used. So it
+     * is loaded completely, also if lazy loading is wanted.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testReplayCompressedFile() throws IOException {
+        File file = File.createTempFile("test", ".rec.gz");
+        try (ObjectRecorder recorder = new ObjectRecorder(file, RecordFormat.CONTAINER)) {
+            save(recorder, "a", "b", "c");
+        }
+        ObjectPlayer player = new ObjectPlayer(file, true);
+        assertFalse(player.isLazy());
+        checkReplay(file, testJoinPoint);
+    }
+
+    /**
+     * The container formats should be smaller than the serialized format
+     * because the joinpoint is stored only once.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testContainerSize() throws IOException {
+        checkContainerSize(RecordFormat.CONTAINER);
+        checkContainerSize(RecordFormat.COMPRESSED_CONTAINER);
+    }
+
+    private static void checkContainerSize(final RecordFormat format) throws IOException {
+        File serialized = record(RecordFormat.SERIALIZED);
+        File container = record(format);
+        LOG.info("{}: {} bytes, {}: {} bytes", serialized, serialized.length(), container, container.length());
+        assertTrue(container.length() < serialized.length(),
+                container + " is not smaller than " + serialized);
+        ObjectPlayer player = new ObjectPlayer(container);
+        assertEquals(new ObjectPlayer(serialized), player);
+    }
+
+    private static File record(final RecordFormat format) throws IOException {
+        File file = File.createTempFile("test-" + format, ".rec");
+        try (ObjectRecorder recorder = new ObjectRecorder(file, format)) {
+            for (int i = 0; i < 1000; i++) {
+                save(recorder, "value" + (i % 10));
+            }
+        }
+        return file;
+    }
+
     /**
      * The file from the previous test {@link #testReplay()} was compressed to
      * test if it can be reloaded again.
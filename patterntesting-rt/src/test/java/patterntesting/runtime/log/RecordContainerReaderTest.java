@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import patterntesting.runtime.io.AbstractSerializer;
+
+/**
+ * Unit tests for {@link RecordContainerReader}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class RecordContainerReaderTest {
+
+    /**
+     * The values should be loaded block by block and only the last blocks
+     * should be kept in memory.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testGetReturnValue() throws IOException {
+        File file = record(true, 100);
+        RecordContainerReader reader = new RecordContainerReader(file, 2);
+        assertEquals(3, reader.size());
+        for (int i = 1; i < 100; i += 3) {
+            assertEquals(i, reader.getReturnValue("jp1"));
+        }
+        int loaded = reader.getLoadedBlocks();
+        assertTrue(loaded > 2, "only " + loaded + " blocks loaded");
+        assertEquals(97, reader.getReturnValue("jp1"));
+        assertEquals(0, reader.getReturnValue("jp0"));
+        assertTrue(reader.getLoadedBlocks() > loaded);
+        assertNull(reader.getReturnValue("unknown"));
+    }
+
+    /**
+     * A container without compression should be read in the same way.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testGetReturnValueUncompressed() throws IOException {
+        File file = record(false, 10);
+        RecordContainerReader reader = new RecordContainerReader(file);
+        assertEquals(2, reader.getReturnValue("jp2"));
+        assertEquals(5, reader.getReturnValue("jp2"));
+    }
+
+    /**
+     * A container which was not closed has no index.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testIsIndexed() throws IOException {
+        assertTrue(RecordContainerReader.isIndexed(record(true, 10)));
+        File file = File.createTempFile("unclosed", ".rec");
+        try (OutputStream ostream = new FileOutputStream(file)) {
+            RecordContainerWriter writer = new RecordContainerWriter(ostream, AbstractSerializer.getInstance(),
+                    true, 16, Long.MAX_VALUE);
+            writer.write("jp", "value");
+            writer.flush();
+        }
+        assertFalse(RecordContainerReader.isIndexed(file));
+        assertEquals("value", new ObjectPlayer(file, true).getReturnValue("jp"));
+    }
+
+    private static File record(final boolean compressed, final int n) throws IOException {
+        File file = File.createTempFile("indexed", ".rec");
+        try (OutputStream ostream = new FileOutputStream(file)) {
+            RecordContainerWriter writer = new RecordContainerWriter(ostream, AbstractSerializer.getInstance(),
+                    compressed, 16, Long.MAX_VALUE);
+            for (int i = 0; i < n; i++) {
+                writer.write("jp" + (i % 3), i);
+            }
+            writer.close();
+        }
+        return file;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+
+import org.junit.jupiter.api.Test;
+
+import patterntesting.runtime.io.AbstractSerializer;
+
+/**
+ * Unit tests for {@link RecordContainerWriter}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class RecordContainerWriterTest {
+
+    /**
+     * With a small batch size several blocks are written. The dictionary
+     * must be valid over all blocks.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testSeveralBlocks() throws IOException {
+        File file = File.createTempFile("blocks", ".rec");
+        try (OutputStream ostream = new FileOutputStream(file)) {
+            RecordContainerWriter writer = new RecordContainerWriter(ostream, AbstractSerializer.getInstance(),
+                    true, 16, Long.MAX_VALUE);
+            for (int i = 0; i < 100; i++) {
+                writer.write("jp" + (i % 3), i);
+            }
+            writer.close();
+        }
+        ObjectPlayer player = new ObjectPlayer(file);
+        for (int i = 0; i < 100; i += 3) {
+            assertEquals(i, player.getReturnValue("jp0"));
+        }
+    }
+
+    /**
+     * The records of an idle writer should be written after the flush
+     * interval, also if no further record is written.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testFlushIdle() throws IOException, InterruptedException {
+        File file = File.createTempFile("idle", ".rec");
+        try (OutputStream ostream = new FileOutputStream(file)) {
+            RecordContainerWriter writer = new RecordContainerWriter(ostream, AbstractSerializer.getInstance(),
+                    false, Integer.MAX_VALUE, 50L);
+            long headerSize = file.length();
+            writer.write("jp", "value");
+            for (int i = 0; (i < 100) && (file.length() == headerSize); i++) {
+                Thread.sleep(20);
+            }
+            assertTrue(file.length() > headerSize, file + " was not flushed");
+            writer.close();
+        }
+    }
+
+    /**
+     * The timer must not keep a writer alive which was not closed.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testUnclosedWriterCollected() throws IOException, InterruptedException {
+        WeakReference<RecordContainerWriter> ref = new WeakReference<>(
+                new RecordContainerWriter(new ByteArrayOutputStream(), AbstractSerializer.getInstance(), false,
+                        Integer.MAX_VALUE, 10L));
+        for (int i = 0; (i < 100) && (ref.get() != null); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(ref.get());
+    }
+
+    /**
+     * After close no more records should be accepted.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testWriteAfterClose() throws IOException {
+        File file = File.createTempFile("closed", ".rec");
+        try (OutputStream ostream = new FileOutputStream(file)) {
+            RecordContainerWriter writer = new RecordContainerWriter(ostream, AbstractSerializer.getInstance(),
+                    false);
+            writer.close();
+            assertThrows(IOException.class, () -> writer.write("jp", "value"));
+        }
+    }
+
+}
@@ -18,6 +18,7 @@
 
 package patterntesting.runtime.log;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,7 @@ import patterntesting.runtime.log.test.City;
 import patterntesting.runtime.log.test.CityRepo;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
@@ -37,6 +39,7 @@ import java.util.SortedSet;
 import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * This is class if for testing the generation of sequence diagrams by the
@@ -254,6 +257,28 @@ public class SequenceDiagramTest {
         assertEquals(stuttgart, city);
     }
 
+    /**
+     * A call with return value which throws an exception must be left like
+     * a normal call. Otherwise the next call would be one level deeper and
+     * not recorded because of the max. depth.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testFailingCall() throws IOException {
+        generateDiagramWithFailingCall();
+        List<String> lines = FileUtils.readLines(new File("target", "test-failing-call.txt"), "UTF-8");
+        long pings = lines.stream().filter(line -> line.contains(" ->  +") && line.contains("ping")).count();
+        assertEquals(2, pings, lines.toString());
+    }
+
+    @DrawSequenceDiagram(value = "target/test-failing-call.txt", maxDepth = 1)
+    private void generateDiagramWithFailingCall() {
+        Player player = new Player(null);
+        assertThrows(NullPointerException.class, () -> player.ping(null));
+        assertEquals("pong", player.ping("ping"));
+    }
+
     // ------------------------------------------------------------------------
 
     /**
@@ -24,8 +24,12 @@ import org.apache.commons.io.FileUtils;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import patterntesting.runtime.annotation.IntegrationTest;
 import patterntesting.runtime.junit.FileTester;
+import patterntesting.runtime.junit.extension.SmokeTestExtension;
 import patterntesting.runtime.mock.JoinPointStaticPartMock;
+import patterntesting.runtime.util.Environment;
 
 import java.io.File;
 import java.io.IOException;
@@ -33,7 +37,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit tests for {@link SequenceGrapher} class.
@@ -41,6 +47,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
  * @author oliver
  * @since 1.3.1 (08.09.2013)
  */
+@ExtendWith(SmokeTestExtension.class)
 public final class SequenceGrapherTest {
 
     private static final Logger LOG = LoggerFactory.getLogger(SequenceGrapherTest.class);
@@ -225,6 +232,198 @@ public final class SequenceGrapherTest {
                 IGNORED_LINES);
     }
 
+    /**
+     * Test method for {@link SequenceGrapher#SequenceGrapher(File, boolean)}.
+     * Several threads record their messages at the same time. Each thread
+     * should get its own actor and the statements should be flushed before
+     * the grapher is closed.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testConcurrent() throws IOException, InterruptedException {
+        File file = new File("target", "seq-concurrent.txt");
+        System.setProperty(Environment.SEQUENCE_DIAGRAM_FLUSH_SIZE, "10");
+        SequenceGrapher grapher;
+        try {
+            grapher = new SequenceGrapher(file, true);
+        } finally {
+            System.clearProperty(Environment.SEQUENCE_DIAGRAM_FLUSH_SIZE);
+        }
+        assertTrue(grapher.isConcurrent());
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    Object target = new Date(j);
+                    grapher.message(null, target, new JoinPointStaticPartMock("getTime"), new Object[0]);
+                    grapher.returnMessage(target, j, new JoinPointStaticPartMock());
+                }
+            }, "lane-" + i);
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(FileUtils.readLines(file, "UTF-8").size() > 2, "nothing flushed");
+        grapher.close();
+        List<String> lines = FileUtils.readLines(file, "UTF-8");
+        int messages = 0;
+        int returns = 0;
+        for (String line : lines) {
+            assertFalse(line.startsWith("null"), line);
+            if (line.contains(" ->  +")) {
+                messages++;
+            } else if (line.contains(" --> -")) {
+                returns++;
+                assertTrue(line.contains("lane_"), line);
+            }
+        }
+        assertEquals(400, messages);
+        assertEquals(400, returns);
+    }
+
+    /**
+     * Test method for {@link SequenceGrapher#setMaxDepth(int)}. Nested calls
+     * below the max. depth should not appear in the diagram.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testMaxDepth() throws IOException {
+        File file = new File("target", "seq-max-depth.txt");
+        SequenceGrapher grapher = new SequenceGrapher(file);
+        grapher.setMaxDepth(1);
+        Object outer = new Date(1L);
+        Object inner = new Date(2L);
+        JoinPointStaticPartMock getTime = new JoinPointStaticPartMock("getTime");
+        grapher.message(this, outer, getTime, new Object[0]);
+        grapher.message(outer, inner, getTime, new Object[0]);
+        grapher.returnMessage(inner, 2L, getTime);
+        grapher.returnMessage(outer, 1L, getTime);
+        grapher.close();
+        List<String> lines = FileUtils.readLines(file, "UTF-8");
+        assertEquals(1, countLines(lines, " ->  +"), lines.toString());
+        assertEquals(1, countLines(lines, " --> -"), lines.toString());
+        assertTrue(lines.get(lines.size() - 1).endsWith(": 1"), lines.toString());
+    }
+
+    /**
+     * Test method for {@link SequenceGrapher#setMaxStatements(int)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testMaxStatements() throws IOException {
+        File file = new File("target", "seq-max-statements.txt");
+        SequenceGrapher grapher = new SequenceGrapher(file);
+        grapher.setMaxStatements(4);
+        JoinPointStaticPartMock getTime = new JoinPointStaticPartMock("getTime");
+        for (long i = 0; i < 5; i++) {
+            Object target = new Date(i);
+            grapher.message(this, target, getTime, new Object[0]);
+            grapher.returnMessage(target, i, getTime);
+        }
+        grapher.close();
+        List<String> lines = FileUtils.readLines(file, "UTF-8");
+        assertEquals(2, countLines(lines, " ->  +"), lines.toString());
+        assertEquals(2, countLines(lines, " --> -"), lines.toString());
+    }
+
+    /**
+     * Test method for {@link SequenceGrapher#setCollapseLoops(boolean)}.
+     * Repeated calls should be drawn only once inside a loop box.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testCollapseLoops() throws IOException {
+        File file = new File("target", "seq-collapse-loops.txt");
+        SequenceGrapher grapher = new SequenceGrapher(file);
+        grapher.setCollapseLoops(true);
+        Object target = new Date(5L);
+        JoinPointStaticPartMock getTime = new JoinPointStaticPartMock("getTime");
+        for (int i = 0; i < 5; i++) {
+            grapher.message(this, target, getTime, new Object[0]);
+            grapher.returnMessage(target, 5L, getTime);
+        }
+        JoinPointStaticPartMock toString = new JoinPointStaticPartMock("toString");
+        grapher.message(this, target, toString, new Object[0]);
+        grapher.returnMessage(target, "five", toString);
+        grapher.close();
+        List<String> lines = FileUtils.readLines(file, "UTF-8");
+        assertEquals(2, countLines(lines, " ->  +"), lines.toString());
+        assertEquals(1, countLines(lines, "loop 5 times"), lines.toString());
+        assertEquals(1, countLines(lines, "end"), lines.toString());
+    }
+
+    private static int countLines(final List<String> lines, final String pattern) {
+        int n = 0;
+        for (String line : lines) {
+            if (line.contains(pattern)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Test method for {@link SequenceGrapher#close()} with a bigger diagram.
+     * Create messages without further activities should be sorted out.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testCloseBigDiagram() throws IOException {
+        File file = new File("target", "seq-big.txt");
+        closeDiagramWith(10_000, file);
+        int creates = 0;
+        for (String line : FileUtils.readLines(file, "UTF-8")) {
+            if (line.contains("<<create>>")) {
+                creates++;
+            }
+        }
+        assertEquals(3000, creates);
+    }
+
+    /**
+     * Benchmark for {@link SequenceGrapher#close()} with a synthetic diagram
+     * of 1,000,000 statements.
+     */
+    @Test
+    @IntegrationTest("benchmark with 1,000,000 statements")
+    public void benchmarkClose() {
+        File file = new File("target", "seq-benchmark.txt");
+        long t0 = System.nanoTime();
+        closeDiagramWith(1_000_000, file);
+        LOG.info("Diagram with 1,000,000 statements recorded and closed in {} ms.",
+                (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    /**
+     * Records a diagram with the given number of statements and closes it.
+     * Every fourth object is only created so its creation is sorted out.
+     */
+    private void closeDiagramWith(final int numberOfStatements, final File file) {
+        SequenceGrapher grapher = new SequenceGrapher(file);
+        JoinPointStaticPartMock getTime = new JoinPointStaticPartMock("getTime");
+        int n = 0;
+        for (long i = 0; n < numberOfStatements; i++) {
+            Object target = new Date(i);
+            grapher.createMessage(this, target, new JoinPointStaticPartMock());
+            n++;
+            if (i % 4 != 0) {
+                grapher.message(this, target, getTime, new Object[0]);
+                grapher.returnMessage(target, i, getTime);
+                n += 2;
+            }
+        }
+        long t0 = System.nanoTime();
+        grapher.close();
+        LOG.info("{} statements closed in {} ms.", n, (System.nanoTime() - t0) / 1_000_000);
+    }
+
     /**
      * Test method for {@link SequenceGrapher#toString()}.
      */
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import org.junit.jupiter.api.Test;
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+import patterntesting.runtime.mock.JoinPointMock;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link TraceSink}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class TraceSinkTest {
+
+    private final JoinPoint joinpoint = new JoinPointMock(this);
+
+    /**
+     * The buffered events should be written by the background thread.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testOffer() throws InterruptedException {
+        StringWriter writer = new StringWriter();
+        try (TraceSink sink = new TraceSink(writer, 16, TraceSink.Overflow.DROP)) {
+            assertEquals(16, sink.getCapacity());
+            assertTrue(sink.offer("> ", joinpoint, 0, null, false, null));
+            assertTrue(sink.offer("< ", joinpoint, 0, "hello", true, null));
+            assertTrue(sink.offer(" *** ", joinpoint, 1, null, false, new IllegalStateException("oops")));
+            assertTrue(sink.flush(5000));
+            assertEquals(3, sink.getWritten());
+        }
+        String[] lines = writer.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("> "), lines[0]);
+        assertTrue(lines[1].contains("hello"), lines[1]);
+        assertTrue(lines[2].contains("oops"), lines[2]);
+    }
+
+    /**
+     * Events which are offered after close should be counted as dropped.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testOfferAfterClose() throws InterruptedException {
+        StringWriter writer = new StringWriter();
+        TraceSink sink = new TraceSink(writer, 16, TraceSink.Overflow.DROP);
+        assertTrue(sink.offer("> ", joinpoint, 0, null, false, null));
+        sink.close();
+        assertFalse(sink.offer("< ", joinpoint, 0, null, false, null));
+        assertEquals(1, sink.getWritten());
+        assertEquals(1, sink.getDropped());
+    }
+
+    /**
+     * If the buffer is full new events should be dropped and counted.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testDrop() throws InterruptedException {
+        BlockingWriter writer = new BlockingWriter();
+        try (TraceSink sink = new TraceSink(writer, 2, TraceSink.Overflow.DROP)) {
+            assertTrue(sink.offer("> ", joinpoint, 0, null, false, null));
+            assertTrue(writer.entered.await(5, TimeUnit.SECONDS));
+            assertTrue(sink.offer("> ", joinpoint, 1, null, false, null));
+            assertTrue(sink.offer("> ", joinpoint, 2, null, false, null));
+            for (int i = 0; i < 5; i++) {
+                assertFalse(sink.offer("> ", joinpoint, 3, null, false, null));
+            }
+            writer.released.countDown();
+            assertTrue(sink.flush(5000));
+            assertEquals(5, sink.getDropped());
+            assertEquals(3, sink.getWritten());
+        }
+    }
+
+    /**
+     * This writer blocks the background thread of the sink till it is
+     * released.
+     */
+    private static final class BlockingWriter extends StringWriter {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void flush() {
+            entered.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            released.countDown();
+            super.close();
+        }
+
+    }
+
+}
@@ -26,6 +26,10 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.*;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 import patterntesting.runtime.annotation.DontTraceMe;
 import patterntesting.runtime.annotation.TraceMe;
 
@@ -54,6 +58,42 @@ public class TraceTest {
         }
     }
 
+    /**
+     * After a traced call the call depth should be the same as before.
+     * Also a thrown exception should not change the depth.
+     */
+    @Test
+    public void testDepth() {
+        int depth = Trace.getDepth();
+        getDate();
+        assertEquals(depth, Trace.getDepth());
+        try {
+            interrupt("testDepth");
+        } catch (InterruptedException expected) {
+            log.trace("expected:", expected);
+        }
+        assertEquals(depth, Trace.getDepth());
+    }
+
+    /**
+     * Also a failing static initializer should not change the depth.
+     */
+    @Test
+    public void testDepthAfterFailedStaticInitializer() {
+        int depth = Trace.getDepth();
+        assertThrows(ExceptionInInitializerError.class, () -> Broken.getValue());
+        assertEquals(depth, Trace.getDepth());
+    }
+
+    /**
+     * The indentation should be cached but also deep levels should work.
+     */
+    @Test
+    public void testIndent() {
+        assertSame(Trace.indent(3), Trace.indent(3));
+        assertEquals(200, Trace.indent(100).length());
+    }
+
     private static Date getDate() {
         return new Date();
     }
@@ -68,5 +108,18 @@ public class TraceTest {
         throw new InterruptedException(msg);
     }
 
-}
+    /**
+     * A class whose static initializer fails.
+     */
+    @TraceMe
+    static final class Broken {
 
+        private static final int VALUE = Integer.parseInt("broken");
+
+        static int getValue() {
+            return VALUE;
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link WeakIdentityMap}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class WeakIdentityMapTest {
+
+    /**
+     * Equal but not identical keys should be different keys.
+     */
+    @Test
+    public void testIdentity() {
+        Map<Object, String> map = new WeakIdentityMap<>();
+        String one = new String("key");
+        String two = new String("key");
+        map.put(one, "one");
+        map.put(two, "two");
+        assertEquals(2, map.size());
+        assertEquals("one", map.get(one));
+        assertEquals("two", map.remove(two));
+        assertFalse(map.containsKey(two));
+        assertTrue(map.containsKey(one));
+        assertEquals(1, map.entrySet().size());
+    }
+
+    /**
+     * Entries of collected keys should be removed and reported.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testExpunge() throws InterruptedException {
+        List<String> expunged = new ArrayList<>();
+        Map<Object, String> map = new WeakIdentityMap<>((type, value) -> expunged.add(type + "=" + value));
+        Object kept = new StringBuilder("kept");
+        map.put(kept, "kept");
+        map.put(new StringBuilder("garbage"), "garbage");
+        for (int i = 0; (i < 100) && (map.size() > 1); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, map.size());
+        assertEquals("kept", map.get(kept));
+        assertEquals(List.of(StringBuilder.class.getName() + "=garbage"), expunged);
+    }
+
+}
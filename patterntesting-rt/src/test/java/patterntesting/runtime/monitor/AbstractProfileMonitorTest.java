@@ -170,6 +170,19 @@ public abstract class AbstractProfileMonitorTest {
         assertEquals(profMon.getLastValue(), 0.1, 0.01);
     }
 
+    /**
+     * Test method for {@link ProfileMonitor#getPercentile(double)}.
+     */
+    @Test
+    public final void testGetPercentile() {
+        profMon.reset();
+        profMon.add(1.0);
+        profMon.add(2.0);
+        profMon.add(100.0);
+        assertEquals(2.0, profMon.getPercentile(50), 0.14);
+        assertEquals(100.0, profMon.getPercentile(99.9), 7.0);
+    }
+
     /**
      * Test to short string.
      */
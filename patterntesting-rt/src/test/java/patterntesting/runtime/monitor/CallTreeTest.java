@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for {@link CallTree}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class CallTreeTest {
+
+    /**
+     * The time of the callee should be subtracted from the self time of the
+     * caller.
+     */
+    @Test
+    public void testSelfTime() {
+        CallTree tree = new CallTree(10, 10);
+        tree.enter("a");
+        tree.enter("b");
+        tree.exit(100_000L, 1L);
+        tree.exit(300_000L, 1L);
+        CallTree.Node a = tree.getRoot().getChild("a");
+        assertEquals(1, a.getHits());
+        assertEquals(0.3, a.getTotal(), 0.000001);
+        assertEquals(0.2, a.getSelf(), 0.000001);
+        CallTree.Node b = a.getChild("b");
+        assertEquals(0.1, b.getTotal(), 0.000001);
+        assertEquals(0.1, b.getSelf(), 0.000001);
+        assertNull(tree.getRoot().getChild("b"));
+    }
+
+    /**
+     * Calls below the max. depth should be counted as self time of the
+     * deepest node.
+     */
+    @Test
+    public void testMaxDepth() {
+        CallTree tree = new CallTree(1, 10);
+        tree.enter("a");
+        tree.enter("b");
+        tree.exit(100_000L, 1L);
+        tree.exit(300_000L, 1L);
+        CallTree.Node a = tree.getRoot().getChild("a");
+        assertEquals(0, a.getChildren().length);
+        assertEquals(0.3, a.getSelf(), 0.000001);
+    }
+
+    /**
+     * Callees above the max. width should be collected as "others".
+     */
+    @Test
+    public void testMaxWidth() {
+        CallTree tree = new CallTree(10, 2);
+        for (int i = 0; i < 5; i++) {
+            tree.enter("m" + i);
+            tree.exit(1000L, 1L);
+        }
+        assertEquals(3, tree.getRoot().getChildren().length);
+        CallTree.Node others = tree.getRoot().getChild(CallTree.OTHERS);
+        assertNotNull(others);
+        assertEquals(3, others.getHits());
+    }
+
+    /**
+     * Test method for {@link CallTree#writeCollapsedStacksTo(java.io.Writer)}.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testWriteCollapsedStacksTo() throws IOException {
+        CallTree tree = new CallTree();
+        tree.enter("a");
+        tree.enter("b");
+        tree.exit(100_000L, 2L);
+        tree.exit(300_000L, 2L);
+        StringWriter writer = new StringWriter();
+        tree.writeCollapsedStacksTo(writer);
+        assertEquals("a 400\na;b 200\n", writer.toString());
+    }
+
+}
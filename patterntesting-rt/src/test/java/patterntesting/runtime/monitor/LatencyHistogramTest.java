@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link LatencyHistogram}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * Each value should be inside the bucket which is calculated for it.
+     */
+    @Test
+    public void testIndexOf() {
+        for (long value = 0; value < 100_000_000L; value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.lowestValueOf(index) <= value, "lower bound of " + value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value, "upper bound of " + value);
+        }
+    }
+
+    /**
+     * Test method for {@link LatencyHistogram#getValueAtPercentile(double)}.
+     * The relative error should be less than 7%.
+     */
+    @Test
+    public void testGetValueAtPercentile() {
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(500_000.0, histogram.getValueAtPercentile(50), 35_000.0);
+        assertEquals(990_000.0, histogram.getValueAtPercentile(99), 70_000.0);
+    }
+
+    /**
+     * An empty histogram should return 0 for all percentiles.
+     */
+    @Test
+    public void testEmptyHistogram() {
+        assertEquals(0L, histogram.getValueAtPercentile(99.9));
+    }
+
+    /**
+     * Test method for {@link LatencyHistogram#reset()}.
+     */
+    @Test
+    public void testReset() {
+        histogram.record(42L);
+        histogram.reset();
+        assertEquals(0L, histogram.getTotalCount());
+    }
+
+}
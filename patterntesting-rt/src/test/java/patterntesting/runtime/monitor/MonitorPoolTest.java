@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for {@link MonitorPool}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class MonitorPoolTest {
+
+    private final MonitorPool pool = new MonitorPool();
+
+    /**
+     * After removing a monitor from the middle the other monitors should be
+     * still found.
+     */
+    @Test
+    public void testRemove() {
+        SimpleProfileMonitor[] monitors = new SimpleProfileMonitor[3];
+        for (int i = 0; i < monitors.length; i++) {
+            monitors[i] = new SimpleProfileMonitor("mon_" + i);
+            pool.add(monitors[i]);
+        }
+        pool.remove(monitors[0]);
+        assertEquals(2, pool.size());
+        pool.remove(monitors[2]);
+        assertSame(monitors[1], pool.selectVictim(EvictionPolicy.LRU));
+        pool.remove(monitors[1]);
+        assertEquals(0, pool.size());
+        assertNull(pool.selectVictim(EvictionPolicy.LRU));
+    }
+
+    /**
+     * With the policy LEAST_TOTAL the monitor with the least total time
+     * should be selected.
+     */
+    @Test
+    public void testSelectVictimLeastTotal() {
+        for (int i = 1; i <= MonitorPool.SAMPLE_SIZE; i++) {
+            SimpleProfileMonitor mon = new SimpleProfileMonitor("mon_" + i);
+            mon.addNanos(i * 1000L);
+            pool.add(mon);
+        }
+        assertEquals("mon_1", pool.selectVictim(EvictionPolicy.LEAST_TOTAL).getLabel());
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Unit tests for {@link ProfileDumpReader}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ProfileDumpReaderTest {
+
+    private final File exportDir = new File("target", "dump-" + UUID.randomUUID());
+
+    /**
+     * The records of different JVMs should be merged. Broken lines (e.g.
+     * from a killed process) should be ignored.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testRead() throws IOException {
+        FileUtils.writeStringToFile(new File(exportDir, "a" + ProfileExporter.SUFFIX),
+                ProfileExporter.HEADER + "\n1\t1@a\tm()\t2\t3000000\t1000000\t2000000\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(exportDir, "b" + ProfileExporter.SUFFIX),
+                "2\t2@b\tm()\t1\t500000\t500000\t500000\n3\t2@b\tm()\t1", StandardCharsets.UTF_8);
+        ProfileDumpReader reader = new ProfileDumpReader().read(exportDir);
+        ProfileMonitor[] monitors = reader.getMonitors();
+        assertEquals(1, monitors.length);
+        assertEquals(3, monitors[0].getHits());
+        assertEquals(3.5, monitors[0].getTotal(), 0.000001);
+        assertEquals(0.5, monitors[0].getMin(), 0.000001);
+        assertEquals(2.0, monitors[0].getMax(), 0.000001);
+        assertEquals(2, reader.getJvms().size());
+    }
+
+    /**
+     * The export files contain no histogram. So the merged CSV should
+     * contain no percentile columns.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testPrintCsvTo() throws IOException {
+        FileUtils.writeStringToFile(new File(exportDir, "c" + ProfileExporter.SUFFIX),
+                "1\t1@c\tm()\t2\t3000000\t1000000\t2000000\n", StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new ProfileDumpReader().read(exportDir).printCsvTo(new PrintStream(bytes, true, "UTF-8"));
+        String[] lines = bytes.toString("UTF-8").split("\\R");
+        assertEquals(2, lines.length);
+        assertFalse(lines[0].contains("P50"), lines[0]);
+        assertEquals(lines[0].split(";").length, lines[1].split(";").length);
+        assertEquals("\"m()\"; ms; 3.0; 1.5; 2; 2.0; 1.0", lines[1]);
+    }
+
+}
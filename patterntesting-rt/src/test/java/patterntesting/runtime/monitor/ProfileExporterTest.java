@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link ProfileExporter}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ProfileExporterTest {
+
+    private static final ProfileStatistic STATISTIC = new ExportStatistic();
+    private final File exportDir = new File("target", "export-" + UUID.randomUUID());
+
+    /**
+     * Resets the statistic so that only the values of the actual test are
+     * exported.
+     */
+    @BeforeEach
+    public void resetStatistic() {
+        STATISTIC.reset();
+    }
+
+    /**
+     * Only the changes since the last export should be exported.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testExport() throws IOException {
+        try (ProfileExporter exporter = new ProfileExporter(STATISTIC, exportDir)) {
+            STATISTIC.startProfileMonitorFor("testExport").stop();
+            assertEquals(1, exporter.export());
+            assertEquals(0, exporter.export());
+            STATISTIC.startProfileMonitorFor("testExport").stop();
+            assertEquals(1, exporter.export());
+        }
+        ProfileDumpReader reader = new ProfileDumpReader().read(exportDir);
+        ProfileMonitor[] monitors = reader.getMonitors();
+        assertEquals(1, monitors.length);
+        assertEquals(2, monitors[0].getHits());
+        assertEquals(1, reader.getJvms().size());
+    }
+
+    /**
+     * After a reset the values of the monitor start again at 0. They must
+     * not be reduced by the values of the last export.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testExportAfterReset() throws IOException {
+        try (ProfileExporter exporter = new ProfileExporter(STATISTIC, exportDir)) {
+            STATISTIC.startProfileMonitorFor("testExportAfterReset").stop();
+            assertEquals(1, exporter.export());
+            STATISTIC.reset();
+            for (int i = 0; i < 3; i++) {
+                STATISTIC.startProfileMonitorFor("testExportAfterReset").stop();
+            }
+            assertEquals(1, exporter.export());
+        }
+        ProfileMonitor[] monitors = new ProfileDumpReader().read(exportDir).getMonitors();
+        assertEquals(1, monitors.length);
+        assertEquals(4, monitors[0].getHits());
+    }
+
+    /**
+     * If the max. file size is reached a new file should be started and
+     * old files should be removed.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testRolling() throws IOException {
+        try (ProfileExporter exporter = new ProfileExporter(STATISTIC, exportDir, 1L, 2)) {
+            for (int i = 0; i < 3; i++) {
+                STATISTIC.startProfileMonitorFor("testRolling").stop();
+                exporter.export();
+            }
+            assertFalse(exporter.getFile(0).exists(), "should be deleted: " + exporter.getFile(0));
+            assertTrue(exporter.getFile(1).exists());
+            assertTrue(exporter.getFile(2).exists());
+        }
+    }
+
+    /**
+     * Files of former processes on the same host (e.g. before a restart)
+     * should be also pruned. Files of other hosts must be kept.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public void testRollingOfFormerProcesses() throws IOException {
+        String host = ManagementFactory.getRuntimeMXBean().getName().replaceAll("^[^@]*@", "");
+        try (ProfileExporter exporter = new ProfileExporter(STATISTIC, exportDir, 1L, 2)) {
+            File[] former = { exporter.getFile("1@" + host, 0), exporter.getFile("1@" + host, 1),
+                    exporter.getFile("2@" + host, 0) };
+            File otherHost = exporter.getFile("1@other-" + host, 0);
+            for (int i = 0; i < former.length; i++) {
+                FileUtils.writeStringToFile(former[i], ProfileExporter.HEADER, "UTF-8");
+                assertTrue(former[i].setLastModified(System.currentTimeMillis() - 60_000L + i));
+            }
+            FileUtils.writeStringToFile(otherHost, ProfileExporter.HEADER, "UTF-8");
+            STATISTIC.startProfileMonitorFor("testRollingOfFormerProcesses").stop();
+            exporter.export();
+            assertFalse(former[0].exists(), "should be deleted: " + former[0]);
+            assertFalse(former[1].exists(), "should be deleted: " + former[1]);
+            assertTrue(former[2].exists(), "should be kept: " + former[2]);
+            assertTrue(otherHost.exists(), "should be kept: " + otherHost);
+            assertTrue(exporter.getFile(0).exists());
+        }
+    }
+
+    /**
+     * A separate statistic to be independent from other tests.
+     */
+    private static final class ExportStatistic extends ProfileStatistic {
+        private ExportStatistic() {
+            super("export");
+        }
+    }
+
+}
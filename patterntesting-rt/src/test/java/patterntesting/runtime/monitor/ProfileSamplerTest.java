@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.Test;
+import patterntesting.runtime.annotation.ProfileMe;
+import patterntesting.runtime.mock.JoinPointStaticPartMock;
+import patterntesting.runtime.util.SignatureHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests for {@link ProfileSampler}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class ProfileSamplerTest {
+
+    /**
+     * Without sampling each call should be profiled with a weight of 1.
+     */
+    @Test
+    public void testSampleAll() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1L, ProfileSampler.ALL.sample());
+        }
+    }
+
+    /**
+     * With a sample rate of 10 about 10% of the calls should be profiled.
+     * The sum of the weights should be roughly the number of calls.
+     */
+    @Test
+    public void testSampleRate() {
+        ProfileSampler sampler = new ProfileSampler(10, 0);
+        long sum = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long weight = sampler.sample();
+            if (weight > 0) {
+                assertEquals(10L, weight);
+                sum += weight;
+            }
+        }
+        assertThat(sum, both(greaterThan(90_000L)).and(lessThan(110_000L)));
+    }
+
+    /**
+     * If the samples per second are limited the rejected calls should be
+     * added to the weight of the next sample.
+     */
+    @Test
+    public void testSamplesPerSecond() {
+        ProfileSampler sampler = new ProfileSampler(1, 1_000_000);
+        assertEquals(1L, sampler.sample());
+        ProfileSampler limited = new ProfileSampler(1, 1);
+        long sum = 0;
+        int n = 0;
+        for (int i = 0; i < 1000; i++) {
+            long weight = limited.sample();
+            if (weight > 0) {
+                sum += weight;
+                n++;
+            }
+        }
+        assertThat(n, lessThan(10));
+        assertThat(sum, greaterThan(0L));
+    }
+
+    /**
+     * Also with several threads not more samples than allowed should be
+     * taken in one second.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testSamplesPerSecondConcurrent() throws InterruptedException {
+        ProfileSampler limited = new ProfileSampler(1, 100);
+        AtomicInteger n = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        long startSecond = System.currentTimeMillis() / 1000L;
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (limited.sample() > 0) {
+                        n.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long seconds = System.currentTimeMillis() / 1000L - startSecond + 1;
+        assertThat(n.get(), both(greaterThan(99)).and(lessThan((int) (100 * seconds + 1))));
+    }
+
+    /**
+     * Test method for {@link ProfileSampler#of(org.aspectj.lang.JoinPoint.StaticPart, int, int)}.
+     * The sample rate of the {@link ProfileMe} annotation should win.
+     *
+     * @throws NoSuchMethodException the no such method exception
+     */
+    @Test
+    public void testOf() throws NoSuchMethodException {
+        JoinPointStaticPartMock jpsp = new JoinPointStaticPartMock(
+                SignatureHelper.getAsSignature(ProfileSamplerTest.class.getMethod("sampled")));
+        ProfileSampler sampler = ProfileSampler.of(jpsp, 5, 0);
+        assertEquals(42, sampler.getSampleRate());
+        JoinPointStaticPartMock hello = new JoinPointStaticPartMock(
+                SignatureHelper.getAsSignature(Dummy.class.getMethod("hello")));
+        assertSame(ProfileSampler.ALL, ProfileSampler.of(hello, 1, 0));
+        assertEquals(5, ProfileSampler.of(hello, 5, 0).getSampleRate());
+    }
+
+    /**
+     * Dummy method for {@link #testOf()}.
+     */
+    @ProfileMe(sampleRate = 42)
+    public static void sampled() {
+    }
+
+}
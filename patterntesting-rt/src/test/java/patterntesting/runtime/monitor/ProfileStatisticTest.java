@@ -31,11 +31,13 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import patterntesting.runtime.jmx.MBeanHelper;
+import patterntesting.runtime.mock.JoinPointStaticPartMock;
 import patterntesting.runtime.util.SignatureHelper;
 import patterntesting.runtime.util.ThreadUtil;
 
 import javax.management.JMException;
 import javax.management.MBeanServer;
+import javax.management.openmbean.TabularData;
 import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
@@ -46,6 +48,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -183,6 +186,15 @@ public class ProfileStatisticTest {
         assertEquals(expected, hits);
     }
 
+    /**
+     * Test method for {@link ProfileStatistic#getPercentiles()}.
+     */
+    @Test
+    public void testGetPercentiles() {
+        TabularData percentiles = profileStatistic.getPercentiles();
+        assertEquals(profileStatistic.getMonitors().length, percentiles.size());
+    }
+
     /**
      * Test log statistic.
      */
@@ -214,6 +226,57 @@ public class ProfileStatisticTest {
         checkDumpfile(dumpfile);
     }
 
+    /**
+     * If the call tree is enabled it should be dumped next to the CSV file.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    @Test
+    public final void testDumpCallTree() throws IOException {
+        synchronized (profileStatistic) {
+            boolean enabled = profileStatistic.isCallTreeEnabled();
+            try {
+                profileStatistic.setCallTreeEnabled(true);
+                assertNotNull(profileStatistic.getProfileCallTree());
+                Dummy.hello();
+                File dumpfile = new File("target", "profcalltree.csv");
+                profileStatistic.dumpStatisticTo(dumpfile);
+                checkDumpfile(ProfileStatistic.getCollapsedFileFor(dumpfile));
+                checkDumpfile(dumpfile);
+            } finally {
+                profileStatistic.setCallTreeEnabled(enabled);
+            }
+        }
+    }
+
+    /**
+     * The call tree should get each call, also if it is not sampled.
+     */
+    @Test
+    public final void testCallTreeWithSampling() {
+        synchronized (profileStatistic) {
+            boolean enabled = profileStatistic.isCallTreeEnabled();
+            int rate = profileStatistic.getSampleRate();
+            try {
+                profileStatistic.setCallTreeEnabled(true);
+                profileStatistic.setSampleRate(Integer.MAX_VALUE);
+                for (int i = 0; i < 10; i++) {
+                    Dummy.hello();
+                }
+                long hits = 0;
+                for (CallTree.Node node : profileStatistic.getProfileCallTree().getRoot().getChildren()) {
+                    if (node.getLabel().contains("Dummy.hello")) {
+                        hits += node.getHits();
+                    }
+                }
+                assertEquals(10, hits);
+            } finally {
+                profileStatistic.setSampleRate(rate);
+                profileStatistic.setCallTreeEnabled(enabled);
+            }
+        }
+    }
+
     private static void checkDumpfile(final File dumpfile) {
         try {
             assertTrue(dumpfile.exists(), dumpfile + " does not exist");
@@ -277,6 +340,59 @@ public class ProfileStatisticTest {
     	assertThat(monitors.length, lessThanOrEqualTo(newSize));
     }
 
+    /**
+     * Test method for {@link ProfileStatistic#setSampleRate(int)}.
+     *
+     * @throws NoSuchMethodException the no such method exception
+     */
+    @Test
+    public void testSetSampleRate() throws NoSuchMethodException {
+        int rate = profileStatistic.getSampleRate();
+        try {
+            profileStatistic.setSampleRate(100);
+            assertEquals(100, profileStatistic.getSampleRate());
+            ProfileSampler sampler = profileStatistic.getProfileSamplerFor(
+                    new JoinPointStaticPartMock(SignatureHelper.getAsSignature(Dummy.class.getMethod("hello"))));
+            assertEquals(100, sampler.getSampleRate());
+        } finally {
+            profileStatistic.setSampleRate(rate);
+        }
+    }
+
+    /**
+     * Test method for {@link ProfileStatistic#snapshotAndReset()}. The
+     * monitors should be kept after the reset.
+     */
+    @Test
+    public void testSnapshotAndReset() {
+        synchronized (profileStatistic) {
+            profileStatistic.init(Dummy.class);
+            Dummy.hello();
+            ProfileMonitor[] snapshots = profileStatistic.snapshotAndReset();
+            assertThat(snapshots.length, greaterThan(0));
+            assertThat(snapshots[0].getHits(), greaterThan(0));
+            for (ProfileMonitor mon : profileStatistic.getMonitors()) {
+                assertEquals(0, mon.getHits(), mon.getLabel());
+            }
+            assertEquals(snapshots.length, profileStatistic.getMonitors().length);
+        }
+    }
+
+    /**
+     * Test method for {@link ProfileStatistic#getStatistics(int)}.
+     */
+    @Test
+    public void testGetStatisticsOfLastMinutes() {
+        synchronized (profileStatistic) {
+            Dummy.hello();
+            profileStatistic.reset();
+            TabularData data = profileStatistic.getStatistics(5);
+            assertEquals(profileStatistic.getMonitors().length, data.size());
+            assertThat(profileStatistic.getWindowMonitors(5)[0].getHits(), greaterThan(0));
+            assertNotNull(profileStatistic.getMaxAvgStatistic(5));
+        }
+    }
+
     /**
      * Test register as shutdown hook.
      */
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 by Oliver Boehm
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express orimplied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * (c)reated 18.10.2026 by oliver (ob@oasd.de)
+ */
+package patterntesting.runtime.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for {@link RollingWindow}.
+ *
+ * @author oliver
+ * @since 2.6.1 (18.10.2026)
+ */
+public final class RollingWindowTest {
+
+    /**
+     * Values older than the requested seconds should not be counted.
+     */
+    @Test
+    public void testAddTo() {
+        long start = System.currentTimeMillis();
+        long now = start + 30_000L;
+        RollingWindow window = new RollingWindow(60, start);
+        window.record(1000L, 1L, start);
+        window.record(2000L, 2L, now - 10_000L);
+        window.record(3000L, 1L, now);
+        SimpleProfileMonitor all = new SimpleProfileMonitor("all");
+        window.addTo(all, 60, now);
+        assertEquals(4, all.getHits());
+        assertEquals(0.001, all.getMin(), 0.000001);
+        assertEquals(0.003, all.getMax(), 0.000001);
+        SimpleProfileMonitor last = new SimpleProfileMonitor("last");
+        window.addTo(last, 20, now);
+        assertEquals(3, last.getHits());
+        assertEquals(0.007, last.getTotal(), 0.000001);
+    }
+
+    /**
+     * Values which are older than the window should be forgotten.
+     */
+    @Test
+    public void testAddToAfterWindow() {
+        long start = System.currentTimeMillis();
+        long now = start + 20_000L;
+        RollingWindow window = new RollingWindow(10, start);
+        window.record(1000L, 1L, start);
+        window.record(2000L, 1L, now);
+        SimpleProfileMonitor mon = new SimpleProfileMonitor("mon");
+        window.addTo(mon, 60, now);
+        assertEquals(1, mon.getHits());
+        assertEquals(10, window.getSeconds());
+    }
+
+}
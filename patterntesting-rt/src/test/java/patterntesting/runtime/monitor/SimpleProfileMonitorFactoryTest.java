@@ -19,9 +19,16 @@
 package patterntesting.runtime.monitor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
+import org.aspectj.lang.JoinPoint;
 import org.junit.jupiter.api.Test;
 
+import patterntesting.runtime.mock.JoinPointStaticPartMock;
+
 /**
  * Unit tests for {@link SimpleProfileMonitorFactory}.
  *
@@ -64,4 +71,69 @@ public final class SimpleProfileMonitorFactoryTest extends ProfileMonitorFactory
 		assertEquals(3, monitors.length);
 	}
 
+	/**
+	 * Test method for
+	 * {@link SimpleProfileMonitorFactory#getMonitor(JoinPoint.StaticPart)}.
+	 * For the same static part always the same monitor should be returned.
+	 */
+	@Test
+	public void testGetMonitorForStaticPart() {
+		JoinPoint.StaticPart jpsp = new JoinPointStaticPartMock("testGetMonitorForStaticPart");
+		ProfileMonitor mon = simpleFactory.getMonitor(jpsp);
+		mon.addNanos(1000000L);
+		assertSame(mon, simpleFactory.getMonitor(jpsp));
+		assertSame(mon, simpleFactory.getRootMonitor().getMonitor(mon.getLabel()));
+		assertEquals(1, mon.getHits());
+	}
+
+	/**
+	 * If the monitor of a static part is evicted the static part should get
+	 * a new monitor which is registered again.
+	 */
+	@Test
+	public void testEvictMonitorForStaticPart() {
+		simpleFactory.setEvictionPolicy(EvictionPolicy.LRU);
+		simpleFactory.setMaxNumMonitors(2);
+		JoinPoint.StaticPart jpsp = new JoinPointStaticPartMock("testEvictMonitorForStaticPart");
+		ProfileMonitor evicted = simpleFactory.getMonitor(jpsp);
+		for (int i = 0; i < 10; i++) {
+			simpleFactory.getMonitor(new JoinPointStaticPartMock("other_" + i));
+		}
+		assertNull(simpleFactory.getRootMonitor().getMonitor(evicted.getLabel()));
+		ProfileMonitor mon = simpleFactory.getMonitor(jpsp);
+		assertNotSame(evicted, mon);
+		assertSame(mon, simpleFactory.getRootMonitor().getMonitor(mon.getLabel()));
+	}
+
+	/**
+	 * With the LFU policy the monitor with the fewest hits should be evicted.
+	 */
+	@Test
+	public void testEvictionPolicyLFU() {
+		simpleFactory.setEvictionPolicy(EvictionPolicy.LFU);
+		simpleFactory.setMaxNumMonitors(4);
+		for (int i = 0; i < 3; i++) {
+			ProfileMonitor mon = simpleFactory.getMonitor("hot_" + i);
+			mon.addNanos(1000L, 10L);
+		}
+		simpleFactory.getMonitor("cold");
+		simpleFactory.getMonitor("new");
+		assertNull(simpleFactory.getRootMonitor().getMonitor("cold"));
+		assertNotNull(simpleFactory.getRootMonitor().getMonitor("hot_0"));
+		assertEquals(1, simpleFactory.getEvictions());
+	}
+
+	/**
+	 * Creating a lot of monitors above the max. size should be fast.
+	 */
+	@Test
+	public void testEvictions() {
+		simpleFactory.setMaxNumMonitors(100);
+		for (int i = 0; i < 20_000; i++) {
+			simpleFactory.getMonitor("mon_" + i);
+		}
+		assertEquals(100, simpleFactory.getMonitors().length);
+		assertEquals(19_900, simpleFactory.getEvictions());
+	}
+
 }
@@ -27,9 +27,13 @@ import patterntesting.runtime.junit.ComparableTester;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.easymock.EasyMock.createMock;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * The Class SimpleProfileMonitorTest.
@@ -162,4 +166,84 @@ public final class SimpleProfileMonitorTest extends AbstractProfileMonitorTest {
 		}
     }
 
+    /**
+     * Test method for {@link SimpleProfileMonitor#addNanos(long)}. If several
+     * threads are adding their values to the same monitor no hit should be
+     * lost - neither in the monitor itself nor in its parent.
+     *
+     * @throws InterruptedException the interrupted exception
+     */
+    @Test
+    public void testAddNanosConcurrently() throws InterruptedException {
+        SimpleProfileMonitor root = new SimpleProfileMonitor("testAddNanosConcurrently");
+        SimpleProfileMonitor child = new SimpleProfileMonitor("child", root);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    child.addNanos(1000L);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(40000, child.getHits());
+        assertEquals(40.0, child.getTotal(), 0.000001);
+        assertEquals(0.001, child.getMin(), 0.000001);
+        assertEquals(0.001, child.getMax(), 0.000001);
+        assertEquals(40000, root.getHits());
+    }
+
+    /**
+     * The root monitor gets no histogram of its own. Its percentiles are
+     * merged from the childs.
+     */
+    @Test
+    public void testGetPercentileOfParent() {
+        SimpleProfileMonitor root = new SimpleProfileMonitor("testGetPercentileOfParent");
+        SimpleProfileMonitor fast = new SimpleProfileMonitor("fast", root);
+        SimpleProfileMonitor slow = new SimpleProfileMonitor("slow", root);
+        for (int i = 0; i < 99; i++) {
+            fast.addNanos(1_000_000L);
+        }
+        slow.addNanos(100_000_000L);
+        assertEquals(100, root.getHits());
+        assertEquals(1.0, root.getPercentile(50), 0.07);
+        assertEquals(100.0, root.getPercentile(100), 7.0);
+        assertEquals(1.0, fast.getPercentile(100), 0.07);
+    }
+
+    /**
+     * Test method for {@link SimpleProfileMonitor#snapshotAndReset()}.
+     */
+    @Test
+    public void testSnapshotAndReset() {
+        SimpleProfileMonitor root = new SimpleProfileMonitor("testSnapshotAndReset");
+        SimpleProfileMonitor child = new SimpleProfileMonitor("child", root);
+        child.addNanos(1000L);
+        child.addNanos(3000L);
+        SimpleProfileMonitor snapshot = child.snapshotAndReset();
+        assertEquals(2, snapshot.getHits());
+        assertEquals(0.003, snapshot.getPercentile(100), 0.0005);
+        assertEquals(0, child.getHits());
+        assertEquals(1, root.getMonitors().length);
+        child.addNanos(2000L);
+        assertEquals(1, child.getHits());
+        assertEquals(2, snapshot.getHits());
+    }
+
+    /**
+     * Test method for {@link SimpleProfileMonitor#getWindow(int)}.
+     */
+    @Test
+    public void testGetWindow() {
+        SimpleProfileMonitor mon = new SimpleProfileMonitor("testGetWindow");
+        mon.addNanos(1000L);
+        mon.addNanos(2000L);
+        mon.snapshotAndReset();
+        SimpleProfileMonitor window = mon.getWindow(60);
+        assertEquals(2, window.getHits());
+        assertEquals(0.003, window.getTotal(), 0.000001);
+    }
+
 }